@@ -0,0 +1,983 @@
+import java.util.*;
+
+/**
+ * Ordered map built as a B+-tree with wide, array-based nodes.
+ * <p>
+ * Every mapping lives in a leaf, which holds up to {@code order} keys and their values in two
+ * parallel arrays, sorted. Inner nodes hold only separator keys and up to {@code order + 1}
+ * children, so with the default order of 64 a million keys sit three levels deep. Compared with
+ * {@link BSTMap}, which spends one object with left, right and parent pointers on every key:
+ * <ul>
+ *     <li>A lookup touches one node per level and binary-searches a contiguous array inside
+ *     it, so it takes O(log n) comparisons but only about log_64 n cache misses.</li>
+ *     <li>The leaves are linked in key order, both ways, so an in-order scan walks arrays
+ *     from one leaf to the next rather than chasing parent pointers through the tree.</li>
+ *     <li>The overhead per mapping is two array slots plus a share of its leaf, instead of a
+ *     whole node.</li>
+ * </ul>
+ * Every node but the root stays at least half full: an insertion into a full node splits it
+ * in two, and a removal that leaves a node under half full borrows a key from a sibling, or
+ * merges with it. A map built from sorted input should go through
+ * {@link #fromSorted(Iterable, Comparator)}, which packs the leaves and builds the levels above
+ * them bottom-up in O(n), without a single split.
+ * <p>
+ * The same ordered navigation as BSTMap is offered: {@link #supremum(Object)},
+ * {@link #infimum(Object)}, {@link #fetchNearest(Object)}, {@link #bound(Object, int)} and
+ * {@link #subMap(Object, Object)}. Since the mappings are not objects of their own, the
+ * entries these and the iterators return are made on demand; setting the value of one writes
+ * through to the map. Null keys are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class BPlusTreeMap<K, V> implements CustomMap<K, V> {
+
+    private static final int DEFAULT_ORDER = 64;
+
+    private final Comparator<K> comparator;
+    private final int order;
+    private Node root;
+    // The first and last leaves, the ends of the leaf chain
+    private Leaf first;
+    private Leaf last;
+    private int size;
+    private KeySet keySet;
+
+    /**
+     * Constructs an empty BPlusTreeMap ordered by the natural ordering of its keys, with nodes
+     * of 64 keys.
+     *
+     * @since 1.0
+     */
+    public BPlusTreeMap() {
+        this(null, DEFAULT_ORDER);
+    }
+
+    /**
+     * Constructs an empty BPlusTreeMap ordered by the given comparator, with nodes of 64 keys.
+     *
+     * @param comparator the comparator to determine the order of the keys, or null for natural
+     *                   ordering
+     * @since 1.0
+     */
+    public BPlusTreeMap(Comparator<K> comparator) {
+        this(comparator, DEFAULT_ORDER);
+    }
+
+    /**
+     * Constructs an empty BPlusTreeMap ordered by the given comparator, with nodes of the given
+     * order.
+     * <p>
+     * The order is the most keys a node holds. Larger nodes make the tree shallower and scans
+     * faster, at the cost of moving more of a node on every insertion and removal.
+     *
+     * @param comparator the comparator to determine the order of the keys, or null for natural
+     *                   ordering
+     * @param order      the most keys a node holds, at least 3
+     * @throws IllegalArgumentException if the order is less than 3
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public BPlusTreeMap(Comparator<K> comparator, int order) {
+        if (order < 3) throw new IllegalArgumentException("Order must be at least 3, BANNED!");
+        this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<K>) obj1).compareTo(obj2));
+        this.order = order;
+        init();
+    }
+
+    public static void main(String[] args) {
+        BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(null, 4);
+        for (int i = 0; i < 20; i++) map.put((i * 7) % 20 * 5, "v" + i);
+        System.out.println(map.size() + " keys, height " + map.height() + ": " + map);
+        System.out.println("supremum(12) = " + map.supremum(12));
+        System.out.println("infimum(12) = " + map.infimum(12));
+        System.out.println("fetchNearest(200) = " + map.fetchNearest(200));
+        for (int i = 0; i < 20; i += 2) map.remove(i * 5);
+        System.out.println("after removing every other key: " + map);
+
+        BSTMap<Integer, String> sorted = new BSTMap<>(null, true);
+        for (int i = 0; i < 1000; i++) sorted.put(i, "s" + i);
+        BPlusTreeMap<Integer, String> loaded = fromSorted(sorted.entrySet(), null, 16);
+        System.out.println("bulk-loaded " + loaded.size() + " keys, height " + loaded.height());
+    }
+
+    /**
+     * Builds a map from entries in strictly ascending key order, with nodes of 64 keys.
+     *
+     * @param sorted     the entries, in strictly ascending key order
+     * @param comparator the comparator the entries are sorted by, or null for natural ordering
+     * @param <K>        the type of keys maintained by the map
+     * @param <V>        the type of mapped values
+     * @return a map holding the entries
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     * @since 1.0
+     */
+    public static <K, V> BPlusTreeMap<K, V> fromSorted(Iterable<? extends CustomMap.Entry<K, V>> sorted,
+                                                       Comparator<K> comparator) {
+        return fromSorted(sorted, comparator, DEFAULT_ORDER);
+    }
+
+    /**
+     * Builds a map from entries in strictly ascending key order, with nodes of the given order.
+     * <p>
+     * The keys are spread evenly over as few leaves as will hold them, and each level of inner
+     * nodes is built the same way over the level below, so the tree is as shallow and as full
+     * as it can be. This takes O(n) time, against O(n log n) for n insertions.
+     *
+     * @param sorted     the entries, in strictly ascending key order
+     * @param comparator the comparator the entries are sorted by, or null for natural ordering
+     * @param order      the most keys a node holds, at least 3
+     * @param <K>        the type of keys maintained by the map
+     * @param <V>        the type of mapped values
+     * @return a map holding the entries
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     * @since 1.0
+     */
+    public static <K, V> BPlusTreeMap<K, V> fromSorted(Iterable<? extends CustomMap.Entry<K, V>> sorted,
+                                                       Comparator<K> comparator, int order) {
+        BPlusTreeMap<K, V> map = new BPlusTreeMap<>(comparator, order);
+        ArrayList<Object> keys = new ArrayList<>();
+        ArrayList<Object> values = new ArrayList<>();
+        K previous = null;
+        for (CustomMap.Entry<K, V> entry : sorted) {
+            K key = Objects.requireNonNull(entry.getKey(), "key is null");
+            if (!keys.isEmpty() && map.compare(previous, key) >= 0)
+                throw new IllegalArgumentException("Keys are not strictly ascending, BANNED!");
+            keys.add(key);
+            values.add(entry.getValue());
+            previous = key;
+        }
+        if (!keys.isEmpty()) map.load(keys, values);
+        return map;
+    }
+
+    /**
+     * Fills this empty map with keys in strictly ascending order and their values.
+     */
+    private void load(ArrayList<Object> keys, ArrayList<Object> values) {
+        // Leaves: ceil(n / order) of them, each given n / leaves keys or one more
+        int n = keys.size();
+        int leafCount = (n + order - 1) / order;
+        ArrayList<Node> level = new ArrayList<>(leafCount);
+        ArrayList<Object> lowKeys = new ArrayList<>(leafCount);
+        Leaf previousLeaf = null;
+        for (int i = 0, from = 0; i < leafCount; i++) {
+            int to = (int) ((long) n * (i + 1) / leafCount);
+            Leaf leaf = new Leaf();
+            for (int j = from; j < to; j++) {
+                leaf.keys[leaf.size] = keys.get(j);
+                leaf.values[leaf.size++] = values.get(j);
+            }
+            leaf.prev = previousLeaf;
+            if (previousLeaf != null) previousLeaf.next = leaf;
+            previousLeaf = leaf;
+            level.add(leaf);
+            lowKeys.add(keys.get(from));
+            from = to;
+        }
+        first = (Leaf) level.get(0);
+        last = previousLeaf;
+
+        // Inner levels: ceil(count / (order + 1)) nodes over the count nodes below, evenly
+        while (level.size() > 1) {
+            int count = level.size();
+            int parentCount = (count + order) / (order + 1);
+            ArrayList<Node> parents = new ArrayList<>(parentCount);
+            ArrayList<Object> parentLowKeys = new ArrayList<>(parentCount);
+            for (int i = 0, from = 0; i < parentCount; i++) {
+                int to = (int) ((long) count * (i + 1) / parentCount);
+                Inner inner = new Inner();
+                inner.children[0] = level.get(from);
+                for (int j = from + 1; j < to; j++) {
+                    inner.keys[inner.size] = lowKeys.get(j);
+                    inner.children[++inner.size] = level.get(j);
+                }
+                parents.add(inner);
+                parentLowKeys.add(lowKeys.get(from));
+                from = to;
+            }
+            level = parents;
+            lowKeys = parentLowKeys;
+        }
+        root = level.get(0);
+        size = n;
+    }
+
+    private int compare(K key1, K key2) {
+        return comparator.compare(key1, key2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(Node node, int index) {
+        return (K) node.keys[index];
+    }
+
+    /**
+     * Returns the index of the first key in the node that is greater than or equal to the given
+     * key, or the node's size if there is none.
+     */
+    private int lowerBound(Node node, K key) {
+        int lo = 0;
+        int hi = node.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keyAt(node, mid), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the index of the first key in the node that is greater than the given key, or
+     * the node's size if there is none. In an inner node, that is the child to descend into.
+     */
+    private int upperBound(Node node, K key) {
+        int lo = 0;
+        int hi = node.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keyAt(node, mid), key) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the leaf in which the key is, or would be.
+     */
+    private Leaf leafFor(K key) {
+        Node node = root;
+        while (node instanceof Inner inner) node = inner.children[upperBound(inner, key)];
+        return (Leaf) node;
+    }
+
+    /**
+     * Returns the number of levels in the tree, 1 for a single leaf.
+     *
+     * @return the height of the tree
+     * @since 1.0
+     */
+    public int height() {
+        int height = 1;
+        for (Node node = root; node instanceof Inner inner; node = inner.children[0]) height++;
+        return height;
+    }
+
+    /**
+     * Checks the structure of the tree: every leaf at the same depth, every node but the root
+     * at least half full, the keys in order and within the separators above them, and the
+     * leaf chain linking every leaf in order both ways.
+     *
+     * @return whether the tree is well-formed
+     */
+    boolean isWellFormed() {
+        ArrayList<Leaf> leaves = new ArrayList<>();
+        if (!isWellFormed(root, null, null, height(), leaves)) return false;
+        if (leaves.get(0) != first || leaves.get(leaves.size() - 1) != last) return false;
+        int count = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            Leaf leaf = leaves.get(i);
+            if (leaf.prev != (i > 0 ? leaves.get(i - 1) : null)) return false;
+            if (leaf.next != (i + 1 < leaves.size() ? leaves.get(i + 1) : null)) return false;
+            count += leaf.size;
+        }
+        return count == size;
+    }
+
+    private boolean isWellFormed(Node node, K lo, K hi, int depth, ArrayList<Leaf> leaves) {
+        if (node != root && node.size < minKeys()) return false;
+        for (int i = 0; i < node.size; i++) {
+            K key = keyAt(node, i);
+            if (i > 0 && compare(keyAt(node, i - 1), key) >= 0) return false;
+            if ((lo != null && compare(key, lo) < 0) || (hi != null && compare(key, hi) >= 0)) return false;
+        }
+        if (node instanceof Leaf leaf) {
+            leaves.add(leaf);
+            return depth == 1;
+        }
+        Inner inner = (Inner) node;
+        for (int i = 0; i <= inner.size; i++) {
+            K childLo = (i == 0) ? lo : keyAt(inner, i - 1);
+            K childHi = (i == inner.size) ? hi : keyAt(inner, i);
+            if (!isWellFormed(inner.children[i], childLo, childHi, depth - 1, leaves)) return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        if (key == null) return false;
+        Leaf leaf = leafFor((K) key);
+        int index = lowerBound(leaf, (K) key);
+        return index < leaf.size && compare(keyAt(leaf, index), (K) key) == 0;
+    }
+
+    public boolean containsValue(Object value) {
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size; i++) {
+                if (Objects.equals(leaf.values[i], value)) return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) return null;
+        Leaf leaf = leafFor((K) key);
+        int index = lowerBound(leaf, (K) key);
+        return (index < leaf.size && compare(keyAt(leaf, index), (K) key) == 0) ? (V) leaf.values[index] : null;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map, splitting every node
+     * on the way down that overflows.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with {@code key}, or {@code null} if there was no
+     * mapping for {@code key}
+     * @since 1.0
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        Put result = new Put();
+        Node sibling = insert(root, key, value, result);
+        if (sibling != null) {
+            // The root split: grow the tree by one level
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.keys[0] = result.separator;
+            newRoot.children[1] = sibling;
+            newRoot.size = 1;
+            root = newRoot;
+        }
+        return result.oldValue;
+    }
+
+    /**
+     * Inserts into the subtree under the node.
+     *
+     * @return the new right sibling of the node if it split, with its separator left in the
+     * result, or null
+     */
+    @SuppressWarnings("unchecked")
+    private Node insert(Node node, K key, V value, Put result) {
+        if (node instanceof Leaf leaf) {
+            int index = lowerBound(leaf, key);
+            if (index < leaf.size && compare(keyAt(leaf, index), key) == 0) {
+                result.oldValue = (V) leaf.values[index];
+                leaf.values[index] = value;
+                return null;
+            }
+            leaf.insertAt(index, key, value);
+            size++;
+            if (leaf.size <= order) return null;
+            Leaf right = leaf.split();
+            result.separator = right.keys[0];
+            return right;
+        }
+        Inner inner = (Inner) node;
+        int index = upperBound(inner, key);
+        Node child = insert(inner.children[index], key, value, result);
+        if (child == null) return null;
+        inner.insertAt(index, result.separator, child);
+        if (inner.size <= order) return null;
+        return inner.split(result);
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it is present, rebalancing the nodes on
+     * the way back up.
+     *
+     * @param key key whose mapping is to be removed from the map
+     * @return the previous value associated with {@code key}, or {@code null} if there was no
+     * mapping for {@code key}
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) return null;
+        Put result = new Put();
+        if (!delete(root, (K) key, result)) return null;
+        if (root instanceof Inner inner && inner.size == 0) {
+            // The root is down to one child: shrink the tree by one level
+            root = inner.children[0];
+        }
+        return result.oldValue;
+    }
+
+    /**
+     * Removes the key from the subtree under the node.
+     *
+     * @return whether the key was found
+     */
+    @SuppressWarnings("unchecked")
+    private boolean delete(Node node, K key, Put result) {
+        if (node instanceof Leaf leaf) {
+            int index = lowerBound(leaf, key);
+            if (index == leaf.size || compare(keyAt(leaf, index), key) != 0) return false;
+            result.oldValue = (V) leaf.values[index];
+            leaf.removeAt(index);
+            size--;
+            return true;
+        }
+        Inner inner = (Inner) node;
+        int index = upperBound(inner, key);
+        if (!delete(inner.children[index], key, result)) return false;
+        if (inner.children[index].size < minKeys()) rebalance(inner, index);
+        return true;
+    }
+
+    /**
+     * Returns the fewest keys a node other than the root may hold: half the order, for leaves
+     * and inner nodes alike. An underfull node and a sibling at this minimum then always fit in
+     * one node, and both halves of a split node always hold at least this many.
+     */
+    private int minKeys() {
+        return order / 2;
+    }
+
+    /**
+     * Refills the child at the given index, which has fallen under half full, by borrowing
+     * from a sibling that can spare a key, or otherwise merging it with a sibling.
+     */
+    private void rebalance(Inner parent, int index) {
+        Node child = parent.children[index];
+        Node left = (index > 0) ? parent.children[index - 1] : null;
+        Node right = (index < parent.size) ? parent.children[index + 1] : null;
+        if (left != null && left.size > minKeys()) {
+            if (child instanceof Leaf leaf) {
+                Leaf from = (Leaf) left;
+                leaf.insertAt(0, from.keys[from.size - 1], from.values[from.size - 1]);
+                from.removeAt(from.size - 1);
+                parent.keys[index - 1] = leaf.keys[0];
+            } else {
+                Inner inner = (Inner) child;
+                Inner from = (Inner) left;
+                // Rotate through the parent: its separator comes down, the sibling's last goes up
+                System.arraycopy(inner.keys, 0, inner.keys, 1, inner.size);
+                System.arraycopy(inner.children, 0, inner.children, 1, inner.size + 1);
+                inner.keys[0] = parent.keys[index - 1];
+                inner.children[0] = from.children[from.size];
+                inner.size++;
+                parent.keys[index - 1] = from.keys[from.size - 1];
+                from.keys[from.size - 1] = null;
+                from.children[from.size] = null;
+                from.size--;
+            }
+        } else if (right != null && right.size > minKeys()) {
+            if (child instanceof Leaf leaf) {
+                Leaf from = (Leaf) right;
+                leaf.insertAt(leaf.size, from.keys[0], from.values[0]);
+                from.removeAt(0);
+                parent.keys[index] = from.keys[0];
+            } else {
+                Inner inner = (Inner) child;
+                Inner from = (Inner) right;
+                inner.keys[inner.size] = parent.keys[index];
+                inner.children[++inner.size] = from.children[0];
+                parent.keys[index] = from.keys[0];
+                System.arraycopy(from.keys, 1, from.keys, 0, from.size - 1);
+                System.arraycopy(from.children, 1, from.children, 0, from.size);
+                from.keys[from.size - 1] = null;
+                from.children[from.size] = null;
+                from.size--;
+            }
+        } else if (left != null) {
+            merge(parent, index - 1);
+        } else {
+            merge(parent, index);
+        }
+    }
+
+    /**
+     * Merges the child at index + 1 into the child at index and drops their separator from the
+     * parent.
+     */
+    private void merge(Inner parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (left instanceof Leaf leaf) {
+            Leaf from = (Leaf) right;
+            System.arraycopy(from.keys, 0, leaf.keys, leaf.size, from.size);
+            System.arraycopy(from.values, 0, leaf.values, leaf.size, from.size);
+            leaf.size += from.size;
+            leaf.next = from.next;
+            if (from.next != null) from.next.prev = leaf;
+            else last = leaf;
+        } else {
+            Inner inner = (Inner) left;
+            Inner from = (Inner) right;
+            inner.keys[inner.size] = parent.keys[index];
+            System.arraycopy(from.keys, 0, inner.keys, inner.size + 1, from.size);
+            System.arraycopy(from.children, 0, inner.children, inner.size + 1, from.size + 1);
+            inner.size += from.size + 1;
+        }
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 1);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - index - 1);
+        parent.keys[parent.size - 1] = null;
+        parent.children[parent.size] = null;
+        parent.size--;
+    }
+
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    public void clear() {
+        init();
+    }
+
+    /**
+     * Resets the map to a single empty leaf.
+     */
+    private void init() {
+        Leaf leaf = new Leaf();
+        root = leaf;
+        first = leaf;
+        last = leaf;
+        size = 0;
+    }
+
+    /**
+     * Returns the entry at the given position, or null if the position is past the end of its
+     * leaf and there is no next leaf.
+     */
+    private Entry entryAt(Leaf leaf, int index) {
+        if (index == leaf.size) {
+            leaf = leaf.next;
+            index = 0;
+        } else if (index < 0) {
+            leaf = leaf.prev;
+            if (leaf != null) index = leaf.size - 1;
+        }
+        return (leaf == null || leaf.size == 0) ? null : new Entry(leaf, index);
+    }
+
+    /**
+     * Returns the supremum entry (the smallest entry greater than or equal to the given key) in the BPlusTreeMap.
+     *
+     * @param key the key for which the supremum entry is to be found
+     * @return the supremum entry for the given key, or null if there is none
+     * @since 1.0
+     */
+    public Entry supremum(K key) {
+        return bound(key, 1);
+    }
+
+    /**
+     * Returns the infimum entry (the largest entry smaller than or equal to the given key) in the BPlusTreeMap.
+     *
+     * @param key the key for which the infimum entry is to be found
+     * @return the infimum entry for the given key, or null if there is none
+     * @since 1.0
+     */
+    public Entry infimum(K key) {
+        return bound(key, -1);
+    }
+
+    /**
+     * Returns the entry nearest to the given key in the BPlusTreeMap: the entry for the key,
+     * otherwise the smallest entry above it, otherwise the largest entry below it.
+     *
+     * @param key the key for which the nearest entry is to be found
+     * @return the nearest entry for the given key, or null if the map is empty
+     * @since 1.0
+     */
+    public Entry fetchNearest(K key) {
+        Entry refEntry = supremum(key);
+        return (refEntry != null) ? refEntry : infimum(key);
+    }
+
+    /**
+     * Returns the bound entry based on the given key and upperLower flag.
+     * <p>
+     * The search ends in the leaf where the key would be. The bound is found there, or, when
+     * the key falls off one end of that leaf, at the near end of the neighbouring leaf.
+     *
+     * @param key        the key for which the bound entry is to be found
+     * @param upperLower a flag indicating whether to find the upper (1) or lower (-1) bound
+     * @return the bound entry for the given key and upperLower flag, or null if there is none
+     * @throws IllegalArgumentException if the upperLower flag is neither 1 nor -1
+     * @since 1.0
+     */
+    public Entry bound(K key, int upperLower) {
+        if (upperLower != 1 && upperLower != -1)
+            throw new IllegalArgumentException("Only 1 and -1 are acceptable inputs.");
+        Leaf leaf = leafFor(key);
+        if (upperLower == 1) return entryAt(leaf, lowerBound(leaf, key));
+        else return entryAt(leaf, upperBound(leaf, key) - 1);
+    }
+
+    /**
+     * Returns an Iterable over the entries with keys in [lo, hi), in key order.
+     * <p>
+     * The iteration starts at {@code supremum(lo)} and walks the leaf chain until it reaches
+     * the first key at or above {@code hi}, so it costs O(log n) plus the number of entries
+     * visited. Removal through the iterator removes the mapping from the map.
+     *
+     * @param lo the lower bound of the range, inclusive
+     * @param hi the upper bound of the range, exclusive
+     * @return an Iterable over the entries in the range
+     * @throws IllegalArgumentException if lo is greater than hi
+     * @since 1.0
+     */
+    public Iterable<Entry> subMap(K lo, K hi) {
+        if (compare(lo, hi) > 0)
+            throw new IllegalArgumentException("Range is backwards, lo > hi.");
+        return () -> {
+            Leaf leaf = leafFor(lo);
+            return new EntryIterator(leaf, lowerBound(leaf, lo), hi);
+        };
+    }
+
+    /**
+     * Returns a Set view of the keys, in key order. Removal through the view or its iterator
+     * removes the mapping from the map.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values in the BPlusTreeMap, in key order, copied leaf by leaf.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        ArrayList<V> refList = new ArrayList<>(size);
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size; i++) refList.add((V) leaf.values[i]);
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries in the BPlusTreeMap, in key order. Setting the value of an
+     * entry writes through to the map.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Entry> entrySet() {
+        ArrayList<Entry> refList = new ArrayList<>(size);
+        new EntryIterator(first, 0, null).forEachRemaining(refList::add);
+        return refList;
+    }
+
+    /**
+     * Returns a Spliterator over the entries, in key order, that walks the leaf chain without
+     * copying it.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Entry> entrySpliterator() {
+        return Spliterators.spliterator(new EntryIterator(first, 0, null), size,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Performs the given action for each entry in key order, straight off the leaf arrays.
+     *
+     * @param action The action to be performed for each entry
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(java.util.function.BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        for (Leaf leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.size; i++) action.accept((K) leaf.keys[i], (V) leaf.values[i]);
+        }
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * What an insertion or removal hands back up the tree.
+     */
+    private final class Put {
+        V oldValue;
+        // The lowest key of a node split off, to be added to its parent
+        Object separator;
+    }
+
+    /**
+     * Node of a BPlusTreeMap: a sorted array of keys, of which {@code size} are in use. The
+     * arrays have room for one key more than the order, so that a node can overflow before it
+     * splits.
+     */
+    private abstract class Node {
+        final Object[] keys = new Object[order + 1];
+        int size;
+    }
+
+    /**
+     * Leaf of a BPlusTreeMap, holding keys and their values, and linked to its neighbours.
+     */
+    private final class Leaf extends Node {
+        final Object[] values = new Object[order + 1];
+        Leaf prev;
+        Leaf next;
+
+        void insertAt(int index, Object key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            keys[index] = key;
+            values[index] = value;
+            size++;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+        }
+
+        /**
+         * Moves the upper half of this leaf into a new leaf linked after it.
+         */
+        Leaf split() {
+            Leaf right = new Leaf();
+            int half = size / 2;
+            right.size = size - half;
+            System.arraycopy(keys, half, right.keys, 0, right.size);
+            System.arraycopy(values, half, right.values, 0, right.size);
+            Arrays.fill(keys, half, size, null);
+            Arrays.fill(values, half, size, null);
+            size = half;
+            right.next = next;
+            right.prev = this;
+            if (next != null) next.prev = right;
+            else last = right;
+            next = right;
+            return right;
+        }
+    }
+
+    /**
+     * Inner node of a BPlusTreeMap. Child i holds the keys from separator i - 1, inclusive, up
+     * to separator i, exclusive.
+     */
+    private final class Inner extends Node {
+        @SuppressWarnings("unchecked")
+        final Node[] children = (Node[]) new BPlusTreeMap<?, ?>.Node[order + 2];
+
+        /**
+         * Adds a separator and the child to its right, after the child at the given index.
+         */
+        void insertAt(int index, Object separator, Node child) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index + 1, children, index + 2, size - index);
+            keys[index] = separator;
+            children[index + 1] = child;
+            size++;
+        }
+
+        /**
+         * Moves the upper half of this node into a new node, handing the middle separator up
+         * through the result.
+         */
+        Inner split(Put result) {
+            Inner right = new Inner();
+            int half = size / 2;
+            result.separator = keys[half];
+            right.size = size - half - 1;
+            System.arraycopy(keys, half + 1, right.keys, 0, right.size);
+            System.arraycopy(children, half + 1, right.children, 0, right.size + 1);
+            Arrays.fill(keys, half, size, null);
+            Arrays.fill(children, half + 1, size + 1, null);
+            size = half;
+            return right;
+        }
+    }
+
+    /**
+     * Entry of a BPlusTreeMap, made on demand from a position in a leaf. Setting its value
+     * writes through to the map.
+     *
+     * @since 1.0
+     */
+    public final class Entry implements CustomMap.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        private Entry(Leaf leaf, int index) {
+            this((K) leaf.keys[index], (V) leaf.values[index]);
+        }
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value of this entry, in the map as well.
+         *
+         * @param value new value to be stored in this entry
+         * @return the old value
+         * @throws IllegalStateException if the mapping has been removed from the map
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            Leaf leaf = leafFor(key);
+            int index = lowerBound(leaf, key);
+            if (index == leaf.size || compare(keyAt(leaf, index), key) != 0)
+                throw new IllegalStateException("This node is null/D.N.E.");
+            V oldValue = (V) leaf.values[index];
+            leaf.values[index] = value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CustomMap.Entry<?, ?> entry)) return false;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + value + ">";
+        }
+    }
+
+    /**
+     * Iterator over the entries of a BPlusTreeMap, from a position in a leaf along the leaf
+     * chain, up to, but excluding, an optional fence key.
+     */
+    private final class EntryIterator implements Iterator<Entry> {
+        private final K fenceKey;
+        private Leaf leaf;
+        private int index;
+        private K lastKey;
+
+        EntryIterator(Leaf leaf, int index, K fenceKey) {
+            this.leaf = leaf;
+            this.index = index;
+            this.fenceKey = fenceKey;
+        }
+
+        public boolean hasNext() {
+            while (leaf != null && index >= leaf.size) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null && (fenceKey == null || compare(keyAt(leaf, index), fenceKey) < 0);
+        }
+
+        public Entry next() {
+            nextKey();
+            return new Entry(leaf, index - 1);
+        }
+
+        /**
+         * Advances like {@link #next()}, but returns only the key, without making an entry.
+         */
+        K nextKey() {
+            if (!hasNext()) throw new NoSuchElementException("This node is null/D.N.E.");
+            lastKey = keyAt(leaf, index++);
+            return lastKey;
+        }
+
+        /**
+         * Removes the last entry returned. The removal may move keys between leaves, so the
+         * iterator finds its place again by searching for the key after the one removed.
+         */
+        public void remove() {
+            if (lastKey == null) throw new IllegalStateException();
+            BPlusTreeMap.this.remove(lastKey);
+            leaf = leafFor(lastKey);
+            index = upperBound(leaf, lastKey);
+            lastKey = null;
+        }
+    }
+
+    /**
+     * Set view of the keys of a BPlusTreeMap.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<K> {
+
+        public Iterator<K> iterator() {
+            EntryIterator entries = new EntryIterator(first, 0, null);
+            return new Iterator<>() {
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                public K next() {
+                    return entries.nextKey();
+                }
+
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        public int size() {
+            return BPlusTreeMap.this.size();
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+
+        public boolean remove(Object obj) {
+            boolean present = containsKey(obj);
+            BPlusTreeMap.this.remove(obj);
+            return present;
+        }
+
+        public void clear() {
+            BPlusTreeMap.this.clear();
+        }
+    }
+}
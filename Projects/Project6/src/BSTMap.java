@@ -1,4 +1,8 @@
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Binary Search Tree (BST) Map implementation.
@@ -28,6 +32,19 @@ import java.util.*;
  * for convenient access to the entries and keys in the map.
  *
  * <p>
+ * A BSTMap can optionally be constructed in balanced mode, in which case it is
+ * maintained as a red-black tree. Insertions and deletions then recolor and
+ * rotate nodes so that no path from the root to a leaf is more than twice as
+ * long as any other, which keeps the height at most {@code 2 log2(n + 1)} even
+ * when keys arrive in sorted order. In the default mode no rebalancing is
+ * done, so sorted input degenerates the tree into a linked list.
+ *
+ * <p>
+ * Every node also records the size of its subtree, which lets the map answer
+ * order-statistic queries ({@link #rank}, {@link #select}, {@link #countRange})
+ * in time proportional to the height of the tree rather than its size.
+ *
+ * <p>
  * The implementation follows the Java Collections Framework conventions for
  * maps and sets, providing a familiar interface for users.
  *
@@ -56,7 +73,12 @@ import java.util.*;
 public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>> {
 
     private final EntrySet entrySet;
-    private final Comparator<K> comparator;
+    private Values values;
+    private final Comparator<K> keyComparator;
+    // The key comparator, or a wrapper counting its calls while statistics are on
+    private Comparator<K> comparator;
+    private MapStats stats;
+    private final boolean balanced;
     private KeySet<K> keySet;
     private Node<K, V> root;
     private int size;
@@ -83,11 +105,31 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      *                   null for natural ordering
      * @since 1.0
      */
-    @SuppressWarnings("unchecked")
     public BSTMap(Comparator<K> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * Constructs a BSTMap with the specified comparator and balancing mode. If the
+     * provided comparator is null, a default comparator based on the natural
+     * ordering of keys is used.
+     * <p>
+     * When {@code balanced} is true the map is kept as a red-black tree, which
+     * guarantees O(log n) height, and therefore O(log n) {@code get}, {@code put},
+     * {@code remove} and navigation, regardless of insertion order.
+     *
+     * @param comparator the comparator to determine the order of the keys, or
+     *                   null for natural ordering
+     * @param balanced   whether the tree is kept balanced as a red-black tree
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public BSTMap(Comparator<K> comparator, boolean balanced) {
         this.entrySet = new EntrySet();
         this.size = 0;
-        this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<K>) obj1).compareTo(obj2));
+        this.balanced = balanced;
+        this.keyComparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<K>) obj1).compareTo(obj2));
+        this.comparator = keyComparator;
     }
 
     /**
@@ -176,6 +218,21 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         wordsReverse.put("five", 5);
         wordsReverse.put("three", 3);
         System.out.println(wordsReverse);
+
+        // sorted insertion stays shallow when the tree is balanced
+        BSTMap<Integer, Integer> sorted = new BSTMap<>(null, true);
+        for (int i = 0; i < 1000; i++) sorted.put(i, i);
+        System.out.println(sorted.maxDepth());
+    }
+
+    /**
+     * Returns whether this BSTMap is kept balanced as a red-black tree.
+     *
+     * @return {@code true} if the tree is balanced, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean isBalanced() {
+        return balanced;
     }
 
     /**
@@ -259,11 +316,11 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      */
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        LinkedList<Node<K, V>> printQueue = levelOrderWalk(root);
         Node<K, V> prevNode = new Node<>(null, null, null);
         int count = 0;
         sb.append(count).append(": { ");
-        for (Node<K, V> node : printQueue) {
+        for (Iterator<Node<K, V>> printQueue = walkIterator(root, 2); printQueue.hasNext(); ) {
+            Node<K, V> node = printQueue.next();
             if (node.calculateDepth() != prevNode.calculateDepth()) {
                 count++;
                 sb.append(" } }\n").append(count).append(": { { ");
@@ -291,28 +348,119 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      */
     public V put(K key, V value) {
         if (value == null) return null;
-        Node<K, V> newNode = new Node<>(key, value, null);
-        if (size() == 0) {
-            this.root = newNode;
-            size++;
-            entrySetES().add(newNode);
-            return null;
-        }
-        Node<K, V> refNode = nodeFetch(key);
-        if (refNode != null) {
+        Node<K, V> refNode = fetchNearest(key);
+        if (refNode != null && comparator.compare(key, refNode.getKey()) == 0) {
             V previousValue = refNode.getValue();
             refNode.setValue(value);
             return previousValue;
         }
-        refNode = fetchNearest(key);
+        attachBelow(refNode, new Node<>(key, value, null));
+        return null;
+    }
+
+    /**
+     * Links a new node into the tree as a child of the given node, which must be the node
+     * {@link #fetchNearest} returned for the new key, and rebalances if needed.
+     *
+     * @param refNode the parent of the new node, or null if the tree is empty
+     * @param newNode the node to be linked in
+     * @throws IllegalStateException if the tree structure is violated during insertion
+     * @since 1.0
+     */
+    private void attachBelow(Node<K, V> refNode, Node<K, V> newNode) {
+        if (refNode == null) {
+            this.root = newNode;
+            newNode.red = false;
+            size++;
+            return;
+        }
         newNode.setParent(refNode);
-        int lastComp = comparator.compare(key, refNode.getKey());
+        int lastComp = comparator.compare(newNode.getKey(), refNode.getKey());
         if (lastComp < 0) refNode.setLeft(newNode);
         else if (lastComp > 0) refNode.setRight(newNode);
         else throw new IllegalStateException("Improper tree, all non-root nodes must be left or right.");
         size++;
-        entrySetES().add(newNode);
-        return null;
+        for (Node<K, V> ancestor = refNode; ancestor != null; ancestor = ancestor.getParent())
+            ancestor.subtreeSize++;
+        if (balanced) fixAfterInsertion(newNode);
+    }
+
+    /**
+     * If the key is not mapped, associates it with the given value. Otherwise, replaces its
+     * value with the result of the remapping function, or removes it if the result is null.
+     * <p>
+     * Unlike the default in {@link CustomMap}, which looks the key up, then puts or removes it,
+     * this descends the tree once: the descent ends either on the node holding the key or on
+     * the node the new key is linked below.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to use if the key is not mapped
+     * @param remappingFunction the function to combine the old and given values, must not
+     *                          modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the value or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        Node<K, V> refNode = fetchNearest(key);
+        if (refNode == null || comparator.compare(key, refNode.getKey()) != 0) {
+            attachBelow(refNode, new Node<>(key, value, null));
+            return value;
+        }
+        V newValue = remappingFunction.apply(refNode.getValue(), value);
+        if (newValue == null) nodeDelete(refNode);
+        else refNode.setValue(newValue);
+        return newValue;
+    }
+
+    /**
+     * Computes a new mapping for the key from its current mapping, or null if there is none,
+     * in a single descent of the tree. A null result removes the mapping.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value, must not modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the remapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Node<K, V> refNode = fetchNearest(key);
+        boolean found = refNode != null && comparator.compare(key, refNode.getKey()) == 0;
+        V newValue = remappingFunction.apply(key, found ? refNode.getValue() : null);
+        if (newValue == null) {
+            if (found) nodeDelete(refNode);
+        } else if (found) {
+            refNode.setValue(newValue);
+        } else {
+            attachBelow(refNode, new Node<>(key, newValue, null));
+        }
+        return newValue;
+    }
+
+    /**
+     * If the key is not mapped, computes its value with the mapping function and enters it
+     * unless it is null, in a single descent of the tree.
+     *
+     * @param key             key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value, must not modify this map
+     * @return the current (existing or computed) value associated with the key, or null if the
+     *         computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        Node<K, V> refNode = fetchNearest(key);
+        if (refNode != null && comparator.compare(key, refNode.getKey()) == 0) return refNode.getValue();
+        V newValue = mappingFunction.apply(key);
+        if (newValue != null) attachBelow(refNode, new Node<>(key, newValue, null));
+        return newValue;
     }
 
     /**
@@ -324,8 +472,10 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      */
     @SuppressWarnings("unchecked")
     public V remove(Object key) {
-        V toReturn = get(key);
-        nodeDelete(nodeFetch((K) key));
+        Node<K, V> refNode = nodeFetch((K) key);
+        if (refNode == null) return null;
+        V toReturn = refNode.getValue();
+        nodeDelete(refNode);
         return toReturn;
     }
 
@@ -338,7 +488,8 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      */
     @SuppressWarnings("unchecked")
     public V get(Object key) {
-        return nodeFetch((K) key).getValue();
+        Node<K, V> refNode = nodeFetch((K) key);
+        return (refNode == null) ? null : refNode.getValue();
     }
 
     /**
@@ -363,6 +514,89 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         return bound(key, -1);
     }
 
+    /**
+     * Returns the rank of the given key, that is the number of keys in the BSTMap strictly
+     * smaller than it. The key itself need not be present.
+     *
+     * @param key the key whose rank is to be found
+     * @return the number of keys smaller than the given key
+     * @since 1.0
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K, V> refNode = root;
+        while (refNode != null) {
+            int comp = comparator.compare(key, refNode.getKey());
+            if (comp <= 0) refNode = refNode.getLeft();
+            else {
+                rank += sizeOf(refNode.getLeft()) + 1;
+                refNode = refNode.getRight();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the node holding the k-th smallest key in the BSTMap, counting from 0, so that
+     * {@code rank(select(k).getKey()) == k}.
+     *
+     * @param k the zero-based position of the node in key order
+     * @return the node at the given position
+     * @throws IndexOutOfBoundsException if k is negative or not smaller than the size of the map
+     * @since 1.0
+     */
+    public Node<K, V> select(int k) {
+        if (k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("There is no " + k + "th node, the map only holds " + size() + ".");
+        Node<K, V> refNode = root;
+        int remaining = k;
+        while (true) {
+            int leftSize = sizeOf(refNode.getLeft());
+            if (remaining < leftSize) refNode = refNode.getLeft();
+            else if (remaining == leftSize) return refNode;
+            else {
+                remaining -= leftSize + 1;
+                refNode = refNode.getRight();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keys in the BSTMap in the range from {@code lo}, inclusive, to
+     * {@code hi}, exclusive.
+     *
+     * @param lo the lower bound of the range, inclusive
+     * @param hi the upper bound of the range, exclusive
+     * @return the number of keys in the range
+     * @throws IllegalArgumentException if lo is greater than hi
+     * @since 1.0
+     */
+    public int countRange(K lo, K hi) {
+        if (comparator.compare(lo, hi) > 0)
+            throw new IllegalArgumentException("Range is backwards, lo > hi.");
+        return rank(hi) - rank(lo);
+    }
+
+    /**
+     * Returns a lazy view of the entries of the BSTMap with keys in the range from {@code lo},
+     * inclusive, to {@code hi}, exclusive, in ascending key order.
+     * <p>
+     * Each iterator of the view starts at {@code supremum(lo)} and steps through the tree until
+     * the first key at or above {@code hi}, so it costs O(log n) plus the number of entries
+     * visited. Removal through the iterator removes the mapping from the map.
+     *
+     * @param lo the lower bound of the range, inclusive
+     * @param hi the upper bound of the range, exclusive
+     * @return an Iterable over the entries in the range
+     * @throws IllegalArgumentException if lo is greater than hi
+     * @since 1.0
+     */
+    public Iterable<Node<K, V>> subMap(K lo, K hi) {
+        if (comparator.compare(lo, hi) > 0)
+            throw new IllegalArgumentException("Range is backwards, lo > hi.");
+        return () -> new RangeIterator(supremum(lo), hi);
+    }
+
     /**
      * Returns the node nearest to the given key in the BSTMap.
      *
@@ -374,9 +608,11 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         Node<K, V> currNode = root;
         if (currNode == null) return null;
         Node<K, V> refNode = null;
+        int depth = 0;
         while (currNode != null) {
             int comparisonResult = comparator.compare(key, currNode.getKey());
             refNode = currNode;
+            depth++;
             if (comparisonResult < 0) {
                 currNode = currNode.getLeft();
             } else if (comparisonResult > 0) {
@@ -385,62 +621,91 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
                 break;
             }
         }
+        if (stats != null) stats.probe(depth);
         return refNode;
     }
 
     /**
      * Returns the bound node based on the given key and upperLower flag.
+     * <p>
+     * The search for the nearest node ends on a node with no child in the direction of the key,
+     * so if the key is above (below) that node its in-order successor (predecessor) is the first
+     * node on the other side of the key.
      *
      * @param key         the key for which the bound node is to be found
      * @param upperLower  a flag indicating whether to find the upper (1) or lower (-1) bound
-     * @return the bound node for the given key and upperLower flag
+     * @return the bound node for the given key and upperLower flag, or null if there is none
      * @throws IllegalArgumentException if the upperLower flag is neither 1 nor -1
      * @since 1.0
      */
     public Node<K, V> bound(K key, int upperLower) {
+        if (upperLower != 1 && upperLower != -1)
+            throw new IllegalArgumentException("Only 1 and -1 are acceptable inputs.");
         Node<K, V> refNode = fetchNearest(key);
+        if (refNode == null) return null;
         int lastComp = comparator.compare(key, refNode.getKey());
-        switch (upperLower) {
-            case 1 -> {
-                if (lastComp < 0) return getPrev(refNode);
-                else return refNode;
-            }
-            case -1 -> {
-                if (lastComp > 0) return getNext(refNode);
-                else return refNode;
-            }
-            default -> throw new IllegalArgumentException("Only 1 and -1 are acceptable inputs.");
+        if (upperLower == 1) {
+            if (lastComp > 0) return getNext(refNode);
+            else return refNode;
+        } else {
+            if (lastComp < 0) return getPrev(refNode);
+            else return refNode;
         }
     }
 
     /**
-     * Returns a list of all values in the BSTMap.
+     * Returns a list of all values in the BSTMap, in key order.
+     * <p>
+     * The list is a snapshot filled by a single in-order walk of the tree. Use
+     * {@link #valuesView()} for a live view that does not copy.
      *
      * @return an ArrayList containing all values in the BSTMap
      * @since 1.0
      */
     public ArrayList<V> values() {
-        ArrayList<V> refList = new ArrayList<>();
-        keySet().forEach(entry -> refList.add(get(entry)));
+        ArrayList<V> refList = new ArrayList<>(size());
+        valuesView().forEach(refList::add);
         return refList;
     }
 
     /**
-     * Returns a list of all entries (nodes) in the BSTMap.
+     * Returns a live collection view of the values in the BSTMap, in key order.
+     * <p>
+     * The view walks the tree through parent pointers and holds no storage of its own, so
+     * changes to the map are reflected in it and removals through its iterator remove the
+     * corresponding mappings.
+     *
+     * @return a live view of the values in the BSTMap
+     * @since 1.0
+     */
+    public Collection<V> valuesView() {
+        if (this.values == null) values = new Values();
+        return values;
+    }
+
+    /**
+     * Returns a list of all entries (nodes) in the BSTMap, in key order.
+     * <p>
+     * The list is a snapshot filled by a single in-order walk of the tree. Use
+     * {@link #entrySetES()} for a live view that does not copy.
      *
      * @return an ArrayList containing all entries (nodes) in the BSTMap
      * @since 1.0
      */
     public ArrayList<Node<K, V>> entrySet() {
-        ArrayList<Node<K, V>> refList = new ArrayList<>();
-        keySet().forEach(entry -> refList.add(nodeFetch(entry)));
+        ArrayList<Node<K, V>> refList = new ArrayList<>(size());
+        entrySetES().forEach(refList::add);
         return refList;
     }
 
     /**
-     * Returns the internal EntrySet object used for maintaining entries in the BSTMap.
+     * Returns a live set view of the entries in the BSTMap, in key order.
+     * <p>
+     * The view is backed by the tree itself: it holds no copy of the nodes, {@code contains}
+     * and {@code remove} are tree searches, and iteration walks the nodes through their parent
+     * pointers.
      *
-     * @return the EntrySet object
+     * @return the EntrySet view
      * @since 1.0
      */
     public EntrySet entrySetES() {
@@ -511,16 +776,14 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
     /**
      * Removes all the mappings from this BSTMap.
      * <p>
-     * Goes in-order to ensure all deleted nodes are leaf nodes when deleted to
-     * ensure the fastest deletions.
+     * The whole tree is dropped at once rather than deleted node by node, since none of the
+     * views hold nodes of their own that would need to be unlinked.
      *
      * @since 1.0
      */
     public void clear() {
-        LinkedList<Node<K, V>> postorder = inorderWalk(root);
-        for (Node<K, V> node : postorder) {
-            nodeDelete(node);
-        }
+        root = null;
+        size = 0;
     }
 
     /**
@@ -595,6 +858,10 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         if (nodeToDelete == null) {
             throw new IllegalArgumentException("Inputted node does not exist.");
         }
+        if (balanced) {
+            redBlackDelete(nodeToDelete);
+            return;
+        }
         Node<K, V> rightNode = nodeToDelete.getRight();
         Node<K, V> leftNode = nodeToDelete.getLeft();
         Node<K, V> parentNode = nodeToDelete.getParent();
@@ -641,18 +908,272 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
             // If nodeToDelete had two children, the replacer node must have its left child set to nodeToDelete's left child.
             secDirection = refDirection;
             refNode.setLeft(leftNode);
+            leftNode.setParent(refNode);
             if (refDirection == -1) {
                 // If replacer was left child its parent must have its left child set as replacers right child.
                 refNode.setRight(rightNode);
+                rightNode.setParent(refNode);
             }
         } else {
             // Simple single or no children solutions.
             secDirection = directionDeterminer(parentNode, refNode);
         }
         directSetter(secDirection, parentNode, newParentChild);
+        updateSubtreeSizes(parentNode);
         size--;
     }
 
+    /**
+     * Deletes the specified node from the tree while keeping it a valid red-black tree.
+     * <p>
+     * The structural part mirrors {@link #nodeDelete}: a node with two children is replaced by
+     * its in-order successor, which takes over the deleted node's color. If the node physically
+     * removed from its position was black, one path is now a black node short, which
+     * {@link #fixAfterDeletion} repairs starting from the node that took its place.
+     *
+     * @param nodeToDelete the node to be deleted from the tree
+     * @since 1.0
+     */
+    private void redBlackDelete(Node<K, V> nodeToDelete) {
+        Node<K, V> replacer;
+        Node<K, V> replacerParent;
+        boolean removedRed = nodeToDelete.red;
+        if (nodeToDelete.getLeft() == null) {
+            replacer = nodeToDelete.getRight();
+            replacerParent = nodeToDelete.getParent();
+            transplant(nodeToDelete, replacer);
+        } else if (nodeToDelete.getRight() == null) {
+            replacer = nodeToDelete.getLeft();
+            replacerParent = nodeToDelete.getParent();
+            transplant(nodeToDelete, replacer);
+        } else {
+            Node<K, V> successor = getRelMinNode(nodeToDelete.getRight());
+            removedRed = successor.red;
+            replacer = successor.getRight();
+            if (successor.getParent() == nodeToDelete) {
+                replacerParent = successor;
+            } else {
+                replacerParent = successor.getParent();
+                transplant(successor, replacer);
+                successor.setRight(nodeToDelete.getRight());
+                successor.getRight().setParent(successor);
+            }
+            transplant(nodeToDelete, successor);
+            successor.setLeft(nodeToDelete.getLeft());
+            successor.getLeft().setParent(successor);
+            successor.red = nodeToDelete.red;
+        }
+        nodeToDelete.setLeft(null);
+        nodeToDelete.setRight(null);
+        nodeToDelete.setParent(null);
+        updateSubtreeSizes(replacerParent);
+        size--;
+        if (!removedRed) fixAfterDeletion(replacer, replacerParent);
+    }
+
+    /**
+     * Puts the replacer node in the position of the specified node, relative to its parent.
+     *
+     * @param refNode  the node whose position is taken over
+     * @param replacer the node taking over the position, may be null
+     * @since 1.0
+     */
+    private void transplant(Node<K, V> refNode, Node<K, V> replacer) {
+        Node<K, V> parentNode = refNode.getParent();
+        directSetter(directionDeterminer(parentNode, refNode), parentNode, replacer);
+        if (replacer != null) replacer.setParent(parentNode);
+    }
+
+    /**
+     * Returns the number of nodes in the subtree rooted at the given node.
+     *
+     * @param node the root of the subtree, may be null
+     * @return the size of the subtree, 0 for null
+     * @since 1.0
+     */
+    static int sizeOf(Node<?, ?> node) {
+        return node == null ? 0 : node.subtreeSize;
+    }
+
+    /**
+     * Recomputes the subtree sizes on the path from the given node up to the root, after the
+     * children below that path were relinked.
+     *
+     * @param node the lowest node whose children changed, may be null
+     * @since 1.0
+     */
+    private void updateSubtreeSizes(Node<K, V> node) {
+        for (Node<K, V> refNode = node; refNode != null; refNode = refNode.getParent())
+            refNode.subtreeSize = 1 + sizeOf(refNode.getLeft()) + sizeOf(refNode.getRight());
+    }
+
+    /**
+     * Returns whether the given node is red. Missing (null) children count as black.
+     *
+     * @param node the node to check
+     * @return {@code true} if the node exists and is red
+     * @since 1.0
+     */
+    private static boolean isRed(Node<?, ?> node) {
+        return node != null && node.red;
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the left, so its right child becomes the
+     * subtree root.
+     *
+     * @param node the root of the subtree to rotate
+     * @since 1.0
+     */
+    private void rotateLeft(Node<K, V> node) {
+        Node<K, V> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        if (pivot.getLeft() != null) pivot.getLeft().setParent(node);
+        transplant(node, pivot);
+        pivot.setLeft(node);
+        node.setParent(pivot);
+        pivot.subtreeSize = node.subtreeSize;
+        node.subtreeSize = 1 + sizeOf(node.getLeft()) + sizeOf(node.getRight());
+    }
+
+    /**
+     * Rotates the subtree rooted at the given node to the right, so its left child becomes the
+     * subtree root.
+     *
+     * @param node the root of the subtree to rotate
+     * @since 1.0
+     */
+    private void rotateRight(Node<K, V> node) {
+        Node<K, V> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        if (pivot.getRight() != null) pivot.getRight().setParent(node);
+        transplant(node, pivot);
+        pivot.setRight(node);
+        node.setParent(pivot);
+        pivot.subtreeSize = node.subtreeSize;
+        node.subtreeSize = 1 + sizeOf(node.getLeft()) + sizeOf(node.getRight());
+    }
+
+    /**
+     * Restores the red-black properties after inserting the given red node.
+     * <p>
+     * While the node's parent is also red, either the red uncle lets the conflict be pushed up
+     * to the grandparent by recoloring, or one or two rotations around the grandparent resolve it.
+     *
+     * @param node the newly inserted node
+     * @since 1.0
+     */
+    private void fixAfterInsertion(Node<K, V> node) {
+        node.red = true;
+        while (isRed(node.getParent())) {
+            Node<K, V> parentNode = node.getParent();
+            Node<K, V> grandparent = parentNode.getParent();
+            if (parentNode == grandparent.getLeft()) {
+                Node<K, V> uncle = grandparent.getRight();
+                if (isRed(uncle)) {
+                    parentNode.red = false;
+                    uncle.red = false;
+                    grandparent.red = true;
+                    node = grandparent;
+                } else {
+                    if (node == parentNode.getRight()) {
+                        node = parentNode;
+                        rotateLeft(node);
+                        parentNode = node.getParent();
+                    }
+                    parentNode.red = false;
+                    grandparent.red = true;
+                    rotateRight(grandparent);
+                }
+            } else {
+                Node<K, V> uncle = grandparent.getLeft();
+                if (isRed(uncle)) {
+                    parentNode.red = false;
+                    uncle.red = false;
+                    grandparent.red = true;
+                    node = grandparent;
+                } else {
+                    if (node == parentNode.getLeft()) {
+                        node = parentNode;
+                        rotateRight(node);
+                        parentNode = node.getParent();
+                    }
+                    parentNode.red = false;
+                    grandparent.red = true;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.red = false;
+    }
+
+    /**
+     * Restores the red-black properties after a black node was removed from above the given
+     * position, which is one black node short.
+     * <p>
+     * The position is tracked by its parent too, since the node taking it over may be null.
+     *
+     * @param node       the node in the deficient position, may be null
+     * @param parentNode the parent of the deficient position
+     * @since 1.0
+     */
+    private void fixAfterDeletion(Node<K, V> node, Node<K, V> parentNode) {
+        while (node != root && !isRed(node)) {
+            if (node == parentNode.getLeft()) {
+                Node<K, V> sibling = parentNode.getRight();
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parentNode.red = true;
+                    rotateLeft(parentNode);
+                    sibling = parentNode.getRight();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                    sibling.red = true;
+                    node = parentNode;
+                    parentNode = node.getParent();
+                } else {
+                    if (!isRed(sibling.getRight())) {
+                        sibling.getLeft().red = false;
+                        sibling.red = true;
+                        rotateRight(sibling);
+                        sibling = parentNode.getRight();
+                    }
+                    sibling.red = parentNode.red;
+                    parentNode.red = false;
+                    sibling.getRight().red = false;
+                    rotateLeft(parentNode);
+                    node = root;
+                }
+            } else {
+                Node<K, V> sibling = parentNode.getLeft();
+                if (isRed(sibling)) {
+                    sibling.red = false;
+                    parentNode.red = true;
+                    rotateRight(parentNode);
+                    sibling = parentNode.getLeft();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                    sibling.red = true;
+                    node = parentNode;
+                    parentNode = node.getParent();
+                } else {
+                    if (!isRed(sibling.getLeft())) {
+                        sibling.getRight().red = false;
+                        sibling.red = true;
+                        rotateLeft(sibling);
+                        sibling = parentNode.getLeft();
+                    }
+                    sibling.red = parentNode.red;
+                    parentNode.red = false;
+                    sibling.getLeft().red = false;
+                    rotateRight(parentNode);
+                    node = root;
+                }
+            }
+        }
+        if (node != null) node.red = false;
+    }
+
     /**
      * Determines the direction of the child node relative to its parent.
      *
@@ -719,16 +1240,19 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      */
     private Node<K, V> nodeFetch(K key) {
         Node<K, V> currNode = root;
+        int depth = 0;
         while (currNode != null) {
             int comparisonResult = comparator.compare(key, currNode.getKey());
+            depth++;
             if (comparisonResult < 0) {
                 currNode = currNode.getLeft();
             } else if (comparisonResult > 0) {
                 currNode = currNode.getRight();
             } else {
-                return currNode;
+                break;
             }
         }
+        if (stats != null) stats.probe(depth);
         return currNode;
     }
 
@@ -746,6 +1270,8 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
 
     /**
      * Searches for a node based on the specified value and search type in the BSTMap.
+     * <p>
+     * The search walks the tree lazily in the given order and stops at the first match.
      *
      * @param value      the value to search for
      * @param searchType the type of search to perform: -1 for inorder, 0 for preorder, 1 for postorder
@@ -754,244 +1280,164 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
      * @since 1.0
      */
     public Node<K, V> valueSearch(Object value, int searchType) {
-        return switch (searchType) {
-            case -1 -> inorderSearch(value);
-            case 0 -> preorderSearch(value);
-            case 1 -> postorderSearch(value);
-            default -> throw new IllegalArgumentException("Unknown search type: " + searchType);
-        };
-    }
-
-    /**
-     * Performs an inorder search for a node with the specified value in the BSTMap.
-     *
-     * @param value the value to search for
-     * @return the node found during the inorder search, or null if the value is not present
-     * @since 1.0
-     */
-    private Node<K, V> inorderSearch(Object value) {
-        return inorderSearch(root, value);
-    }
-
-    /**
-     * Performs an inorder search for a node with the specified value starting from the given node.
-     *
-     * @param node  the starting node for the inorder search
-     * @param value the value to search for
-     * @return the node found during the inorder search, or null if the value is not present
-     * @since 1.0
-     */
-    private Node<K, V> inorderSearch(Node<K, V> node, Object value) {
-        if (node != null) {
-            inorderSearch(node.getLeft(), value);
-            if (node.getValue().equals(value)) return node;
-            inorderSearch(node.getRight(), value);
-        }
-        return null;
-    }
-
-    /**
-     * Performs a preorder search for a node with the specified value in the BSTMap.
-     *
-     * @param value the value to search for
-     * @return the node found during the preorder search, or null if the value is not present
-     * @since 1.0
-     */
-    private Node<K, V> preorderSearch(Object value) {
-        return preorderSearch(root, value);
-    }
-
-    /**
-     * Performs a preorder search for a node with the specified value starting from the given node.
-     *
-     * @param node  the starting node for the preorder search
-     * @param value the value to search for
-     * @return the node found during the preorder search, or null if the value is not present
-     * @since 1.0
-     */
-    private Node<K, V> preorderSearch(Node<K, V> node, Object value) {
-        if (node != null) {
-            if (node.getValue().equals(value)) return node;
-            preorderSearch(node.getLeft(), value);
-            preorderSearch(node.getRight(), value);
+        if (searchType < -1 || searchType > 1)
+            throw new IllegalArgumentException("Unknown search type: " + searchType);
+        for (Iterator<Node<K, V>> iter = walkIterator(root, searchType); iter.hasNext(); ) {
+            Node<K, V> node = iter.next();
+            if (Objects.equals(node.getValue(), value)) return node;
         }
         return null;
     }
 
     /**
-     * Performs a postorder search for a node with the specified value in the BSTMap.
+     * Performs a tree walk of the specified type starting from the root of the BSTMap.
      *
-     * @param value the value to search for
-     * @return the node found during the postorder search, or null if the value is not present
+     * @param walkType the type of tree walk to perform: -1 for inorder, 0 for preorder, 1 for postorder, 2 for level order
+     * @return a linked list containing nodes visited during the tree walk
+     * @throws IllegalArgumentException if the walk type is unknown
      * @since 1.0
      */
-    private Node<K, V> postorderSearch(Object value) {
-        return postorderSearch(root, value);
+    public LinkedList<Node<K, V>> treeWalk(int walkType) {
+        return treeWalk(getRoot(), walkType);
     }
 
     /**
-     * Performs a postorder search for a node with the specified value starting from the given node.
+     * Performs a tree walk of the specified type starting from the given node.
+     * <p>
+     * The result is a copy; use {@link #walkIterator(Node, int)} to walk the tree without
+     * materializing it.
      *
-     * @param node  the starting node for the postorder search
-     * @param value the value to search for
-     * @return the node found during the postorder search, or null if the value is not present
+     * @param node     the starting node for the tree walk
+     * @param walkType the type of tree walk to perform: -1 for inorder, 0 for preorder, 1 for postorder, 2 for level order
+     * @return a linked list containing nodes visited during the tree walk
+     * @throws IllegalArgumentException if the walk type is unknown
      * @since 1.0
      */
-    private Node<K, V> postorderSearch(Node<K, V> node, Object value) {
-        if (node != null) {
-            postorderSearch(node.getLeft(), value);
-            postorderSearch(node.getRight(), value);
-            if (node.getValue().equals(value)) return node;
-        }
-        return null;
+    public LinkedList<Node<K, V>> treeWalk(Node<K, V> node, int walkType) {
+        LinkedList<Node<K, V>> outList = new LinkedList<>();
+        walkIterator(node, walkType).forEachRemaining(outList::addLast);
+        return outList;
     }
 
     /**
-     * Performs a tree walk of the specified type starting from the root of the BSTMap.
+     * Returns a lazy iterator over the nodes of the BSTMap in the specified walk order.
      *
      * @param walkType the type of tree walk to perform: -1 for inorder, 0 for preorder, 1 for postorder, 2 for level order
-     * @return a linked list containing nodes visited during the tree walk
+     * @return an iterator over the nodes in the given walk order
      * @throws IllegalArgumentException if the walk type is unknown
      * @since 1.0
      */
-    public LinkedList<Node<K, V>> treeWalk(int walkType) {
-        return treeWalk(getRoot(), walkType);
+    public Iterator<Node<K, V>> walkIterator(int walkType) {
+        return walkIterator(getRoot(), walkType);
     }
 
     /**
-     * Performs a tree walk of the specified type starting from the given node.
+     * Returns a lazy iterator over the nodes of the subtree rooted at the given node in the
+     * specified walk order.
+     * <p>
+     * The inorder, preorder and postorder walks step from node to node through parent pointers
+     * and allocate nothing beyond the iterator itself, so they use constant memory and no
+     * recursion however deep the tree is. The level order walk keeps a queue of at most one
+     * level of the tree. Modifying the tree during a walk leaves the walk undefined.
      *
-     * @param node     the starting node for the tree walk
+     * @param node     the root of the subtree to walk, may be null for an empty walk
      * @param walkType the type of tree walk to perform: -1 for inorder, 0 for preorder, 1 for postorder, 2 for level order
-     * @return a linked list containing nodes visited during the tree walk
+     * @return an iterator over the nodes in the given walk order
      * @throws IllegalArgumentException if the walk type is unknown
      * @since 1.0
      */
-    public LinkedList<Node<K, V>> treeWalk(Node<K, V> node, int walkType) {
+    public Iterator<Node<K, V>> walkIterator(Node<K, V> node, int walkType) {
         return switch (walkType) {
-            case -1 -> inorderWalk(node);
-            case 0 -> preorderWalk(node);
-            case 1 -> postorderWalk(node);
-            case 2 -> levelOrderWalk(node);
+            case -1 -> new InorderWalk<>(node);
+            case 0 -> new PreorderWalk<>(node);
+            case 1 -> new PostorderWalk<>(node);
+            case 2 -> new LevelOrderWalk<>(node);
             default -> throw new IllegalArgumentException("Unknown search type: " + walkType);
         };
     }
 
     /**
-     * Performs an inorder tree walk starting from the given node.
+     * Returns an iterator over the entries of the BSTMap in ascending key order.
      *
-     * @param node the starting node for the inorder tree walk
-     * @return a linked list containing nodes visited during the inorder tree walk
+     * @return an iterator over the entries
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> inorderWalk(Node<K, V> node) {
-        return inorderWalk(node, null);
+    @Override
+    public Iterator<Node<K, V>> iterator() {
+        return new EntryIterator(getMinNode());
     }
 
     /**
-     * Performs an inorder tree walk starting from the given node and appends to the specified list.
+     * Returns a spliterator over the entries of the BSTMap in ascending key order.
+     * <p>
+     * The spliterator splits on subtrees, first at the root and then at the roots of the
+     * halves, so a balanced tree is divided into nearly equal parts without being copied.
      *
-     * @param node the starting node for the inorder tree walk
-     * @param list the list to which nodes are appended
-     * @return a linked list containing nodes visited during the inorder tree walk
+     * @return a spliterator over the entries
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> inorderWalk(Node<K, V> node, LinkedList<Node<K, V>> list) {
-        LinkedList<Node<K, V>> tempList = (list == null) ? new LinkedList<>() : list;
-        if (node != null) {
-            inorderWalk(node.getLeft(), tempList);
-            tempList.addLast(node);
-            inorderWalk(node.getRight(), tempList);
-        }
-        return tempList;
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        return new TreeSpliterator<>(node -> node, Spliterator.DISTINCT);
     }
 
     /**
-     * Performs a preorder tree walk starting from the given node.
+     * Returns a Spliterator over the entries of the BSTMap, split by subtree.
      *
-     * @param node the starting node for the preorder tree walk
-     * @return a linked list containing nodes visited during the preorder tree walk
+     * @return a spliterator over the entries in ascending key order
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> preorderWalk(Node<K, V> node) {
-        return preorderWalk(node, null);
+    @Override
+    public Spliterator<Node<K, V>> entrySpliterator() {
+        return spliterator();
     }
 
     /**
-     * Performs a preorder tree walk starting from the given node and appends to the specified list.
+     * Returns a sequential stream over the entries of the BSTMap in ascending key order.
      *
-     * @param node the starting node for the preorder tree walk
-     * @param list the list to which nodes are appended
-     * @return a linked list containing nodes visited during the preorder tree walk
+     * @return a stream over the entries
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> preorderWalk(Node<K, V> node, LinkedList<Node<K, V>> list) {
-        LinkedList<Node<K, V>> tempList = (list == null) ? new LinkedList<>() : list;
-        if (node != null) {
-            tempList.addLast(node);
-            preorderWalk(node.getLeft(), tempList);
-            preorderWalk(node.getRight(), tempList);
-        }
-        return tempList;
+    public Stream<Node<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
     /**
-     * Performs a postorder tree walk starting from the given node.
+     * Returns a parallel stream over the entries of the BSTMap, split on subtrees.
      *
-     * @param node the starting node for the postorder tree walk
-     * @return a linked list containing nodes visited during the postorder tree walk
+     * @return a parallel stream over the entries
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> postorderWalk(Node<K, V> node) {
-        return postorderWalk(node, null);
+    public Stream<Node<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
     /**
-     * Performs a postorder tree walk starting from the given node and appends to the specified list.
+     * Turns the collection of statistics on or off. While they are on, every descent records
+     * the number of nodes it visited, and every call to the comparator is counted, including
+     * those made by navigation and range queries. The deepest descent recorded is the height
+     * the tree has been seen to reach, without the level order traversal of {@link #maxDepth()}.
      *
-     * @param node the starting node for the postorder tree walk
-     * @param list the list to which nodes are appended
-     * @return a linked list containing nodes visited during the postorder tree walk
+     * @param enabled whether to collect statistics from now on
+     * @return {@code true}, as this map supports statistics
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> postorderWalk(Node<K, V> node, LinkedList<Node<K, V>> list) {
-        LinkedList<Node<K, V>> tempList = (list == null) ? new LinkedList<>() : list;
-        if (node != null) {
-            postorderWalk(node.getLeft(), tempList);
-            postorderWalk(node.getRight(), tempList);
-            tempList.addLast(node);
-        }
-        return tempList;
-    }
-
-    /**
-     * @return
-     */
     @Override
-    public Iterator<Node<K, V>> iterator() {
-        return new EntryIterator(getMinNode());
+    public boolean recordStats(boolean enabled) {
+        stats = enabled ? new MapStats() : null;
+        comparator = enabled ? stats.counting(keyComparator) : keyComparator;
+        return true;
     }
 
     /**
-     * Performs a level order tree walk starting from the given node.
-     * <p>
-     * Not recursive because I couldn't think of any better way to do this.
+     * Returns a snapshot of the statistics collected since they were turned on.
      *
-     * @param node the starting node for the level order tree walk
-     * @return a linked list containing nodes visited during the level order tree walk
+     * @return the statistics of this BSTMap, or {@code null} if they are off
      * @since 1.0
      */
-    private LinkedList<Node<K, V>> levelOrderWalk(Node<K, V> node) {
-        LinkedList<Node<K, V>> outList = new LinkedList<>();
-        Queue<Node<K, V>> handleQueue = new LinkedList<>();
-        handleQueue.offer(node);
-        while (!handleQueue.isEmpty()) {
-            Node<K, V> refNode = handleQueue.poll();
-            outList.addLast(refNode);
-            if (refNode.getLeft() != null) handleQueue.offer(refNode.getLeft());
-            if (refNode.getRight() != null) handleQueue.offer(refNode.getRight());
-        }
-        return outList;
+    @Override
+    public CustomMap.Stats stats() {
+        return (stats == null) ? null : stats.snapshot();
     }
 
     /**
@@ -1051,6 +1497,16 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         return new BSTMap<K, V>.DescendingKeyIterator(getMaxNode());
     }
 
+    /**
+     * Returns a spliterator over the keys of the BSTMap in ascending order.
+     *
+     * @return a spliterator over the keys
+     * @since 1.0
+     */
+    Spliterator<K> keySpliterator() {
+        return new TreeSpliterator<>(Node::getKey, Spliterator.DISTINCT | Spliterator.SORTED);
+    }
+
     /**
      * Represents a node in the binary search tree used by the BSTMap.
      *
@@ -1065,6 +1521,8 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         private Node<K, V> left;
         private Node<K, V> right;
         private Node<K, V> parent;
+        private boolean red;
+        private int subtreeSize = 1;
 
         /**
          * Constructs a new node with the specified key, value, and parent node.
@@ -1119,6 +1577,15 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
             return (obj instanceof Node<?,?> entry && key.equals(entry.getKey()) && value.equals(entry.getValue()));
         }
 
+        /**
+         * Returns the hash code of this node, consistent with {@link #equals(Object)}.
+         *
+         * @return the hash code of this node
+         */
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
         /**
          * Returns the left child node of this node.
          *
@@ -1242,6 +1709,16 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
             return refMap.descendingKeyIterator();
         }
 
+        /**
+         * Returns a spliterator over the keys in the BSTMap, split on subtrees.
+         *
+         * @return a spliterator over the keys
+         */
+        @Override
+        public Spliterator<T> spliterator() {
+            return refMap.keySpliterator();
+        }
+
         /**
          * Returns the number of keys in the BSTMap.
          *
@@ -1270,6 +1747,18 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
             return refMap.containsKey(obj);
         }
 
+        /**
+         * Removes the specified key, and its mapping, from the BSTMap.
+         *
+         * @param obj the key to be removed
+         * @return {@code true} if the key was present, otherwise {@code false}
+         */
+        public boolean remove(Object obj) {
+            if (!refMap.containsKey(obj)) return false;
+            refMap.remove(obj);
+            return true;
+        }
+
         /**
          * Removes all keys from the BSTMap associated with this KeySet.
          */
@@ -1345,8 +1834,7 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
             if (previousFetch == null)
                 throw new IllegalStateException("Cannot remove node prior to fetch. " +
                         "Also one remove call per fetch.");
-            if (previousFetch.left != null && previousFetch.right != null)
-                currentNext = previousFetch;
+            // Deletion relinks nodes rather than copying keys between them, so currentNext stays valid.
             nodeDelete(previousFetch);
             previousFetch = null;
         }
@@ -1365,6 +1853,30 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         }
     }
 
+    /**
+     * Iterator over the entries of a BSTMap up to, but excluding, a fence key.
+     */
+    final class RangeIterator extends BaseIterator<Node<K, V>> {
+        private final K fenceKey;
+
+        RangeIterator(Node<K, V> first, K fenceKey) {
+            super(first);
+            this.fenceKey = fenceKey;
+            checkFence();
+        }
+
+        private void checkFence() {
+            if (currentNext != null && comparator.compare(currentNext.getKey(), fenceKey) >= 0)
+                currentNext = null;
+        }
+
+        public Node<K, V> next() {
+            Node<K, V> node = nextEntry();
+            checkFence();
+            return node;
+        }
+    }
+
     /**
      * Iterator over the values of a BSTMap.
      */
@@ -1412,37 +1924,272 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
     }
 
     /**
-     * A set view of the entries contained in a BSTMap, implemented as an AbstractSet.
+     * Base class for the lazy tree walks over a subtree. Walks are read-only.
      *
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
      * @since 1.0
      */
-    public class EntrySet extends AbstractSet<Node<K, V>> {
+    abstract static class TreeWalk<K, V> implements Iterator<Node<K, V>> {
+        final Node<K, V> top;
+        Node<K, V> currentNext;
+
+        /**
+         * Constructs a walk over the subtree rooted at the given node.
+         *
+         * @param top the root of the subtree to walk
+         */
+        TreeWalk(Node<K, V> top) {
+            this.top = top;
+        }
+
+        /**
+         * Checks if there is a next node in the walk.
+         *
+         * @return {@code true} if there is a next node, otherwise {@code false}
+         */
+        public final boolean hasNext() {
+            return currentNext != null;
+        }
+
+        /**
+         * Returns the next node in the walk.
+         *
+         * @return the next node in the walk
+         */
+        public final Node<K, V> next() {
+            Node<K, V> tempNode = currentNext;
+            if (tempNode == null)
+                throw new NoSuchElementException("This node is null/D.N.E.");
+            currentNext = advance(tempNode);
+            return tempNode;
+        }
+
+        /**
+         * Returns the node that follows the given one in the walk, or null when the walk ends.
+         *
+         * @param node the node last returned
+         * @return the next node, or null
+         */
+        abstract Node<K, V> advance(Node<K, V> node);
+    }
+
+    /**
+     * Inorder walk: the left subtree, the node, then the right subtree.
+     */
+    static final class InorderWalk<K, V> extends TreeWalk<K, V> {
+        private final Node<K, V> last;
+
+        InorderWalk(Node<K, V> top) {
+            super(top);
+            Node<K, V> first = top, end = top;
+            if (top != null) {
+                while (first.getLeft() != null) first = first.getLeft();
+                while (end.getRight() != null) end = end.getRight();
+            }
+            currentNext = first;
+            last = end;
+        }
+
+        Node<K, V> advance(Node<K, V> node) {
+            return node == last ? null : getNext(node);
+        }
+    }
+
+    /**
+     * Preorder walk: the node, the left subtree, then the right subtree.
+     */
+    static final class PreorderWalk<K, V> extends TreeWalk<K, V> {
+        PreorderWalk(Node<K, V> top) {
+            super(top);
+            currentNext = top;
+        }
 
-        private final ArrayList<Node<K, V>> entryList = new ArrayList<>();
-        private V currentPreviousNodeValue = null;
-        private int size = 0;
+        Node<K, V> advance(Node<K, V> node) {
+            if (node.getLeft() != null) return node.getLeft();
+            if (node.getRight() != null) return node.getRight();
+            // climb until we come up from a left child whose sibling has not been visited
+            Node<K, V> refNode = node;
+            while (refNode != top) {
+                Node<K, V> parentNode = refNode.getParent();
+                if (refNode == parentNode.getLeft() && parentNode.getRight() != null)
+                    return parentNode.getRight();
+                refNode = parentNode;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Postorder walk: the left subtree, the right subtree, then the node.
+     */
+    static final class PostorderWalk<K, V> extends TreeWalk<K, V> {
+        PostorderWalk(Node<K, V> top) {
+            super(top);
+            currentNext = top == null ? null : firstLeaf(top);
+        }
 
         /**
-         * Returns the value of the previous node during the current operation.
+         * Returns the first node in postorder of the subtree rooted at the given node, which is
+         * the leaf reached by going left whenever possible and right otherwise.
+         */
+        private static <K, V> Node<K, V> firstLeaf(Node<K, V> node) {
+            Node<K, V> refNode = node;
+            while (true) {
+                if (refNode.getLeft() != null) refNode = refNode.getLeft();
+                else if (refNode.getRight() != null) refNode = refNode.getRight();
+                else return refNode;
+            }
+        }
+
+        Node<K, V> advance(Node<K, V> node) {
+            if (node == top) return null;
+            Node<K, V> parentNode = node.getParent();
+            if (node == parentNode.getLeft() && parentNode.getRight() != null)
+                return firstLeaf(parentNode.getRight());
+            return parentNode;
+        }
+    }
+
+    /**
+     * Level order walk: the nodes of each depth, left to right, before the next depth.
+     */
+    static final class LevelOrderWalk<K, V> extends TreeWalk<K, V> {
+        private final ArrayDeque<Node<K, V>> handleQueue = new ArrayDeque<>();
+
+        LevelOrderWalk(Node<K, V> top) {
+            super(top);
+            currentNext = top;
+        }
+
+        Node<K, V> advance(Node<K, V> node) {
+            if (node.getLeft() != null) handleQueue.offer(node.getLeft());
+            if (node.getRight() != null) handleQueue.offer(node.getRight());
+            return handleQueue.poll();
+        }
+    }
+
+    /**
+     * Spliterator over the nodes of a BSTMap in key order, mapped to keys, values or the nodes
+     * themselves.
+     * <p>
+     * A spliterator covers the nodes from {@code current} up to, but excluding, {@code fence}
+     * (null meaning the end of the tree). The first split happens at the root. The left part
+     * [current, root) is then the root's left subtree, which next splits at
+     * {@code fence.getLeft()}, and the right part [root, fence) splits at
+     * {@code current.getRight()}; so each split halves a subtree, much like
+     * {@link java.util.TreeMap}'s spliterators.
+     *
+     * @param <T> the type of elements produced
+     * @since 1.0
+     */
+    final class TreeSpliterator<T> implements Spliterator<T> {
+        private final java.util.function.Function<Node<K, V>, ? extends T> extractor;
+        private final int elementCharacteristics;
+        private Node<K, V> current;
+        private final Node<K, V> fence;
+        // 0 for the unsplit spliterator, -1 for a left part and 1 for a right part
+        private int side;
+        private long est;
+
+        /**
+         * Constructs a spliterator over the whole tree.
          *
-         * @return the value of the previous node
+         * @param extractor              maps each node to the element produced
+         * @param elementCharacteristics {@link Spliterator#DISTINCT} and {@link Spliterator#SORTED}
+         *                               as they apply to the produced elements
          */
-        public V getCurrPrevNodeVal() {
-            return currentPreviousNodeValue;
+        TreeSpliterator(java.util.function.Function<Node<K, V>, ? extends T> extractor, int elementCharacteristics) {
+            this(extractor, elementCharacteristics, getMinNode(), null, 0, size);
+        }
+
+        private TreeSpliterator(java.util.function.Function<Node<K, V>, ? extends T> extractor, int elementCharacteristics,
+                                Node<K, V> current, Node<K, V> fence, int side, long est) {
+            this.extractor = extractor;
+            this.elementCharacteristics = elementCharacteristics;
+            this.current = current;
+            this.fence = fence;
+            this.side = side;
+            this.est = est;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Node<K, V> start = current;
+            if (start == null || start == fence) return null;
+            Node<K, V> split = (side == 0) ? root
+                    : (side > 0) ? start.getRight()
+                    : (fence != null) ? fence.getLeft()
+                    : null;
+            if (split == null || split == start || split == fence
+                    || comparator.compare(start.getKey(), split.getKey()) >= 0)
+                return null;
+            side = 1;
+            est >>>= 1;
+            current = split;
+            return new TreeSpliterator<>(extractor, elementCharacteristics, start, split, -1, est);
+        }
+
+        @Override
+        public boolean tryAdvance(java.util.function.Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            Node<K, V> node = current;
+            if (node == null || node == fence) return false;
+            current = getNext(node);
+            action.accept(extractor.apply(node));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(java.util.function.Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            Node<K, V> node = current;
+            current = fence;
+            for (; node != null && node != fence; node = getNext(node))
+                action.accept(extractor.apply(node));
         }
 
-        private void setCurrPrevNodeVal(V val) {
-            currentPreviousNodeValue = val;
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED | elementCharacteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if ((elementCharacteristics & Spliterator.SORTED) == 0) throw new IllegalStateException();
+            @SuppressWarnings("unchecked")
+            Comparator<? super T> elementComparator = (Comparator<? super T>) keyComparator;
+            return elementComparator;
         }
+    }
+
+    /**
+     * A set view of the entries contained in a BSTMap, implemented as an AbstractSet.
+     * <p>
+     * The set is backed directly by the tree, so lookups are O(log n) searches and no nodes are
+     * duplicated into separate storage.
+     *
+     * @since 1.0
+     */
+    public class EntrySet extends AbstractSet<Node<K, V>> {
 
         /**
-         * Checks if the set contains the specified object.
+         * Checks if the set contains the specified object, that is if the map contains an entry
+         * with an equal key and value.
          *
          * @param obj the object to check for presence in the set
          * @return {@code true} if the set contains the object, otherwise {@code false}
          */
+        @SuppressWarnings("unchecked")
         public boolean contains(Object obj) {
-            return entryList.contains(obj);
+            if (!(obj instanceof Node<?, ?> entry)) return false;
+            Node<K, V> refNode = nodeFetch((K) entry.getKey());
+            return refNode != null && refNode.equals(entry);
         }
 
         /**
@@ -1452,47 +2199,43 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
          * @return {@code true} if the set contains an entry with the key, otherwise {@code false}
          */
         public boolean containsKey(K key) {
-            for (Node<K, V> node : entryList) {
-                if (node.getKey().equals(key)) return true;
-            }
-            return false;
+            return nodeFetch(key) != null;
         }
 
         /**
-         * Adds the specified entry to the set.
+         * Removes the specified entry from the set, and its mapping from the map.
          *
-         * @param node the entry to be added
-         * @return {@code true} if the entry was added, {@code false} if it already existed (value is updated)
+         * @param obj the entry to be removed
+         * @return {@code true} if the entry was removed, otherwise {@code false}
          */
         @Override
-        public boolean add(Node<K, V> node) {
-            size++;
-            return entryList.add(node);
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object obj) {
+            if (!contains(obj)) return false;
+            nodeDelete(nodeFetch(((Node<K, V>) obj).getKey()));
+            return true;
         }
 
         /**
-         * Removes the specified entry from the set.
+         * Returns an iterator over the entries in the set, in key order.
          *
-         * @param node the entry to be removed
-         * @return {@code true} if the entry was removed, otherwise {@code false}
+         * @return an iterator over the entries in the set
          */
-        public boolean remove(Node<K, V> node) {
-            boolean removed = super.remove(node);
-            size -= removed ? 1 : 0;
-            return removed;
+        @Override
+        public Iterator<Node<K, V>> iterator() {
+            return new EntryIterator(getMinNode());
         }
 
         /**
-         * Returns an iterator over the entries in the set.
+         * Returns a spliterator over the entries in the set, split on subtrees.
          *
-         * @return an iterator over the entries in the set
+         * @return a spliterator over the entries in the set
          */
         @Override
-        public Iterator<Node<K, V>> iterator() {
-            return new EntryIterator(root);
+        public Spliterator<Node<K, V>> spliterator() {
+            return BSTMap.this.spliterator();
         }
 
-
         /**
          * Returns the size of the set.
          *
@@ -1502,5 +2245,70 @@ public class BSTMap<K, V> implements CustomMap<K,V>, Iterable<BSTMap.Node<K,V>>
         public int size() {
             return size;
         }
+
+        /**
+         * Removes all entries from the BSTMap associated with this EntrySet.
+         */
+        @Override
+        public void clear() {
+            BSTMap.this.clear();
+        }
+    }
+
+    /**
+     * A collection view of the values contained in a BSTMap, in key order.
+     *
+     * @since 1.0
+     */
+    final class Values extends AbstractCollection<V> {
+
+        /**
+         * Returns an iterator over the values, in key order.
+         *
+         * @return an iterator over the values
+         */
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator(getMinNode());
+        }
+
+        /**
+         * Returns a spliterator over the values, split on subtrees.
+         *
+         * @return a spliterator over the values
+         */
+        @Override
+        public Spliterator<V> spliterator() {
+            return new TreeSpliterator<>(Node::getValue, 0);
+        }
+
+        /**
+         * Returns the number of values in the collection.
+         *
+         * @return the number of values
+         */
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Checks if the collection contains the specified value.
+         *
+         * @param obj the value to check for presence
+         * @return {@code true} if the collection contains the value, otherwise {@code false}
+         */
+        @Override
+        public boolean contains(Object obj) {
+            return containsValue(obj);
+        }
+
+        /**
+         * Removes all values, and their mappings, from the BSTMap.
+         */
+        @Override
+        public void clear() {
+            BSTMap.this.clear();
+        }
     }
 }
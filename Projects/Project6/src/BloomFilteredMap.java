@@ -0,0 +1,420 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Map wrapper that answers most lookups of absent keys from a Bloom filter.
+ * <p>
+ * Every key put into the map is also added to a Bloom filter: a bit array in which each key sets
+ * {@code k} bits chosen by its hash. A key whose bits are not all set has never been added, so
+ * {@code get} and {@code containsKey} can return at once, without the full descent or chain walk
+ * the wrapped map would take. A key whose bits are all set is looked up in the wrapped map as
+ * usual; this happens for every present key and for a configured fraction of absent ones, the
+ * false-positive rate. Present keys are therefore never missed.
+ * <p>
+ * The filter is sized from the expected number of keys n and the false-positive rate p as
+ * {@code m = -n ln p / (ln 2)^2} bits and {@code k = (m / n) ln 2} hashes. When more keys than
+ * expected have been added, the filter is rebuilt from the map at twice the size, so the rate
+ * holds however large the map grows.
+ * <p>
+ * A plain filter cannot forget a key: after a removal its bits stay set, and lookups of it only
+ * stop short-circuiting. The counting variant keeps a 4-bit counter per position instead of a
+ * bit, four times the memory, and decrements the counters of a removed key, so the filter stays
+ * as selective as the day it was built. A counter that reaches 15 sticks there, as it can no
+ * longer be decremented safely.
+ * <p>
+ * Keys added to the wrapped map directly, bypassing this wrapper, are not in the filter and may
+ * be reported missing, so the wrapped map must only be changed through the wrapper. Removals
+ * through the views are safe, but are not subtracted from a counting filter. This class is not
+ * thread-safe.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class BloomFilteredMap<K, V> implements CustomMap<K, V> {
+
+    private static final int COUNTER_MAX = 15;
+
+    private final CustomMap<K, V> map;
+    private final double falsePositiveRate;
+    private final boolean counting;
+    private long capacity;
+    private long bitCount;
+    private int hashCount;
+    private long[] words;
+    private long insertions;
+
+    /**
+     * Wraps the given map in a plain Bloom filter sized for 1024 keys at a 1% false-positive
+     * rate, and adds the keys already in the map.
+     *
+     * @param map the map to wrap
+     * @since 1.0
+     */
+    public BloomFilteredMap(CustomMap<K, V> map) {
+        this(map, 1024, .01, false);
+    }
+
+    /**
+     * Wraps the given map in a Bloom filter, and adds the keys already in the map.
+     *
+     * @param map               the map to wrap
+     * @param expectedSize      the number of keys the filter is first sized for
+     * @param falsePositiveRate the fraction of absent keys to be looked up anyway, between 0 and 1
+     * @param counting          whether to keep counters, so that removed keys are forgotten
+     * @throws IllegalArgumentException if the size is not positive or the rate is not in (0, 1)
+     * @since 1.0
+     */
+    public BloomFilteredMap(CustomMap<K, V> map, long expectedSize, double falsePositiveRate, boolean counting) {
+        if (expectedSize < 1) throw new IllegalArgumentException("Expected size must be positive, BANNED!");
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("False positive rate must be in (0, 1), BANNED!");
+        this.map = Objects.requireNonNull(map, "map is null");
+        this.falsePositiveRate = falsePositiveRate;
+        this.counting = counting;
+        rebuild(Math.max(expectedSize, map.size()));
+    }
+
+    public static void main(String[] args) {
+        BloomFilteredMap<String, Integer> words = new BloomFilteredMap<>(new BSTMap<>(), 100, .01, true);
+        for (String word : "the quick brown fox jumps over the lazy dog".split(" ")) {
+            words.merge(word, 1, Integer::sum);
+        }
+        System.out.println(words);
+        System.out.println(words.mightContain("fox") + " " + words.mightContain("cat"));
+        System.out.println(words.bitCount() + " bits, " + words.hashCount() + " hashes, " + words.memoryBytes() + " bytes");
+    }
+
+    /**
+     * Resizes the filter for the given number of keys and adds every key of the map to it.
+     *
+     * @param expectedSize the number of keys to size the filter for
+     */
+    private void rebuild(long expectedSize) {
+        double ln2 = Math.log(2);
+        this.capacity = expectedSize;
+        this.bitCount = Math.max(64, (long) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedSize * ln2));
+        // A counting filter packs sixteen 4-bit counters per word
+        long wordCount = counting ? (bitCount + 15) / 16 : (bitCount + 63) / 64;
+        if (wordCount > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Filter too large, BANNED!");
+        this.words = new long[(int) wordCount];
+        this.insertions = 0;
+        for (K key : map.keySet()) add(key);
+    }
+
+    /**
+     * Mixes a 64-bit value (the finalizer of MurmurHash3), so every bit of the input affects
+     * every bit of the output.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Computes the positions of a key: the i-th of the k positions is {@code h1 + i * h2}, which
+     * does as well as k independent hashes (Kirsch and Mitzenmacher).
+     *
+     * @param key the key to place
+     * @return the k positions of the key
+     */
+    private long[] positions(Object key) {
+        long h1 = mix(Objects.hashCode(key));
+        long h2 = mix(h1) | 1;
+        long[] positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+        }
+        return positions;
+    }
+
+    private int counter(long position) {
+        return (int) (words[(int) (position >>> 4)] >>> ((position & 15) << 2)) & COUNTER_MAX;
+    }
+
+    private void addToCounter(long position, long delta) {
+        words[(int) (position >>> 4)] += delta << ((position & 15) << 2);
+    }
+
+    /**
+     * Adds a key to the filter, rebuilding it at twice the size once it holds more keys than it
+     * was sized for.
+     */
+    private void add(Object key) {
+        if (insertions >= capacity) {
+            rebuild(2 * capacity);
+            return;
+        }
+        for (long position : positions(key)) {
+            if (!counting) words[(int) (position >>> 6)] |= 1L << position;
+            else if (counter(position) < COUNTER_MAX) addToCounter(position, 1);
+        }
+        insertions++;
+    }
+
+    /**
+     * Subtracts a removed key from a counting filter. Saturated counters are left alone.
+     */
+    private void subtract(Object key) {
+        if (!counting) return;
+        for (long position : positions(key)) {
+            int count = counter(position);
+            if (count > 0 && count < COUNTER_MAX) addToCounter(position, -1);
+        }
+        insertions--;
+    }
+
+    /**
+     * Brings the filter up to date after an update that may have added or removed the key, by
+     * how the size of the map changed.
+     */
+    private void afterUpdate(Object key, int sizeBefore) {
+        int sizeAfter = map.size();
+        if (sizeAfter > sizeBefore) add(key);
+        else if (sizeAfter < sizeBefore) subtract(key);
+    }
+
+    /**
+     * Tests the filter for a key.
+     *
+     * @param key the key to test
+     * @return {@code false} if the key is certainly absent from the map, {@code true} if it may
+     * be present
+     * @since 1.0
+     */
+    public boolean mightContain(Object key) {
+        for (long position : positions(key)) {
+            if (counting ? counter(position) == 0 : (words[(int) (position >>> 6)] & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the false-positive rate the filter was configured with.
+     *
+     * @return the configured false-positive rate
+     * @since 1.0
+     */
+    public double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * Estimates the current false-positive rate from the number of keys added,
+     * {@code (1 - e^(-kn/m))^k}. It stays below the configured rate until the filter is full.
+     *
+     * @return the estimated false-positive rate
+     * @since 1.0
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitCount), hashCount);
+    }
+
+    /**
+     * Returns the number of positions in the filter, m.
+     *
+     * @return the number of bits, or of counters for a counting filter
+     * @since 1.0
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Returns the number of positions each key sets, k.
+     *
+     * @return the number of hashes per key
+     * @since 1.0
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Returns the memory taken by the filter itself, not counting the wrapped map.
+     *
+     * @return the size of the filter in bytes
+     * @since 1.0
+     */
+    public long memoryBytes() {
+        return 8L * words.length;
+    }
+
+    /**
+     * Returns whether the filter keeps counters and forgets removed keys.
+     *
+     * @return {@code true} for a counting filter
+     * @since 1.0
+     */
+    public boolean isCounting() {
+        return counting;
+    }
+
+    /**
+     * Returns the wrapped map.
+     *
+     * @return the wrapped map
+     * @since 1.0
+     */
+    public CustomMap<K, V> getMap() {
+        return map;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public boolean containsKey(Object key) {
+        return mightContain(key) && map.containsKey(key);
+    }
+
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    public V get(Object key) {
+        return mightContain(key) ? map.get(key) : null;
+    }
+
+    public V put(K key, V value) {
+        int sizeBefore = map.size();
+        V oldValue = map.put(key, value);
+        afterUpdate(key, sizeBefore);
+        return oldValue;
+    }
+
+    public V remove(Object key) {
+        if (!mightContain(key)) return null;
+        int sizeBefore = map.size();
+        V oldValue = map.remove(key);
+        afterUpdate(key, sizeBefore);
+        return oldValue;
+    }
+
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    public void clear() {
+        map.clear();
+        Arrays.fill(words, 0);
+        insertions = 0;
+    }
+
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    public ArrayList<V> values() {
+        return map.values();
+    }
+
+    public ArrayList<? extends CustomMap.Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public Spliterator<? extends CustomMap.Entry<K, V>> entrySpliterator() {
+        return map.entrySpliterator();
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return mightContain(key) ? map.getOrDefault(key, defaultValue) : defaultValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        map.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        map.replaceAll(function);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        int sizeBefore = map.size();
+        V oldValue = map.putIfAbsent(key, value);
+        afterUpdate(key, sizeBefore);
+        return oldValue;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!mightContain(key)) return false;
+        int sizeBefore = map.size();
+        boolean removed = map.remove(key, value);
+        afterUpdate(key, sizeBefore);
+        return removed;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return mightContain(key) && map.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return mightContain(key) ? map.replace(key, value) : null;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int sizeBefore = map.size();
+        V value = map.computeIfAbsent(key, mappingFunction);
+        afterUpdate(key, sizeBefore);
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (!mightContain(key)) return null;
+        int sizeBefore = map.size();
+        V value = map.computeIfPresent(key, remappingFunction);
+        afterUpdate(key, sizeBefore);
+        return value;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int sizeBefore = map.size();
+        V value = map.compute(key, remappingFunction);
+        afterUpdate(key, sizeBefore);
+        return value;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int sizeBefore = map.size();
+        V newValue = map.merge(key, value, remappingFunction);
+        afterUpdate(key, sizeBefore);
+        return newValue;
+    }
+
+    /**
+     * Returns a string representation of the wrapped map.
+     *
+     * @return a string representation of the wrapped map
+     * @since 1.0
+     */
+    public String toString() {
+        return map.toString();
+    }
+}
@@ -0,0 +1,708 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded cache with LRU, LFU or W-TinyLFU eviction, all in O(1) per operation.
+ * <p>
+ * The entries are indexed by a {@link HashMap} and threaded onto doubly-linked lists of their
+ * own, in the style of the node chains of the HashMap buckets (whose links are taken by the
+ * chaining itself). Once the cache holds {@code capacity} entries, every new entry evicts one,
+ * chosen by the policy:
+ * <ul>
+ *     <li>{@link Policy#LRU}: the least recently used entry. Every access moves its entry to
+ *     the front of a single list, and the back of the list is evicted.</li>
+ *     <li>{@link Policy#LFU}: the least frequently used entry, the least recently used among
+ *     ties. The entries are kept in one list per use count, and the lists in a list of their
+ *     own in count order, so an access moves its entry one list up in O(1).</li>
+ *     <li>{@link Policy#W_TINY_LFU}: a small LRU window (1% of the capacity) in front of a
+ *     segmented LRU main area, with an approximate count of recent uses of every key, cached
+ *     or not. An entry leaving the window only gets into the main area if its key has been used
+ *     more often than the entry it would evict there. This keeps the hit rate of LFU on skewed
+ *     workloads while, unlike LFU, forgetting old popularity and surviving scans.</li>
+ * </ul>
+ * Only {@code get} counts as an access: it updates the policy and the hit and miss counters.
+ * {@code containsKey} and the views look without touching. The eviction listener is called with
+ * every evicted entry, but not with entries removed or replaced explicitly.
+ * <p>
+ * Usage example, memoizing an expensive computation:
+ *
+ * <pre>
+ * {@code
+ * BoundedCache<Vertex, HashMap<Vertex, Double>> distances = new BoundedCache<>(64, BoundedCache.Policy.LRU);
+ * HashMap<Vertex, Double> fromSource = distances.computeIfAbsent(source, graph::distanceFrom);
+ * }
+ * </pre>
+ * <p>
+ * Null keys are not permitted. This class is not thread-safe.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class BoundedCache<K, V> implements CustomMap<K, V> {
+
+    /**
+     * The eviction policies of a BoundedCache.
+     *
+     * @since 1.0
+     */
+    public enum Policy {
+        /**
+         * Evicts the least recently used entry.
+         */
+        LRU,
+        /**
+         * Evicts the least frequently used entry.
+         */
+        LFU,
+        /**
+         * Admits entries to the main area by recent use frequency (Einziger, Friedman and Manes).
+         */
+        W_TINY_LFU
+    }
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    private final int capacity;
+    private final Policy policy;
+    private final BiConsumer<? super K, ? super V> evictionListener;
+    private final HashMap<K, Node<K, V>> index = new HashMap<>();
+    private KeySet keySet;
+
+    // LRU, and the window of W-TinyLFU
+    private final NodeList<K, V> recency = new NodeList<>();
+    // LFU: the use count lists, lowest count first
+    private final FrequencyList<K, V> frequencies;
+    // W-TinyLFU: the main area and the use count sketch
+    private final NodeList<K, V> probation = new NodeList<>();
+    private final NodeList<K, V> protectedList = new NodeList<>();
+    private final FrequencySketch sketch;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructs an empty cache without an eviction listener.
+     *
+     * @param capacity the number of entries the cache holds at most
+     * @param policy   the eviction policy
+     * @since 1.0
+     */
+    public BoundedCache(int capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param capacity         the number of entries the cache holds at most
+     * @param policy           the eviction policy
+     * @param evictionListener called with every evicted entry, or null
+     * @throws IllegalArgumentException if the capacity is not positive
+     * @since 1.0
+     */
+    public BoundedCache(int capacity, Policy policy, BiConsumer<? super K, ? super V> evictionListener) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive, BANNED!");
+        this.capacity = capacity;
+        this.policy = Objects.requireNonNull(policy, "policy is null");
+        this.evictionListener = evictionListener;
+        this.frequencies = (policy == Policy.LFU) ? new FrequencyList<>() : null;
+        this.sketch = (policy == Policy.W_TINY_LFU) ? new FrequencySketch(capacity) : null;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.protectedCapacity = (int) ((capacity - windowCapacity) * .8);
+    }
+
+    public static void main(String[] args) {
+        BoundedCache<Integer, Long> squares = new BoundedCache<>(3, Policy.LRU,
+                (key, value) -> System.out.println("evicted " + key));
+        for (int i : new int[]{1, 2, 3, 1, 4, 1, 5}) {
+            squares.computeIfAbsent(i, k -> (long) k * k);
+        }
+        System.out.println(squares);
+        System.out.println(squares.hitCount() + " hits, " + squares.missCount() + " misses, " + squares.evictionCount() + " evictions");
+    }
+
+    /**
+     * A cache entry, linked into the list of its policy.
+     *
+     * @param <K> the type of the key
+     * @param <V> the type of the value
+     */
+    static final class Node<K, V> implements CustomMap.Entry<K, V> {
+        final K key;
+        V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+        // LFU: the use count list holding the node
+        Frequency<K, V> frequency;
+        // W-TinyLFU: the segment holding the node
+        byte segment;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + value + ">";
+        }
+    }
+
+    /**
+     * Circular doubly-linked list of nodes around a sentinel, most recent at the front.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    static final class NodeList<K, V> {
+        private final Node<K, V> sentinel = new Node<>(null, null);
+        int size;
+
+        NodeList() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.prev = sentinel;
+            node.next = sentinel.next;
+            sentinel.next.prev = node;
+            sentinel.next = node;
+            size++;
+        }
+
+        void unlink(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToFront(Node<K, V> node) {
+            unlink(node);
+            addFirst(node);
+        }
+
+        Node<K, V> last() {
+            return (size == 0) ? null : sentinel.prev;
+        }
+
+        void clear() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            size = 0;
+        }
+    }
+
+    /**
+     * The nodes used a given number of times, and its neighbours in count order.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    static final class Frequency<K, V> {
+        final long count;
+        final NodeList<K, V> nodes = new NodeList<>();
+        Frequency<K, V> prev;
+        Frequency<K, V> next;
+
+        Frequency(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * The use count lists of LFU, in count order around a sentinel. Only counts in use have a
+     * list, so the lowest count is always at the front.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    static final class FrequencyList<K, V> {
+        private final Frequency<K, V> sentinel = new Frequency<>(0);
+
+        FrequencyList() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+
+        /**
+         * Returns the list for count + 1 right after the given one, creating it if needed.
+         */
+        private Frequency<K, V> successor(Frequency<K, V> frequency) {
+            if (frequency.next != sentinel && frequency.next.count == frequency.count + 1) return frequency.next;
+            Frequency<K, V> created = new Frequency<>(frequency.count + 1);
+            created.prev = frequency;
+            created.next = frequency.next;
+            frequency.next.prev = created;
+            frequency.next = created;
+            return created;
+        }
+
+        private void removeIfEmpty(Frequency<K, V> frequency) {
+            if (frequency.nodes.size > 0 || frequency == sentinel) return;
+            frequency.prev.next = frequency.next;
+            frequency.next.prev = frequency.prev;
+        }
+
+        void add(Node<K, V> node) {
+            node.frequency = successor(sentinel);
+            node.frequency.nodes.addFirst(node);
+        }
+
+        void increment(Node<K, V> node) {
+            Frequency<K, V> from = node.frequency;
+            node.frequency = successor(from);
+            from.nodes.unlink(node);
+            node.frequency.nodes.addFirst(node);
+            removeIfEmpty(from);
+        }
+
+        void remove(Node<K, V> node) {
+            node.frequency.nodes.unlink(node);
+            removeIfEmpty(node.frequency);
+            node.frequency = null;
+        }
+
+        /**
+         * Returns the least recently used of the least used nodes.
+         */
+        Node<K, V> victim() {
+            return sentinel.next.nodes.last();
+        }
+
+        void clear() {
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+        }
+    }
+
+    /**
+     * Count-min sketch of recent key uses, four 4-bit counters per key.
+     * <p>
+     * Every use increments the key's four counters, picked by four differently seeded hashes,
+     * and the estimate is the smallest of them, so collisions only ever overestimate. After ten
+     * uses per entry of the cache, every counter is halved, so past popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            // Sixteen counters per word; one word per entry keeps collisions rare
+            int words = Integer.highestOneBit(Math.max(4, Math.min(capacity, 1 << 26)) - 1) << 1;
+            this.table = new long[words];
+            this.mask = words - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        /**
+         * Returns the word and counter of the given row for a hash.
+         */
+        private int counterIndex(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h;
+        }
+
+        private int count(int index) {
+            int word = (index >>> 4) & mask;
+            return (int) (table[word] >>> ((index & 15) << 2)) & 15;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key);
+            int frequency = 15;
+            for (int row = 0; row < 4; row++) frequency = Math.min(frequency, count(counterIndex(hash, row)));
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key);
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                int index = counterIndex(hash, row);
+                if (count(index) < 15) {
+                    table[(index >>> 4) & mask] += 1L << ((index & 15) << 2);
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) halve();
+        }
+
+        /**
+         * Halves every counter, a shift of each word with the bits that would cross into the
+         * neighbouring counter masked off.
+         */
+        private void halve() {
+            for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            additions /= 2;
+        }
+
+        void clear() {
+            Arrays.fill(table, 0);
+            additions = 0;
+        }
+
+        private static int spread(Object key) {
+            int hash = key.hashCode() * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Records an access to a cached node.
+     */
+    private void touch(Node<K, V> node) {
+        switch (policy) {
+            case LRU -> recency.moveToFront(node);
+            case LFU -> frequencies.increment(node);
+            case W_TINY_LFU -> {
+                sketch.increment(node.key);
+                switch (node.segment) {
+                    case WINDOW -> recency.moveToFront(node);
+                    case PROBATION -> {
+                        // A second use earns an entry a place in the protected segment
+                        probation.unlink(node);
+                        node.segment = PROTECTED;
+                        protectedList.addFirst(node);
+                        if (protectedList.size > protectedCapacity) {
+                            Node<K, V> demoted = protectedList.last();
+                            protectedList.unlink(demoted);
+                            demoted.segment = PROBATION;
+                            probation.addFirst(demoted);
+                        }
+                    }
+                    default -> protectedList.moveToFront(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Links a new node in, evicting as the policy requires.
+     */
+    private void link(Node<K, V> node) {
+        switch (policy) {
+            case LRU -> {
+                recency.addFirst(node);
+                if (index.size() > capacity) evict(recency.last());
+            }
+            case LFU -> {
+                // Evict before adding, or the new node would be its own victim
+                if (index.size() > capacity) evict(frequencies.victim());
+                frequencies.add(node);
+            }
+            case W_TINY_LFU -> {
+                sketch.increment(node.key);
+                node.segment = WINDOW;
+                recency.addFirst(node);
+                if (recency.size > windowCapacity) {
+                    Node<K, V> candidate = recency.last();
+                    recency.unlink(candidate);
+                    candidate.segment = PROBATION;
+                    probation.addFirst(candidate);
+                    if (index.size() > capacity) {
+                        Node<K, V> victim = (probation.size > 1) ? probation.last() : protectedList.last();
+                        // The candidate has to have been used more often than the entry it replaces
+                        if (victim == null || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) evict(candidate);
+                        else evict(victim);
+                    }
+                } else if (index.size() > capacity) {
+                    evict(recency.last());
+                }
+            }
+        }
+    }
+
+    /**
+     * Unlinks a node from the lists of its policy.
+     */
+    private void unlink(Node<K, V> node) {
+        if (policy == Policy.LFU) frequencies.remove(node);
+        else if (policy == Policy.LRU || node.segment == WINDOW) recency.unlink(node);
+        else if (node.segment == PROBATION) probation.unlink(node);
+        else protectedList.unlink(node);
+    }
+
+    /**
+     * Evicts a node and tells the listener.
+     */
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        index.remove(node.key);
+        evictionCount++;
+        if (evictionListener != null) evictionListener.accept(node.key, node.value);
+    }
+
+    /**
+     * Returns the value cached for the key, counting a hit or a miss and recording the access
+     * with the policy.
+     *
+     * @param key the key whose cached value is to be returned
+     * @return the cached value, or null if the key is not cached
+     * @since 1.0
+     */
+    public V get(Object key) {
+        Node<K, V> node = (key == null) ? null : index.get(key);
+        if (node == null) {
+            missCount++;
+            // W-TinyLFU counts misses too, so that a key asked for often gets admitted
+            if (sketch != null && key != null) sketch.increment(key);
+            return null;
+        }
+        hitCount++;
+        touch(node);
+        return node.value;
+    }
+
+    /**
+     * Caches a value for the key, replacing any cached value. A new key may evict another entry,
+     * or with W-TinyLFU be evicted itself later on, when it leaves the window.
+     *
+     * @param key   the key to cache the value for
+     * @param value the value to cache
+     * @return the previously cached value, or null if there was none
+     * @since 1.0
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        Node<K, V> node = index.get(key);
+        if (node != null) {
+            V oldValue = node.value;
+            node.value = value;
+            touch(node);
+            return oldValue;
+        }
+        node = new Node<>(key, value);
+        index.put(key, node);
+        link(node);
+        return null;
+    }
+
+    public V remove(Object key) {
+        if (key == null) return null;
+        Node<K, V> node = index.remove(key);
+        if (node == null) return null;
+        unlink(node);
+        return node.value;
+    }
+
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    /**
+     * Empties the cache. The counters and, for W-TinyLFU, the use counts are kept.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        index.clear();
+        recency.clear();
+        probation.clear();
+        protectedList.clear();
+        if (frequencies != null) frequencies.clear();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Checks for a cached key, without counting or recording an access.
+     *
+     * @param key the key to check for
+     * @return {@code true} if the key is cached
+     * @since 1.0
+     */
+    public boolean containsKey(Object key) {
+        return key != null && index.containsKey(key);
+    }
+
+    public boolean containsValue(Object value) {
+        for (Node<K, V> node : index.values()) {
+            if (Objects.equals(node.value, value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a Set view of the cached keys. Looking through it does not count as an access.
+     *
+     * @return a Set view of the cached keys
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    public ArrayList<V> values() {
+        ArrayList<V> refList = new ArrayList<>(index.size());
+        for (Node<K, V> node : index.values()) refList.add(node.value);
+        return refList;
+    }
+
+    public ArrayList<Node<K, V>> entrySet() {
+        return index.values();
+    }
+
+    /**
+     * Returns the capacity of the cache.
+     *
+     * @return the number of entries the cache holds at most
+     * @since 1.0
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the eviction policy of the cache.
+     *
+     * @return the eviction policy
+     * @since 1.0
+     */
+    public Policy policy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of {@code get} calls that found their key.
+     *
+     * @return the hit count
+     * @since 1.0
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of {@code get} calls that did not find their key.
+     *
+     * @return the miss count
+     * @since 1.0
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room.
+     *
+     * @return the eviction count
+     * @since 1.0
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the fraction of {@code get} calls that found their key.
+     *
+     * @return the hit rate, or 0 before the first {@code get}
+     * @since 1.0
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return (requests == 0) ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Resets the hit, miss and eviction counters.
+     *
+     * @since 1.0
+     */
+    public void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+    }
+
+    /**
+     * Returns a string representation of this cache.
+     *
+     * @return a string representation of this cache
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Set view of the keys of a BoundedCache.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<K> {
+
+        public Iterator<K> iterator() {
+            Iterator<K> keys = index.keySet().iterator();
+            return new Iterator<>() {
+                public boolean hasNext() {
+                    return keys.hasNext();
+                }
+
+                public K next() {
+                    return keys.next();
+                }
+            };
+        }
+
+        public int size() {
+            return index.size();
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+
+        public boolean remove(Object obj) {
+            if (!containsKey(obj)) return false;
+            BoundedCache.this.remove(obj);
+            return true;
+        }
+
+        public void clear() {
+            BoundedCache.this.clear();
+        }
+    }
+}
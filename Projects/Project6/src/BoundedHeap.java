@@ -0,0 +1,184 @@
+import java.util.*;
+
+/**
+ * Bounded array-backed heap that keeps the k greatest items offered to it.
+ * <p>
+ * This is a {@link BoundedQueue} whose item of greatest priority is the smallest item kept,
+ * the one the next better item evicts. Once the heap holds {@code capacity} items, an offered
+ * item either replaces that head, in O(log k), or is dropped after a single comparison. Offering
+ * n items therefore takes O(n log k) time and O(k) memory, which is what a top-k query over a
+ * large map needs.
+ * <p>
+ * Unlike the linked {@code Heap} of the maze searches, the tree is laid out implicitly in an
+ * array, so an offer allocates nothing and the heap never grows past its capacity.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @param <T> the type of items maintained by this heap
+ * @version 1.0
+ * @since 1.0
+ */
+public class BoundedHeap<T> implements BoundedQueue<T> {
+
+    private final Comparator<? super T> comparator;
+    private final Object[] items;
+    private int size;
+
+    /**
+     * Constructs an empty heap keeping at most {@code capacity} items, ordered by the given
+     * comparator.
+     *
+     * @param capacity   the number of items to keep
+     * @param comparator the comparator ranking the items, greatest kept
+     * @since 1.0
+     */
+    public BoundedHeap(int capacity, Comparator<? super T> comparator) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity must be non-negative, BANNED!");
+        this.comparator = Objects.requireNonNull(comparator, "comparator is null");
+        this.items = new Object[capacity];
+    }
+
+    /**
+     * Offers an item, keeping it if the heap has room or if it beats the smallest item kept,
+     * which it then evicts.
+     *
+     * @param item the item to offer
+     * @since 1.0
+     */
+    @Override
+    public void offer(T item) {
+        if (size < items.length) {
+            items[size] = item;
+            siftUp(size++);
+        } else if (size > 0 && comparator.compare(item, at(0)) > 0) {
+            items[0] = item;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the number of items kept.
+     *
+     * @return the number of items kept
+     * @since 1.0
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of items this heap keeps at most.
+     *
+     * @return the capacity of the heap
+     * @since 1.0
+     */
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Returns the smallest item kept, the next to be evicted.
+     *
+     * @return the smallest item kept, or null if the heap is empty
+     * @since 1.0
+     */
+    @Override
+    public T peek() {
+        return (size == 0) ? null : at(0);
+    }
+
+    /**
+     * Returns and removes the smallest item kept.
+     *
+     * @return the smallest item kept, or null if the heap is empty
+     * @since 1.0
+     */
+    @Override
+    public T poll() {
+        if (size == 0) return null;
+        T head = at(0);
+        items[0] = items[--size];
+        items[size] = null;
+        if (size > 0) siftDown(0);
+        return head;
+    }
+
+    /**
+     * Restores the position of an item whose rank has changed. Finding the item is a linear
+     * scan, so this takes O(k).
+     *
+     * @param item the item whose rank has changed
+     * @since 1.0
+     */
+    @Override
+    public void updatePriority(T item) {
+        for (int i = 0; i < size; i++) {
+            if (items[i] == item) {
+                siftDown(i);
+                siftUp(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Offers every item kept by another heap to this one, for combining heaps filled in
+     * parallel.
+     *
+     * @param other the heap whose items to offer
+     * @return this heap
+     * @since 1.0
+     */
+    public BoundedHeap<T> offerAll(BoundedHeap<? extends T> other) {
+        for (int i = 0; i < other.size; i++) offer(other.at(i));
+        return this;
+    }
+
+    /**
+     * Removes every item kept and returns them greatest first.
+     *
+     * @return the items kept, greatest first
+     * @since 1.0
+     */
+    public ArrayList<T> drainDescending() {
+        ArrayList<T> refList = new ArrayList<>(size);
+        while (size > 0) refList.add(poll());
+        Collections.reverse(refList);
+        return refList;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T at(int index) {
+        return (T) items[index];
+    }
+
+    /**
+     * Moves the item at the given index up until its parent is no greater than it.
+     */
+    private void siftUp(int index) {
+        T item = at(index);
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (comparator.compare(item, at(parent)) >= 0) break;
+            items[index] = items[parent];
+            index = parent;
+        }
+        items[index] = item;
+    }
+
+    /**
+     * Moves the item at the given index down until neither child is smaller than it.
+     */
+    private void siftDown(int index) {
+        T item = at(index);
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && comparator.compare(at(child + 1), at(child)) < 0) child++;
+            if (comparator.compare(item, at(child)) <= 0) break;
+            items[index] = items[child];
+            index = child;
+        }
+        items[index] = item;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Queue that keeps its items ordered by priority and may hold only some of the items offered
+ * to it.
+ * <p>
+ * This is the part of the {@code PriorityQueue} of the maze and graph searches that a bounded
+ * queue can honour. An offer may drop the item, or evict another one, so it returns no handle,
+ * and there is no way to reach an item again other than {@link #updatePriority}.
+ *
+ * @param <T> the type of items maintained by this queue
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public interface BoundedQueue<T> {
+
+    /**
+     * Offers the given {@code item} to this queue, which may keep it, keep it in place of
+     * another item, or drop it.
+     * 
+     * @param item the item to offer to the queue.
+     */
+    void offer(T item);
+
+    /**
+     * Returns the number of items in the queue.
+     * 
+     * @return the number of items in the queue.
+     */
+    int size();
+
+    /**
+     * Returns the item of greatest priority in the queue.
+     * 
+     * @return the item of greatest priority in the queue.
+     */
+    T peek();
+
+    /**
+     * Returns and removes the item of greatest priority in the queue.
+     * 
+     * @return the item of greatest priority in the queue.
+     */
+    T poll();
+
+    /**
+     * Updates the priority of the given item - that is, ensures that it is 'behind'
+     * items with higher priority and 'ahead' of items with lower priority.
+     * <p>
+     * Assumes all other items' priorities in this Priority Queue have not changed.
+     * 
+     * @param item the item whose priority has been updated.
+     */
+    void updatePriority(T item);
+}
\ No newline at end of file
@@ -0,0 +1,924 @@
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Chained implementation of a HashMap with a compact, struct-of-arrays layout.
+ * <p>
+ * {@link HashMap} chains one heap node per entry through prev/next references, and walks its
+ * buckets through a TreeSet of filled indices, recomputing the hash of a key at every step.
+ * This map keeps the same separate chaining but stores the entries in four parallel arrays
+ * instead: the cached hashes and the chain links in {@code int[]}s, the keys and the values in
+ * {@code Object[]}s. A bucket is just the index of the first entry of its chain. That makes
+ * the overhead per entry about 16 bytes (two ints and two references), plus a 4-byte bucket
+ * slot per 0.75 entries, against about 48 bytes for a node.
+ * <p>
+ * The entries are kept packed at the front of the arrays: a new entry is appended, and a
+ * removal moves the last entry into the hole. As a result:
+ * <ul>
+ *     <li>Iteration, {@code values()} and {@code containsValue} are linear scans over the
+ *     first {@code size} slots, with no empty slots to skip and no bucket lookups.</li>
+ *     <li>Resizing relinks the chains from the cached hashes in one pass over the arrays,
+ *     without calling {@code hashCode()} or allocating anything but the new arrays.</li>
+ * </ul>
+ * Removal through an iterator is supported; modifying the map otherwise during an iteration
+ * makes the iterator throw {@link ConcurrentModificationException}. The implementation is not
+ * thread-safe. Null keys are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class CompactHashMap<K, V> implements CustomMap<K, V>, Iterable<CustomMap.Entry<K, V>> {
+
+    // Ends a chain
+    private static final int NONE = -1;
+
+    private final int initialCapacity;
+    private final double maxLoadFactor;
+    private int size;
+    private int modCount;
+    private int[] buckets;
+    private int[] hashes;
+    private int[] next;
+    private Object[] keys;
+    private Object[] values;
+    private KeySet<K> keySet;
+    private MapStats stats;
+
+    /**
+     * Constructs an empty CompactHashMap with an initial capacity of 16 and a load factor of 0.75.
+     *
+     * @since 1.0
+     */
+    public CompactHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty CompactHashMap with the specified initial capacity and a load factor of 0.75.
+     *
+     * @param capacity the initial number of buckets, must be a power of 2
+     * @throws IllegalArgumentException if the specified capacity is not a power of 2
+     * @since 1.0
+     */
+    public CompactHashMap(int capacity) {
+        this(capacity, .75);
+    }
+
+    /**
+     * Constructs an empty CompactHashMap with the specified initial capacity and load factor.
+     * <p>
+     * The entry arrays hold {@code capacity * loadFactor} entries; when they are full, both
+     * they and the buckets are doubled. Chaining allows load factors above 1.
+     *
+     * @param capacity   the initial number of buckets, must be a power of 2
+     * @param loadFactor the load factor, determining when the underlying arrays are resized
+     * @throws IllegalArgumentException if the capacity is not a power of 2 or the load factor is not positive
+     * @since 1.0
+     */
+    public CompactHashMap(int capacity, double loadFactor) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be power of 2, BANNED!");
+        if (!(loadFactor > 0))
+            throw new IllegalArgumentException("Load factor must be positive.");
+        this.initialCapacity = capacity;
+        this.maxLoadFactor = loadFactor;
+        allocate(capacity);
+    }
+
+    public static void main(String[] args) {
+        CompactHashMap<String, Integer> words = new CompactHashMap<>(4);
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            words.merge(word, 1, Integer::sum);
+        }
+        System.out.println(words);
+        System.out.println(words.capacity() + " buckets, longest chain " + words.maxDepth());
+        words.remove("quick");
+        System.out.println(words);
+        System.out.println(words.keySet());
+        System.out.println(words.values());
+        System.out.println(words.get("the"));
+    }
+
+    /**
+     * Spreads the higher bits of the hash code of the given key into the lower bits.
+     *
+     * @param key the key whose hash is to be computed
+     * @return the hash of the key
+     * @since 1.0
+     */
+    private static int hashOf(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns how many entries the arrays hold for the given number of buckets.
+     */
+    private int entryCapacity(int capacity) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, (long) (capacity * maxLoadFactor)));
+    }
+
+    /**
+     * Allocates fresh, empty arrays for the given number of buckets.
+     *
+     * @param capacity the number of buckets
+     * @since 1.0
+     */
+    private void allocate(int capacity) {
+        int entries = entryCapacity(capacity);
+        this.buckets = new int[capacity];
+        Arrays.fill(buckets, NONE);
+        this.hashes = new int[entries];
+        this.next = new int[entries];
+        this.keys = new Object[entries];
+        this.values = new Object[entries];
+    }
+
+    /**
+     * Finds the entry holding the specified key.
+     *
+     * @param key the key to search for
+     * @return the index of the entry, or -1 if the key is not present
+     * @since 1.0
+     */
+    private int indexOf(Object key) {
+        if (key == null) return NONE;
+        int hash = hashOf(key);
+        if (stats != null) return indexOfCounted(key, hash);
+        for (int i = buckets[hash & (buckets.length - 1)]; i != NONE; i = next[i]) {
+            if (hashes[i] == hash && keys[i].equals(key)) return i;
+        }
+        return NONE;
+    }
+
+    /**
+     * Finds the entry holding the specified key like {@link #indexOf}, recording how many
+     * entries of the chain were inspected.
+     */
+    private int indexOfCounted(Object key, int hash) {
+        int probes = 0;
+        for (int i = buckets[hash & (buckets.length - 1)]; i != NONE; i = next[i]) {
+            probes++;
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                stats.probe(probes);
+                return i;
+            }
+        }
+        stats.probe(probes);
+        return NONE;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map is empty, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the current number of buckets.
+     *
+     * @return the current capacity of the map
+     * @since 1.0
+     */
+    public int capacity() {
+        return buckets.length;
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Retrieves the value associated with the specified key in this map.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @return the value to which the specified key is mapped, or {@code null} if no mapping exists
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int i = indexOf(key);
+        return (i == NONE) ? null : (V) values[i];
+    }
+
+    /**
+     * Checks if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsKey(Object key) {
+        return indexOf(key) != NONE;
+    }
+
+    /**
+     * Checks if this map maps one or more keys to the specified value.
+     * <p>
+     * This is a linear scan over the packed value array.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if some key maps to the specified value, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(values[i], value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * <p>
+     * If the map previously contained a mapping for the key, the old value is replaced by the
+     * specified value. If the entry arrays are full, the capacity is doubled before the
+     * insertion.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping
+     * @throws NullPointerException if the key is null
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        int i = indexOf(key);
+        if (i != NONE) {
+            V oldValue = (V) values[i];
+            values[i] = value;
+            return oldValue;
+        }
+        insertAbsent(key, value);
+        return null;
+    }
+
+    /**
+     * Appends a mapping for a key known not to be present and links it at the head of its
+     * chain, doubling the capacity first if the entry arrays are full.
+     *
+     * @param key   the key to insert
+     * @param value the value to insert
+     * @since 1.0
+     */
+    private void insertAbsent(K key, V value) {
+        if (size == hashes.length) changeCapacity(buckets.length * 2);
+        int hash = hashOf(key);
+        int bucket = hash & (buckets.length - 1);
+        int i = size++;
+        hashes[i] = hash;
+        keys[i] = key;
+        values[i] = value;
+        next[i] = buckets[bucket];
+        buckets[bucket] = i;
+        modCount++;
+    }
+
+    /**
+     * If the key is not mapped, associates it with the given value. Otherwise, replaces its
+     * value with the result of the remapping function, or removes it if the result is null.
+     * The chain is walked once.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to use if the key is not mapped
+     * @param remappingFunction the function to combine the old and given values, must not
+     *                          modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the key, value or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        int i = indexOf(key);
+        if (i == NONE) {
+            insertAbsent(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply((V) values[i], value);
+        if (newValue == null) removeAt(i);
+        else values[i] = newValue;
+        return newValue;
+    }
+
+    /**
+     * Computes a new mapping for the key from its current mapping, or null if there is none.
+     * A null result removes the mapping. The chain is walked once.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value, must not modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the key or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(remappingFunction);
+        int i = indexOf(key);
+        V newValue = remappingFunction.apply(key, (i == NONE) ? null : (V) values[i]);
+        if (newValue == null) {
+            if (i != NONE) removeAt(i);
+        } else if (i != NONE) {
+            values[i] = newValue;
+        } else {
+            insertAbsent(key, newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * If the key is not mapped, or mapped to null, computes its value with the mapping function
+     * and enters it unless it is null. The chain is walked once.
+     *
+     * @param key             key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value, must not modify this map
+     * @return the current (existing or computed) value associated with the key, or null if the
+     *         computed value is null
+     * @throws NullPointerException if the key or mapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(mappingFunction);
+        int i = indexOf(key);
+        if (i != NONE && values[i] != null) return (V) values[i];
+        V newValue = mappingFunction.apply(key);
+        if (newValue == null) return null;
+        if (i != NONE) values[i] = newValue;
+        else insertAbsent(key, newValue);
+        return newValue;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, if present.
+     * <p>
+     * The last entry is moved into the slot the removed entry leaves, so the entries stay
+     * packed. If the size of the map falls below a quarter of what the arrays hold, the
+     * capacity is halved.
+     *
+     * @param key the key whose mapping is to be removed from the map
+     * @return the value to which the specified key was mapped, or {@code null} if no mapping exists
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int i = indexOf(key);
+        if (i == NONE) return null;
+        V oldValue = (V) values[i];
+        removeAt(i);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry at the given index, halving the capacity if the map has become sparse.
+     *
+     * @param index the index of the entry to remove
+     * @since 1.0
+     */
+    private void removeAt(int index) {
+        removeEntry(index);
+        if (buckets.length > initialCapacity && size < hashes.length / 4) changeCapacity(buckets.length / 2);
+    }
+
+    /**
+     * Unlinks the entry at the given index from its chain and moves the last entry into its
+     * slot, relinking that one in turn.
+     *
+     * @param index the index of the entry to remove
+     * @since 1.0
+     */
+    private void removeEntry(int index) {
+        unlink(index);
+        int last = --size;
+        if (index != last) {
+            // Whatever pointed at the last entry now points at its new slot
+            int bucket = hashes[last] & (buckets.length - 1);
+            if (buckets[bucket] == last) {
+                buckets[bucket] = index;
+            } else {
+                int i = buckets[bucket];
+                while (next[i] != last) i = next[i];
+                next[i] = index;
+            }
+            hashes[index] = hashes[last];
+            next[index] = next[last];
+            keys[index] = keys[last];
+            values[index] = values[last];
+        }
+        keys[last] = null;
+        values[last] = null;
+        modCount++;
+    }
+
+    /**
+     * Unlinks the entry at the given index from its chain.
+     */
+    private void unlink(int index) {
+        int bucket = hashes[index] & (buckets.length - 1);
+        if (buckets[bucket] == index) {
+            buckets[bucket] = next[index];
+            return;
+        }
+        int i = buckets[bucket];
+        while (next[i] != index) i = next[i];
+        next[i] = next[index];
+    }
+
+    /**
+     * Changes the number of buckets, resizes the entry arrays to match, and relinks every
+     * chain from the cached hashes.
+     *
+     * @param newCapacity the new number of buckets, must be a power of 2
+     * @since 1.0
+     */
+    private void changeCapacity(int newCapacity) {
+        int oldCapacity = buckets.length;
+        if (stats != null) stats.resizeStarted();
+        int entries = Math.max(size, entryCapacity(newCapacity));
+        buckets = new int[newCapacity];
+        Arrays.fill(buckets, NONE);
+        hashes = Arrays.copyOf(hashes, entries);
+        next = Arrays.copyOf(next, entries);
+        keys = Arrays.copyOf(keys, entries);
+        values = Arrays.copyOf(values, entries);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < size; i++) {
+            int bucket = hashes[i] & mask;
+            next[i] = buckets[bucket];
+            buckets[bucket] = i;
+        }
+        if (stats != null) stats.resized(oldCapacity, newCapacity, size);
+    }
+
+    /**
+     * @param m mappings to be stored in this map
+     */
+    @Override
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    /**
+     * Removes all key-value mappings from this map and restores the initial capacity.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        allocate(initialCapacity);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Performs the given action for each entry, straight off the packed arrays.
+     *
+     * @param action The action to be performed for each entry
+     * @throws ConcurrentModificationException if the action modifies the map
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(java.util.function.BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        int expected = modCount;
+        for (int i = 0; i < size; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+            if (modCount != expected) throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet<>(this);
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values in the map, copied straight off the packed value array.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        return new ArrayList<>((List<V>) Arrays.asList(values).subList(0, size));
+    }
+
+    /**
+     * Returns a list of all entries in the map, in array order.
+     * <p>
+     * The entries write through to the map when {@link CustomMap.Entry#setValue} is called.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Node> entrySet() {
+        ArrayList<Node> refList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) refList.add(new Node(i));
+        return refList;
+    }
+
+    /**
+     * Turns the collection of statistics on or off. While they are on, every lookup records
+     * the number of entries of its chain it inspected, and every resize its duration.
+     *
+     * @param enabled whether to collect statistics from now on
+     * @return {@code true}, as this map supports statistics
+     * @since 1.0
+     */
+    @Override
+    public boolean recordStats(boolean enabled) {
+        stats = enabled ? new MapStats() : null;
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the statistics collected since they were turned on.
+     *
+     * @return the statistics of this map, or {@code null} if they are off
+     * @since 1.0
+     */
+    @Override
+    public CustomMap.Stats stats() {
+        return (stats == null) ? null : stats.snapshot();
+    }
+
+    /**
+     * Returns the length of the longest chain, which is the number of entries a worst-case
+     * lookup has to inspect.
+     *
+     * @return the maximum chain length of the map
+     * @since 1.0
+     */
+    public int maxDepth() {
+        int maxDepth = 0;
+        for (int head : buckets) {
+            int depth = 0;
+            for (int i = head; i != NONE; i = next[i]) depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Returns the initial capacity of the map.
+     *
+     * @return initial capacity of the map
+     * @since 1.0
+     */
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    /**
+     * Returns the maximum load factor allowed for this map.
+     *
+     * @return the maximum load factor
+     * @since 1.0
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Returns an iterator over the entries of this map in array order.
+     *
+     * @return an iterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Iterator<CustomMap.Entry<K, V>> iterator() {
+        return new IndexIterator<>() {
+            CustomMap.Entry<K, V> fetch(int index) {
+                return new Node(index);
+            }
+        };
+    }
+
+    /**
+     * Returns a Spliterator over the entries of this map, split by ranges of the packed arrays.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Node> entrySpliterator() {
+        return new IndexSpliterator(0, size);
+    }
+
+    /**
+     * Returns an iterator over the keys of this map in array order.
+     *
+     * @return an iterator over the keys
+     * @since 1.0
+     */
+    Iterator<K> keyIterator() {
+        return new IndexIterator<>() {
+            @SuppressWarnings("unchecked")
+            K fetch(int index) {
+                return (K) keys[index];
+            }
+        };
+    }
+
+    /**
+     * An entry of a CompactHashMap. The key and value are copied out of the arrays when the
+     * entry is created, as later removals may move the entry to another index.
+     *
+     * @since 1.0
+     */
+    public final class Node implements CustomMap.Entry<K, V> {
+
+        private final K key;
+        private V value;
+
+        /**
+         * Constructs a new entry from the contents of the specified index.
+         *
+         * @param index the index of the entry to read
+         */
+        @SuppressWarnings("unchecked")
+        Node(int index) {
+            this.key = (K) keys[index];
+            this.value = (V) values[index];
+        }
+
+        /**
+         * Returns the key of this entry.
+         *
+         * @return the key
+         */
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the value of this entry.
+         *
+         * @return the value
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value of this entry, writing it through to the map while the key is
+         * still in it. Once the key has been removed, only this entry changes, so the mapping
+         * is not put back.
+         *
+         * @param value the new value to be associated with the key
+         * @return the value associated with the key before this method was called
+         */
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            int i = indexOf(key);
+            if (i != NONE) values[i] = value;
+            return oldValue;
+        }
+
+        /**
+         * Compares this entry with another object for equality.
+         *
+         * @param obj the object to be compared for equality
+         * @return {@code true} if the objects are equal, otherwise {@code false}
+         */
+        public boolean equals(Object obj) {
+            return (obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey()) && Objects.equals(value, entry.getValue()));
+        }
+
+        /**
+         * Returns the hash code of this entry.
+         *
+         * @return the hash code of this entry
+         */
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        /**
+         * Returns a string representation of this entry.
+         *
+         * @return a string representation of this entry
+         */
+        public String toString() {
+            return "<" + getKey().toString() + " -> " + getValue() + ">";
+        }
+    }
+
+    /**
+     * Represents a set view of the keys contained in a CompactHashMap.
+     *
+     * @param <T> the type of keys in the set
+     * @since 1.0
+     */
+    public static class KeySet<T> extends AbstractSet<T> {
+
+        private final CompactHashMap<T, ?> refMap;
+
+        /**
+         * Constructs a new KeySet with a reference to the specified map.
+         *
+         * @param map the map to be associated with this KeySet
+         */
+        KeySet(CompactHashMap<T, ?> map) {
+            refMap = map;
+        }
+
+        /**
+         * Returns an iterator over the keys in the map.
+         *
+         * @return an iterator over the keys
+         */
+        public Iterator<T> iterator() {
+            return refMap.keyIterator();
+        }
+
+        /**
+         * Returns the number of keys in the map.
+         *
+         * @return the number of keys
+         */
+        public int size() {
+            return refMap.size();
+        }
+
+        /**
+         * Checks if the KeySet contains a specified key.
+         *
+         * @param obj the key to be checked for containment
+         * @return {@code true} if the KeySet contains the specified key, otherwise {@code false}
+         */
+        public boolean contains(Object obj) {
+            return refMap.containsKey(obj);
+        }
+
+        /**
+         * Removes the specified key from the map associated with this KeySet.
+         *
+         * @param obj the key to be removed
+         * @return {@code true} if the key was present, otherwise {@code false}
+         */
+        public boolean remove(Object obj) {
+            int index = refMap.indexOf(obj);
+            if (index == NONE) return false;
+            refMap.removeAt(index);
+            return true;
+        }
+
+        /**
+         * Removes all keys from the map associated with this KeySet.
+         */
+        public void clear() {
+            refMap.clear();
+        }
+    }
+
+    /**
+     * Base iterator that walks the packed entries in array order.
+     * <p>
+     * Removal through the iterator moves the last entry, which has not been visited yet, into
+     * the current slot, so the iterator steps back and visits that slot again.
+     *
+     * @param <T> the type of elements returned by the iterator
+     * @since 1.0
+     */
+    abstract class IndexIterator<T> implements Iterator<T> {
+        private int nextIndex;
+        private int lastIndex = NONE;
+        private int expectedModCount = modCount;
+
+        /**
+         * Checks if there is a next element in the iteration.
+         *
+         * @return {@code true} if there is a next element, otherwise {@code false}
+         */
+        public final boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         */
+        public final T next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException("This slot is empty/D.N.E.");
+            lastIndex = nextIndex++;
+            return fetch(lastIndex);
+        }
+
+        /**
+         * Removes the last element returned from the map.
+         */
+        public final void remove() {
+            if (lastIndex == NONE) throw new IllegalStateException();
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            // No shrinking here: that would reorder the entries under the iterator
+            removeEntry(lastIndex);
+            nextIndex = lastIndex;
+            lastIndex = NONE;
+            expectedModCount = modCount;
+        }
+
+        /**
+         * Reads the element to return from the given index.
+         *
+         * @param index the index to read
+         * @return the element stored at the index
+         */
+        abstract T fetch(int index);
+    }
+
+    /**
+     * Spliterator over a range of the packed arrays. Splitting hands the lower half of the
+     * remaining range to the new spliterator.
+     *
+     * @since 1.0
+     */
+    final class IndexSpliterator implements Spliterator<Node> {
+        private final int expectedModCount = modCount;
+        private int index;
+        private final int fence;
+
+        /**
+         * Constructs a spliterator over the entries in [index, fence).
+         *
+         * @param index the first index
+         * @param fence the index after the last one
+         */
+        IndexSpliterator(int index, int fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        public boolean tryAdvance(Consumer<? super Node> action) {
+            Objects.requireNonNull(action);
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (index >= fence) return false;
+            action.accept(new Node(index++));
+            return true;
+        }
+
+        public void forEachRemaining(Consumer<? super Node> action) {
+            Objects.requireNonNull(action);
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            for (; index < fence; index++) action.accept(new Node(index));
+        }
+
+        public Spliterator<Node> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index) return null;
+            IndexSpliterator prefix = new IndexSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
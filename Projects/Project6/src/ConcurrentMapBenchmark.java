@@ -0,0 +1,300 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Throughput benchmark for the CustomMap implementations under concurrent access.
+ * <p>
+ * Every map is prefilled with half of a key range and then hammered by 1 to 32 threads, each
+ * running a mix of {@code get}, {@code put}, {@code remove} and ordered lookups on keys drawn
+ * uniformly from the range, so the map stays about half full. Throughput is the number of
+ * operations all threads complete in a fixed time window. The thread-safe maps are measured as
+ * they are; maps that are not thread-safe, such as {@link BSTMap}, are measured behind a single
+ * lock, which is what sharing them would take.
+ * <p>
+ * The mixes are:
+ * <ul>
+ *     <li>read: 90% {@code get}, 5% {@code put}, 5% {@code remove}.</li>
+ *     <li>write: 50% {@code get}, 25% {@code put}, 25% {@code remove}.</li>
+ *     <li>ordered: 70% {@code get}, 10% {@code put}, 10% {@code remove}, 10% ceiling lookups
+ *     ({@code supremum}), for the ordered maps only.</li>
+ * </ul>
+ * As in {@link MapBenchmark}, warm-up rounds are thrown away, the median of the measured
+ * rounds is reported, and the results are folded into a sink. Results are printed as a table
+ * and written as a JSON array. Usage:
+ *
+ * <pre>
+ * java ConcurrentMapBenchmark [--threads 1,2,4,8,16,32] [--maps SkipListMap,SynchronizedBSTMap,...]
+ *                             [--mixes read,write,ordered] [--size 100000] [--millis 1000]
+ *                             [--warmup 2] [--rounds 5] [--out concurrent-map-benchmark.json]
+ * </pre>
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class ConcurrentMapBenchmark {
+
+    private static final Map<String, Supplier<Target>> MAPS = new LinkedHashMap<>();
+
+    static {
+        MAPS.put("SkipListMap", () -> {
+            SkipListMap<Integer, Integer> map = new SkipListMap<>();
+            return new Target(map, map::supremum);
+        });
+        MAPS.put("SynchronizedBSTMap", () -> {
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, true);
+            return new Target(map, map::supremum).synchronizedOn(map);
+        });
+        MAPS.put("StripedHashMap", () -> new Target(new StripedHashMap<>(64), null));
+        MAPS.put("HamtMap", () -> new Target(new HamtMap<>(), null));
+    }
+
+    private final int warmup;
+    private final int rounds;
+    private final long millis;
+    private final ArrayList<Result> results = new ArrayList<>();
+    // Everything measured is folded into this, so that none of it is dead code.
+    private long sink;
+    // Set by the main thread to end a round; read by the workers every 256 operations
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a benchmark run with the given number of warm-up and measured rounds.
+     *
+     * @param warmup the number of rounds discarded before measuring
+     * @param rounds the number of measured rounds
+     * @param millis the length of one round, in milliseconds
+     * @since 1.0
+     */
+    public ConcurrentMapBenchmark(int warmup, int rounds, long millis) {
+        this.warmup = warmup;
+        this.rounds = rounds;
+        this.millis = millis;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int[] threads = {1, 2, 4, 8, 16, 32};
+        List<String> maps = List.of("SkipListMap", "SynchronizedBSTMap");
+        List<String> mixes = List.of("read", "write", "ordered");
+        int size = 100_000;
+        long millis = 1000;
+        int warmup = 2;
+        int rounds = 5;
+        String out = "concurrent-map-benchmark.json";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads" -> threads = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--maps" -> maps = List.of(args[i + 1].split(","));
+                case "--mixes" -> mixes = List.of(args[i + 1].split(","));
+                case "--size" -> size = Integer.parseInt(args[i + 1]);
+                case "--millis" -> millis = Long.parseLong(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+                case "--out" -> out = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        ConcurrentMapBenchmark benchmark = new ConcurrentMapBenchmark(warmup, rounds, millis);
+        for (String mix : mixes) {
+            for (String map : maps) {
+                if (!MAPS.containsKey(map)) throw new IllegalArgumentException("Unknown map: " + map);
+                if (mix.equals("ordered") && MAPS.get(map).get().ceiling == null) continue;
+                for (int count : threads) benchmark.measure(map, MAPS.get(map), mix, size, count);
+            }
+        }
+        benchmark.writeJson(out);
+        System.out.println("wrote " + benchmark.results.size() + " results to " + out + " (sink " + benchmark.sink + ")");
+    }
+
+    /**
+     * Runs the warm-up and measured rounds of one map, mix and thread count and records the
+     * median throughput.
+     *
+     * @param name    the name of the map
+     * @param factory creates empty instances of the map
+     * @param mix     the name of the operation mix
+     * @param size    the size of the key range
+     * @param threads the number of threads
+     * @throws InterruptedException if interrupted while waiting for the threads
+     * @since 1.0
+     */
+    private void measure(String name, Supplier<Target> factory, String mix, int size, int threads) throws InterruptedException {
+        int[] percent = switch (mix) {
+            // Cumulative percentages of get, put, remove; the rest are ceiling lookups
+            case "read" -> new int[]{90, 95, 100};
+            case "write" -> new int[]{50, 75, 100};
+            case "ordered" -> new int[]{70, 80, 90};
+            default -> throw new IllegalArgumentException("Unknown mix: " + mix);
+        };
+        double[] throughput = new double[rounds];
+        for (int round = -warmup; round < rounds; round++) {
+            Target target = factory.get();
+            for (int key = 0; key < size; key += 2) target.map.put(key, key);
+            double opsPerSec = run(target, percent, size, threads);
+            if (round >= 0) throughput[round] = opsPerSec;
+        }
+        Arrays.sort(throughput);
+        Result result = new Result(name, mix, size, threads, throughput[rounds / 2]);
+        results.add(result);
+        System.out.printf("%-20s %-8s %10d %3d threads %14.0f ops/s%n", name, mix, size, threads, result.opsPerSec);
+    }
+
+    /**
+     * Runs one round: starts the threads together, lets them run for the round length, and
+     * returns the total throughput in operations per second.
+     */
+    private double run(Target target, int[] percent, int size, int threads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] counts = new long[threads];
+        long[] sums = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom rand = new SplittableRandom(id * 0x9E3779B97F4A7C15L + size);
+                long ops = 0;
+                long sum = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // Checking the clock every 256 operations keeps it out of the measurement
+                while (!stopped) {
+                    for (int i = 0; i < 256; i++) {
+                        int key = rand.nextInt(size);
+                        int op = rand.nextInt(100);
+                        if (op < percent[0]) {
+                            Integer value = target.get(key);
+                            if (value != null) sum += value;
+                        } else if (op < percent[1]) {
+                            target.put(key, key);
+                        } else if (op < percent[2]) {
+                            target.remove(key);
+                        } else {
+                            CustomMap.Entry<Integer, Integer> entry = target.supremum(key);
+                            if (entry != null) sum += entry.getKey();
+                        }
+                    }
+                    ops += 256;
+                }
+                counts[id] = ops;
+                sums[id] = sum;
+            });
+            workers[t].start();
+        }
+        stopped = false;
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(millis);
+        stopped = true;
+        for (Thread worker : workers) worker.join();
+        long elapsed = System.nanoTime() - begin;
+        sink += Arrays.stream(sums).sum();
+        return Arrays.stream(counts).sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * Writes the results as a JSON array of objects.
+     *
+     * @param filename the file to write to
+     * @throws IOException if the file cannot be written
+     * @since 1.0
+     */
+    void writeJson(String filename) throws IOException {
+        try (FileWriter fw = new FileWriter(filename)) {
+            fw.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                fw.write("  " + results.get(i).toJson() + (i + 1 < results.size() ? ",\n" : "\n"));
+            }
+            fw.write("]\n");
+        }
+    }
+
+    /**
+     * A map under test, with its ceiling lookup if it is ordered, and the lock guarding it if
+     * it is not thread-safe.
+     */
+    private static final class Target {
+        final CustomMap<Integer, Integer> map;
+        final java.util.function.Function<Integer, ? extends CustomMap.Entry<Integer, Integer>> ceiling;
+        Object lock;
+
+        Target(CustomMap<Integer, Integer> map, java.util.function.Function<Integer, ? extends CustomMap.Entry<Integer, Integer>> ceiling) {
+            this.map = map;
+            this.ceiling = ceiling;
+        }
+
+        Target synchronizedOn(Object lock) {
+            this.lock = lock;
+            return this;
+        }
+
+        Integer get(int key) {
+            if (lock == null) return map.get(key);
+            synchronized (lock) {
+                return map.get(key);
+            }
+        }
+
+        void put(int key, int value) {
+            if (lock == null) {
+                map.put(key, value);
+                return;
+            }
+            synchronized (lock) {
+                map.put(key, value);
+            }
+        }
+
+        void remove(int key) {
+            if (lock == null) {
+                map.remove(key);
+                return;
+            }
+            synchronized (lock) {
+                map.remove(key);
+            }
+        }
+
+        CustomMap.Entry<Integer, Integer> supremum(int key) {
+            if (lock == null) return ceiling.apply(key);
+            synchronized (lock) {
+                return ceiling.apply(key);
+            }
+        }
+    }
+
+    /**
+     * One measured map, mix and thread count.
+     */
+    private static final class Result {
+        final String map;
+        final String mix;
+        final int size;
+        final int threads;
+        final double opsPerSec;
+
+        Result(String map, String mix, int size, int threads, double opsPerSec) {
+            this.map = map;
+            this.mix = mix;
+            this.size = size;
+            this.threads = threads;
+            this.opsPerSec = opsPerSec;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"map\": \"%s\", \"mix\": \"%s\", \"size\": %d, \"threads\": %d, \"opsPerSec\": %.1f}",
+                    map, mix, size, threads, opsPerSec);
+        }
+    }
+}
@@ -383,6 +383,96 @@ public interface CustomMap<K, V> {
      */
     ArrayList<? extends CustomMap.Entry<K, V>> entrySet();
 
+    /**
+     * Returns a {@link Spliterator} over the mappings contained in this map,
+     * for traversing them one at a time or splitting them among threads.
+     *
+     * @implSpec
+     * The default implementation returns the spliterator of {@link #entrySet()},
+     * which copies every mapping before the first is visited. Maps that can walk
+     * or split their own buckets or subtrees override it, so that a traversal
+     * takes no memory beyond the spliterator itself.
+     *
+     * @return a spliterator over the mappings contained in this map
+     * @since 1.0
+     */
+    default Spliterator<? extends CustomMap.Entry<K, V>> entrySpliterator() {
+        return entrySet().spliterator();
+    }
+
+    /**
+     * Turns the collection of {@link Stats} on or off. Statistics are off when a map is
+     * created; while they are off, they cost a map that supports them a null check on its hot
+     * paths. Turning them on starts from zeroed counters.
+     *
+     * @implSpec
+     * The default implementation does not support statistics and returns {@code false}.
+     *
+     * @param enabled whether to collect statistics from now on
+     * @return whether this map supports statistics
+     * @see MapStats
+     * @since 1.0
+     */
+    default boolean recordStats(boolean enabled) {
+        return false;
+    }
+
+    /**
+     * Returns a snapshot of the statistics collected since they were turned on by
+     * {@link #recordStats(boolean)}.
+     *
+     * @implSpec
+     * The default implementation returns {@code null}.
+     *
+     * @return the statistics of this map, or {@code null} if they are off or not supported
+     * @since 1.0
+     */
+    default Stats stats() {
+        return null;
+    }
+
+    /**
+     * Snapshot of the hot-path statistics of a map.
+     * <p>
+     * A probe is one step of a lookup: an entry of a chain that was compared with the key, a
+     * slot of a probe run, or a node of a descent through a tree. For a tree, the longest
+     * probe is therefore the deepest descent seen, which is the height of the tree once every
+     * leaf has been reached. Updates count as lookups too, since they search before they
+     * write.
+     *
+     * @param lookups        the number of lookups recorded
+     * @param probes         the total probe length over all lookups
+     * @param probeHistogram the number of lookups by probe length, the last bucket counting
+     *                       every length from {@code MapStats.BUCKETS - 1} up
+     * @param maxProbe       the longest probe of any lookup
+     * @param resizes        the number of times the table was reallocated
+     * @param resizeNanos    the total time spent resizing, in nanoseconds
+     * @param comparisons    the number of comparator calls, for maps that order their keys
+     * @since 1.0
+     */
+    record Stats(long lookups, long probes, long[] probeHistogram, int maxProbe, long resizes, long resizeNanos, long comparisons) {
+
+        /**
+         * Returns the mean probe length over all lookups.
+         *
+         * @return the mean probe length, or 0 if there were no lookups
+         */
+        public double meanProbe() {
+            return (lookups == 0) ? 0 : (double) probes / lookups;
+        }
+
+        /**
+         * Returns a string representation of these statistics. The histogram is cut off after
+         * the longest probe.
+         *
+         * @return a string representation of these statistics
+         */
+        public String toString() {
+            return String.format(Locale.ROOT, "%d lookups, mean probe %.2f, max probe %d, histogram %s, %d resizes in %.3f ms, %d comparisons",
+                    lookups, meanProbe(), maxProbe, Arrays.toString(Arrays.copyOf(probeHistogram, Math.min(maxProbe + 1, probeHistogram.length))), resizes, resizeNanos / 1e6, comparisons);
+        }
+    }
+
     /**
      * A map entry (key-value pair). The Entry may be unmodifiable, or the
      * value may be modifiable if the optional {@code setValue} method is
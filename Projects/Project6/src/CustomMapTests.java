@@ -0,0 +1,1718 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class CustomMapTests {
+
+    public static void test(String name, Supplier<CustomMap<String, Integer>> factory) {
+        System.out.println("testing " + name);
+
+        // case 1: testing an empty map
+        {
+            // setup
+            System.out.println("case 1");
+            CustomMap<String, Integer> map = factory.get();
+
+            // verify
+            System.out.println(map.size() + " == 0");
+
+            // test
+            assert map.size() == 0 : "Error in " + name + "::size()";
+            assert map.isEmpty() : "Error in " + name + "::isEmpty()";
+            assert map.get("missing") == null : "Error in " + name + "::get(Object key)";
+            assert !map.containsKey("missing") : "Error in " + name + "::containsKey(Object key)";
+        }
+
+        // case 2: testing put(K key, V value) and get(Object key)
+        {
+            // setup
+            System.out.println("case 2");
+            CustomMap<String, Integer> map = factory.get();
+            Integer first = map.put("ten", 10);
+            Integer second = map.put("ten", 11);
+            map.put("five", 5);
+
+            // verify
+            System.out.println(first + " == null, " + second + " == 10, " + map.get("ten") + " == 11");
+
+            // test
+            assert first == null : "Error in " + name + "::put(K key, V value) on a new key";
+            assert second == 10 : "Error in " + name + "::put(K key, V value) on an existing key";
+            assert map.get("ten") == 11 : "Error in " + name + "::get(Object key)";
+            assert map.get("five") == 5 : "Error in " + name + "::get(Object key)";
+            assert map.size() == 2 : "Error in " + name + "::size()";
+        }
+
+        // case 3: testing remove(Object key)
+        {
+            // setup
+            System.out.println("case 3");
+            CustomMap<String, Integer> map = factory.get();
+            for (String word : new String[] {"ten", "five", "three", "seven", "four"}) {
+                map.put(word, word.length());
+            }
+            Integer removed = map.remove("three");
+            Integer missing = map.remove("three");
+
+            // verify
+            System.out.println(removed + " == 5, " + missing + " == null, " + map.size() + " == 4");
+
+            // test
+            assert removed == 5 : "Error in " + name + "::remove(Object key)";
+            assert missing == null : "Error in " + name + "::remove(Object key) on a missing key";
+            assert map.size() == 4 : "Error in " + name + "::remove(Object key) or " + name + "::size()";
+            assert !map.containsKey("three") : "Error in " + name + "::remove(Object key)";
+            assert map.get("seven") == 5 : "Error in " + name + "::remove(Object key)";
+        }
+
+        // case 4: testing keySet(), values() and entrySet()
+        {
+            // setup
+            System.out.println("case 4");
+            CustomMap<String, Integer> map = factory.get();
+            for (int i = 0; i < 100; i++) {
+                map.put("key" + i, i);
+            }
+            ArrayList<String> keys = new ArrayList<>(map.keySet());
+            ArrayList<Integer> values = map.values();
+            ArrayList<? extends CustomMap.Entry<String, Integer>> entries = map.entrySet();
+
+            // verify
+            System.out.println(keys.size() + " == " + values.size() + " == " + entries.size() + " == 100");
+
+            // test
+            assert keys.size() == 100 : "Error in " + name + "::keySet()";
+            assert values.size() == 100 : "Error in " + name + "::values()";
+            assert entries.size() == 100 : "Error in " + name + "::entrySet()";
+            for (int i = 0; i < keys.size(); i++) {
+                assert map.get(keys.get(i)).equals(values.get(i)) : "Error in " + name + "::values() ordering";
+                assert map.get(entries.get(i).getKey()).equals(entries.get(i).getValue()) : "Error in " + name + "::entrySet()";
+            }
+        }
+
+        // case 5: testing clear()
+        {
+            // setup
+            System.out.println("case 5");
+            CustomMap<String, Integer> map = factory.get();
+            for (int i = 0; i < 100; i++) {
+                map.put("key" + i, i);
+            }
+            map.clear();
+            map.put("after", 1);
+
+            // verify
+            System.out.println(map.size() + " == 1");
+
+            // test
+            assert map.size() == 1 : "Error in " + name + "::clear()";
+            assert !map.containsKey("key1") : "Error in " + name + "::clear()";
+            assert map.get("after") == 1 : "Error in " + name + "::clear()";
+        }
+
+        // case 6: testing random operations against java.util.HashMap
+        {
+            // setup
+            System.out.println("case 6");
+            CustomMap<String, Integer> map = factory.get();
+            java.util.HashMap<String, Integer> control = new java.util.HashMap<>();
+            Random rand = new Random(6);
+            for (int i = 0; i < 20000; i++) {
+                String key = "k" + rand.nextInt(500);
+                switch (rand.nextInt(3)) {
+                    case 0 -> {
+                        assert java.util.Objects.equals(map.put(key, i), control.put(key, i)) : "Error in " + name + "::put(K key, V value)";
+                    }
+                    case 1 -> {
+                        assert java.util.Objects.equals(map.remove(key), control.remove(key)) : "Error in " + name + "::remove(Object key)";
+                    }
+                    default -> {
+                        assert java.util.Objects.equals(map.get(key), control.get(key)) : "Error in " + name + "::get(Object key)";
+                    }
+                }
+                assert map.size() == control.size() : "Error in " + name + "::size()";
+            }
+
+            // verify
+            System.out.println(map.size() + " == " + control.size());
+
+            // test
+            for (String key : control.keySet()) {
+                assert control.get(key).equals(map.get(key)) : "Error in " + name + " after random operations";
+            }
+            assert map.keySet().size() == control.size() : "Error in " + name + "::keySet()";
+        }
+
+        // case 7: testing growth and shrinkage
+        {
+            // setup
+            System.out.println("case 7");
+            CustomMap<String, Integer> map = factory.get();
+            for (int i = 0; i < 10000; i++) {
+                map.put("key" + i, i);
+            }
+            int fullSize = map.size();
+            for (int i = 0; i < 10000; i++) {
+                map.remove("key" + i);
+            }
+
+            // verify
+            System.out.println(fullSize + " == 10000, " + map.size() + " == 0");
+
+            // test
+            assert fullSize == 10000 : "Error in " + name + " growing";
+            assert map.isEmpty() : "Error in " + name + " shrinking";
+        }
+
+        // case 8: testing keys that all share one hash code
+        {
+            // setup
+            System.out.println("case 8");
+            CustomMap<String, Integer> map = factory.get();
+            // "Aa" and "BB" have the same hash code, so every string built from them collides
+            ArrayList<String> keys = new ArrayList<>();
+            keys.add("");
+            for (int i = 0; i < 10; i++) {
+                ArrayList<String> longer = new ArrayList<>();
+                for (String key : keys) {
+                    longer.add(key + "Aa");
+                    longer.add(key + "BB");
+                }
+                keys = longer;
+            }
+            Collections.shuffle(keys, new Random(8));
+            for (int i = 0; i < keys.size(); i++) {
+                map.put(keys.get(i), i);
+            }
+            boolean allFound = true;
+            for (int i = 0; i < keys.size(); i++) {
+                allFound &= map.get(keys.get(i)) == i;
+            }
+            for (int i = 0; i < keys.size(); i += 2) {
+                map.remove(keys.get(i));
+            }
+
+            // verify
+            System.out.println(allFound + " == true, " + map.size() + " == " + keys.size() / 2);
+
+            // test
+            assert allFound : "Error in " + name + "::get(Object key) with colliding keys";
+            assert map.size() == keys.size() / 2 : "Error in " + name + "::remove(Object key) with colliding keys";
+            for (int i = 0; i < keys.size(); i++) {
+                assert map.containsKey(keys.get(i)) == (i % 2 == 1) : "Error in " + name + "::containsKey(Object key) with colliding keys";
+            }
+            if (map instanceof HashMap<String, Integer> hashMap) {
+                assert hashMap.maxDepth() < 20 : "Error in " + name + ", colliding bucket was not treeified";
+            }
+        }
+
+        // case 9: testing merge, compute and computeIfAbsent against java.util.HashMap
+        {
+            // setup
+            System.out.println("case 9");
+            CustomMap<String, Integer> map = factory.get();
+            java.util.HashMap<String, Integer> control = new java.util.HashMap<>();
+            Random rand = new Random(9);
+            java.util.function.BiFunction<Integer, Integer, Integer> sumOrDrop = (a, b) -> (a + b) % 7 == 0 ? null : Integer.valueOf(a + b);
+            for (int i = 0; i < 20000; i++) {
+                String key = "k" + rand.nextInt(300);
+                int delta = rand.nextInt(5) + 1;
+                switch (rand.nextInt(3)) {
+                    case 0 -> {
+                        assert java.util.Objects.equals(map.merge(key, delta, sumOrDrop), control.merge(key, delta, sumOrDrop)) : "Error in " + name + "::merge(K key, V value, BiFunction remappingFunction)";
+                    }
+                    case 1 -> {
+                        java.util.function.BiFunction<String, Integer, Integer> step = (k, v) -> v == null ? Integer.valueOf(delta) : (v > 20 ? null : Integer.valueOf(v + delta));
+                        assert java.util.Objects.equals(map.compute(key, step), control.compute(key, step)) : "Error in " + name + "::compute(K key, BiFunction remappingFunction)";
+                    }
+                    default -> {
+                        java.util.function.Function<String, Integer> make = k -> delta == 5 ? null : Integer.valueOf(delta);
+                        assert java.util.Objects.equals(map.computeIfAbsent(key, make), control.computeIfAbsent(key, make)) : "Error in " + name + "::computeIfAbsent(K key, Function mappingFunction)";
+                    }
+                }
+                assert map.size() == control.size() : "Error in " + name + "::size() after merge/compute";
+            }
+
+            // verify
+            System.out.println(map.size() + " == " + control.size());
+
+            // test
+            for (String key : control.keySet()) {
+                assert control.get(key).equals(map.get(key)) : "Error in " + name + " after merge/compute";
+            }
+        }
+    }
+
+    public static void testBSTMap(String name, boolean balanced) {
+        System.out.println("testing " + name + " navigation");
+
+        // case 1: testing supremum(K key) and infimum(K key) against java.util.TreeMap
+        {
+            // setup
+            System.out.println("case 1");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            java.util.TreeMap<Integer, Integer> control = new java.util.TreeMap<>();
+            boolean emptyBounds = map.supremum(5) == null && map.infimum(5) == null;
+            Random rand = new Random(1);
+            for (int i = 0; i < 500; i++) {
+                int key = rand.nextInt(2000) * 2;
+                map.put(key, i);
+                control.put(key, i);
+            }
+
+            // verify
+            System.out.println(emptyBounds + " == true, " + map.supremum(-1).getKey() + " == " + control.ceilingKey(-1));
+
+            // test
+            assert emptyBounds : "Error in " + name + "::supremum(K key) on an empty map";
+            for (int key = -1; key < 4002; key++) {
+                BSTMap.Node<Integer, Integer> ceiling = map.supremum(key);
+                BSTMap.Node<Integer, Integer> floor = map.infimum(key);
+                assert java.util.Objects.equals(ceiling == null ? null : ceiling.getKey(), control.ceilingKey(key)) : "Error in " + name + "::supremum(K key)";
+                assert java.util.Objects.equals(floor == null ? null : floor.getKey(), control.floorKey(key)) : "Error in " + name + "::infimum(K key)";
+            }
+        }
+
+        // case 2: testing sorted insertion and removal
+        {
+            // setup
+            System.out.println("case 2");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            for (int i = 0; i < 2000; i++) {
+                map.put(i, i);
+            }
+            int fullDepth = map.maxDepth();
+            for (int i = 0; i < 1500; i++) {
+                map.remove(i);
+            }
+            int afterDepth = map.maxDepth();
+
+            // verify
+            System.out.println(map.size() + " == 500, depths " + fullDepth + ", " + afterDepth);
+
+            // test
+            assert map.size() == 500 : "Error in " + name + "::remove(Object key)";
+            for (int i = 0; i < 2000; i++) {
+                assert map.containsKey(i) == (i >= 1500) : "Error in " + name + "::remove(Object key)";
+            }
+            if (balanced) {
+                // a red-black tree with n nodes has height at most 2 log2(n + 1)
+                assert fullDepth <= 22 : "Error in " + name + ", tree was not balanced on insertion";
+                assert afterDepth <= 18 : "Error in " + name + ", tree was not balanced on removal";
+            }
+        }
+
+        // case 3: testing removal through the iterator
+        {
+            // setup
+            System.out.println("case 3");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            Random rand = new Random(3);
+            for (int i = 0; i < 1000; i++) {
+                map.put(rand.nextInt(10000), i);
+            }
+            int fullSize = map.size();
+            java.util.Iterator<BSTMap.Node<Integer, Integer>> iter = map.iterator();
+            int seen = 0;
+            while (iter.hasNext()) {
+                if (iter.next().getKey() % 2 == 0) iter.remove();
+                seen++;
+            }
+
+            // verify
+            System.out.println(seen + " == " + fullSize);
+
+            // test
+            assert seen == fullSize : "Error in " + name + "::iterator() removal skipped nodes";
+            for (BSTMap.Node<Integer, Integer> node : map) {
+                assert node.getKey() % 2 == 1 : "Error in " + name + "::iterator() removal";
+            }
+        }
+
+        // case 4: testing the live entry, key and value views
+        {
+            // setup
+            System.out.println("case 4");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            for (int i = 0; i < 100; i++) {
+                map.put(i, i * 10);
+            }
+            BSTMap<Integer, Integer>.EntrySet entries = map.entrySetES();
+            java.util.Collection<Integer> values = map.valuesView();
+            java.util.Set<Integer> keys = map.keySet();
+            boolean foundEntry = entries.contains(new BSTMap.Node<>(42, 420, null));
+            boolean foundWrongValue = entries.contains(new BSTMap.Node<>(42, 421, null));
+            entries.remove(new BSTMap.Node<>(10, 100, null));
+            keys.remove(20);
+            values.removeIf(value -> value % 300 == 0);
+            map.put(1000, 1);
+
+            // verify
+            System.out.println(entries.size() + " == " + keys.size() + " == " + values.size() + " == " + map.size() + " == 95");
+
+            // test
+            assert foundEntry && !foundWrongValue : "Error in " + name + "::entrySetES().contains(Object obj)";
+            assert map.size() == 95 : "Error in " + name + " view removal";
+            assert entries.size() == 95 && keys.size() == 95 && values.size() == 95 : "Error in " + name + " view sizes";
+            assert !map.containsKey(10) && !map.containsKey(20) && !map.containsKey(30) : "Error in " + name + " view removal";
+            assert map.values().equals(new ArrayList<>(values)) : "Error in " + name + "::values()";
+            int previous = Integer.MIN_VALUE;
+            for (BSTMap.Node<Integer, Integer> entry : entries) {
+                assert entry.getKey() > previous : "Error in " + name + "::entrySetES() ordering";
+                previous = entry.getKey();
+            }
+            entries.clear();
+            assert map.isEmpty() && values.isEmpty() : "Error in " + name + "::entrySetES().clear()";
+        }
+
+        // case 5: testing the lazy walks against recursive walks
+        {
+            // setup
+            System.out.println("case 5");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            Random rand = new Random(5);
+            for (int i = 0; i < 300; i++) {
+                map.put(rand.nextInt(1000), i);
+            }
+            ArrayList<ArrayList<Integer>> expected = new ArrayList<>();
+            for (int walkType = -1; walkType <= 1; walkType++) {
+                ArrayList<Integer> keys = new ArrayList<>();
+                recursiveWalk(map.getRoot(), walkType, keys);
+                expected.add(keys);
+            }
+            ArrayList<Integer> levelOrder = new ArrayList<>();
+            java.util.ArrayDeque<BSTMap.Node<Integer, Integer>> queue = new java.util.ArrayDeque<>();
+            queue.offer(map.getRoot());
+            while (!queue.isEmpty()) {
+                BSTMap.Node<Integer, Integer> node = queue.poll();
+                levelOrder.add(node.getKey());
+                if (node.getLeft() != null) queue.offer(node.getLeft());
+                if (node.getRight() != null) queue.offer(node.getRight());
+            }
+            expected.add(levelOrder);
+            BSTMap.Node<Integer, Integer> subtree = map.getRoot().getLeft();
+            ArrayList<Integer> subtreeExpected = new ArrayList<>();
+            recursiveWalk(subtree, 1, subtreeExpected);
+
+            // verify
+            System.out.println(map.treeWalk(-1).size() + " == " + map.size());
+
+            // test
+            for (int walkType = -1; walkType <= 2; walkType++) {
+                ArrayList<Integer> keys = new ArrayList<>();
+                map.walkIterator(walkType).forEachRemaining(node -> keys.add(node.getKey()));
+                assert keys.equals(expected.get(walkType + 1)) : "Error in " + name + "::walkIterator(int walkType) for " + walkType;
+            }
+            ArrayList<Integer> subtreeKeys = new ArrayList<>();
+            map.walkIterator(subtree, 1).forEachRemaining(node -> subtreeKeys.add(node.getKey()));
+            assert subtreeKeys.equals(subtreeExpected) : "Error in " + name + "::walkIterator(Node node, int walkType)";
+            assert !map.walkIterator(null, 0).hasNext() : "Error in " + name + "::walkIterator(Node node, int walkType) on null";
+            assert map.valueSearch(map.get(expected.get(0).get(150)), 0).getKey().equals(expected.get(0).get(150)) : "Error in " + name + "::valueSearch(Object value, int searchType)";
+        }
+
+        // case 6: testing spliterators and parallel streams
+        {
+            // setup
+            System.out.println("case 6");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            Random rand = new Random(6);
+            long expectedSum = 0;
+            for (int i = 0; i < 5000; i++) {
+                int key = rand.nextInt(1000000);
+                if (map.put(key, key) == null) expectedSum += key;
+            }
+            long parallelSum = map.parallelStream().mapToLong(BSTMap.Node::getKey).sum();
+            ArrayList<Integer> parallelKeys = new ArrayList<>(map.keySet().parallelStream().toList());
+            long valueCount = map.valuesView().parallelStream().count();
+            java.util.Spliterator<BSTMap.Node<Integer, Integer>> whole = map.spliterator();
+            java.util.Spliterator<BSTMap.Node<Integer, Integer>> half = whole.trySplit();
+
+            // verify
+            System.out.println(parallelSum + " == " + expectedSum);
+
+            // test
+            assert parallelSum == expectedSum : "Error in " + name + "::parallelStream()";
+            assert parallelKeys.equals(new ArrayList<>(map.keySet())) : "Error in " + name + "::keySet().parallelStream() ordering";
+            assert valueCount == map.size() : "Error in " + name + "::valuesView().spliterator()";
+            if (balanced) {
+                assert half != null && half.estimateSize() > 0 : "Error in " + name + "::spliterator().trySplit()";
+                long[] counts = new long[2];
+                half.forEachRemaining(node -> counts[0]++);
+                whole.forEachRemaining(node -> counts[1]++);
+                assert counts[0] + counts[1] == map.size() : "Error in " + name + "::spliterator() split coverage";
+                assert counts[0] > map.size() / 4 && counts[1] > map.size() / 4 : "Error in " + name + "::spliterator() split balance";
+            }
+        }
+
+        // case 7: testing walks over a degenerate tree
+        {
+            // setup
+            System.out.println("case 7");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            for (int i = 0; i < 5000; i++) {
+                map.put(i, i);
+            }
+            int[] counts = new int[4];
+            for (int walkType = -1; walkType <= 2; walkType++) {
+                final int index = walkType + 1;
+                map.walkIterator(walkType).forEachRemaining(node -> counts[index]++);
+            }
+
+            // verify
+            System.out.println(java.util.Arrays.toString(counts));
+
+            // test
+            for (int count : counts) {
+                assert count == 5000 : "Error in " + name + "::walkIterator(int walkType) on a deep tree";
+            }
+            assert map.containsValue(4999) : "Error in " + name + "::containsValue(Object value)";
+        }
+
+        // case 8: testing rank, select, countRange and subMap against java.util.TreeMap
+        {
+            // setup
+            System.out.println("case 8");
+            BSTMap<Integer, Integer> map = new BSTMap<>(null, balanced);
+            java.util.TreeMap<Integer, Integer> control = new java.util.TreeMap<>();
+            Random rand = new Random(8);
+            for (int i = 0; i < 20000; i++) {
+                int key = rand.nextInt(2000);
+                if (rand.nextInt(3) == 0) {
+                    map.remove(key);
+                    control.remove(key);
+                } else {
+                    map.put(key, i);
+                    control.put(key, i);
+                }
+            }
+            ArrayList<Integer> controlKeys = new ArrayList<>(control.keySet());
+
+            // verify
+            System.out.println(map.countRange(500, 1500) + " == " + control.subMap(500, 1500).size());
+
+            // test
+            for (int i = 0; i < controlKeys.size(); i++) {
+                assert map.select(i).getKey().equals(controlKeys.get(i)) : "Error in " + name + "::select(int k)";
+                assert map.rank(controlKeys.get(i)) == i : "Error in " + name + "::rank(K key)";
+            }
+            for (int i = 0; i < 200; i++) {
+                int lo = rand.nextInt(2100) - 50;
+                int hi = lo + rand.nextInt(300);
+                assert map.countRange(lo, hi) == control.subMap(lo, hi).size() : "Error in " + name + "::countRange(K lo, K hi)";
+                ArrayList<Integer> rangeKeys = new ArrayList<>();
+                for (BSTMap.Node<Integer, Integer> node : map.subMap(lo, hi)) rangeKeys.add(node.getKey());
+                assert rangeKeys.equals(new ArrayList<>(control.subMap(lo, hi).keySet())) : "Error in " + name + "::subMap(K lo, K hi)";
+            }
+            boolean threw = false;
+            try {
+                map.select(map.size());
+            } catch (IndexOutOfBoundsException e) {
+                threw = true;
+            }
+            assert threw : "Error in " + name + "::select(int k) out of bounds";
+        }
+    }
+
+    private static void recursiveWalk(BSTMap.Node<Integer, Integer> node, int walkType, ArrayList<Integer> keys) {
+        if (node == null) return;
+        if (walkType == 0) keys.add(node.getKey());
+        recursiveWalk(node.getLeft(), walkType, keys);
+        if (walkType == -1) keys.add(node.getKey());
+        recursiveWalk(node.getRight(), walkType, keys);
+        if (walkType == 1) keys.add(node.getKey());
+    }
+
+    public static void testStripedHashMap() throws InterruptedException {
+        System.out.println("testing StripedHashMap concurrency");
+
+        // case 1: testing concurrent merge into a shared map
+        {
+            // setup
+            System.out.println("case 1");
+            StripedHashMap<String, Integer> map = new StripedHashMap<>();
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        map.merge("word" + (i % 1000), 1, Integer::sum);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+
+            // verify
+            System.out.println(map.size() + " == 1000, " + map.get("word7") + " == 160");
+
+            // test
+            assert map.size() == 1000 : "Error in StripedHashMap::merge(K key, V value, BiFunction remappingFunction) size";
+            for (int i = 0; i < 1000; i++) {
+                assert map.get("word" + i) == 160 : "Error in StripedHashMap::merge(K key, V value, BiFunction remappingFunction) lost an update";
+            }
+        }
+
+        // case 2: testing that putIfAbsent and computeIfAbsent have exactly one winner
+        {
+            // setup
+            System.out.println("case 2");
+            StripedHashMap<String, Integer> map = new StripedHashMap<>(4);
+            java.util.concurrent.atomic.AtomicInteger winners = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicInteger computations = new java.util.concurrent.atomic.AtomicInteger();
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                final int id = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (map.putIfAbsent("key" + i, id) == null) winners.incrementAndGet();
+                        map.computeIfAbsent("computed" + i, key -> computations.incrementAndGet());
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+
+            // verify
+            System.out.println(winners.get() + " == 500, " + computations.get() + " == 500");
+
+            // test
+            assert winners.get() == 500 : "Error in StripedHashMap::putIfAbsent(K key, V value)";
+            assert computations.get() == 500 : "Error in StripedHashMap::computeIfAbsent(K key, Function mappingFunction)";
+            assert map.size() == 1000 : "Error in StripedHashMap::size()";
+        }
+
+        // case 3: testing containsValue across stripes
+        {
+            // setup
+            System.out.println("case 3");
+            StripedHashMap<String, Integer> map = new StripedHashMap<>(4);
+            for (int i = 0; i < 100; i++) map.put("key" + i, i * 3);
+            boolean present = true;
+            for (int i = 0; i < 100; i++) present &= map.containsValue(i * 3);
+            boolean absent = !map.containsValue(1) && !map.containsValue(300) && !map.containsValue(null);
+
+            // verify
+            System.out.println(present + " == true, " + absent + " == true");
+
+            // test
+            assert present : "Error in StripedHashMap::containsValue(Object value) missed a value";
+            assert absent : "Error in StripedHashMap::containsValue(Object value) found a missing value";
+        }
+
+        // case 4: testing that WordCounter only counts on several threads into a thread-safe map
+        {
+            // setup
+            System.out.println("case 4");
+            ArrayList<String> words = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) words.add("word" + (i % 100));
+            WordCounter striped = new WordCounter("Striped");
+            striped.buildMap(words, 4);
+            boolean rejected = false;
+            try {
+                new WordCounter("HashMap").buildMap(words, 4);
+            } catch (IllegalArgumentException e) {
+                rejected = true;
+            }
+
+            // verify
+            System.out.println(striped.getCount("word7") + " == 40, " + rejected + " == true");
+
+            // test
+            assert striped.getCount("word7") == 40 : "Error in WordCounter::buildMap(ArrayList words, int threads)";
+            assert rejected : "Error in WordCounter::buildMap(ArrayList words, int threads) accepted a HashMap";
+        }
+    }
+
+    public static void testStringCountMap() {
+        System.out.println("testing StringCountMap counting");
+
+        // case 1: testing increment, addTo and getInt against java.util.HashMap
+        {
+            // setup
+            System.out.println("case 1");
+            StringCountMap map = new StringCountMap();
+            java.util.HashMap<String, Integer> control = new java.util.HashMap<>();
+            Random rand = new Random(1);
+            for (int i = 0; i < 50000; i++) {
+                String key = "w" + rand.nextInt(3000);
+                int after;
+                if (rand.nextBoolean()) {
+                    after = map.increment(key);
+                    control.merge(key, 1, Integer::sum);
+                } else {
+                    int delta = rand.nextInt(7) - 3;
+                    after = map.addTo(key, delta);
+                    control.merge(key, delta, Integer::sum);
+                }
+                assert after == control.get(key) : "Error in StringCountMap::increment(String key) or StringCountMap::addTo(String key, int delta)";
+                if (rand.nextInt(10) == 0) {
+                    String gone = "w" + rand.nextInt(3000);
+                    assert java.util.Objects.equals(map.remove(gone), control.remove(gone)) : "Error in StringCountMap::remove(Object key)";
+                }
+            }
+
+            // verify
+            System.out.println(map.size() + " == " + control.size() + ", " + map.getInt("missing") + " == 0");
+
+            // test
+            assert map.size() == control.size() : "Error in StringCountMap::size()";
+            assert map.getInt("missing") == 0 : "Error in StringCountMap::getInt(Object key) on a missing key";
+            for (String key : control.keySet()) {
+                assert map.getInt(key) == control.get(key) : "Error in StringCountMap::getInt(Object key)";
+            }
+        }
+    }
+
+    public static void testWordCountSnapshot() throws java.io.IOException {
+        System.out.println("testing WordCountSnapshot round trip");
+
+        // case 1: testing that a written snapshot maps back to the same counts, in sorted key order
+        {
+            // setup
+            System.out.println("case 1");
+            StringCountMap map = new StringCountMap();
+            Random rand = new Random(2);
+            for (int i = 0; i < 20000; i++) {
+                map.addTo("w" + rand.nextInt(5000), rand.nextInt(1000) - 10);
+            }
+            map.put("", 7);
+            map.put("na\u00efve", 300000);
+            map.put("\ud83d\ude00", Integer.MIN_VALUE);
+            java.io.File file = java.io.File.createTempFile("counts", ".wcs");
+            file.deleteOnExit();
+            WordCountSnapshot.write(map, 20003, file.getPath());
+            WordCountSnapshot snapshot = WordCountSnapshot.open(file.getPath());
+            ArrayList<String> sorted = new ArrayList<>(map.keySet());
+            Collections.sort(sorted);
+
+            // verify
+            System.out.println(snapshot.size() + " == " + map.size() + ", " + snapshot.totalWordCount() + " == 20003");
+
+            // test
+            assert snapshot.size() == map.size() : "Error in WordCountSnapshot::size()";
+            assert snapshot.totalWordCount() == 20003 : "Error in WordCountSnapshot::totalWordCount()";
+            for (String key : map.keySet()) {
+                assert map.get(key).equals(snapshot.get(key)) : "Error in WordCountSnapshot::get(Object key)";
+            }
+            assert snapshot.get("missing") == null : "Error in WordCountSnapshot::get(Object key) on a missing key";
+            assert !snapshot.containsKey("w") : "Error in WordCountSnapshot::containsKey(Object key)";
+            assert new ArrayList<>(snapshot.keySet()).equals(sorted) : "Error in WordCountSnapshot::keySet() order";
+            try {
+                snapshot.put("w1", 1);
+                assert false : "Error in WordCountSnapshot::put(K key, V value) on a read-only snapshot";
+            } catch (UnsupportedOperationException ignored) {
+            }
+        }
+
+        // case 2: testing that entries compare equal to the entries of the counted map
+        {
+            // setup
+            System.out.println("case 2");
+            StringCountMap map = new StringCountMap();
+            map.put("cat", 3);
+            map.put("dog", 5);
+            java.io.File file = java.io.File.createTempFile("counts", ".wcs");
+            file.deleteOnExit();
+            WordCountSnapshot.write(map, 8, file.getPath());
+            WordCountSnapshot snapshot = WordCountSnapshot.open(file.getPath());
+            ArrayList<StringCountMap.Entry> counted = map.entrySet();
+            counted.sort(java.util.Comparator.comparing(StringCountMap.Entry::getKey));
+            ArrayList<WordCountSnapshot.Entry> entries = snapshot.entrySet();
+
+            // verify
+            System.out.println(entries + " == " + counted);
+
+            // test
+            assert entries.equals(counted) && counted.equals(entries) : "Error in WordCountSnapshot.Entry::equals(Object obj)";
+            assert entries.hashCode() == counted.hashCode() : "Error in WordCountSnapshot.Entry::hashCode()";
+            assert entries.get(0).hashCode() == ("cat".hashCode() ^ 3) : "Error in WordCountSnapshot.Entry::hashCode()";
+        }
+    }
+
+    public static void testSnapshotMerger() throws java.io.IOException, InterruptedException {
+        System.out.println("testing SnapshotMerger k-way merge");
+
+        // case 1: testing the merged totals, deltas and movers against java.util.HashMap, for several range counts
+        {
+            // setup
+            System.out.println("case 1");
+            int years = 3;
+            Random rand = new Random(3);
+            WordCountSnapshot[] snapshots = new WordCountSnapshot[years];
+            java.util.TreeMap<String, int[]> control = new java.util.TreeMap<>();
+            for (int y = 0; y < years; y++) {
+                StringCountMap map = new StringCountMap();
+                for (int i = 0; i < 5000; i++) {
+                    String key = "w" + rand.nextInt(2000 + 500 * y);
+                    map.increment(key);
+                    control.computeIfAbsent(key, k -> new int[years])[y]++;
+                }
+                java.io.File file = java.io.File.createTempFile("year" + y, ".wcs");
+                file.deleteOnExit();
+                WordCountSnapshot.write(map, 5000, file.getPath());
+                snapshots[y] = WordCountSnapshot.open(file.getPath());
+            }
+            StringBuilder expectedTotals = new StringBuilder("15000\n");
+            ArrayList<SnapshotMerger.Mover> expectedGainers = new ArrayList<>();
+            for (java.util.Map.Entry<String, int[]> entry : control.entrySet()) {
+                int[] counts = entry.getValue();
+                expectedTotals.append(entry.getKey()).append(" - ").append(counts[0] + counts[1] + counts[2]).append("\n");
+                expectedGainers.add(new SnapshotMerger.Mover(entry.getKey(), counts[0], counts[1]));
+            }
+            expectedGainers.sort(java.util.Comparator.comparingLong(SnapshotMerger.Mover::delta).reversed()
+                    .thenComparing(SnapshotMerger.Mover::word));
+            java.io.File totals = java.io.File.createTempFile("totals", ".txt");
+            java.io.File deltas = java.io.File.createTempFile("deltas", ".txt");
+            totals.deleteOnExit();
+            deltas.deleteOnExit();
+            SnapshotMerger merger = new SnapshotMerger(snapshots, 5);
+            SnapshotMerger.Result single = merger.merge(totals.getPath(), deltas.getPath(), 1);
+            String singleDeltas = java.nio.file.Files.readString(deltas.toPath());
+            SnapshotMerger.Result result = merger.merge(totals.getPath(), deltas.getPath(), 7);
+
+            // verify
+            System.out.println(result.uniqueWords() + " == " + control.size() + ", " + result.gainers().get(0) + " == " + expectedGainers.subList(0, 5));
+
+            // test
+            assert result.uniqueWords() == control.size() : "Error in SnapshotMerger::merge(...) unique words";
+            assert result.totalWords() == 15000 : "Error in SnapshotMerger::merge(...) total words";
+            assert java.nio.file.Files.readString(totals.toPath()).equals(expectedTotals.toString()) : "Error in SnapshotMerger::merge(...) totals";
+            assert java.nio.file.Files.readString(deltas.toPath()).equals(singleDeltas) : "Error in SnapshotMerger::merge(...) deltas depend on the ranges";
+            assert result.gainers().equals(single.gainers()) && result.losers().equals(single.losers()) : "Error in SnapshotMerger::merge(...) movers depend on the ranges";
+            assert result.gainers().get(0).equals(expectedGainers.subList(0, 5)) : "Error in SnapshotMerger::merge(...) gainers";
+            for (SnapshotMerger.Mover loser : result.losers().get(1)) {
+                assert loser.delta() < 0 && control.get(loser.word())[2] == loser.after() : "Error in SnapshotMerger::merge(...) losers";
+            }
+        }
+    }
+
+    public static void testTopK(String name, Supplier<CustomMap<String, Integer>> factory) {
+        System.out.println("testing TopK over " + name);
+
+        // case 1: testing sequential and parallel top-k against a full sort
+        {
+            // setup
+            System.out.println("case 1");
+            CustomMap<String, Integer> map = factory.get();
+            Random rand = new Random(4);
+            for (int i = 0; i < 20000; i++) {
+                map.merge("w" + rand.nextInt(6000), rand.nextInt(50), Integer::sum);
+            }
+            ArrayList<String> expected = new ArrayList<>(map.keySet());
+            expected.sort(java.util.Comparator.<String, Integer>comparing(map::get).reversed().thenComparing(key -> key));
+            ArrayList<String> top = new ArrayList<>();
+            TopK.byValue(map, 25).forEach(entry -> top.add(entry.getKey()));
+            ArrayList<String> parallelTop = new ArrayList<>();
+            TopK.parallelByValue(map, 25).forEach(entry -> parallelTop.add(entry.getKey()));
+            long[] visited = new long[1];
+            map.entrySpliterator().forEachRemaining(entry -> visited[0]++);
+
+            // verify
+            System.out.println(top.subList(0, 3) + " == " + expected.subList(0, 3));
+
+            // test
+            assert visited[0] == map.size() : "Error in " + name + "::entrySpliterator()";
+            assert top.equals(expected.subList(0, 25)) : "Error in TopK::byValue(CustomMap map, int k) over " + name;
+            assert parallelTop.equals(top) : "Error in TopK::parallelByValue(CustomMap map, int k) over " + name;
+            assert TopK.byValue(map, 0).isEmpty() : "Error in TopK::byValue(CustomMap map, int k) with k == 0";
+            assert TopK.byValue(map, map.size() + 5).size() == map.size() : "Error in TopK::byValue(CustomMap map, int k) with k > size";
+        }
+    }
+
+    public static void testHamtMap() throws InterruptedException {
+        System.out.println("testing HamtMap versions");
+
+        // case 1: testing that snapshot, with and without leave earlier versions unchanged
+        {
+            // setup
+            System.out.println("case 1");
+            HamtMap<Integer, Integer> map = new HamtMap<>();
+            for (int i = 0; i < 5000; i++) map.put(i, i);
+            HamtMap<Integer, Integer> before = map.snapshot();
+            HamtMap<Integer, Integer> added = map.with(-1, -1);
+            HamtMap<Integer, Integer> removed = map.without(42);
+            for (int i = 0; i < 5000; i += 2) map.remove(i);
+            map.put(1, 100);
+
+            // verify
+            System.out.println(before.size() + " == 5000, " + added.size() + " == 5001, " + removed.size() + " == 4999, " + map.size() + " == 2500");
+
+            // test
+            assert before.size() == 5000 && added.size() == 5001 && removed.size() == 4999 && map.size() == 2500 : "Error in HamtMap::size() across versions";
+            for (int i = 0; i < 5000; i++) {
+                assert before.get(i) == i : "Error in HamtMap::snapshot()";
+                assert added.get(i) == i : "Error in HamtMap::with(K key, V value)";
+                assert (i == 42) ? removed.get(i) == null : removed.get(i) == i : "Error in HamtMap::without(Object key)";
+            }
+            assert added.get(-1) == -1 && map.get(-1) == null : "Error in HamtMap::with(K key, V value) changed the original";
+            assert map.get(1) == 100 && before.get(1) == 1 : "Error in HamtMap::put(K key, V value) changed a snapshot";
+        }
+
+        // case 2: testing the builder against java.util.HashMap, and that a built map is not changed by the builder
+        {
+            // setup
+            System.out.println("case 2");
+            HamtMap.Builder<String, Integer> builder = HamtMap.builder();
+            java.util.HashMap<String, Integer> control = new java.util.HashMap<>();
+            Random rand = new Random(5);
+            for (int i = 0; i < 30000; i++) {
+                String key = "w" + rand.nextInt(8000);
+                if (rand.nextInt(5) == 0) {
+                    assert java.util.Objects.equals(builder.remove(key), control.remove(key)) : "Error in HamtMap.Builder::remove(Object key)";
+                } else {
+                    builder.merge(key, 1, Integer::sum);
+                    control.merge(key, 1, Integer::sum);
+                }
+            }
+            HamtMap<String, Integer> built = builder.build();
+            HamtMap<String, Integer> rebuilt = built.toBuilder().build();
+            for (String key : control.keySet()) builder.put(key, -1);
+
+            // verify
+            System.out.println(built.size() + " == " + control.size() + ", " + rebuilt.size() + " == " + control.size());
+
+            // test
+            assert built.size() == control.size() && builder.size() == control.size() : "Error in HamtMap.Builder::size()";
+            assert built.keySet().size() == control.size() : "Error in HamtMap::keySet() after build()";
+            for (String key : control.keySet()) {
+                assert control.get(key).equals(built.get(key)) : "Error in HamtMap.Builder::build() or a later put changed the built map";
+                assert control.get(key).equals(rebuilt.get(key)) : "Error in HamtMap::toBuilder()";
+            }
+        }
+
+        // case 3: testing that readers see whole versions while a writer updates the map
+        {
+            // setup
+            System.out.println("case 3");
+            HamtMap<Integer, Integer> map = new HamtMap<>();
+            for (int i = 0; i < 64; i++) map.put(i, 0);
+            boolean[] torn = new boolean[1];
+            Thread reader = new Thread(() -> {
+                for (int round = 0; round < 2000; round++) {
+                    // Every write below moves all 64 values to the same round, so a version mixes rounds only if torn
+                    java.util.HashSet<Integer> seen = new java.util.HashSet<>(map.values());
+                    if (seen.size() != 1) torn[0] = true;
+                }
+            });
+            reader.start();
+            for (int round = 1; round <= 2000; round++) {
+                int value = round;
+                map.replaceAll((k, v) -> value);
+            }
+            reader.join();
+
+            // verify
+            System.out.println(torn[0] + " == false, " + map.get(7) + " == 2000");
+
+            // test
+            assert !torn[0] : "Error in HamtMap::values() saw a partial update";
+            assert map.get(7) == 2000 : "Error in HamtMap::replaceAll(BiFunction function)";
+        }
+
+        // case 4: testing that entries compare equal to the entries of other maps
+        {
+            // setup
+            System.out.println("case 4");
+            HamtMap<String, Integer> map = new HamtMap<String, Integer>().with("a", 1).with("b", 2);
+            RobinHoodHashMap<String, Integer> other = new RobinHoodHashMap<>();
+            other.put("a", 1);
+            other.put("b", 2);
+            CustomMap.Entry<String, Integer> entry = map.entrySet().get(0);
+            CustomMap.Entry<String, Integer> otherEntry = other.entrySet().stream().filter(e -> e.getKey().equals(entry.getKey())).findFirst().orElseThrow();
+
+            // verify
+            System.out.println(entry.equals(otherEntry) + " == true, " + entry.hashCode() + " == " + otherEntry.hashCode());
+
+            // test
+            assert entry.equals(otherEntry) && otherEntry.equals(entry) : "Error in HamtMap.Entry::equals(Object obj)";
+            assert entry.hashCode() == (entry.getKey().hashCode() ^ entry.getValue().hashCode()) : "Error in HamtMap.Entry::hashCode()";
+            assert !entry.equals(new HamtMap.Entry<>(entry.getKey(), -1)) : "Error in HamtMap.Entry::equals(Object obj) on another value";
+        }
+    }
+
+    public static void testBloomFilteredMap() {
+        System.out.println("testing BloomFilteredMap filtering");
+
+        // case 1: testing the false-positive rate on absent keys, and that present keys always pass
+        {
+            // setup
+            System.out.println("case 1");
+            BloomFilteredMap<String, Integer> map = new BloomFilteredMap<>(new BSTMap<>(), 10000, .01, false);
+            for (int i = 0; i < 10000; i++) map.put("present" + i, i);
+            int falsePositives = 0;
+            for (int i = 0; i < 100000; i++) {
+                if (map.mightContain("absent" + i)) falsePositives++;
+            }
+            double rate = falsePositives / 100000.0;
+
+            // verify
+            System.out.println(rate + " <= 0.02, " + map.hashCount() + " == 7, " + map.memoryBytes() + " bytes");
+
+            // test
+            assert rate <= .02 : "Error in BloomFilteredMap::mightContain(Object key) false-positive rate";
+            assert map.hashCount() == 7 : "Error in BloomFilteredMap::hashCount()";
+            assert map.memoryBytes() == 8 * ((map.bitCount() + 63) / 64) : "Error in BloomFilteredMap::memoryBytes()";
+            assert Math.abs(map.expectedFalsePositiveRate() - .01) < .002 : "Error in BloomFilteredMap::expectedFalsePositiveRate()";
+            for (int i = 0; i < 10000; i++) {
+                assert map.mightContain("present" + i) && map.get("present" + i) == i : "Error in BloomFilteredMap::get(Object key) on a present key";
+            }
+        }
+
+        // case 2: testing that a counting filter forgets removed keys, and that a plain one grows past its size
+        {
+            // setup
+            System.out.println("case 2");
+            BloomFilteredMap<Integer, Integer> counting = new BloomFilteredMap<>(new HashMap<>(), 1000, .01, true);
+            BloomFilteredMap<Integer, Integer> plain = new BloomFilteredMap<>(new HashMap<>(), 100, .01, false);
+            for (int i = 0; i < 1000; i++) {
+                counting.put(i, i);
+                plain.merge(i, 1, Integer::sum);
+            }
+            for (int i = 0; i < 1000; i++) counting.remove(i);
+            int remembered = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (counting.mightContain(i)) remembered++;
+            }
+
+            // verify
+            System.out.println(remembered + " == 0, " + plain.bitCount() + " >= 9585, " + plain.size() + " == 1000");
+
+            // test
+            assert remembered == 0 : "Error in BloomFilteredMap::remove(Object key) on a counting filter";
+            assert counting.isEmpty() && counting.expectedFalsePositiveRate() == 0 : "Error in BloomFilteredMap::remove(Object key) count";
+            assert plain.bitCount() >= 9585 && plain.expectedFalsePositiveRate() <= .01 : "Error in BloomFilteredMap growth";
+            for (int i = 0; i < 1000; i++) {
+                assert plain.containsKey(i) : "Error in BloomFilteredMap::containsKey(Object key) after growth";
+            }
+        }
+    }
+
+    public static void testSkipListMap() throws InterruptedException {
+        System.out.println("testing SkipListMap navigation and concurrency");
+
+        // case 1: testing supremum, infimum, fetchNearest and subMap against java.util.TreeMap
+        {
+            // setup
+            System.out.println("case 1");
+            SkipListMap<Integer, Integer> map = new SkipListMap<>();
+            java.util.TreeMap<Integer, Integer> control = new java.util.TreeMap<>();
+            boolean emptyBounds = map.supremum(5) == null && map.infimum(5) == null && map.fetchNearest(5) == null;
+            Random rand = new Random(1);
+            for (int i = 0; i < 500; i++) {
+                int key = rand.nextInt(2000) * 2;
+                map.put(key, i);
+                control.put(key, i);
+            }
+            for (int i = 0; i < 100; i++) {
+                int key = rand.nextInt(2000) * 2;
+                assert java.util.Objects.equals(map.remove(key), control.remove(key)) : "Error in SkipListMap::remove(Object key)";
+            }
+            ArrayList<Integer> range = new ArrayList<>();
+            for (SkipListMap.Node<Integer, Integer> node : map.subMap(1000, 1200)) range.add(node.getKey());
+
+            // verify
+            System.out.println(emptyBounds + " == true, " + map.size() + " == " + control.size() + ", " + range.size() + " == " + control.subMap(1000, 1200).size());
+
+            // test
+            assert emptyBounds : "Error in SkipListMap::supremum(K key) on an empty map";
+            assert map.size() == control.size() : "Error in SkipListMap::size()";
+            assert range.equals(new ArrayList<>(control.subMap(1000, 1200).keySet())) : "Error in SkipListMap::subMap(K lo, K hi)";
+            assert new ArrayList<>(map.keySet()).equals(new ArrayList<>(control.keySet())) : "Error in SkipListMap::keySet() order";
+            for (int key = -1; key < 4002; key++) {
+                SkipListMap.Node<Integer, Integer> ceiling = map.supremum(key);
+                SkipListMap.Node<Integer, Integer> floor = map.infimum(key);
+                SkipListMap.Node<Integer, Integer> nearest = map.fetchNearest(key);
+                Integer expected = (control.ceilingKey(key) != null) ? control.ceilingKey(key) : control.floorKey(key);
+                assert java.util.Objects.equals(ceiling == null ? null : ceiling.getKey(), control.ceilingKey(key)) : "Error in SkipListMap::supremum(K key)";
+                assert java.util.Objects.equals(floor == null ? null : floor.getKey(), control.floorKey(key)) : "Error in SkipListMap::infimum(K key)";
+                assert java.util.Objects.equals(nearest == null ? null : nearest.getKey(), expected) : "Error in SkipListMap::fetchNearest(K key)";
+            }
+            try {
+                map.bound(3, 0);
+                assert false : "Error in SkipListMap::bound(K key, int upperLower) accepted 0";
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+
+        // case 2: testing concurrent merge, putIfAbsent and computeIfAbsent
+        {
+            // setup
+            System.out.println("case 2");
+            SkipListMap<String, Integer> map = new SkipListMap<>();
+            java.util.concurrent.atomic.AtomicInteger winners = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicInteger computed = new java.util.concurrent.atomic.AtomicInteger();
+            Thread[] threads = new Thread[8];
+            for (int t = 0; t < threads.length; t++) {
+                final int id = t;
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        map.merge("word" + (i % 1000), 1, Integer::sum);
+                        if (i < 500 && map.putIfAbsent("key" + i, id) == null) winners.incrementAndGet();
+                        if (i < 500) map.computeIfAbsent("computed" + i, key -> {
+                            computed.incrementAndGet();
+                            return id;
+                        });
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+
+            // verify
+            System.out.println(map.size() + " == 2000, " + map.get("word7") + " == 160, " + winners.get() + " == 500");
+
+            // test
+            assert map.size() == 2000 : "Error in SkipListMap::size()";
+            assert winners.get() == 500 : "Error in SkipListMap::putIfAbsent(K key, V value)";
+            assert computed.get() >= 500 : "Error in SkipListMap::computeIfAbsent(K key, Function mappingFunction)";
+            for (int i = 0; i < 1000; i++) {
+                assert map.get("word" + i) == 160 : "Error in SkipListMap::merge(K key, V value, BiFunction remappingFunction) lost an update";
+            }
+        }
+
+        // case 3: testing concurrent insertion and removal against weakly consistent iteration
+        {
+            // setup
+            System.out.println("case 3");
+            SkipListMap<Integer, Integer> map = new SkipListMap<>();
+            // Even keys stay put for the whole run; odd keys are churned by the writers
+            for (int i = 0; i < 4000; i += 2) map.put(i, i);
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                final int seed = t;
+                threads[t] = new Thread(() -> {
+                    Random rand = new Random(seed);
+                    for (int i = 0; i < 50000; i++) {
+                        int key = rand.nextInt(2000) * 2 + 1;
+                        if (rand.nextBoolean()) map.put(key, key);
+                        else map.remove(key);
+                    }
+                });
+                threads[t].start();
+            }
+            int walks = 0;
+            boolean ordered = true;
+            boolean sawStable = true;
+            while (threads[0].isAlive()) {
+                int previous = -1;
+                int evens = 0;
+                for (int key : map.keySet()) {
+                    ordered &= key > previous;
+                    if (key % 2 == 0) evens++;
+                    previous = key;
+                }
+                sawStable &= evens == 2000;
+                walks++;
+            }
+            for (Thread thread : threads) thread.join();
+            int odds = 0;
+            for (SkipListMap.Node<Integer, Integer> node : map.entrySet()) {
+                if (node.getKey() % 2 == 1) odds++;
+            }
+
+            // verify
+            System.out.println(ordered + " == true, " + sawStable + " == true over " + walks + " walks, " + map.size() + " == " + (2000 + odds));
+
+            // test
+            assert ordered : "Error in SkipListMap::keySet() iterated out of order";
+            assert sawStable : "Error in SkipListMap::keySet() missed a key present for the whole walk";
+            assert map.size() == 2000 + odds : "Error in SkipListMap::size() after concurrent updates";
+            for (int i = 0; i < 4000; i += 2) {
+                assert map.get(i) == i : "Error in SkipListMap::get(Object key) lost a key";
+            }
+        }
+    }
+
+    public static void testBPlusTreeMap() {
+        System.out.println("testing BPlusTreeMap structure and navigation");
+
+        // case 1: testing random insertion and removal against java.util.TreeMap, with small nodes
+        {
+            // setup
+            System.out.println("case 1");
+            BPlusTreeMap<Integer, Integer> map = new BPlusTreeMap<>(null, 4);
+            java.util.TreeMap<Integer, Integer> control = new java.util.TreeMap<>();
+            Random rand = new Random(1);
+            boolean wellFormed = true;
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 500; i++) {
+                    int key = rand.nextInt(2000) * 2;
+                    if (rand.nextInt(3) > 0) {
+                        assert java.util.Objects.equals(map.put(key, i), control.put(key, i)) : "Error in BPlusTreeMap::put(K key, V value)";
+                    } else {
+                        assert java.util.Objects.equals(map.remove(key), control.remove(key)) : "Error in BPlusTreeMap::remove(Object key)";
+                    }
+                }
+                wellFormed &= map.isWellFormed();
+            }
+
+            // verify
+            System.out.println(wellFormed + " == true, " + map.size() + " == " + control.size() + ", height " + map.height());
+
+            // test
+            assert wellFormed : "Error in BPlusTreeMap::put(K key, V value) or remove(Object key) broke the tree";
+            assert map.size() == control.size() : "Error in BPlusTreeMap::size()";
+            assert new ArrayList<>(map.keySet()).equals(new ArrayList<>(control.keySet())) : "Error in BPlusTreeMap::keySet() order";
+            assert map.values().equals(new ArrayList<>(control.values())) : "Error in BPlusTreeMap::values() order";
+            for (int key = -1; key < 4002; key++) {
+                BPlusTreeMap<Integer, Integer>.Entry ceiling = map.supremum(key);
+                BPlusTreeMap<Integer, Integer>.Entry floor = map.infimum(key);
+                assert java.util.Objects.equals(ceiling == null ? null : ceiling.getKey(), control.ceilingKey(key)) : "Error in BPlusTreeMap::supremum(K key)";
+                assert java.util.Objects.equals(floor == null ? null : floor.getKey(), control.floorKey(key)) : "Error in BPlusTreeMap::infimum(K key)";
+                assert java.util.Objects.equals(map.get(key), control.get(key)) : "Error in BPlusTreeMap::get(Object key)";
+            }
+            for (int key : new ArrayList<>(control.keySet())) {
+                map.remove(key);
+            }
+            assert map.isEmpty() && map.height() == 1 && map.isWellFormed() : "Error in BPlusTreeMap::remove(Object key) emptying the tree";
+            assert map.supremum(5) == null && map.infimum(5) == null && map.fetchNearest(5) == null : "Error in BPlusTreeMap::bound(K key, int upperLower) on an empty map";
+        }
+
+        // case 2: testing bulk loading from sorted input
+        {
+            // setup
+            System.out.println("case 2");
+            BSTMap<String, Integer> source = new BSTMap<>(null, true);
+            for (int i = 0; i < 100000; i++) source.put(String.format("w%06d", i), i);
+            BPlusTreeMap<String, Integer> loaded = BPlusTreeMap.fromSorted(source.entrySet(), null);
+            BPlusTreeMap<String, Integer> built = new BPlusTreeMap<>();
+            source.forEach(built::put);
+            boolean rejected = false;
+            try {
+                BPlusTreeMap.fromSorted(java.util.List.of(source.supremum("w000002"), source.supremum("w000001")), null);
+            } catch (IllegalArgumentException e) {
+                rejected = true;
+            }
+
+            // verify
+            System.out.println(loaded.size() + " == 100000, height " + loaded.height() + " <= " + built.height() + ", " + rejected + " == true");
+
+            // test
+            assert loaded.isWellFormed() : "Error in BPlusTreeMap::fromSorted(Iterable sorted, Comparator comparator) broke the tree";
+            assert loaded.size() == 100000 && loaded.height() <= built.height() : "Error in BPlusTreeMap::fromSorted(Iterable sorted, Comparator comparator)";
+            assert loaded.entrySet().equals(built.entrySet()) : "Error in BPlusTreeMap::fromSorted(Iterable sorted, Comparator comparator) entries";
+            assert rejected : "Error in BPlusTreeMap::fromSorted(Iterable sorted, Comparator comparator) accepted unsorted keys";
+            loaded.put("w050000x", -1);
+            loaded.remove("w000000");
+            assert loaded.isWellFormed() && loaded.size() == 100000 : "Error in BPlusTreeMap::put(K key, V value) after bulk loading";
+        }
+
+        // case 3: testing subMap, removal through iterators and write-through entries
+        {
+            // setup
+            System.out.println("case 3");
+            BPlusTreeMap<Integer, Integer> map = new BPlusTreeMap<>(null, 5);
+            for (int i = 0; i < 300; i++) map.put(i, i);
+            ArrayList<Integer> range = new ArrayList<>();
+            for (BPlusTreeMap<Integer, Integer>.Entry entry : map.subMap(100, 110)) range.add(entry.getKey());
+            java.util.Iterator<Integer> iterator = map.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() % 3 != 0) iterator.remove();
+            }
+            map.supremum(31).setValue(-30);
+
+            // verify
+            System.out.println(range.size() + " == 10, " + map.size() + " == 100, " + map.get(33) + " == -30");
+
+            // test
+            assert range.equals(java.util.List.of(100, 101, 102, 103, 104, 105, 106, 107, 108, 109)) : "Error in BPlusTreeMap::subMap(K lo, K hi)";
+            assert map.size() == 100 && map.isWellFormed() : "Error in BPlusTreeMap.KeySet::iterator() remove";
+            for (int i = 0; i < 300; i++) {
+                assert map.containsKey(i) == (i % 3 == 0) : "Error in BPlusTreeMap.KeySet::iterator() removed the wrong keys";
+            }
+            assert map.get(33) == -30 : "Error in BPlusTreeMap.Entry::setValue(V value)";
+        }
+    }
+
+    public static void testWordTokenizer() throws java.io.IOException {
+        System.out.println("testing WordTokenizer and WordDictionary");
+
+        // case 1: testing that exact mode gives the words of split("[ ]+"), interned
+        {
+            // setup
+            System.out.println("case 1");
+            String text = "the cat  sat\r\n  on the mat\n\nna\u00efve caf\u00e9 the\r\r   \nend the";
+            ArrayList<String> expected = new ArrayList<>();
+            for (String line : text.split("\r\n|\r|\n", -1)) {
+                expected.addAll(java.util.Arrays.asList(line.split("[ ]+")));
+            }
+            java.io.File file = java.io.File.createTempFile("words", ".txt");
+            file.deleteOnExit();
+            java.nio.file.Files.writeString(file.toPath(), text);
+            WordCounter counter = new WordCounter("Counting");
+            ArrayList<String> words = counter.readWords(file.getPath());
+            WordCounter parallel = new WordCounter("HashMap");
+            parallel.buildMapParallel(file.getPath(), 3);
+
+            // verify
+            System.out.println(words + " == " + expected);
+
+            // test
+            assert words.equals(expected) : "Error in WordCounter::readWords(String filename)";
+            assert words.get(0) == words.get(5) : "Error in WordCounter::readWords(String filename) did not intern";
+            assert counter.totalWordCount() == expected.size() : "Error in WordCounter::totalWordCount()";
+            assert parallel.totalWordCount() == expected.size() && parallel.getCount("the") == 4 : "Error in WordCounter::buildMapParallel(String filename, int workers)";
+        }
+
+        // case 2: testing normalized mode and dictionary counts
+        {
+            // setup
+            System.out.println("case 2");
+            java.nio.ByteBuffer text = java.nio.ByteBuffer.wrap("The cat's TOY,\tthe\r\n'Cat' -- ... caf\u00c9!\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            WordDictionary dictionary = new WordDictionary();
+            ArrayList<String> words = new ArrayList<>();
+            long count = new WordTokenizer(true).tokenize(text, dictionary, id -> words.add(dictionary.word(id)));
+            byte[] the = "the".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            int theId = dictionary.find(the, 0, the.length);
+
+            // verify
+            System.out.println(words + ", " + count + " == 6, " + dictionary.count(theId) + " == 2");
+
+            // test
+            assert words.equals(java.util.List.of("the", "cat's", "toy", "the", "cat", "caf\u00c9")) : "Error in WordTokenizer::tokenize(ByteBuffer buffer, WordDictionary dictionary, IntConsumer action)";
+            assert count == 6 && dictionary.totalCount() == 6 && dictionary.size() == 5 : "Error in WordDictionary::add(byte[] bytes, int offset, int length)";
+            assert dictionary.count(theId) == 2 && theId == 0 : "Error in WordDictionary::count(int id)";
+            assert text.position() == 0 : "Error in WordTokenizer::tokenize(ByteBuffer buffer, WordDictionary dictionary, IntConsumer action) moved the buffer";
+        }
+
+        // case 3: testing that the dictionary keeps every word across growth
+        {
+            // setup
+            System.out.println("case 3");
+            WordDictionary dictionary = new WordDictionary();
+            for (int i = 0; i < 50000; i++) {
+                byte[] bytes = ("w" + (i % 20000)).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                dictionary.add(bytes, 0, bytes.length);
+            }
+
+            // verify
+            System.out.println(dictionary.size() + " == 20000, " + dictionary.word(19999) + " == w19999");
+
+            // test
+            assert dictionary.size() == 20000 : "Error in WordDictionary::size()";
+            for (int i = 0; i < 20000; i++) {
+                assert dictionary.word(i).equals("w" + i) : "Error in WordDictionary::word(int id)";
+                assert dictionary.count(i) == (i < 10000 ? 3 : 2) : "Error in WordDictionary::count(int id)";
+            }
+        }
+    }
+
+    public static void testBoundedCache() {
+        System.out.println("testing BoundedCache eviction");
+
+        // case 1: testing LRU and LFU eviction order, the listener and the counters
+        {
+            // setup
+            System.out.println("case 1");
+            ArrayList<String> lruEvicted = new ArrayList<>();
+            ArrayList<String> lfuEvicted = new ArrayList<>();
+            BoundedCache<String, Integer> lru = new BoundedCache<>(3, BoundedCache.Policy.LRU, (k, v) -> lruEvicted.add(k));
+            BoundedCache<String, Integer> lfu = new BoundedCache<>(3, BoundedCache.Policy.LFU, (k, v) -> lfuEvicted.add(k));
+            for (BoundedCache<String, Integer> cache : java.util.List.of(lru, lfu)) {
+                cache.put("a", 1);
+                cache.put("b", 2);
+                cache.put("c", 3);
+                cache.get("a");
+                cache.get("a");
+                cache.get("b");
+                cache.get("c");
+                cache.get("a");
+                cache.put("d", 4);
+                cache.get("missing");
+                cache.put("e", 5);
+            }
+
+            // verify
+            System.out.println(lruEvicted + " == [b, c], " + lfuEvicted + " == [b, d], " + lru.hitCount() + " == 5, " + lru.missCount() + " == 1");
+
+            // test
+            assert lruEvicted.equals(java.util.List.of("b", "c")) : "Error in BoundedCache LRU eviction order";
+            assert lfuEvicted.equals(java.util.List.of("b", "d")) : "Error in BoundedCache LFU eviction order";
+            assert lru.hitCount() == 5 && lru.missCount() == 1 && lru.evictionCount() == 2 : "Error in BoundedCache counters";
+            assert lru.size() == 3 && lfu.size() == 3 : "Error in BoundedCache::size()";
+            assert lfu.get("a") == 1 && lfu.get("c") == 3 && lfu.get("e") == 5 : "Error in BoundedCache::get(Object key) after LFU eviction";
+        }
+
+        // case 2: testing every policy against a model, and that W-TinyLFU keeps a hot set through scans
+        {
+            // setup
+            System.out.println("case 2");
+            double[] hitRates = new double[3];
+            for (BoundedCache.Policy policy : BoundedCache.Policy.values()) {
+                BoundedCache<Integer, Integer> cache = new BoundedCache<>(200, policy);
+                java.util.HashMap<Integer, Integer> model = new java.util.HashMap<>();
+                Random rand = new Random(6);
+                int scan = 1000;
+                for (int i = 0; i < 200000; i++) {
+                    // A hot set of 150 keys, interleaved with a scan that never repeats
+                    int key = (rand.nextInt(10) < 6) ? rand.nextInt(150) : scan++;
+                    Integer cached = cache.get(key);
+                    assert cached == null || cached.equals(model.get(key)) : "Error in BoundedCache::get(Object key) with " + policy;
+                    if (cached == null) {
+                        cache.put(key, i);
+                        model.put(key, i);
+                    }
+                    if (rand.nextInt(50) == 0) cache.remove(rand.nextInt(150));
+                    assert cache.size() <= 200 : "Error in BoundedCache::size() over capacity with " + policy;
+                }
+                hitRates[policy.ordinal()] = cache.hitRate();
+            }
+
+            // verify
+            System.out.println(java.util.Arrays.toString(hitRates) + ", W_TINY_LFU > LRU");
+
+            // test
+            assert hitRates[2] > hitRates[0] + .1 : "Error in BoundedCache W-TinyLFU admission";
+        }
+
+        // case 3: testing that entries compare equal to the entries of other maps
+        {
+            // setup
+            System.out.println("case 3");
+            BoundedCache<String, Integer> cache = new BoundedCache<>(4, BoundedCache.Policy.LRU);
+            RobinHoodHashMap<String, Integer> other = new RobinHoodHashMap<>();
+            cache.put("a", 1);
+            other.put("a", 1);
+            CustomMap.Entry<String, Integer> entry = cache.entrySet().get(0);
+            CustomMap.Entry<String, Integer> otherEntry = other.entrySet().get(0);
+
+            // verify
+            System.out.println(entry.equals(otherEntry) + " == true, " + entry.hashCode() + " == " + otherEntry.hashCode());
+
+            // test
+            assert entry.equals(otherEntry) && otherEntry.equals(entry) : "Error in BoundedCache.Node::equals(Object obj)";
+            assert entry.hashCode() == ("a".hashCode() ^ 1) : "Error in BoundedCache.Node::hashCode()";
+            cache.put("a", 2);
+            assert !entry.equals(otherEntry) : "Error in BoundedCache.Node::equals(Object obj) on another value";
+        }
+    }
+
+    public static void testCompactHashMap() {
+        System.out.println("testing CompactHashMap chains and packed arrays");
+
+        // case 1: testing random insertion and removal against java.util.HashMap, with colliding keys
+        {
+            // setup
+            System.out.println("case 1");
+            CompactHashMap<Integer, Integer> map = new CompactHashMap<>(4);
+            java.util.HashMap<Integer, Integer> control = new java.util.HashMap<>();
+            Random rand = new Random(2);
+            int maxCapacity = 0;
+            for (int i = 0; i < 50000; i++) {
+                // Multiples of 64 share their low bits, so the chains get long
+                int key = rand.nextInt(3000) * 64;
+                switch (rand.nextInt(4)) {
+                    case 0 -> {
+                        assert java.util.Objects.equals(map.remove(key), control.remove(key)) : "Error in CompactHashMap::remove(Object key)";
+                    }
+                    case 1 -> {
+                        assert java.util.Objects.equals(map.merge(key, 1, Integer::sum), control.merge(key, 1, Integer::sum)) : "Error in CompactHashMap::merge(K key, V value, BiFunction remappingFunction)";
+                    }
+                    default -> {
+                        assert java.util.Objects.equals(map.put(key, i), control.put(key, i)) : "Error in CompactHashMap::put(K key, V value)";
+                    }
+                }
+                maxCapacity = Math.max(maxCapacity, map.capacity());
+            }
+            for (int key : new ArrayList<>(control.keySet())) {
+                if (key % 3 == 0) assert map.remove(key).equals(control.remove(key)) : "Error in CompactHashMap::remove(Object key)";
+            }
+
+            // verify
+            System.out.println(map.size() + " == " + control.size() + ", capacity " + map.capacity() + " <= " + maxCapacity + ", longest chain " + map.maxDepth());
+
+            // test
+            assert map.size() == control.size() : "Error in CompactHashMap::size()";
+            for (int key = 0; key < 3000 * 64; key += 64) {
+                assert java.util.Objects.equals(map.get(key), control.get(key)) : "Error in CompactHashMap::get(Object key)";
+            }
+            java.util.HashMap<Integer, Integer> iterated = new java.util.HashMap<>();
+            for (CustomMap.Entry<Integer, Integer> entry : map) iterated.put(entry.getKey(), entry.getValue());
+            assert iterated.equals(control) : "Error in CompactHashMap::iterator()";
+            assert map.values().size() == control.size() : "Error in CompactHashMap::values()";
+        }
+
+        // case 2: testing removal through the iterator and fail-fast iteration
+        {
+            // setup
+            System.out.println("case 2");
+            CompactHashMap<String, Integer> map = new CompactHashMap<>();
+            for (int i = 0; i < 1000; i++) map.put("k" + i, i);
+            java.util.Iterator<String> iterator = map.keySet().iterator();
+            int seen = 0;
+            while (iterator.hasNext()) {
+                String key = iterator.next();
+                seen++;
+                if (map.get(key) % 2 == 1) iterator.remove();
+            }
+            boolean failed = false;
+            try {
+                for (CustomMap.Entry<String, Integer> entry : map) map.put(entry.getKey() + "x", 0);
+            } catch (java.util.ConcurrentModificationException e) {
+                failed = true;
+            }
+
+            // verify
+            System.out.println(seen + " == 1000, " + failed + " == true");
+
+            // test
+            assert seen == 1000 : "Error in CompactHashMap.IndexIterator::remove() skipped or repeated entries";
+            assert failed : "Error in CompactHashMap.IndexIterator::next() did not detect modification";
+            for (int i = 0; i < 1000; i++) {
+                assert map.containsKey("k" + i) == (i % 2 == 0) : "Error in CompactHashMap.IndexIterator::remove() removed the wrong keys";
+            }
+            assert map.entrySpliterator().estimateSize() == map.size() : "Error in CompactHashMap::entrySpliterator()";
+        }
+
+        // case 3: testing that setting the value of an entry whose key was removed does not put it back
+        {
+            // setup
+            System.out.println("case 3");
+            CompactHashMap<String, Integer> map = new CompactHashMap<>();
+            for (int i = 0; i < 100; i++) map.put("k" + i, i);
+            ArrayList<CustomMap.Entry<String, Integer>> removed = new ArrayList<>();
+            ArrayList<CustomMap.Entry<String, Integer>> kept = new ArrayList<>();
+            java.util.Iterator<CustomMap.Entry<String, Integer>> iterator = map.iterator();
+            while (iterator.hasNext()) {
+                CustomMap.Entry<String, Integer> entry = iterator.next();
+                if (entry.getValue() % 2 == 1) {
+                    iterator.remove();
+                    removed.add(entry);
+                } else {
+                    kept.add(entry);
+                }
+            }
+            for (CustomMap.Entry<String, Integer> entry : removed) entry.setValue(-1);
+            for (CustomMap.Entry<String, Integer> entry : kept) entry.setValue(entry.getValue() + 1000);
+
+            // verify
+            System.out.println(map.size() + " == 50, " + removed.get(0).getValue() + " == -1");
+
+            // test
+            assert map.size() == 50 : "Error in CompactHashMap.Node::setValue(V value) put a removed key back";
+            for (CustomMap.Entry<String, Integer> entry : removed) {
+                assert !map.containsKey(entry.getKey()) : "Error in CompactHashMap.Node::setValue(V value) put a removed key back";
+            }
+            for (CustomMap.Entry<String, Integer> entry : kept) {
+                assert map.get(entry.getKey()).equals(entry.getValue()) && entry.getValue() >= 1000 : "Error in CompactHashMap.Node::setValue(V value) write through";
+            }
+        }
+    }
+
+    public static void testMapStats() throws java.io.IOException, InterruptedException {
+        System.out.println("testing CustomMap statistics and flight recorder events");
+
+        // case 1: testing the counters of every map that supports statistics
+        {
+            // setup
+            System.out.println("case 1");
+            java.util.List<CustomMap<Integer, Integer>> maps = java.util.List.of(new HashMap<>(), new HashMap<>(16, .75, true),
+                    new BSTMap<>(null, true), new RobinHoodHashMap<>(), new CompactHashMap<>());
+            boolean offByDefault = true;
+            for (CustomMap<Integer, Integer> map : maps) {
+                offByDefault &= map.stats() == null;
+                map.recordStats(true);
+                for (int i = 0; i < 5000; i++) map.put(i, i);
+                for (int i = 0; i < 10000; i++) map.get(i);
+            }
+            CustomMap.Stats treeStats = maps.get(2).stats();
+
+            // verify
+            for (CustomMap<Integer, Integer> map : maps) System.out.println(map.getClass().getName() + ": " + map.stats());
+
+            // test
+            assert offByDefault : "Error in CustomMap::stats() collected statistics before they were turned on";
+            assert !new StripedHashMap<Integer, Integer>().recordStats(true) : "Error in CustomMap::recordStats(boolean enabled) default";
+            for (CustomMap<Integer, Integer> map : maps) {
+                CustomMap.Stats stats = map.stats();
+                assert stats.lookups() >= 15000 - 1 : "Error in " + map.getClass().getName() + "::stats() lookups";
+                assert java.util.Arrays.stream(stats.probeHistogram()).sum() == stats.lookups() : "Error in " + map.getClass().getName() + "::stats() histogram";
+                assert stats.maxProbe() > 0 && stats.meanProbe() <= stats.maxProbe() : "Error in " + map.getClass().getName() + "::stats() probe lengths";
+                assert map instanceof BSTMap || stats.resizes() > 0 : "Error in " + map.getClass().getName() + "::stats() resizes";
+                map.recordStats(false);
+                assert map.stats() == null : "Error in " + map.getClass().getName() + "::recordStats(boolean enabled) off";
+            }
+            assert treeStats.comparisons() >= treeStats.probes() : "Error in BSTMap::stats() comparisons";
+            assert treeStats.maxProbe() <= ((BSTMap<Integer, Integer>) maps.get(2)).maxDepth() : "Error in BSTMap::stats() deeper than the tree";
+        }
+
+        // case 2: testing the resize and snapshot events in a flight recording, also after
+        // every published map has been dropped and another one is published
+        {
+            // setup
+            System.out.println("case 2");
+            java.nio.file.Path file = java.nio.file.Files.createTempFile("maps", ".jfr");
+            CompactHashMap<Integer, Integer> published = new CompactHashMap<>();
+            CompactHashMap<Integer, Integer> republished = new CompactHashMap<>();
+            long publishedResizes;
+            boolean failed = false;
+            try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+                recording.enable("CustomMap.Resize");
+                recording.enable("CustomMap.Snapshot").withPeriod(java.time.Duration.ofMillis(20));
+                MapStats.publish("published", published);
+                recording.start();
+                for (int i = 0; i < 1000; i++) published.put(i, i);
+                Thread.sleep(200);
+                publishedResizes = published.stats().resizes();
+                published.recordStats(false);
+                Thread.sleep(200);
+                try {
+                    MapStats.publish("republished", republished);
+                } catch (IllegalArgumentException e) {
+                    failed = true;
+                }
+                Thread.sleep(200);
+                recording.stop();
+                recording.dump(file);
+            }
+            int resizes = 0;
+            int snapshots = 0;
+            int republishedSnapshots = 0;
+            for (jdk.jfr.consumer.RecordedEvent event : jdk.jfr.consumer.RecordingFile.readAllEvents(file)) {
+                String name = event.getEventType().getName();
+                if (name.equals("CustomMap.Resize") && event.getInt("newCapacity") == 2 * event.getInt("oldCapacity")) resizes++;
+                if (name.equals("CustomMap.Snapshot") && event.getString("map").equals("published")) snapshots++;
+                if (name.equals("CustomMap.Snapshot") && event.getString("map").equals("republished")) republishedSnapshots++;
+            }
+            java.nio.file.Files.delete(file);
+            republished.recordStats(false);
+
+            // verify
+            System.out.println(resizes + " == " + publishedResizes + ", " + snapshots + " > 0, " + failed + " == false, " + republishedSnapshots + " > 0");
+
+            // test
+            assert resizes == publishedResizes : "Error in MapStats::resized(int oldCapacity, int newCapacity, int size) events";
+            assert snapshots > 0 : "Error in MapStats::publish(String name, CustomMap map) events";
+            assert !failed : "Error in MapStats::publish(String name, CustomMap map) added the periodic hook twice";
+            assert republishedSnapshots > 0 : "Error in MapStats::publish(String name, CustomMap map) events after every map was dropped";
+        }
+    }
+
+    public static void testHashMapTreeBuckets() {
+        // Colliding keys ordered by a alone, so distinct keys can compare as equal
+        record P(int a, int b) implements Comparable<P> {
+            public int hashCode() {
+                return 0;
+            }
+
+            public int compareTo(P other) {
+                return Integer.compare(a, other.a);
+            }
+        }
+
+        // case 1: looking up keys that order equal to a stored key without being equal to it
+        {
+            // setup
+            System.out.println("case 1");
+            HashMap<P, Integer> map = new HashMap<>();
+            for (int i = 0; i < 12; i++) map.put(new P(i, 0), i);
+            boolean found = map.containsKey(new P(3, 1));
+            Integer value = map.get(new P(3, 1));
+            Integer removed = map.remove(new P(3, 1));
+
+            // verify
+            System.out.println(found + " == false, " + value + " == null, " + removed + " == null, " + map.size() + " == 12");
+
+            // test
+            assert !found : "Error in HashMap::containsKey(Object key) with a tree bucket";
+            assert value == null : "Error in HashMap::get(Object key) with a tree bucket";
+            assert removed == null && map.size() == 12 : "Error in HashMap::remove(Object key) with a tree bucket";
+            assert map.get(new P(3, 0)) == 3 : "Error in HashMap::remove(Object key), wrong mapping removed";
+        }
+
+        // case 2: inserting, finding and removing such keys next to each other
+        {
+            // setup
+            System.out.println("case 2");
+            HashMap<P, Integer> map = new HashMap<>();
+            for (int i = 0; i < 12; i++) map.put(new P(i, 0), i);
+            for (int i = 0; i < 12; i++) map.put(new P(i, 1), -i);
+            boolean allFound = true;
+            for (int i = 0; i < 12; i++) allFound &= map.get(new P(i, 0)) == i && map.get(new P(i, 1)) == -i;
+            for (int i = 0; i < 12; i++) map.remove(new P(i, 1));
+
+            // verify
+            System.out.println(allFound + " == true, " + map.size() + " == 12");
+
+            // test
+            assert allFound : "Error in HashMap::get(Object key) with keys ordered as equal";
+            assert map.size() == 12 : "Error in HashMap::remove(Object key) with keys ordered as equal";
+            for (int i = 0; i < 12; i++) {
+                assert map.get(new P(i, 0)) == i && !map.containsKey(new P(i, 1)) : "Error in HashMap::remove(Object key), wrong mapping removed";
+            }
+        }
+
+        // case 3: a long bucket holding keys of two classes, which cannot get a tree index
+        {
+            // setup
+            System.out.println("case 3");
+            record Q(int a) {
+                public int hashCode() {
+                    return 0;
+                }
+            }
+            HashMap<Object, Integer> map = new HashMap<>();
+            for (int i = 0; i < 12; i++) {
+                map.put(new P(i, 0), i);
+                map.put(new Q(i), -i);
+            }
+            boolean allFound = true;
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 12; i++) allFound &= map.get(new P(i, 0)) == i && map.get(new Q(i)) == -i;
+            }
+            for (int i = 0; i < 12; i++) map.remove(new Q(i));
+            for (int i = 0; i < 12; i++) allFound &= map.get(new P(i, 0)) == i;
+
+            // verify
+            System.out.println(allFound + " == true, " + map.size() + " == 12, " + map.maxDepth());
+
+            // test
+            assert allFound : "Error in HashMap::get(Object key) with keys of two classes";
+            assert map.size() == 12 : "Error in HashMap::remove(Object key) with keys of two classes";
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException, java.io.IOException {
+        test("HashMap", HashMap::new);
+        test("HashMap (incremental resize)", () -> new HashMap<>(16, .75, true));
+        test("BSTMap", BSTMap::new);
+        test("BSTMap (red-black)", () -> new BSTMap<>(null, true));
+        test("RobinHoodHashMap", RobinHoodHashMap::new);
+        test("CompactHashMap", CompactHashMap::new);
+        test("CompactHashMap (load factor 4)", () -> new CompactHashMap<>(2, 4));
+        test("StripedHashMap", StripedHashMap::new);
+        test("StringCountMap", StringCountMap::new);
+        test("HamtMap", HamtMap::new);
+        test("BloomFilteredMap (HashMap)", () -> new BloomFilteredMap<>(new HashMap<>()));
+        test("BloomFilteredMap (counting BSTMap)", () -> new BloomFilteredMap<>(new BSTMap<>(), 4, .01, true));
+        test("SkipListMap", SkipListMap::new);
+        test("BPlusTreeMap", BPlusTreeMap::new);
+        test("BPlusTreeMap (order 4)", () -> new BPlusTreeMap<>(null, 4));
+        testBSTMap("BSTMap", false);
+        testHashMapTreeBuckets();
+        testBSTMap("BSTMap (red-black)", true);
+        testStripedHashMap();
+        testStringCountMap();
+        testWordCountSnapshot();
+        testSnapshotMerger();
+        testTopK("HashMap", HashMap::new);
+        testTopK("HashMap (incremental resize)", () -> new HashMap<>(16, .75, true));
+        testTopK("BSTMap (red-black)", () -> new BSTMap<>(null, true));
+        testTopK("RobinHoodHashMap", RobinHoodHashMap::new);
+        testTopK("CompactHashMap", CompactHashMap::new);
+        testTopK("StripedHashMap", StripedHashMap::new);
+        testTopK("StringCountMap", StringCountMap::new);
+        testTopK("HamtMap", HamtMap::new);
+        testTopK("SkipListMap", SkipListMap::new);
+        testTopK("BPlusTreeMap", BPlusTreeMap::new);
+        testHamtMap();
+        testBloomFilteredMap();
+        testBoundedCache();
+        testSkipListMap();
+        testBPlusTreeMap();
+        testWordTokenizer();
+        testCompactHashMap();
+        testMapStats();
+    }
+}
@@ -1,29 +1,51 @@
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.List;
 
 public class DataComparator {
-    public static void main( String[] args ) {
-
-        HashMap<String,WordCounter> dataBank = new HashMap<>();
-
-        for (int i = 2008; i <= 2015; i++) {
-            WordCounter newHash = new WordCounter("HashMap");
-            newHash.setName(i + "Hash");
-            dataBank.put(newHash.getName(), newHash);
-            WordCounter newBST = new WordCounter("BSTMap");
-            newBST.setName(i + "BST");
-            dataBank.put(newBST.getName(), newBST);
-            String filename = "Reddit_Comments_Files-20220403/reddit_comments_"+i+".txt" ;
-            ArrayList<String> words1 = newHash.readWords(filename);
-            newHash.buildMap( words1 );
-            words1 = null;
-            ArrayList<String> words2 = newBST.readWords(filename);
-            newBST.buildMap( words2 );
-            words2 = null;
+
+    private static final int FIRST_YEAR = 2008;
+    private static final int LAST_YEAR = 2015;
+    private static final int TOP = 10;
+
+    //count every year once, one year at a time with `threads` workers inside each file, writing each year's counts
+    //as text and as a snapshot and dropping its map as soon as it is written. At most one year's map is in memory,
+    //together with the dictionaries of that year's chunks that are counted but not yet merged into it.
+    //Returns the snapshot filenames in year order.
+    public static String[] countYears( int threads ) throws IOException {
+        String[] snapshots = new String[ LAST_YEAR - FIRST_YEAR + 1 ] ;
+        for ( int year = FIRST_YEAR ; year <= LAST_YEAR ; year++ ) {
+            WordCounter counter = new WordCounter( "Counting" ) ;
+            counter.setName( String.valueOf( year ) ) ;
+            String filename = "Reddit_Comments_Files-20220403/reddit_comments_" + year + ".txt" ;
+            if ( counter.buildMapParallel( filename, threads ) < 0 || !counter.writeWordCount( counter.getName() + ".txt" )
+                    || !counter.writeSnapshot( counter.getName() + ".wcs" ) ) {
+                throw new IOException( "unable to count " + filename ) ;
+            }
+            snapshots[ year - FIRST_YEAR ] = counter.getName() + ".wcs" ;
         }
+        return snapshots ;
+    }
+
+    public static void main( String[] args ) throws IOException, InterruptedException {
 
-        //Write word counts to an output file
-        dataBank.values().forEach(counter -> counter.writeWordCount(counter.getName()+".txt" ));
+        int threads = ( args.length > 0 ) ? Integer.parseInt( args[ 0 ] ) : Runtime.getRuntime().availableProcessors() ;
 
+        String[] files = countYears( threads ) ;
+
+        //merge the years from their mapped snapshots, so no year's map has to be kept in memory
+        WordCountSnapshot[] snapshots = new WordCountSnapshot[ files.length ] ;
+        for ( int i = 0 ; i < files.length ; i++ ) {
+            snapshots[ i ] = WordCountSnapshot.open( files[ i ] ) ;
+        }
+        SnapshotMerger.Result result = new SnapshotMerger( snapshots, TOP ).merge( "totals.txt", "deltas.txt", threads ) ;
+
+        System.out.println( result.uniqueWords() + " unique words, " + result.totalWords() + " words in total" ) ;
+        for ( int s = 0 ; s < snapshots.length - 1 ; s++ ) {
+            List<SnapshotMerger.Mover> gainers = result.gainers().get( s ) ;
+            List<SnapshotMerger.Mover> losers = result.losers().get( s ) ;
+            System.out.println( ( FIRST_YEAR + s ) + " -> " + ( FIRST_YEAR + s + 1 ) ) ;
+            System.out.println( "  gainers: " + gainers ) ;
+            System.out.println( "  losers:  " + losers ) ;
+        }
     }
 }
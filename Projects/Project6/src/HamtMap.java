@@ -0,0 +1,928 @@
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Persistent hash array mapped trie (HAMT) with lock-free updates and wait-free snapshots.
+ * <p>
+ * The keys are placed by their hash, five bits per level: every node holds a 32-bit bitmap of
+ * the slots in use and a packed array of just those slots, each either a key and its value or
+ * a child node one level down. Keys whose whole hashes collide share a collision node. A lookup
+ * or an update visits at most seven levels, i.e. O(log32 n).
+ * <p>
+ * Nodes are never changed once they are reachable from a map. An update copies only the nodes
+ * on the path to the key and shares everything else with the version it came from, so a new
+ * version costs O(log32 n) time and memory. The current version is held in an
+ * {@link AtomicReference}:
+ * <ul>
+ *     <li>Reads take the current root with a single volatile read and work on that version
+ *     alone, so they are wait-free and never see a half-applied update. An iterator, or any of
+ *     the views, sees the map as it was when it started, however long it runs.</li>
+ *     <li>Writes build the new version off to the side and install it with a compare-and-set,
+ *     retrying on a lost race. The compound operations ({@code merge}, {@code compute} and
+ *     friends) are atomic, but their functions may be called more than once under contention
+ *     and must not have side effects.</li>
+ *     <li>{@link #snapshot()} returns an independent map sharing the current version in O(1),
+ *     and {@link #with(Object, Object)} and {@link #without(Object)} return new versions
+ *     without changing this map.</li>
+ * </ul>
+ * Bulk loading should go through a {@link Builder}, which owns the nodes it creates and updates
+ * them in place until it is built, instead of copying a path for every key.
+ * <p>
+ * Null keys and null values are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class HamtMap<K, V> implements CustomMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // Seven bitmap levels cover the 32 hash bits, with a collision node below the last
+    private static final int MAX_DEPTH = 8;
+    private static final Root EMPTY = new Root(BitmapNode.EMPTY, 0);
+
+    private final AtomicReference<Root> root;
+    private KeySet keySet;
+
+    /**
+     * Constructs an empty HamtMap.
+     *
+     * @since 1.0
+     */
+    public HamtMap() {
+        this(EMPTY);
+    }
+
+    /**
+     * Constructs a HamtMap holding the given version.
+     *
+     * @param version the version to start from
+     */
+    private HamtMap(Root version) {
+        this.root = new AtomicReference<>(version);
+    }
+
+    public static void main(String[] args) {
+        HamtMap<String, Integer> words = new HamtMap<>();
+        for (String word : "the quick brown fox jumps over the lazy dog".split(" ")) {
+            words.merge(word, 1, Integer::sum);
+        }
+        HamtMap<String, Integer> before = words.snapshot();
+        words.merge("the", 1, Integer::sum);
+        System.out.println(words);
+        System.out.println(before.get("the") + " -> " + words.get("the"));
+    }
+
+    /**
+     * One version of the map: the root node and the number of mappings under it.
+     */
+    private record Root(TrieNode node, int size) {
+    }
+
+    /**
+     * What an update to a trie did, filled in on the way down.
+     */
+    private static final class Change {
+        boolean added;
+        boolean removed;
+        Object oldValue;
+    }
+
+    /**
+     * Spreads the higher bits of the hash code down, as the lower levels use the lower bits.
+     *
+     * @param key the key to hash
+     * @return the spread hash of the key
+     */
+    private static int spread(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the version with the given mapping added or replaced.
+     */
+    private static Root assoc(Root current, Object key, Object value, Change change) {
+        TrieNode node = current.node.assoc(null, 0, spread(key), key, value, change);
+        return (node == current.node) ? current : new Root(node, current.size + (change.added ? 1 : 0));
+    }
+
+    /**
+     * Returns the version with the mapping for the given key removed.
+     */
+    private static Root dissoc(Root current, Object key, Change change) {
+        TrieNode node = current.node.without(null, 0, spread(key), key, change);
+        if (node == current.node) return current;
+        return new Root((node == null) ? BitmapNode.EMPTY : node, current.size - 1);
+    }
+
+    /**
+     * Base class of the trie nodes.
+     */
+    private abstract static class TrieNode {
+
+        /**
+         * Finds the value mapped to the key, or null if there is none.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * Returns this node with the mapping added or replaced, this node itself if nothing
+         * changed. Nodes owned by edit are changed in place, all others are copied.
+         */
+        abstract TrieNode assoc(Object edit, int shift, int hash, Object key, Object value, Change change);
+
+        /**
+         * Returns this node with the mapping removed, this node itself if the key is absent, or
+         * null if the node is left empty.
+         */
+        abstract TrieNode without(Object edit, int shift, int hash, Object key, Change change);
+
+        /**
+         * Returns the slots of the node as key, value pairs, where a null key marks a child
+         * node in the value and a null pair marks a spare slot.
+         */
+        abstract Object[] array();
+    }
+
+    /**
+     * Trie node holding up to 32 slots, packed by a bitmap of the slots in use.
+     */
+    private static final class BitmapNode extends TrieNode {
+
+        static final BitmapNode EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+        final Object edit;
+        int bitmap;
+        Object[] array;
+
+        BitmapNode(Object edit, int bitmap, Object[] array) {
+            this.edit = edit;
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        Object[] array() {
+            return array;
+        }
+
+        /**
+         * Returns the position of the given slot among the slots in use.
+         */
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * Returns this node if edit owns it, else a copy owned by edit.
+         */
+        private BitmapNode editable(Object edit) {
+            if (edit != null && this.edit == edit) return this;
+            return new BitmapNode(edit, bitmap, array.clone());
+        }
+
+        private BitmapNode set(Object edit, int index, Object obj) {
+            BitmapNode node = editable(edit);
+            node.array[index] = obj;
+            return node;
+        }
+
+        Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) return null;
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) return ((TrieNode) array[i + 1]).find(shift + BITS, hash, key);
+            return key.equals(k) ? array[i + 1] : null;
+        }
+
+        TrieNode assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = 2 * index(bit);
+            if ((bitmap & bit) != 0) {
+                Object k = array[i];
+                Object v = array[i + 1];
+                if (k == null) {
+                    TrieNode sub = ((TrieNode) v).assoc(edit, shift + BITS, hash, key, value, change);
+                    return (sub == v) ? this : set(edit, i + 1, sub);
+                }
+                if (key.equals(k)) {
+                    change.oldValue = v;
+                    return (v == value) ? this : set(edit, i + 1, value);
+                }
+                // Two keys in one slot: push both down into a new child
+                change.added = true;
+                BitmapNode node = set(edit, i + 1, pair(edit, shift + BITS, spread(k), k, v, hash, key, value));
+                node.array[i] = null;
+                return node;
+            }
+            change.added = true;
+            int n = Integer.bitCount(bitmap);
+            if (edit != null && this.edit == edit && array.length >= 2 * (n + 1)) {
+                System.arraycopy(array, i, array, i + 2, 2 * n - i);
+                array[i] = key;
+                array[i + 1] = value;
+                bitmap |= bit;
+                return this;
+            }
+            // A builder leaves room for a few more slots, to grow in place next time
+            Object[] grown = new Object[2 * Math.min(n + ((edit != null) ? 4 : 1), 32)];
+            System.arraycopy(array, 0, grown, 0, i);
+            grown[i] = key;
+            grown[i + 1] = value;
+            System.arraycopy(array, i, grown, i + 2, 2 * n - i);
+            return new BitmapNode(edit, bitmap | bit, grown);
+        }
+
+        TrieNode without(Object edit, int shift, int hash, Object key, Change change) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) return this;
+            int i = 2 * index(bit);
+            Object k = array[i];
+            if (k == null) {
+                TrieNode child = (TrieNode) array[i + 1];
+                TrieNode sub = child.without(edit, shift + BITS, hash, key, change);
+                if (sub == child) return this;
+                if (sub == null) return removeSlot(edit, bit, i);
+                // A child left with a single mapping is pulled up into this node
+                if (sub instanceof BitmapNode single && Integer.bitCount(single.bitmap) == 1 && single.array[0] != null) {
+                    BitmapNode node = set(edit, i, single.array[0]);
+                    node.array[i + 1] = single.array[1];
+                    return node;
+                }
+                return set(edit, i + 1, sub);
+            }
+            if (!key.equals(k)) return this;
+            change.removed = true;
+            change.oldValue = array[i + 1];
+            return removeSlot(edit, bit, i);
+        }
+
+        /**
+         * Returns this node without the given slot, or null if it was the last one.
+         */
+        private BitmapNode removeSlot(Object edit, int bit, int i) {
+            int n = Integer.bitCount(bitmap);
+            if (n == 1) return null;
+            if (edit != null && this.edit == edit) {
+                System.arraycopy(array, i + 2, array, i, 2 * n - i - 2);
+                array[2 * n - 2] = null;
+                array[2 * n - 1] = null;
+                bitmap ^= bit;
+                return this;
+            }
+            Object[] shrunk = new Object[2 * (n - 1)];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, 2 * n - i - 2);
+            return new BitmapNode(edit, bitmap ^ bit, shrunk);
+        }
+
+        /**
+         * Returns a node at the given level holding two mappings with different keys.
+         */
+        static TrieNode pair(Object edit, int shift, int hash1, Object key1, Object value1,
+                             int hash2, Object key2, Object value2) {
+            if (hash1 == hash2) return new CollisionNode(edit, hash1, new Object[]{key1, value1, key2, value2});
+            Change ignored = new Change();
+            return EMPTY.assoc(edit, shift, hash1, key1, value1, ignored)
+                    .assoc(edit, shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Trie node holding the mappings of keys whose hashes are all equal.
+     */
+    private static final class CollisionNode extends TrieNode {
+
+        final Object edit;
+        final int hash;
+        Object[] array;
+
+        CollisionNode(Object edit, int hash, Object[] array) {
+            this.edit = edit;
+            this.hash = hash;
+            this.array = array;
+        }
+
+        Object[] array() {
+            return array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) return i;
+            }
+            return -1;
+        }
+
+        Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) return null;
+            int i = indexOf(key);
+            return (i < 0) ? null : array[i + 1];
+        }
+
+        TrieNode assoc(Object edit, int shift, int hash, Object key, Object value, Change change) {
+            if (hash != this.hash) {
+                // Another hash reached this level: nest this node under a bitmap node
+                return new BitmapNode(edit, 1 << ((this.hash >>> shift) & MASK), new Object[]{null, this})
+                        .assoc(edit, shift, hash, key, value, change);
+            }
+            int i = indexOf(key);
+            if (i >= 0) {
+                change.oldValue = array[i + 1];
+                if (array[i + 1] == value) return this;
+                CollisionNode node = (edit != null && this.edit == edit) ? this : new CollisionNode(edit, hash, array.clone());
+                node.array[i + 1] = value;
+                return node;
+            }
+            change.added = true;
+            Object[] grown = Arrays.copyOf(array, array.length + 2);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            if (edit != null && this.edit == edit) {
+                array = grown;
+                return this;
+            }
+            return new CollisionNode(edit, hash, grown);
+        }
+
+        TrieNode without(Object edit, int shift, int hash, Object key, Change change) {
+            if (hash != this.hash) return this;
+            int i = indexOf(key);
+            if (i < 0) return this;
+            change.removed = true;
+            change.oldValue = array[i + 1];
+            if (array.length == 2) return null;
+            if (array.length == 4) {
+                // One mapping left: hand it back as a single slot, for the parent to pull up
+                int other = (i == 0) ? 2 : 0;
+                return BitmapNode.EMPTY.assoc(edit, shift, hash, array[other], array[other + 1], new Change());
+            }
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            if (edit != null && this.edit == edit) {
+                array = shrunk;
+                return this;
+            }
+            return new CollisionNode(edit, hash, shrunk);
+        }
+    }
+
+    /**
+     * Returns an independent map holding the current version of this one, in O(1). Later
+     * updates to either map are not seen by the other.
+     *
+     * @return a snapshot of this map
+     * @since 1.0
+     */
+    public HamtMap<K, V> snapshot() {
+        return new HamtMap<>(root.get());
+    }
+
+    /**
+     * Returns a new map with the given mapping added or replaced, leaving this map unchanged.
+     *
+     * @param key   the key of the mapping
+     * @param value the value of the mapping
+     * @return the new version
+     * @since 1.0
+     */
+    public HamtMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(value, "value is null");
+        return new HamtMap<>(assoc(root.get(), key, value, new Change()));
+    }
+
+    /**
+     * Returns a new map without the mapping for the given key, leaving this map unchanged.
+     *
+     * @param key the key of the mapping to leave out
+     * @return the new version
+     * @since 1.0
+     */
+    public HamtMap<K, V> without(Object key) {
+        Objects.requireNonNull(key, "key is null");
+        return new HamtMap<>(dissoc(root.get(), key, new Change()));
+    }
+
+    /**
+     * Returns a builder starting from an empty map.
+     *
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return a new builder
+     * @since 1.0
+     */
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>(EMPTY);
+    }
+
+    /**
+     * Returns a builder starting from the current version of this map. The builder copies the
+     * nodes it changes, so this map is unaffected.
+     *
+     * @return a new builder
+     * @since 1.0
+     */
+    public Builder<K, V> toBuilder() {
+        return new Builder<>(root.get());
+    }
+
+    public int size() {
+        return root.get().size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public boolean containsValue(Object value) {
+        Iterator<Entry<K, V>> iterator = new TrieIterator<>(root.get().node);
+        while (iterator.hasNext()) {
+            if (iterator.next().value().equals(value)) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) return null;
+        return (V) root.get().node.find(0, spread(key), key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(value, "value is null");
+        while (true) {
+            Root current = root.get();
+            Change change = new Change();
+            Root next = assoc(current, key, value, change);
+            if (next == current || root.compareAndSet(current, next)) return (V) change.oldValue;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) return null;
+        while (true) {
+            Root current = root.get();
+            Change change = new Change();
+            Root next = dissoc(current, key, change);
+            if (next == current || root.compareAndSet(current, next)) return (V) change.oldValue;
+        }
+    }
+
+    /**
+     * Copies all of the mappings from the specified map to this map, in one atomic update.
+     *
+     * @param m mappings to be stored in this map
+     * @since 1.0
+     */
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        while (true) {
+            Root current = root.get();
+            Builder<K, V> builder = new Builder<>(current);
+            m.forEach(builder::put);
+            if (root.compareAndSet(current, builder.root())) return;
+        }
+    }
+
+    public void clear() {
+        root.set(EMPTY);
+    }
+
+    /**
+     * Returns a Set view of the keys. Its iterators walk the version current when they are
+     * created.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values, all from one version.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    public ArrayList<V> values() {
+        Root current = root.get();
+        ArrayList<V> refList = new ArrayList<>(current.size);
+        new TrieIterator<K, V>(current.node).forEachRemaining(entry -> refList.add(entry.value()));
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries, all from one version. The entries are immutable.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Entry<K, V>> entrySet() {
+        Root current = root.get();
+        ArrayList<Entry<K, V>> refList = new ArrayList<>(current.size);
+        new TrieIterator<K, V>(current.node).forEachRemaining(refList::add);
+        return refList;
+    }
+
+    /**
+     * Returns a Spliterator over the entries of the current version, without copying them.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Entry<K, V>> entrySpliterator() {
+        Root current = root.get();
+        return Spliterators.spliterator(new TrieIterator<>(current.node), current.size,
+                Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Objects.requireNonNull(action);
+        new TrieIterator<K, V>(root.get().node).forEachRemaining(entry -> action.accept(entry.key(), entry.value()));
+    }
+
+    /**
+     * Replaces every value with the result of the function, in one atomic update.
+     *
+     * @param function the function to apply to each entry
+     * @since 1.0
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        Objects.requireNonNull(function);
+        while (true) {
+            Root current = root.get();
+            Builder<K, V> builder = new Builder<>(current);
+            new TrieIterator<K, V>(current.node).forEachRemaining(entry ->
+                    builder.put(entry.key(), function.apply(entry.key(), entry.value())));
+            if (root.compareAndSet(current, builder.root())) return;
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return compute(key, (k, old) -> (old == null) ? value : old, true);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) return false;
+        while (true) {
+            Root current = root.get();
+            if (!value.equals(current.node.find(0, spread(key), key))) return false;
+            if (root.compareAndSet(current, dissoc(current, key, new Change()))) return true;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue, "value is null");
+        if (key == null || oldValue == null) return false;
+        while (true) {
+            Root current = root.get();
+            if (!oldValue.equals(current.node.find(0, spread(key), key))) return false;
+            if (root.compareAndSet(current, assoc(current, key, newValue, new Change()))) return true;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return compute(key, (k, old) -> (old == null) ? null : value, true);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        return compute(key, (k, old) -> (old == null) ? mappingFunction.apply(k) : old, false);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, (k, old) -> (old == null) ? null : remappingFunction.apply(k, old), false);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, remappingFunction, false);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value is null");
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, (k, old) -> (old == null) ? value : remappingFunction.apply(old, value), false);
+    }
+
+    /**
+     * Atomically replaces the mapping for the key with the result of the function, removing it
+     * if the result is null. The function sees null for an absent key.
+     *
+     * @param key               the key to update
+     * @param remappingFunction the function computing the new value from the old
+     * @param returnOld         whether to return the old value instead of the new one
+     * @return the old or the new value, as asked
+     */
+    @SuppressWarnings("unchecked")
+    private V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction, boolean returnOld) {
+        Objects.requireNonNull(key, "key is null");
+        int hash = spread(key);
+        while (true) {
+            Root current = root.get();
+            V oldValue = (V) current.node.find(0, hash, key);
+            V newValue = remappingFunction.apply(key, oldValue);
+            Root next;
+            if (newValue == null) next = (oldValue == null) ? current : dissoc(current, key, new Change());
+            else next = assoc(current, key, newValue, new Change());
+            if (next == current || root.compareAndSet(current, next)) return returnOld ? oldValue : newValue;
+        }
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Transient view of a HamtMap for bulk building.
+     * <p>
+     * A builder owns the nodes it creates and changes them in place, so loading n keys copies
+     * no paths and allocates little more than the final trie. Nodes it did not create, shared
+     * with the map it started from, are copied once on first change. {@link #build()} hands the
+     * nodes over to a map, after which the builder copies them again on change, so the built
+     * map never changes. A builder is not thread-safe.
+     *
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @since 1.0
+     */
+    public static final class Builder<K, V> {
+
+        private Object edit = new Object();
+        private TrieNode node;
+        private int size;
+
+        private Builder(Root start) {
+            this.node = start.node;
+            this.size = start.size;
+        }
+
+        /**
+         * Adds or replaces a mapping.
+         *
+         * @param key   the key of the mapping
+         * @param value the value of the mapping
+         * @return the previous value, or null if there was none
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        public V put(K key, V value) {
+            Objects.requireNonNull(key, "key is null");
+            Objects.requireNonNull(value, "value is null");
+            Change change = new Change();
+            node = node.assoc(edit, 0, spread(key), key, value, change);
+            if (change.added) size++;
+            return (V) change.oldValue;
+        }
+
+        /**
+         * Merges a value into the mapping for a key, as {@link CustomMap#merge} does.
+         *
+         * @param key               the key of the mapping
+         * @param value             the value to merge
+         * @param remappingFunction the function combining the old value and the given one
+         * @return the new value, or null if the mapping was removed
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            Objects.requireNonNull(key, "key is null");
+            Objects.requireNonNull(value, "value is null");
+            V oldValue = (V) node.find(0, spread(key), key);
+            V newValue = (oldValue == null) ? value : remappingFunction.apply(oldValue, value);
+            if (newValue == null) remove(key);
+            else put(key, newValue);
+            return newValue;
+        }
+
+        /**
+         * Removes the mapping for a key.
+         *
+         * @param key the key of the mapping
+         * @return the removed value, or null if there was none
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            Objects.requireNonNull(key, "key is null");
+            Change change = new Change();
+            TrieNode next = node.without(edit, 0, spread(key), key, change);
+            node = (next == null) ? BitmapNode.EMPTY : next;
+            if (change.removed) size--;
+            return (V) change.oldValue;
+        }
+
+        /**
+         * Returns the value mapped to a key.
+         *
+         * @param key the key to look up
+         * @return the value, or null if there is none
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return (key == null) ? null : (V) node.find(0, spread(key), key);
+        }
+
+        /**
+         * Returns the number of mappings built so far.
+         *
+         * @return the number of mappings
+         * @since 1.0
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns a map of the mappings built so far. The builder stays usable, and later
+         * changes to it do not reach the returned map.
+         *
+         * @return the built map
+         * @since 1.0
+         */
+        public HamtMap<K, V> build() {
+            return new HamtMap<>(root());
+        }
+
+        /**
+         * Hands the nodes built so far over as a version, giving up ownership of them.
+         */
+        private Root root() {
+            edit = new Object();
+            return new Root(node, size);
+        }
+    }
+
+    /**
+     * One immutable mapping of a HamtMap.
+     *
+     * @param key   the key of the mapping
+     * @param value the value of the mapping
+     * @param <K>   the type of the key
+     * @param <V>   the type of the value
+     * @since 1.0
+     */
+    public record Entry<K, V>(K key, V value) implements CustomMap.Entry<K, V> {
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Not supported, entries are snapshots of one version.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public V setValue(V value) {
+            throw new UnsupportedOperationException("HamtMap entries are immutable.");
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + value + ">";
+        }
+    }
+
+    /**
+     * Depth-first iterator over the mappings under one root, with an explicit stack of the
+     * slot arrays being walked.
+     *
+     * @param <K> the type of keys
+     * @param <V> the type of values
+     */
+    private static final class TrieIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Object[][] arrays = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth;
+        private Entry<K, V> next;
+
+        TrieIterator(TrieNode root) {
+            arrays[0] = root.array();
+            next = advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Entry<K, V> advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    depth--;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] != null) return new Entry<>((K) array[position], (V) array[position + 1]);
+                if (array[position + 1] != null) {
+                    depth++;
+                    arrays[depth] = ((TrieNode) array[position + 1]).array();
+                    positions[depth] = 0;
+                }
+            }
+            return null;
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Entry<K, V> next() {
+            if (next == null) throw new NoSuchElementException("This entry is null/D.N.E.");
+            Entry<K, V> entry = next;
+            next = advance();
+            return entry;
+        }
+    }
+
+    /**
+     * Set view of the keys of a HamtMap.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<K> {
+
+        public Iterator<K> iterator() {
+            Iterator<Entry<K, V>> entries = new TrieIterator<>(root.get().node);
+            return new Iterator<>() {
+                private K last;
+
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                public K next() {
+                    last = entries.next().key();
+                    return last;
+                }
+
+                public void remove() {
+                    if (last == null) throw new IllegalStateException();
+                    HamtMap.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+        public int size() {
+            return HamtMap.this.size();
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+
+        public boolean remove(Object obj) {
+            return HamtMap.this.remove(obj) != null;
+        }
+
+        public void clear() {
+            HamtMap.this.clear();
+        }
+    }
+}
@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Represents a custom implementation of a HashMap.
@@ -25,10 +27,12 @@ import java.util.*;
 public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K, V>> {
 
     private final int initialCapacity;
+    private final boolean incrementalResize;
     private int size;
     private BaseArray<K, V> nodes;
     private double maxLoadFactor;
     private KeySet<K> keySet;
+    private MapStats stats;
 
 
     /**
@@ -72,12 +76,31 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      * @throws IllegalArgumentException if the specified capacity is not a power of 2
      * @since 1.0
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public HashMap(int capacity, double loadFactor) {
+        this(capacity, loadFactor, false);
+    }
+
+    /**
+     * Constructs an empty HashMap with the specified initial capacity, load factor and resize mode.
+     * <p>
+     * When {@code incrementalResize} is {@code true}, crossing the load factor threshold does not
+     * rehash the whole table in one pause. Instead, the old and new tables coexist and every
+     * subsequent {@code put}, {@code get}, {@code containsKey} and {@code remove} migrates a bounded
+     * number of buckets from the old table to the new one, relinking the existing nodes.
+     * </p>
+     *
+     * @param capacity          the initial capacity of the HashMap, must be a power of 2
+     * @param loadFactor        the load factor, determining when the underlying array is resized
+     * @param incrementalResize whether resizes are spread over subsequent operations
+     * @throws IllegalArgumentException if the specified capacity is not a power of 2
+     * @since 1.0
+     */
+    public HashMap(int capacity, double loadFactor, boolean incrementalResize) {
         if (capacity % 2 != 0) throw new IllegalArgumentException("Capacity must be power of 2, BANNED!");
         this.initialCapacity = capacity;
         this.maxLoadFactor = loadFactor;
-        this.nodes = (BaseArray<K, V>) new BaseArray();
+        this.incrementalResize = incrementalResize;
+        this.nodes = new BaseArray<>(16, incrementalResize);
     }
 
     public static void main(String[] args) {
@@ -173,9 +196,10 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      *
      * @since 1.0
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public void clear() {
-        this.nodes = (BaseArray<K, V>) new BaseArray();
+        this.nodes = new BaseArray<>(16, isIncrementalResize());
+        nodes.stats = stats;
+        setSize(0);
     }
 
     /**
@@ -186,17 +210,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      * @since 1.0
      */
     private Node<K, V> nodeFetch(K key) {
-        BaseArray<K, V> nodeArray = getNodes();
-        Node<K, V> currNode = nodeArray.getNodes()[hash(key)];
-        if (currNode == null) return null;
-        if (currNode.getKey().equals(key)) return currNode;
-        Node<K, V> nextNode = currNode.getNext();
-        while (nextNode != null && !currNode.getKey().equals(key)) {
-            currNode = nextNode;
-            nextNode = currNode.getNext();
-        }
-        if (!currNode.getKey().equals(key)) return null;
-        return currNode;
+        return getNodes().find(key);
     }
 
     /**
@@ -317,8 +331,20 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      */
     @SuppressWarnings("unchecked")
     public V remove(Object key) {
+        return removeNode(nodeFetch((K) key));
+    }
+
+    /**
+     * Unlinks the given node from the HashMap, shrinking the capacity if the map has become
+     * sparse.
+     *
+     * @param node the node to remove, may be null
+     * @return the value of the removed node, or {@code null} if the node was null
+     * @since 1.0
+     */
+    private V removeNode(Node<K, V> node) {
         BaseArray<K, V> refNodes = getNodes();
-        V returnValue = refNodes.remove(nodeFetch((K) key));
+        V returnValue = refNodes.remove(node);
         setSize(refNodes.getSize());
         if (size() >= getInitialCapacity()) {
             if (size() < (getMaxLoadFactor() * capacity() / 4)) {
@@ -328,6 +354,20 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         return returnValue;
     }
 
+    /**
+     * Updates the size after an insertion, growing the capacity if the load factor is exceeded.
+     *
+     * @since 1.0
+     */
+    private void afterInsert() {
+        setSize(getNodes().getSize());
+        if (size() >= getInitialCapacity()) {
+            if (size() > getMaxLoadFactor() * capacity()) {
+                getNodes().doubleCapacity();
+            }
+        }
+    }
+
     /**
      * Associates the specified value with the specified key in this HashMap.
      * <p>
@@ -346,17 +386,102 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      */
     public V put(K key, V value) {
         Node<K, V> newNode = new Node<>(key, value);
-        BaseArray<K, V> refNodes = getNodes();
-        V returnValue = refNodes.add(newNode);
-        setSize(refNodes.getSize());
-        if (size() >= getInitialCapacity()) {
-            if (size() > getMaxLoadFactor() * capacity()) {
-                getNodes().doubleCapacity();
-            }
-        }
+        V returnValue = getNodes().add(newNode);
+        afterInsert();
         return returnValue;
     }
 
+    /**
+     * If the key is not mapped, associates it with the given value. Otherwise, replaces its
+     * value with the result of the remapping function, or removes it if the result is null.
+     * <p>
+     * Unlike the default in {@link CustomMap}, which hashes the key and walks its bucket once
+     * for the lookup and again for the put or remove, this walks the bucket once: the new node
+     * is linked in if the walk does not find the key, and the existing node is updated in place
+     * or unlinked directly if it does.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to use if the key is not mapped
+     * @param remappingFunction the function to combine the old and given values, must not
+     *                          modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the value or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        Node<K, V> refNode = getNodes().addIfAbsent(new Node<>(key, value));
+        if (refNode == null) {
+            afterInsert();
+            return value;
+        }
+        V newValue = remappingFunction.apply(refNode.getValue(), value);
+        if (newValue == null) removeNode(refNode);
+        else refNode.setValue(newValue);
+        return newValue;
+    }
+
+    /**
+     * Computes a new mapping for the key from its current mapping, or null if there is none.
+     * A null result removes the mapping.
+     * <p>
+     * An existing mapping is found with one bucket walk and updated in place or unlinked
+     * directly; only a new key walks its bucket a second time to be linked in.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value, must not modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the remapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Node<K, V> refNode = nodeFetch(key);
+        V newValue = remappingFunction.apply(key, (refNode == null) ? null : refNode.getValue());
+        if (newValue == null) {
+            if (refNode != null) removeNode(refNode);
+        } else if (refNode != null) {
+            refNode.setValue(newValue);
+        } else {
+            getNodes().addIfAbsent(new Node<>(key, newValue));
+            afterInsert();
+        }
+        return newValue;
+    }
+
+    /**
+     * If the key is not mapped, or mapped to null, computes its value with the mapping function
+     * and enters it unless it is null.
+     * <p>
+     * An existing mapping is returned after one bucket walk; only a new key walks its bucket a
+     * second time to be linked in.
+     *
+     * @param key             key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value, must not modify this map
+     * @return the current (existing or computed) value associated with the key, or null if the
+     *         computed value is null
+     * @throws NullPointerException if the mapping function is null
+     * @since 1.0
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        Node<K, V> refNode = nodeFetch(key);
+        if (refNode != null && refNode.getValue() != null) return refNode.getValue();
+        V newValue = mappingFunction.apply(key);
+        if (newValue == null) return null;
+        if (refNode != null) {
+            refNode.setValue(newValue);
+        } else {
+            getNodes().addIfAbsent(new Node<>(key, newValue));
+            afterInsert();
+        }
+        return newValue;
+    }
+
     /**
      * @param m mappings to be stored in this map
      */
@@ -374,6 +499,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      */
     public int maxDepth() {
         BaseArray<K, V> refNodes = getNodes();
+        refNodes.finishMigration();
         TreeSet<Integer> refSet = refNodes.getFilledIndices();
         int maxDepth = 0;
         for (Integer currIndex : refSet) {
@@ -383,6 +509,33 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         return maxDepth;
     }
 
+    /**
+     * Turns the collection of statistics on or off. While they are on, every lookup records
+     * the number of nodes of its bucket it compared with the key, and every resize the time
+     * it held up the operation that triggered it.
+     *
+     * @param enabled whether to collect statistics from now on
+     * @return {@code true}, as this map supports statistics
+     * @since 1.0
+     */
+    @Override
+    public boolean recordStats(boolean enabled) {
+        stats = enabled ? new MapStats() : null;
+        getNodes().stats = stats;
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the statistics collected since they were turned on.
+     *
+     * @return the statistics of this HashMap, or {@code null} if they are off
+     * @since 1.0
+     */
+    @Override
+    public CustomMap.Stats stats() {
+        return (stats == null) ? null : stats.snapshot();
+    }
+
     /**
      * Calculates and returns the depth of a specific node in the hashmap, starting from the given node.
      *
@@ -414,17 +567,6 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
     }
 
 
-    /**
-     * Computes the hash code of the specified key using the underlying node array's hash function.
-     *
-     * @param key the key whose hash code is to be computed
-     * @return the hash code of the specified key
-     * @since 1.0
-     */
-    private int hash(K key) {
-        return getNodes().hash(key);
-    }
-
     /**
      * Returns the first node in the HashMap, i.e., the node with the smallest index.
      *
@@ -485,6 +627,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
      */
     public void setNodes(BaseArray<K, V> nodes) {
         this.nodes = nodes;
+        nodes.stats = stats;
     }
 
     /**
@@ -528,6 +671,31 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         return new EntryIterator(getFirst());
     }
 
+    /**
+     * Returns a Spliterator over the entries of this HashMap, split by ranges of buckets.
+     * <p>
+     * A pending incremental resize is finished first, so that every entry sits in one table.
+     *
+     * @return a spliterator over the entries of the HashMap
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        getNodes().finishMigration();
+        return new BucketSpliterator(getNodes().getNodes(), 0, getNodes().getNodes().length, size());
+    }
+
+    /**
+     * Returns a Spliterator over the entries of this HashMap, split by ranges of buckets.
+     *
+     * @return a spliterator over the entries of the HashMap
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Node<K, V>> entrySpliterator() {
+        return spliterator();
+    }
+
     /**
      * Returns an iterator over the keys of the HashMap in ascending order.
      *
@@ -558,6 +726,16 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         return initialCapacity;
     }
 
+    /**
+     * Returns whether this HashMap spreads resizes over subsequent operations.
+     *
+     * @return {@code true} if resizes are incremental, {@code false} if they rehash in one pass
+     * @since 1.0
+     */
+    public boolean isIncrementalResize() {
+        return incrementalResize;
+    }
+
     /**
      * Represents a node in the binary search tree used by the HashMap.
      *
@@ -672,6 +850,21 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
     /**
      * A resizable array-based storage structure to hold nodes in the HashMap.
      * This class manages the capacity, indices, and operations on the nodes.
+     * <p>
+     * In incremental mode a resize only allocates the new table. The previous table is kept as
+     * {@code oldNodes} and its buckets are moved over, in index order, a few at a time by each
+     * subsequent operation. A key still lives in the old table exactly when its old bucket index
+     * has not been reached by the migration cursor yet, so every lookup only ever has to inspect
+     * one bucket. Operations that walk the whole structure finish the migration first.
+     * <p>
+     * Keys are spread before indexing, so the high bits of their hash codes take part in bucket
+     * selection. A bucket whose chain grows past {@link #TREEIFY_THRESHOLD} and whose keys are all
+     * comparable instances of one class is additionally indexed by a balanced (red-black)
+     * {@link BSTMap} from key to node, which turns lookups in that bucket from a linear walk into
+     * an O(log n) tree descent. The chain
+     * itself is kept intact for iteration and removal. The index is dropped once the bucket shrinks
+     * to {@link #UNTREEIFY_THRESHOLD} entries. A long bucket whose keys turn out not to qualify is
+     * marked, so lookups walking it do not build and discard a tree each time.
      *
      * @param <K> the type of keys maintained by this array
      * @param <V> the type of values mapped by this array
@@ -680,10 +873,36 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
     @SuppressWarnings("unchecked")
     public static class BaseArray<K, V> {
 
+        /**
+         * Number of old buckets moved to the new table by each operation during an incremental resize.
+         * Doubling leaves at least {@code capacity * loadFactor} insertions before the next resize, so
+         * any step above {@code 1 / loadFactor} finishes the migration in time.
+         */
+        static final int MIGRATION_STEP = 4;
+
+        /**
+         * Chain length above which a bucket gets an ordered tree index.
+         */
+        static final int TREEIFY_THRESHOLD = 8;
+
+        /**
+         * Chain length at or below which the tree index of a bucket is dropped again.
+         */
+        static final int UNTREEIFY_THRESHOLD = 6;
+
+        private final boolean incremental;
         private int capacity;
         private Node<K, V>[] nodes;
+        private BSTMap<K, Node<K, V>>[] trees;
         private TreeSet<Integer> filledIndices;
         private int size;
+        private Node<K, V>[] oldNodes;
+        private BSTMap<K, Node<K, V>>[] oldTrees;
+        // Buckets found unfit for a tree index, so lookups do not try to build one again
+        private BitSet untreeifiable;
+        private BitSet oldUntreeifiable;
+        private int migrateIndex;
+        MapStats stats;
 
 
         /**
@@ -702,7 +921,19 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         BaseArray(int capacity) {
+            this(capacity, false);
+        }
+
+        /**
+         * Constructs a BaseArray with the specified initial capacity and resize mode.
+         *
+         * @param capacity    the initial capacity of the BaseArray
+         * @param incremental whether resizes migrate buckets incrementally
+         * @since 1.0
+         */
+        BaseArray(int capacity, boolean incremental) {
             this.capacity = capacity;
+            this.incremental = incremental;
             this.size = 0;
             nodes = (Node<K, V>[]) new Node[capacity];
             filledIndices = new TreeSet<>();
@@ -736,7 +967,19 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         private int hash(K key) {
-            return Math.abs(key.hashCode() % getCapacity());
+            return hash(key, getCapacity());
+        }
+
+        /**
+         * Mixes the high bits of a hash code into the low bits, so keys whose hash codes only
+         * differ in their upper bits do not all land in the same bucket.
+         *
+         * @param h the raw hash code
+         * @return the spread hash code
+         * @since 1.0
+         */
+        static int spread(int h) {
+            return h ^ (h >>> 16);
         }
 
         /**
@@ -748,7 +991,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         private int hash(K key, int modulus) {
-            return Math.abs(key.hashCode() % modulus);
+            return Math.floorMod(spread(key.hashCode()), modulus);
         }
 
         /**
@@ -758,6 +1001,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         private Node<K, V> getFirst() {
+            finishMigration();
             TreeSet<Integer> filledIndices = getFilledIndices();
             if (filledIndices == null) return null;
             if (filledIndices.isEmpty()) return null;
@@ -772,6 +1016,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         private Node<K, V> getLast() {
+            finishMigration();
             TreeSet<Integer> filledIndices = getFilledIndices();
             if (filledIndices == null) return null;
             if (filledIndices.isEmpty()) return null;
@@ -857,25 +1102,313 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         private void changeCapacity(int newCapacity) {
-            // Create a temporary array and set to hold new nodes and indices
-            Node<K, V>[] tempArray = new Node[newCapacity];
-            TreeSet<Integer> tempSet = new TreeSet<>();
-            size = 0;
+            int oldCapacity = getCapacity();
+            if (stats != null) stats.resizeStarted();
 
-            // Traverse the existing nodes and rehash them into the new array
-            Node<K, V> refNode = getFirst();
-            Node<K, V> prevNode = null;
-            while (refNode != null) {
-                Node<K, V> tempNode = new Node<>(refNode.getKey(), refNode.getValue());
-                add(tempNode, tempArray, tempSet, newCapacity);
-                prevNode = refNode;
-                refNode = getNext(refNode);
-            }
+            // Only one resize can be in flight, so complete any pending one first
+            finishMigration();
 
-            // Update the BaseArray properties with the newly resized array and indices
+            // Create a temporary array and set to hold the relinked nodes and indices
+            Node<K, V>[] tempArray = new Node[newCapacity];
+            TreeSet<Integer> tempSet = new TreeSet<>();
+            oldNodes = nodes;
+            oldTrees = trees;
+            trees = null;
+            oldUntreeifiable = untreeifiable;
+            untreeifiable = null;
+            migrateIndex = 0;
             filledIndices = tempSet;
             nodes = tempArray;
             setCapacity(newCapacity);
+
+            // Either leave the old buckets for subsequent operations or move them all right away
+            if (!incremental) finishMigration();
+            if (stats != null) stats.resized(oldCapacity, newCapacity, size);
+        }
+
+        /**
+         * Checks whether an incremental resize is currently in progress.
+         *
+         * @return {@code true} if buckets remain in the old table, otherwise {@code false}
+         * @since 1.0
+         */
+        public boolean isResizing() {
+            return oldNodes != null;
+        }
+
+        /**
+         * Performs one bounded step of a pending incremental resize, if any.
+         *
+         * @since 1.0
+         */
+        void step() {
+            if (oldNodes != null) migrate(MIGRATION_STEP);
+        }
+
+        /**
+         * Moves every remaining bucket of a pending resize into the current table.
+         *
+         * @since 1.0
+         */
+        void finishMigration() {
+            if (oldNodes != null) migrate(oldNodes.length);
+        }
+
+        /**
+         * Moves up to the given number of buckets from the old table into the current one,
+         * relinking the existing nodes rather than allocating new ones.
+         *
+         * @param buckets the maximum number of old buckets to migrate
+         * @since 1.0
+         */
+        private void migrate(int buckets) {
+            Node<K, V>[] refOld = oldNodes;
+            int end = Math.min(refOld.length, migrateIndex + buckets);
+            for (; migrateIndex < end; migrateIndex++) {
+                Node<K, V> refNode = refOld[migrateIndex];
+                refOld[migrateIndex] = null;
+                if (oldTrees != null) oldTrees[migrateIndex] = null;
+                while (refNode != null) {
+                    Node<K, V> nextNode = refNode.getNext();
+                    refNode.setPrev(null);
+                    refNode.setNext(null);
+                    link(refNode);
+                    refNode = nextNode;
+                }
+            }
+            if (migrateIndex == refOld.length) {
+                oldNodes = null;
+                oldTrees = null;
+                oldUntreeifiable = null;
+            }
+        }
+
+        /**
+         * Links a detached node whose key is known to be absent into its bucket in the current table.
+         * <p>
+         * The node goes in at the front of the chain, so relinking a long bucket stays linear overall.
+         * Buckets that become long this way are indexed lazily, the next time a lookup walks them.
+         *
+         * @param node the detached node to link in
+         * @since 1.0
+         */
+        private void link(Node<K, V> node) {
+            int nodeIndex = hash(node.getKey());
+            Node<K, V> currNode = nodes[nodeIndex];
+            if (currNode == null) {
+                nodes[nodeIndex] = node;
+                filledIndices.add(nodeIndex);
+                return;
+            }
+            if (treeInsert(nodes, nodeIndex, node)) return;
+            node.setNext(currNode);
+            currNode.setPrev(node);
+            nodes[nodeIndex] = node;
+        }
+
+        /**
+         * Returns the tree index array belonging to the given bucket array.
+         *
+         * @param nodeList the bucket array
+         * @param create   whether to allocate the tree array if it does not exist yet
+         * @return the tree array of the bucket array, or null if it has none
+         * @since 1.0
+         */
+        private BSTMap<K, Node<K, V>>[] treesFor(Node<K, V>[] nodeList, boolean create) {
+            if (nodeList == nodes) {
+                if (trees == null && create) trees = newTrees(nodes.length);
+                return trees;
+            }
+            if (nodeList == oldNodes) {
+                if (oldTrees == null && create) oldTrees = newTrees(oldNodes.length);
+                return oldTrees;
+            }
+            return null;
+        }
+
+        /**
+         * Allocates an empty tree index array.
+         *
+         * @param length the number of buckets to cover
+         * @return the new tree array
+         * @since 1.0
+         */
+        @SuppressWarnings("unchecked")
+        private BSTMap<K, Node<K, V>>[] newTrees(int length) {
+            return (BSTMap<K, Node<K, V>>[]) new BSTMap<?, ?>[length];
+        }
+
+        /**
+         * Returns the set of buckets of the given bucket array that were found unfit for a tree index.
+         *
+         * @param nodeList the bucket array
+         * @param create   whether to allocate the set if it does not exist yet
+         * @return the set of the bucket array, or null if it has none
+         * @since 1.0
+         */
+        private BitSet untreeifiableFor(Node<K, V>[] nodeList, boolean create) {
+            if (nodeList == nodes) {
+                if (untreeifiable == null && create) untreeifiable = new BitSet(nodes.length);
+                return untreeifiable;
+            }
+            if (nodeList == oldNodes) {
+                if (oldUntreeifiable == null && create) oldUntreeifiable = new BitSet(oldNodes.length);
+                return oldUntreeifiable;
+            }
+            return null;
+        }
+
+        /**
+         * Inserts a node whose key is absent from its bucket through the bucket's tree index, if it
+         * has one. The node is linked in right behind the bucket head so no chain walk is needed.
+         * <p>
+         * If the key cannot be ordered consistently with the rest of the bucket, the tree index is
+         * dropped and the caller falls back to a plain chain insertion.
+         *
+         * @param nodeList  the bucket array holding the bucket
+         * @param nodeIndex the index of the non-empty bucket
+         * @param node      the detached node to insert
+         * @return {@code true} if the node was inserted, {@code false} if the bucket has no tree index
+         * @since 1.0
+         */
+        private boolean treeInsert(Node<K, V>[] nodeList, int nodeIndex, Node<K, V> node) {
+            BSTMap<K, Node<K, V>>[] refTrees = treesFor(nodeList, false);
+            if (refTrees == null || refTrees[nodeIndex] == null) return false;
+            Node<K, V> head = nodeList[nodeIndex];
+            if (head.getKey().getClass() == node.getKey().getClass()
+                    && refTrees[nodeIndex].put(node.getKey(), node) == null) {
+                Node<K, V> nextNode = head.getNext();
+                node.setPrev(head);
+                node.setNext(nextNode);
+                if (nextNode != null) nextNode.setPrev(node);
+                head.setNext(node);
+                return true;
+            }
+            // Either a foreign key class or a compareTo that disagrees with equals
+            refTrees[nodeIndex] = null;
+            markUntreeifiable(nodeList, nodeIndex);
+            return false;
+        }
+
+        /**
+         * Builds a tree index for the specified bucket, provided all of its keys are comparable
+         * instances of the same class and their ordering is consistent with equals.
+         * <p>
+         * The key classes are checked before any tree is allocated. A bucket that turns out to be
+         * unfit is marked as such, and is not tried again until a node is removed from it.
+         *
+         * @param nodeList  the bucket array holding the bucket
+         * @param nodeIndex the index of the bucket to index
+         * @since 1.0
+         */
+        private void treeify(Node<K, V>[] nodeList, int nodeIndex) {
+            BitSet refUntreeifiable = untreeifiableFor(nodeList, false);
+            if (refUntreeifiable != null && refUntreeifiable.get(nodeIndex)) return;
+            Node<K, V> head = nodeList[nodeIndex];
+            Class<?> keyClass = head.getKey().getClass();
+            boolean eligible = head.getKey() instanceof Comparable;
+            for (Node<K, V> refNode = head; eligible && refNode != null; refNode = refNode.getNext()) {
+                eligible = refNode.getKey().getClass() == keyClass;
+            }
+            if (!eligible) {
+                markUntreeifiable(nodeList, nodeIndex);
+                return;
+            }
+            BSTMap<K, Node<K, V>> tree = new BSTMap<>(null, true);
+            int depth = 0;
+            for (Node<K, V> refNode = head; refNode != null; refNode = refNode.getNext()) {
+                tree.put(refNode.getKey(), refNode);
+                depth++;
+            }
+            // Keys that compare as equal collapsed into one tree entry
+            if (tree.size() != depth) {
+                markUntreeifiable(nodeList, nodeIndex);
+                return;
+            }
+            BSTMap<K, Node<K, V>>[] refTrees = treesFor(nodeList, true);
+            if (refTrees != null) refTrees[nodeIndex] = tree;
+        }
+
+        /**
+         * Records that the specified bucket cannot be given a tree index in its current state.
+         *
+         * @param nodeList  the bucket array holding the bucket
+         * @param nodeIndex the index of the bucket
+         * @since 1.0
+         */
+        private void markUntreeifiable(Node<K, V>[] nodeList, int nodeIndex) {
+            BitSet refUntreeifiable = untreeifiableFor(nodeList, true);
+            if (refUntreeifiable != null) refUntreeifiable.set(nodeIndex);
+        }
+
+        /**
+         * Returns the number of probes a lookup through a bucket's tree index is recorded as:
+         * the height of a balanced tree of that size, as walking the tree to measure the
+         * actual descent would cost more than the lookup itself.
+         *
+         * @param tree the tree index of the bucket
+         * @return the probe length to record
+         * @since 1.0
+         */
+        private static int treeProbes(BSTMap<?, ?> tree) {
+            return 32 - Integer.numberOfLeadingZeros(tree.size());
+        }
+
+        /**
+         * Checks whether the specified key still belongs to a bucket of the old table.
+         *
+         * @param key the key to locate
+         * @return {@code true} if the key's bucket has not been migrated yet
+         * @since 1.0
+         */
+        private boolean inOldTable(K key) {
+            return oldNodes != null && hash(key, oldNodes.length) >= migrateIndex;
+        }
+
+        /**
+         * Finds the node holding the specified key, advancing any pending resize first.
+         *
+         * @param key the key to search for
+         * @return the node holding the key, or null if the key is not present
+         * @since 1.0
+         */
+        public Node<K, V> find(K key) {
+            if (key == null) return null;
+            step();
+            Node<K, V>[] nodeList = inOldTable(key) ? oldNodes : nodes;
+            int nodeIndex = hash(key, nodeList.length);
+            BSTMap<K, Node<K, V>>[] refTrees = treesFor(nodeList, false);
+            if (refTrees != null && refTrees[nodeIndex] != null) {
+                if (stats != null) stats.probe(treeProbes(refTrees[nodeIndex]));
+                if (key.getClass() != nodeList[nodeIndex].getKey().getClass()) return null;
+                Node<K, V> refNode = refTrees[nodeIndex].get(key);
+                if (refNode == null || refNode.getKey().equals(key)) return refNode;
+                // The key orders equal to a stored key without being equal to it, so only the chain can tell
+                return findInChain(nodeList[nodeIndex], key);
+            }
+            Node<K, V> currNode = nodeList[nodeIndex];
+            int depth = 0;
+            while (currNode != null && !currNode.getKey().equals(key)) {
+                currNode = currNode.getNext();
+                depth++;
+            }
+            if (stats != null) stats.probe(currNode == null ? depth : depth + 1);
+            if (depth > TREEIFY_THRESHOLD) treeify(nodeList, nodeIndex);
+            return currNode;
+        }
+
+        /**
+         * Walks a chain for the node holding the specified key.
+         *
+         * @param head the first node of the chain
+         * @param key  the key to search for
+         * @return the node holding the key, or null if the chain does not hold it
+         * @since 1.0
+         */
+        private static <K, V> Node<K, V> findInChain(Node<K, V> head, K key) {
+            Node<K, V> currNode = head;
+            while (currNode != null && !currNode.getKey().equals(key)) currNode = currNode.getNext();
+            return currNode;
         }
 
         /**
@@ -888,9 +1421,27 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          * @since 1.0
          */
         public V add(Node<K, V> node) {
+            if (node == null || node.getKey() == null) return null;
+            step();
+            if (inOldTable(node.getKey())) return add(node, oldNodes, null, oldNodes.length);
             return add(node, getNodes(), getFilledIndices());
         }
 
+        /**
+         * Adds a node to the BaseArray unless a node with the same key is already present, in
+         * which case that node is returned untouched. Either way the bucket is walked once.
+         *
+         * @param node the node to be added
+         * @return the node already holding the key, or null if the given node was added
+         * @since 1.0
+         */
+        public Node<K, V> addIfAbsent(Node<K, V> node) {
+            if (node == null || node.getKey() == null) return null;
+            step();
+            if (inOldTable(node.getKey())) return attach(node, oldNodes, null, oldNodes.length);
+            return attach(node, getNodes(), getFilledIndices(), getCapacity());
+        }
+
         /**
          * Adds a node to the node list while updating the specified filled index set,
          * with a hash function based on current capacity.
@@ -911,7 +1462,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          *
          * @param node        the node to be added
          * @param nodeList    the array of nodes to which the new node is added
-         * @param nodeIndices the set of indices representing filled positions in the nodeList
+         * @param nodeIndices the set of indices representing filled positions in the nodeList, or null if untracked
          * @param hashModulus the modulus used in hash computation
          * @return the previous value associated with the specified key, or null if there was no mapping for the key
          * @since 1.0
@@ -919,6 +1470,24 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         public V add(Node<K, V> node, Node<K, V>[] nodeList, TreeSet<Integer> nodeIndices, int hashModulus) {
             if (node == null) return null;
             if (node.getKey() == null) return null;
+            Node<K, V> refNode = attach(node, nodeList, nodeIndices, hashModulus);
+            if (refNode == null) return null;
+            V prevValue = refNode.getValue();
+            refNode.setValue(node.getValue());
+            return prevValue;
+        }
+
+        /**
+         * Links a node into the node list, unless a node with the same key is already there.
+         *
+         * @param node        the node to be linked in
+         * @param nodeList    the array of nodes to which the new node is added
+         * @param nodeIndices the set of indices representing filled positions in the nodeList, or null if untracked
+         * @param hashModulus the modulus used in hash computation
+         * @return the node already holding the key, or null if the given node was linked in
+         * @since 1.0
+         */
+        private Node<K, V> attach(Node<K, V> node, Node<K, V>[] nodeList, TreeSet<Integer> nodeIndices, int hashModulus) {
 
             // Calculate the index for the new node based on hashModulus
             K key = node.getKey();
@@ -927,28 +1496,44 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
 
             // If the index is empty, add the node directly
             if (currNode == null) {
+                if (stats != null) stats.probe(0);
                 nodeList[nodeIndex] = node;
-                nodeIndices.add(nodeIndex);
+                if (nodeIndices != null) nodeIndices.add(nodeIndex);
+                size++;
+                return null;
+            }
+
+            // If the bucket has a tree index, use it to find an existing node with the same key
+            BSTMap<K, Node<K, V>>[] refTrees = treesFor(nodeList, false);
+            if (refTrees != null && refTrees[nodeIndex] != null && currNode.getKey().getClass() == key.getClass()) {
+                if (stats != null) stats.probe(treeProbes(refTrees[nodeIndex]));
+                Node<K, V> refNode = refTrees[nodeIndex].get(key);
+                if (refNode != null && refNode.getKey().equals(key)) return refNode;
+            }
+            if (treeInsert(nodeList, nodeIndex, node)) {
                 size++;
                 return null;
             }
 
-            // If a node with the same key exists, update its value
+            // If a node with the same key exists, hand it back
             Node<K, V> prevNode = null;
+            int depth = 0;
             while (currNode != null) {
                 if (currNode.getKey().equals(key)) {
-                    V prevValue = currNode.getValue();
-                    currNode.setValue(node.getValue());
-                    return prevValue;
+                    if (stats != null) stats.probe(depth + 1);
+                    return currNode;
                 }
                 prevNode = currNode;
                 currNode = currNode.getNext();
+                depth++;
             }
+            if (stats != null) stats.probe(depth);
 
             // If no node with the same key is found, add the node to the end of the linked list
             prevNode.setNext(node);
             node.setPrev(prevNode);
             size++;
+            if (depth >= TREEIFY_THRESHOLD) treeify(nodeList, nodeIndex);
             return null;
         }
 
@@ -961,7 +1546,9 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
          */
         public V remove(Node<K, V> node) {
             if (node == null) return null;
-            int nodeIndex = hash(node.getKey());
+            boolean old = inOldTable(node.getKey());
+            Node<K, V>[] nodeList = old ? oldNodes : getNodes();
+            int nodeIndex = hash(node.getKey(), nodeList.length);
             Node<K, V> prevNode = node.getPrev();
             Node<K, V> nextNode = node.getNext();
 
@@ -973,20 +1560,35 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
                 prevNode.setNext(nextNode);
             } else {
                 // If the removed node was the first in the linked list, update the array
-                getNodes()[nodeIndex] = nextNode;
+                nodeList[nodeIndex] = nextNode;
             }
+            node.setPrev(null);
+            node.setNext(null);
 
             // If the index becomes empty, remove it from the set of filled indices
-            if (getNodes()[nodeIndex] == null) {
+            if (!old && nodeList[nodeIndex] == null) {
                 getFilledIndices().remove(nodeIndex);
             }
 
+            // Removing the offending key may make the bucket fit for a tree index again
+            BitSet refUntreeifiable = untreeifiableFor(nodeList, false);
+            if (refUntreeifiable != null) refUntreeifiable.clear(nodeIndex);
+
+            // Keep the tree index in step, dropping it once the bucket is short again
+            BSTMap<K, Node<K, V>>[] refTrees = treesFor(nodeList, false);
+            if (refTrees != null && refTrees[nodeIndex] != null) {
+                BSTMap<K, Node<K, V>> tree = refTrees[nodeIndex];
+                tree.remove(node.getKey());
+                if (tree.size() <= UNTREEIFY_THRESHOLD) refTrees[nodeIndex] = null;
+            }
+
             size--;
             return node.getValue();
         }
 
         /**
          * Computes the maximum depth of the nodes at the specified index in the BaseArray.
+         * For a bucket with a tree index this is the height of the tree rather than the chain length.
          *
          * @param index the index for which to compute the maximum depth
          * @return the maximum depth of the nodes at the specified index
@@ -995,6 +1597,7 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         public int getMaxDepth(int index) {
             Node<K, V> refNode = getNodes()[index];
             if (refNode == null) return 0;
+            if (trees != null && trees[index] != null) return trees[index].maxDepth();
             return nodeDepth(refNode);
         }
 
@@ -1123,6 +1726,71 @@ public class HashMap<K, V> implements CustomMap<K, V>, Iterable<HashMap.Node<K,
         }
     }
 
+    /**
+     * Spliterator over the chains of a range of buckets. Splitting hands the lower half of the
+     * remaining buckets to the new spliterator.
+     */
+    final class BucketSpliterator implements Spliterator<Node<K, V>> {
+        private final Node<K, V>[] table;
+        private int index;
+        private final int fence;
+        private Node<K, V> current;
+        private long estimate;
+
+        /**
+         * Constructs a spliterator over the buckets in [index, fence) of the given table.
+         *
+         * @param table    the bucket table
+         * @param index    the first bucket
+         * @param fence    the bucket after the last one
+         * @param estimate the estimated number of entries in the range
+         */
+        BucketSpliterator(Node<K, V>[] table, int index, int fence, long estimate) {
+            this.table = table;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        public boolean tryAdvance(java.util.function.Consumer<? super Node<K, V>> action) {
+            Objects.requireNonNull(action);
+            while (current == null) {
+                if (index >= fence) return false;
+                current = table[index++];
+            }
+            Node<K, V> node = current;
+            current = node.getNext();
+            action.accept(node);
+            return true;
+        }
+
+        public void forEachRemaining(java.util.function.Consumer<? super Node<K, V>> action) {
+            Objects.requireNonNull(action);
+            for (Node<K, V> node = current; node != null; node = node.getNext()) action.accept(node);
+            current = null;
+            for (; index < fence; index++) {
+                for (Node<K, V> node = table[index]; node != null; node = node.getNext()) action.accept(node);
+            }
+        }
+
+        public Spliterator<Node<K, V>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (current != null || mid <= index) return null;
+            estimate >>>= 1;
+            BucketSpliterator prefix = new BucketSpliterator(table, index, mid, estimate);
+            index = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return estimate;
+        }
+
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+
     abstract class BaseIterator<T> implements Iterator<T> {
         Node<K, V> currentNext;
         Node<K, V> previousFetch;
@@ -0,0 +1,356 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark harness for the CustomMap implementations.
+ * <p>
+ * Every map is measured on {@code put}, {@code get}, {@code containsKey}, {@code remove},
+ * iteration, {@code keySet} and {@code values}, for uniform, Zipfian (word-like) and sorted key
+ * distributions over a range of sizes. The {@code put} runs start from an empty map, so they
+ * include every resize, and they also record the slowest single insertion, which is where a
+ * stop-the-world resize shows up. The heap the built map retains is recorded with them, per
+ * entry, as the growth in live heap across the build.
+ * <p>
+ * Each measurement follows the usual microbenchmark discipline: a number of warm-up rounds
+ * that are thrown away so the JIT compiler settles, then measured rounds from which the median
+ * is reported. Results are fed into a sink so the JIT cannot drop the work as dead code, and
+ * the collector count and time over the measured rounds are reported alongside each result.
+ * <p>
+ * Results are printed as a table and written as a JSON array for regression tracking.
+ * Usage:
+ *
+ * <pre>
+ * java MapBenchmark [--sizes 1000,100000,1000000] [--maps HashMap,BSTMap,...]
+ *                   [--distributions uniform,zipf,sorted] [--warmup 3] [--rounds 5]
+ *                   [--out map-benchmark.json]
+ * </pre>
+ * <p>
+ * Sizes up to 50,000,000 are supported given enough heap ({@code -Xmx}); keys are generated
+ * before timing starts.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class MapBenchmark {
+
+    /**
+     * Past this size, plain BSTMap is not run on sorted keys: it degenerates into a list and
+     * the run would take quadratic time.
+     */
+    private static final int UNBALANCED_SORTED_LIMIT = 20_000;
+
+    private static final Map<String, Supplier<CustomMap<String, Integer>>> MAPS = new LinkedHashMap<>();
+
+    static {
+        MAPS.put("HashMap", HashMap::new);
+        MAPS.put("IncrementalHashMap", () -> new HashMap<>(16, .75, true));
+        MAPS.put("BSTMap", BSTMap::new);
+        MAPS.put("RedBlackBSTMap", () -> new BSTMap<>(null, true));
+        MAPS.put("RobinHoodHashMap", RobinHoodHashMap::new);
+        MAPS.put("CompactHashMap", CompactHashMap::new);
+        MAPS.put("StripedHashMap", StripedHashMap::new);
+        MAPS.put("StringCountMap", StringCountMap::new);
+        MAPS.put("HamtMap", HamtMap::new);
+        MAPS.put("SkipListMap", SkipListMap::new);
+        MAPS.put("BPlusTreeMap", BPlusTreeMap::new);
+        MAPS.put("BloomFilteredBSTMap", () -> new BloomFilteredMap<>(new BSTMap<>()));
+    }
+
+    private final int warmup;
+    private final int rounds;
+    private final ArrayList<Result> results = new ArrayList<>();
+    // Everything measured is folded into this, so that none of it is dead code.
+    private long sink;
+
+    /**
+     * Constructs a benchmark run with the given number of warm-up and measured rounds.
+     *
+     * @param warmup the number of rounds discarded before measuring
+     * @param rounds the number of measured rounds
+     * @since 1.0
+     */
+    public MapBenchmark(int warmup, int rounds) {
+        this.warmup = warmup;
+        this.rounds = rounds;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {1_000, 100_000, 1_000_000};
+        List<String> maps = new ArrayList<>(MAPS.keySet());
+        List<String> distributions = List.of("uniform", "zipf", "sorted");
+        int warmup = 3;
+        int rounds = 5;
+        String out = "map-benchmark.json";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--maps" -> maps = List.of(args[i + 1].split(","));
+                case "--distributions" -> distributions = List.of(args[i + 1].split(","));
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+                case "--out" -> out = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        MapBenchmark benchmark = new MapBenchmark(warmup, rounds);
+        for (int size : sizes) {
+            for (String distribution : distributions) {
+                String[] keys = keys(distribution, size, new Random(size));
+                String[] misses = keys("uniform", size, new Random(~size));
+                for (int i = 0; i < misses.length; i++) misses[i] = "miss" + misses[i];
+                for (String map : maps) {
+                    if (!MAPS.containsKey(map)) throw new IllegalArgumentException("Unknown map: " + map);
+                    if (map.equals("BSTMap") && distribution.equals("sorted") && size > UNBALANCED_SORTED_LIMIT) {
+                        System.out.println("skipping BSTMap on " + size + " sorted keys (quadratic)");
+                        continue;
+                    }
+                    benchmark.run(map, MAPS.get(map), distribution, keys, misses);
+                }
+            }
+        }
+        benchmark.writeJson(out);
+        System.out.println("wrote " + benchmark.results.size() + " results to " + out + " (sink " + benchmark.sink + ")");
+    }
+
+    /**
+     * Generates the keys of a benchmark.
+     * <ul>
+     *     <li>uniform: {@code size} keys drawn uniformly at random, so about 63% are distinct.</li>
+     *     <li>zipf: {@code size} keys whose ranks follow a Zipf law with exponent 1, like the
+     *     words of a text: a few keys make up most of the draws and most keys are rare.</li>
+     *     <li>sorted: {@code size} distinct keys in ascending string order.</li>
+     * </ul>
+     *
+     * @param distribution the key distribution, one of uniform, zipf or sorted
+     * @param size         the number of keys to generate
+     * @param rand         the source of randomness
+     * @return the generated keys
+     * @throws IllegalArgumentException if the distribution is unknown
+     * @since 1.0
+     */
+    static String[] keys(String distribution, int size, Random rand) {
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            long index = switch (distribution) {
+                case "uniform" -> rand.nextInt(size);
+                // Inverting the continuous power law: P(rank <= k) = ln(k + 1) / ln(size + 1)
+                case "zipf" -> (long) Math.pow(size + 1.0, rand.nextDouble()) - 1;
+                case "sorted" -> i;
+                default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+            };
+            keys[i] = String.format(Locale.ROOT, "k%010d", index);
+        }
+        return keys;
+    }
+
+    /**
+     * Measures every operation for one map on one key set.
+     *
+     * @param name         the name of the map
+     * @param factory      creates empty instances of the map
+     * @param distribution the name of the key distribution
+     * @param keys         the keys to insert
+     * @param misses       keys that are never inserted
+     * @since 1.0
+     */
+    private void run(String name, Supplier<CustomMap<String, Integer>> factory, String distribution,
+                     String[] keys, String[] misses) {
+        int size = keys.length;
+        measure(name, distribution, size, "put", size, () -> {
+            CustomMap<String, Integer> map = factory.get();
+            for (int i = 0; i < keys.length; i++) map.put(keys[i], i);
+            sink += map.size();
+        });
+
+        // One more build, outside the measured rounds, timing each insertion to find the longest pause
+        long heapBefore = liveHeap();
+        CustomMap<String, Integer> map = factory.get();
+        long worst = 0;
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            map.put(keys[i], i);
+            worst = Math.max(worst, System.nanoTime() - start);
+        }
+        results.get(results.size() - 1).maxOpNanos = worst;
+        // The keys are live before and after, so only the map's own structure and values count
+        results.get(results.size() - 1).bytesPerEntry = (double) (liveHeap() - heapBefore) / Math.max(1, map.size());
+        measure(name, distribution, size, "get", size, () -> {
+            long sum = 0;
+            for (String key : keys) sum += map.get(key);
+            sink += sum;
+        });
+        measure(name, distribution, size, "containsKey (miss)", size, () -> {
+            long found = 0;
+            for (String key : misses) if (map.containsKey(key)) found++;
+            sink += found;
+        });
+        measure(name, distribution, size, "iteration", map.size(), () -> {
+            long sum = 0;
+            for (CustomMap.Entry<String, Integer> entry : map.entrySet()) sum += entry.getValue();
+            sink += sum;
+        });
+        measure(name, distribution, size, "keySet", map.size(), () -> {
+            long length = 0;
+            for (String key : map.keySet()) length += key.length();
+            sink += length;
+        });
+        measure(name, distribution, size, "values", map.size(), () -> {
+            long sum = 0;
+            for (int value : map.values()) sum += value;
+            sink += sum;
+        });
+        measure(name, distribution, size, "remove", size, () -> {
+            CustomMap<String, Integer> copy = factory.get();
+            for (int i = 0; i < keys.length; i++) copy.put(keys[i], i);
+            long start = System.nanoTime();
+            for (String key : keys) copy.remove(key);
+            // Only the removals are timed; the rebuild is subtracted out.
+            return System.nanoTime() - start;
+        });
+    }
+
+    /**
+     * Something to measure, which may time itself.
+     */
+    private interface Timed {
+        /**
+         * Runs the measured work.
+         *
+         * @return the nanoseconds the measured part took, or -1 to time the whole call
+         */
+        long run();
+    }
+
+    /**
+     * Measures work that is timed as a whole.
+     */
+    private void measure(String map, String distribution, int size, String operation, int ops, Runnable work) {
+        measure(map, distribution, size, operation, ops, () -> {
+            work.run();
+            return -1;
+        });
+    }
+
+    /**
+     * Runs the warm-up and measured rounds of one operation and records the median.
+     *
+     * @param map          the name of the map
+     * @param distribution the name of the key distribution
+     * @param size         the number of keys
+     * @param operation    the name of the operation
+     * @param ops          the number of operations in one round
+     * @param work         the work of one round
+     * @since 1.0
+     */
+    private void measure(String map, String distribution, int size, String operation, int ops, Timed work) {
+        for (int i = 0; i < warmup; i++) work.run();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcMillis();
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            long timed = work.run();
+            times[i] = (timed >= 0) ? timed : System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        Result result = new Result(map, distribution, size, operation,
+                (double) times[rounds / 2] / Math.max(1, ops),
+                gcCount() - gcCountBefore, gcMillis() - gcTimeBefore);
+        results.add(result);
+        System.out.printf("%-20s %-8s %10d %-20s %12.1f ns/op %6d gcs%n",
+                map, distribution, size, operation, result.nanosPerOp, result.gcCount);
+    }
+
+    /**
+     * Returns the heap in use after collecting garbage until it stops shrinking.
+     */
+    private static long liveHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) break;
+            used = now;
+        }
+        return used;
+    }
+
+    /**
+     * Returns the total number of collections so far over all collectors.
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    /**
+     * Returns the total time spent collecting so far over all collectors, in milliseconds.
+     */
+    private static long gcMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) time += Math.max(0, gc.getCollectionTime());
+        return time;
+    }
+
+    /**
+     * Writes the results as a JSON array of objects.
+     *
+     * @param filename the file to write to
+     * @throws IOException if the file cannot be written
+     * @since 1.0
+     */
+    void writeJson(String filename) throws IOException {
+        try (FileWriter fw = new FileWriter(filename)) {
+            fw.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                fw.write("  " + results.get(i).toJson() + (i + 1 < results.size() ? ",\n" : "\n"));
+            }
+            fw.write("]\n");
+        }
+    }
+
+    /**
+     * One measured operation.
+     */
+    private static final class Result {
+        final String map;
+        final String distribution;
+        final int size;
+        final String operation;
+        final double nanosPerOp;
+        final long gcCount;
+        final long gcMillis;
+        long maxOpNanos = -1;
+        double bytesPerEntry = -1;
+
+        Result(String map, String distribution, int size, String operation, double nanosPerOp, long gcCount, long gcMillis) {
+            this.map = map;
+            this.distribution = distribution;
+            this.size = size;
+            this.operation = operation;
+            this.nanosPerOp = nanosPerOp;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"map\": \"%s\", \"distribution\": \"%s\", \"size\": %d, \"operation\": \"%s\", "
+                            + "\"nsPerOp\": %.3f, \"opsPerSec\": %.1f, \"gcCount\": %d, \"gcMillis\": %d%s}",
+                    map, distribution, size, operation, nanosPerOp, 1e9 / Math.max(nanosPerOp, 1e-9), gcCount, gcMillis,
+                    maxOpNanos >= 0 ? String.format(Locale.ROOT, ", \"maxPutNs\": %d, \"bytesPerEntry\": %.1f", maxOpNanos, bytesPerEntry) : "");
+        }
+    }
+}
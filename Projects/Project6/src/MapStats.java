@@ -0,0 +1,264 @@
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorder behind {@link CustomMap#recordStats(boolean)} and {@link CustomMap#stats()}.
+ * <p>
+ * A map that supports statistics holds a reference to a recorder, which is null until
+ * statistics are turned on. Its hot paths then cost a single null check while statistics are
+ * off. While they are on, a lookup adds its probe length to a histogram, and a resize adds to
+ * the resize count and time. What a probe is depends on the map: the entries of a chain that
+ * were compared, the slots of a probe run, or the nodes of a descent through a tree.
+ * <p>
+ * The recorder also feeds Java Flight Recorder. Every resize is committed as a
+ * {@link ResizeEvent} with its duration, and maps registered through
+ * {@link #publish(String, CustomMap)} are snapshotted as a {@link SnapshotEvent} once a
+ * second while a recording is running. Without a recording, committing an event costs
+ * nothing beyond the check that no recording wants it. To record both, run for example
+ * {@code java -XX:StartFlightRecording:filename=maps.jfr ...}.
+ * <p>
+ * A recorder is as thread-safe as the map it belongs to, that is, not at all. The snapshot
+ * event reads the counters from the recorder thread without synchronization, so its values
+ * may be slightly stale.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class MapStats {
+
+    /**
+     * Number of histogram buckets. Probe lengths of {@code BUCKETS - 1} and above share the
+     * last bucket.
+     */
+    public static final int BUCKETS = 32;
+
+    private static final CopyOnWriteArrayList<Published> PUBLISHED = new CopyOnWriteArrayList<>();
+    private static final Runnable SNAPSHOT_HOOK = MapStats::emitSnapshots;
+    private static boolean hooked; // guarded by PUBLISHED
+
+    private final long[] probeHistogram = new long[BUCKETS];
+    private long lookups;
+    private long probes;
+    private int maxProbe;
+    private long resizes;
+    private long resizeNanos;
+    private long comparisons;
+    private long resizeStart;
+    private ResizeEvent resizeEvent;
+
+    public static void main(String[] args) {
+        BSTMap<Integer, Integer> tree = new BSTMap<>(null, true);
+        HashMap<Integer, Integer> hashMap = new HashMap<>();
+        tree.recordStats(true);
+        hashMap.recordStats(true);
+        for (int i = 0; i < 100000; i++) {
+            tree.put(i, i);
+            hashMap.put(i * 64, i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            tree.get(i);
+            hashMap.get(i * 64);
+        }
+        System.out.println("BSTMap:  " + tree.stats());
+        System.out.println("HashMap: " + hashMap.stats());
+    }
+
+    /**
+     * Registers a map whose statistics are committed as a {@link SnapshotEvent} once a second
+     * while a recording is running. Statistics are turned on for the map if it supports
+     * them. The map is held weakly, so registering it does not keep it alive. The first map
+     * published while a recording is already running may take a second to show up in it.
+     * <p>
+     * The periodic hook is added with the first map and stays for the life of the JVM, as
+     * {@link FlightRecorder#addPeriodicEvent} refuses to add it twice and the hook costs
+     * nothing once every published map is gone.
+     *
+     * @param name the name the events carry, to tell maps apart
+     * @param map  the map to publish
+     * @return whether the map supports statistics
+     * @since 1.0
+     */
+    public static boolean publish(String name, CustomMap<?, ?> map) {
+        if (map.stats() == null && !map.recordStats(true)) return false;
+        synchronized (PUBLISHED) {
+            if (!hooked) {
+                FlightRecorder.addPeriodicEvent(SnapshotEvent.class, SNAPSHOT_HOOK);
+                hooked = true;
+            }
+            PUBLISHED.add(new Published(name, new WeakReference<>(map)));
+        }
+        return true;
+    }
+
+    /**
+     * Commits a snapshot event for every published map that is still alive, and forgets the
+     * rest.
+     */
+    private static void emitSnapshots() {
+        for (Published published : PUBLISHED) {
+            CustomMap<?, ?> map = published.map().get();
+            CustomMap.Stats stats = (map == null) ? null : map.stats();
+            if (stats == null) {
+                PUBLISHED.remove(published);
+                continue;
+            }
+            SnapshotEvent event = new SnapshotEvent();
+            event.map = published.name();
+            event.size = map.size();
+            event.lookups = stats.lookups();
+            event.meanProbe = stats.meanProbe();
+            event.maxProbe = stats.maxProbe();
+            event.resizes = stats.resizes();
+            event.resizeTime = stats.resizeNanos();
+            event.comparisons = stats.comparisons();
+            event.commit();
+        }
+    }
+
+    /**
+     * Records a lookup that inspected the given number of entries, slots or nodes.
+     *
+     * @param length the probe length of the lookup
+     * @since 1.0
+     */
+    void probe(int length) {
+        lookups++;
+        probes += length;
+        probeHistogram[Math.min(length, BUCKETS - 1)]++;
+        if (length > maxProbe) maxProbe = length;
+    }
+
+    /**
+     * Wraps a comparator so that every call to it is recorded.
+     *
+     * @param comparator the comparator to count the calls to
+     * @param <T>        the type of objects compared
+     * @return a comparator that counts its calls and then delegates
+     * @since 1.0
+     */
+    <T> Comparator<T> counting(Comparator<T> comparator) {
+        return (obj1, obj2) -> {
+            comparisons++;
+            return comparator.compare(obj1, obj2);
+        };
+    }
+
+    /**
+     * Marks the start of a resize. Must be followed by {@link #resized(int, int, int)}.
+     *
+     * @since 1.0
+     */
+    void resizeStarted() {
+        resizeEvent = new ResizeEvent();
+        resizeEvent.begin();
+        resizeStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a resize, recording its duration and committing its event.
+     *
+     * @param oldCapacity the capacity before the resize
+     * @param newCapacity the capacity after the resize
+     * @param size        the number of entries moved
+     * @since 1.0
+     */
+    void resized(int oldCapacity, int newCapacity, int size) {
+        resizes++;
+        resizeNanos += System.nanoTime() - resizeStart;
+        ResizeEvent event = resizeEvent;
+        resizeEvent = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.size = size;
+            event.commit();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the counters.
+     *
+     * @return the statistics recorded so far
+     * @since 1.0
+     */
+    CustomMap.Stats snapshot() {
+        return new CustomMap.Stats(lookups, probes, probeHistogram.clone(), maxProbe, resizes, resizeNanos, comparisons);
+    }
+
+    /**
+     * A map registered for snapshot events.
+     */
+    private record Published(String name, WeakReference<CustomMap<?, ?>> map) {
+    }
+
+    /**
+     * JFR event committed for every resize of a map that records statistics.
+     *
+     * @since 1.0
+     */
+    @Name("CustomMap.Resize")
+    @Label("Map Resize")
+    @Category({"Data Structures", "CustomMap"})
+    @Description("A CustomMap reallocated its table and moved its entries")
+    public static final class ResizeEvent extends Event {
+        @Label("Old Capacity")
+        int oldCapacity;
+
+        @Label("New Capacity")
+        int newCapacity;
+
+        @Label("Entries")
+        int size;
+    }
+
+    /**
+     * JFR event with the statistics of a published map, committed periodically.
+     *
+     * @since 1.0
+     */
+    @Name("CustomMap.Snapshot")
+    @Label("Map Statistics")
+    @Category({"Data Structures", "CustomMap"})
+    @Description("Statistics of a CustomMap registered through MapStats.publish")
+    @Period("1 s")
+    @StackTrace(false)
+    public static final class SnapshotEvent extends Event {
+        @Label("Map")
+        String map;
+
+        @Label("Size")
+        int size;
+
+        @Label("Lookups")
+        long lookups;
+
+        @Label("Mean Probe Length")
+        double meanProbe;
+
+        @Label("Max Probe Length")
+        int maxProbe;
+
+        @Label("Resizes")
+        long resizes;
+
+        @Label("Resize Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long resizeTime;
+
+        @Label("Comparisons")
+        long comparisons;
+    }
+}
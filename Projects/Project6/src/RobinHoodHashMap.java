@@ -0,0 +1,906 @@
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Open-addressing implementation of a HashMap using Robin Hood linear probing.
+ * <p>
+ * Unlike {@link HashMap}, which chains heap-allocated nodes through prev/next pointers and keeps
+ * a TreeSet of filled indices, this map stores its contents in three flat parallel arrays: one
+ * for keys, one for values and one for cached hashes. A lookup is a linear scan over adjacent
+ * slots, so there are no per-entry allocations and no pointer chasing.
+ * <p>
+ * Robin Hood probing keeps the variance of probe lengths low: whenever an entry being inserted
+ * has travelled further from its home slot than the entry currently occupying a slot, the two
+ * are swapped and the displaced entry continues probing. This also allows lookups of absent keys
+ * to stop early, as soon as a resident entry is closer to its home slot than the probe is.
+ * <p>
+ * Deletion uses backward-shift deletion rather than tombstones. The entries following the removed
+ * slot are shifted back by one until an empty slot or an entry sitting in its home slot is found,
+ * so the table never degrades with repeated removals.
+ * <p>
+ * The implementation is not thread-safe, and care should be taken when used in a concurrent
+ * environment. Null keys are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class RobinHoodHashMap<K, V> implements CustomMap<K, V>, Iterable<CustomMap.Entry<K, V>> {
+
+    /**
+     * Bit set on every stored hash so that an empty slot (hash 0) can be told apart from an
+     * occupied one. The bit lies above any usable index mask, so it never affects slot selection.
+     */
+    private static final int OCCUPIED = 0x80000000;
+
+    private final int initialCapacity;
+    private final double maxLoadFactor;
+    private int size;
+    private int threshold;
+    private int[] hashes;
+    private Object[] keys;
+    private Object[] values;
+    private KeySet<K> keySet;
+    private MapStats stats;
+
+    /**
+     * Constructs an empty RobinHoodHashMap with an initial capacity of 16 and a load factor of 0.75.
+     *
+     * @since 1.0
+     */
+    public RobinHoodHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty RobinHoodHashMap with the specified initial capacity and a load factor of 0.75.
+     *
+     * @param capacity the initial capacity of the map, must be a power of 2
+     * @throws IllegalArgumentException if the specified capacity is not a power of 2
+     * @since 1.0
+     */
+    public RobinHoodHashMap(int capacity) {
+        this(capacity, .75);
+    }
+
+    /**
+     * Constructs an empty RobinHoodHashMap with the specified initial capacity and load factor.
+     * <p>
+     * Open addressing requires at least one empty slot at all times, so the load factor must be
+     * strictly between 0 and 1.
+     *
+     * @param capacity   the initial capacity of the map, must be a power of 2
+     * @param loadFactor the load factor, determining when the underlying arrays are resized
+     * @throws IllegalArgumentException if the capacity is not a power of 2 or the load factor is out of range
+     * @since 1.0
+     */
+    public RobinHoodHashMap(int capacity, double loadFactor) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be power of 2, BANNED!");
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Load factor must be between 0 and 1 exclusive.");
+        this.initialCapacity = capacity;
+        this.maxLoadFactor = loadFactor;
+        allocate(capacity);
+    }
+
+    public static void main(String[] args) {
+        RobinHoodHashMap<String, Integer> words = new RobinHoodHashMap<>();
+        words.put("ten", 10);
+        words.put("five", 5);
+        words.put("three", 3);
+        words.put("seven", 10);
+        words.put("four", 5);
+        words.put("eight", 3);
+        words.put("twelve", 10);
+        words.put("ninety", 5);
+        words.put("zedd", 3);
+        words.put("ter", 7);
+        words.put("teq", 7);
+        words.put("terra", 7);
+        words.put("teb", 10);
+        System.out.println(words);
+        System.out.println(words.capacity());
+        System.out.println(words.maxDepth());
+        words.remove("seven");
+        System.out.println(words);
+        System.out.println(words.keySet());
+        System.out.println(words.values());
+        System.out.println(words.containsKey("ter"));
+    }
+
+    /**
+     * Spreads the higher bits of the hash code of the given key into the lower bits and marks it
+     * as occupied.
+     *
+     * @param key the key whose hash is to be computed
+     * @return the stored form of the hash of the key, never 0
+     * @since 1.0
+     */
+    private static int hashOf(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) | OCCUPIED;
+    }
+
+    /**
+     * Allocates fresh backing arrays with the given capacity.
+     *
+     * @param capacity the new capacity of the backing arrays
+     * @since 1.0
+     */
+    private void allocate(int capacity) {
+        this.hashes = new int[capacity];
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.threshold = (int) Math.min(capacity - 1, capacity * maxLoadFactor);
+    }
+
+    /**
+     * Returns how far the entry in the given slot is from its home slot.
+     *
+     * @param slot the slot to inspect, must be occupied
+     * @return the probe distance of the entry in the slot
+     * @since 1.0
+     */
+    private int probeDistance(int slot) {
+        int mask = hashes.length - 1;
+        return (slot - (hashes[slot] & mask)) & mask;
+    }
+
+    /**
+     * Finds the slot holding the specified key.
+     *
+     * @param key the key to search for
+     * @return the slot index of the key, or -1 if the key is not present
+     * @since 1.0
+     */
+    private int slotOf(Object key) {
+        if (key == null) return -1;
+        int hash = hashOf(key);
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        for (int dist = 0; ; dist++) {
+            int stored = hashes[slot];
+            // An empty slot or a resident richer than us means the key cannot be further along.
+            if (stored == 0 || probeDistance(slot) < dist) {
+                if (stats != null) stats.probe(dist + 1);
+                return -1;
+            }
+            if (stored == hash && keys[slot].equals(key)) {
+                if (stats != null) stats.probe(dist + 1);
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map is empty, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the current number of slots in the backing arrays.
+     *
+     * @return the current capacity of the map
+     * @since 1.0
+     */
+    public int capacity() {
+        return hashes.length;
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Retrieves the value associated with the specified key in this map.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @return the value to which the specified key is mapped, or {@code null} if no mapping exists
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int slot = slotOf(key);
+        return (slot < 0) ? null : (V) values[slot];
+    }
+
+    /**
+     * Checks if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Checks if this map maps one or more keys to the specified value.
+     * <p>
+     * This is a linear scan over the value array.
+     *
+     * @param value value whose presence in this map is to be tested
+     * @return {@code true} if some key maps to the specified value, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsValue(Object value) {
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0 && Objects.equals(values[slot], value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * <p>
+     * If the map previously contained a mapping for the key, the old value is replaced by the
+     * specified value. If the size of the map exceeds the load factor threshold, the capacity is
+     * doubled before the insertion.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping
+     * @throws NullPointerException if the key is null
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key is null");
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            V oldValue = (V) values[slot];
+            values[slot] = value;
+            return oldValue;
+        }
+        insertAbsent(key, value);
+        return null;
+    }
+
+    /**
+     * Inserts a mapping for a key known not to be present, doubling the capacity first if the
+     * load threshold would be exceeded.
+     *
+     * @param key   the key to insert
+     * @param value the value to insert
+     * @since 1.0
+     */
+    private void insertAbsent(K key, V value) {
+        if (size + 1 > threshold) changeCapacity(capacity() * 2);
+        insert(hashOf(key), key, value);
+        size++;
+    }
+
+    /**
+     * If the key is not mapped, associates it with the given value. Otherwise, replaces its
+     * value with the result of the remapping function, or removes it if the result is null.
+     * <p>
+     * An existing key is found with one probe and updated in its slot, or removed from it
+     * directly; only a new key is probed for a second time, by the insertion.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to use if the key is not mapped
+     * @param remappingFunction the function to combine the old and given values, must not
+     *                          modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the key, value or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            insertAbsent(key, value);
+            return value;
+        }
+        V newValue = remappingFunction.apply((V) values[slot], value);
+        if (newValue == null) removeAt(slot);
+        else values[slot] = newValue;
+        return newValue;
+    }
+
+    /**
+     * Computes a new mapping for the key from its current mapping, or null if there is none.
+     * A null result removes the mapping. An existing key is probed for once.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value, must not modify this map
+     * @return the new value associated with the key, or {@code null} if none
+     * @throws NullPointerException if the key or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(remappingFunction);
+        int slot = slotOf(key);
+        V newValue = remappingFunction.apply(key, (slot < 0) ? null : (V) values[slot]);
+        if (newValue == null) {
+            if (slot >= 0) removeAt(slot);
+        } else if (slot >= 0) {
+            values[slot] = newValue;
+        } else {
+            insertAbsent(key, newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * If the key is not mapped, or mapped to null, computes its value with the mapping function
+     * and enters it unless it is null. An existing key is probed for once.
+     *
+     * @param key             key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value, must not modify this map
+     * @return the current (existing or computed) value associated with the key, or null if the
+     *         computed value is null
+     * @throws NullPointerException if the key or mapping function is null
+     * @since 1.0
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(mappingFunction);
+        int slot = slotOf(key);
+        if (slot >= 0 && values[slot] != null) return (V) values[slot];
+        V newValue = mappingFunction.apply(key);
+        if (newValue == null) return null;
+        if (slot >= 0) values[slot] = newValue;
+        else insertAbsent(key, newValue);
+        return newValue;
+    }
+
+    /**
+     * Inserts an entry known not to be present, displacing richer residents along the way.
+     *
+     * @param hash  the stored hash of the key
+     * @param key   the key to insert
+     * @param value the value to insert
+     * @since 1.0
+     */
+    private void insert(int hash, Object key, Object value) {
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        int dist = 0;
+        while (true) {
+            if (hashes[slot] == 0) {
+                hashes[slot] = hash;
+                keys[slot] = key;
+                values[slot] = value;
+                return;
+            }
+            int residentDist = probeDistance(slot);
+            if (residentDist < dist) {
+                // Take from the rich: swap with the resident and carry it forward instead.
+                int tempHash = hashes[slot];
+                Object tempKey = keys[slot];
+                Object tempValue = values[slot];
+                hashes[slot] = hash;
+                keys[slot] = key;
+                values[slot] = value;
+                hash = tempHash;
+                key = tempKey;
+                value = tempValue;
+                dist = residentDist;
+            }
+            slot = (slot + 1) & mask;
+            dist++;
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, if present.
+     * <p>
+     * The following entries of the probe run are shifted back by one slot, so no tombstones are
+     * left behind. If the size of the map falls below a quarter of the load threshold the capacity
+     * is halved.
+     *
+     * @param key the key whose mapping is to be removed from the map
+     * @return the value to which the specified key was mapped, or {@code null} if no mapping exists
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int slot = slotOf(key);
+        if (slot < 0) return null;
+        V oldValue = (V) values[slot];
+        removeAt(slot);
+        return oldValue;
+    }
+
+    /**
+     * Removes the entry in the given slot, halving the capacity if the map has become sparse.
+     *
+     * @param slot the occupied slot to clear
+     * @since 1.0
+     */
+    private void removeAt(int slot) {
+        removeSlot(slot);
+        if (capacity() > getInitialCapacity() && size < threshold / 4) {
+            changeCapacity(capacity() / 2);
+        }
+    }
+
+    /**
+     * Empties the given slot and shifts the rest of its probe run back by one.
+     *
+     * @param slot the occupied slot to clear
+     * @since 1.0
+     */
+    private void removeSlot(int slot) {
+        int mask = hashes.length - 1;
+        int next = (slot + 1) & mask;
+        while (hashes[next] != 0 && probeDistance(next) != 0) {
+            hashes[slot] = hashes[next];
+            keys[slot] = keys[next];
+            values[slot] = values[next];
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        hashes[slot] = 0;
+        keys[slot] = null;
+        values[slot] = null;
+        size--;
+    }
+
+    /**
+     * Changes the capacity of the backing arrays and reinserts every entry.
+     *
+     * @param newCapacity the new capacity, must be a power of 2
+     * @since 1.0
+     */
+    private void changeCapacity(int newCapacity) {
+        if (stats != null) stats.resizeStarted();
+        int[] oldHashes = hashes;
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldHashes.length; slot++) {
+            if (oldHashes[slot] != 0) insert(oldHashes[slot], oldKeys[slot], oldValues[slot]);
+        }
+        if (stats != null) stats.resized(oldHashes.length, newCapacity, size);
+    }
+
+    /**
+     * @param m mappings to be stored in this map
+     */
+    @Override
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.entrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Removes all key-value mappings from this map and restores the initial capacity.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        allocate(getInitialCapacity());
+        size = 0;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet<>(this);
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values in the map, in slot order.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        ArrayList<V> refList = new ArrayList<>(size);
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) refList.add((V) values[slot]);
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries in the map, in slot order.
+     * <p>
+     * The entries write through to the map when {@link CustomMap.Entry#setValue} is called.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Node> entrySet() {
+        ArrayList<Node> refList = new ArrayList<>(size);
+        iterator().forEachRemaining(entry -> refList.add((Node) entry));
+        return refList;
+    }
+
+    /**
+     * Turns the collection of statistics on or off. While they are on, every lookup records
+     * the number of slots of its probe run it inspected, and every resize its duration.
+     *
+     * @param enabled whether to collect statistics from now on
+     * @return {@code true}, as this map supports statistics
+     * @since 1.0
+     */
+    @Override
+    public boolean recordStats(boolean enabled) {
+        stats = enabled ? new MapStats() : null;
+        return true;
+    }
+
+    /**
+     * Returns a snapshot of the statistics collected since they were turned on.
+     *
+     * @return the statistics of this map, or {@code null} if they are off
+     * @since 1.0
+     */
+    @Override
+    public CustomMap.Stats stats() {
+        return (stats == null) ? null : stats.snapshot();
+    }
+
+    /**
+     * Returns the length of the longest probe sequence in the map, which is the number of slots
+     * a worst-case successful lookup has to inspect.
+     *
+     * @return the maximum probe length of the map
+     * @since 1.0
+     */
+    public int maxDepth() {
+        int maxDepth = 0;
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) maxDepth = Math.max(maxDepth, probeDistance(slot) + 1);
+        }
+        return maxDepth;
+    }
+
+    /**
+     * Returns the initial capacity of the map.
+     *
+     * @return initial capacity of the map
+     * @since 1.0
+     */
+    public int getInitialCapacity() {
+        return initialCapacity;
+    }
+
+    /**
+     * Returns the maximum load factor allowed for this map.
+     *
+     * @return the maximum load factor
+     * @since 1.0
+     */
+    public double getMaxLoadFactor() {
+        return maxLoadFactor;
+    }
+
+    /**
+     * Returns an iterator over the entries of this map in slot order.
+     *
+     * @return an iterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Iterator<CustomMap.Entry<K, V>> iterator() {
+        return new SlotIterator<>() {
+            CustomMap.Entry<K, V> fetch(int slot) {
+                return new Node(slot);
+            }
+        };
+    }
+
+    /**
+     * Returns a Spliterator over the entries of this map, split by ranges of slots.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Node> entrySpliterator() {
+        return new SlotSpliterator(0, hashes.length, size);
+    }
+
+    /**
+     * Returns an iterator over the keys of this map in slot order.
+     *
+     * @return an iterator over the keys
+     * @since 1.0
+     */
+    Iterator<K> keyIterator() {
+        return new SlotIterator<>() {
+            @SuppressWarnings("unchecked")
+            K fetch(int slot) {
+                return (K) keys[slot];
+            }
+        };
+    }
+
+    /**
+     * An entry of a RobinHoodHashMap. The key and value are copied out of the slot when the entry
+     * is created, as later insertions and removals may move the entry to another slot.
+     *
+     * @since 1.0
+     */
+    public final class Node implements CustomMap.Entry<K, V> {
+
+        private final K key;
+        private V value;
+
+        /**
+         * Constructs a new entry from the contents of the specified slot.
+         *
+         * @param slot the occupied slot to read
+         */
+        @SuppressWarnings("unchecked")
+        Node(int slot) {
+            this.key = (K) keys[slot];
+            this.value = (V) values[slot];
+        }
+
+        /**
+         * Returns the key of this entry.
+         *
+         * @return the key
+         */
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the value of this entry.
+         *
+         * @return the value
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value of this entry, writing it through to the map.
+         *
+         * @param value the new value to be associated with the key
+         * @return the value associated with the key before this method was called
+         */
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            put(key, value);
+            return oldValue;
+        }
+
+        /**
+         * Compares this entry with another object for equality.
+         *
+         * @param obj the object to be compared for equality
+         * @return {@code true} if the objects are equal, otherwise {@code false}
+         */
+        public boolean equals(Object obj) {
+            return (obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey()) && Objects.equals(value, entry.getValue()));
+        }
+
+        /**
+         * Returns the hash code of this entry.
+         *
+         * @return the hash code of this entry
+         */
+        public int hashCode() {
+            return key.hashCode() ^ Objects.hashCode(value);
+        }
+
+        /**
+         * Returns a string representation of this entry.
+         *
+         * @return a string representation of this entry
+         */
+        public String toString() {
+            return "<" + getKey().toString() + " -> " + getValue() + ">";
+        }
+    }
+
+    /**
+     * Represents a set view of the keys contained in a RobinHoodHashMap.
+     *
+     * @param <T> the type of keys in the set
+     * @since 1.0
+     */
+    public static class KeySet<T> extends AbstractSet<T> {
+
+        private final RobinHoodHashMap<T, ?> refMap;
+
+        /**
+         * Constructs a new KeySet with a reference to the specified map.
+         *
+         * @param map the map to be associated with this KeySet
+         */
+        KeySet(RobinHoodHashMap<T, ?> map) {
+            refMap = map;
+        }
+
+        /**
+         * Returns an iterator over the keys in the map.
+         *
+         * @return an iterator over the keys
+         */
+        public Iterator<T> iterator() {
+            return refMap.keyIterator();
+        }
+
+        /**
+         * Returns the number of keys in the map.
+         *
+         * @return the number of keys
+         */
+        public int size() {
+            return refMap.size();
+        }
+
+        /**
+         * Checks if the KeySet contains a specified key.
+         *
+         * @param obj the key to be checked for containment
+         * @return {@code true} if the KeySet contains the specified key, otherwise {@code false}
+         */
+        public boolean contains(Object obj) {
+            return refMap.containsKey(obj);
+        }
+
+        /**
+         * Removes all keys from the map associated with this KeySet.
+         */
+        public void clear() {
+            refMap.clear();
+        }
+    }
+
+    /**
+     * Base iterator that walks the occupied slots of the backing arrays in order.
+     * <p>
+     * Removal through the iterator is not supported, since backward shifting could move an entry
+     * that has not been visited yet behind the cursor.
+     *
+     * @param <T> the type of elements returned by the iterator
+     * @since 1.0
+     */
+    abstract class SlotIterator<T> implements Iterator<T> {
+        private final int[] refHashes = hashes;
+        private int nextSlot = advance(0);
+
+        /**
+         * Returns the first occupied slot at or after the given slot.
+         *
+         * @param slot the slot to start from
+         * @return the next occupied slot, or the table length if there is none
+         */
+        private int advance(int slot) {
+            while (slot < refHashes.length && refHashes[slot] == 0) slot++;
+            return slot;
+        }
+
+        /**
+         * Checks if there is a next element in the iteration.
+         *
+         * @return {@code true} if there is a next element, otherwise {@code false}
+         */
+        public final boolean hasNext() {
+            return nextSlot < refHashes.length;
+        }
+
+        /**
+         * Returns the next element in the iteration.
+         *
+         * @return the next element in the iteration
+         */
+        public final T next() {
+            if (refHashes != hashes) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException("This slot is empty/D.N.E.");
+            int slot = nextSlot;
+            nextSlot = advance(slot + 1);
+            return fetch(slot);
+        }
+
+        /**
+         * Reads the element to return from the given occupied slot.
+         *
+         * @param slot the slot to read
+         * @return the element stored in the slot
+         */
+        abstract T fetch(int slot);
+    }
+
+    /**
+     * Spliterator over a range of slots. Splitting hands the lower half of the remaining slots
+     * to the new spliterator.
+     *
+     * @since 1.0
+     */
+    final class SlotSpliterator implements Spliterator<Node> {
+        private final int[] refHashes = hashes;
+        private int slot;
+        private final int fence;
+        private long estimate;
+
+        /**
+         * Constructs a spliterator over the slots in [slot, fence).
+         *
+         * @param slot     the first slot
+         * @param fence    the slot after the last one
+         * @param estimate the estimated number of entries in the range
+         */
+        SlotSpliterator(int slot, int fence, long estimate) {
+            this.slot = slot;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        public boolean tryAdvance(java.util.function.Consumer<? super Node> action) {
+            Objects.requireNonNull(action);
+            if (refHashes != hashes) throw new ConcurrentModificationException();
+            while (slot < fence && refHashes[slot] == 0) slot++;
+            if (slot >= fence) return false;
+            action.accept(new Node(slot));
+            slot++;
+            return true;
+        }
+
+        public void forEachRemaining(java.util.function.Consumer<? super Node> action) {
+            Objects.requireNonNull(action);
+            if (refHashes != hashes) throw new ConcurrentModificationException();
+            for (; slot < fence; slot++) {
+                if (refHashes[slot] != 0) action.accept(new Node(slot));
+            }
+        }
+
+        public Spliterator<Node> trySplit() {
+            int mid = (slot + fence) >>> 1;
+            if (mid <= slot) return null;
+            estimate >>>= 1;
+            SlotSpliterator prefix = new SlotSpliterator(slot, mid, estimate);
+            slot = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return estimate;
+        }
+
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
@@ -0,0 +1,761 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Lock-free concurrent ordered map, built as a skip list.
+ * <p>
+ * Every key sits in a node on the bottom list, which holds all keys in order, and on a random
+ * number of the lists above it, each holding about half the nodes of the one below. A search
+ * starts on the sparsest list and drops a level whenever the next key is past the one sought,
+ * so it takes O(log n) steps on average, like a balanced {@link BSTMap}, and offers the same
+ * navigation: {@link #supremum(Object)}, {@link #infimum(Object)},
+ * {@link #fetchNearest(Object)} and {@link #bound(Object, int)}.
+ * <p>
+ * No operation takes a lock. The links are {@link AtomicMarkableReference}s and every change
+ * is a compare-and-set, after Herlihy and Shavit:
+ * <ul>
+ *     <li>A key is added once its node is linked into the bottom list; the links above are
+ *     only shortcuts and are added afterwards.</li>
+ *     <li>A key is removed once the value of its node is set to null. The links out of the
+ *     node are then marked, top down, so that no new node can be linked after it, and any
+ *     search that passes the node unlinks it.</li>
+ *     <li>A value is replaced in place, with a compare-and-set on the value of the node.</li>
+ * </ul>
+ * A thread that finds an update half-done finishes it rather than waiting, so some thread
+ * always makes progress. Lookups never write at all. The compound operations
+ * ({@code putIfAbsent}, {@code merge}, {@code compute} and friends) are atomic, but their
+ * functions may be called more than once under contention and must not have side effects.
+ * <p>
+ * Iterators and views walk the bottom list and are weakly consistent: they never throw
+ * {@link ConcurrentModificationException}, they see every key present for the whole walk, and
+ * they may or may not see keys added or removed during it. The size is kept in a
+ * {@link LongAdder}, so it is exact only when the map is quiescent.
+ * <p>
+ * Null keys and null values are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class SkipListMap<K, V> implements CustomMap<K, V> {
+
+    // Levels 0 to 24, which keeps searches logarithmic well past 2^24 keys
+    private static final int MAX_LEVEL = 24;
+
+    private final Comparator<K> comparator;
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private final LongAdder size = new LongAdder();
+    // The highest level any node has been on; searches start here rather than at MAX_LEVEL
+    private final AtomicInteger highestLevel = new AtomicInteger();
+    private KeySet keySet;
+
+    /**
+     * Constructs an empty SkipListMap ordered by the natural ordering of its keys.
+     *
+     * @since 1.0
+     */
+    public SkipListMap() {
+        this(null);
+    }
+
+    /**
+     * Constructs an empty SkipListMap ordered by the given comparator.
+     *
+     * @param comparator the comparator to determine the order of the keys, or null for natural
+     *                   ordering
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public SkipListMap(Comparator<K> comparator) {
+        this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<K>) obj1).compareTo(obj2));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        SkipListMap<Integer, String> map = new SkipListMap<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < 40; i += threads.length) map.put(i * 5, "v" + i);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        System.out.println(map.size() + " keys, first ten: " + map.entrySet().subList(0, 10));
+        System.out.println("supremum(12) = " + map.supremum(12));
+        System.out.println("infimum(12) = " + map.infimum(12));
+        System.out.println("fetchNearest(200) = " + map.fetchNearest(200));
+        for (Node<Integer, String> node : map.subMap(50, 70)) System.out.println("in [50, 70): " + node);
+    }
+
+    /**
+     * Returns a random level for a new node: level l with probability 2^-(l + 1), but at most
+     * one above the highest level in use, which is raised to match before the node is linked.
+     */
+    private int randomLevel() {
+        int level = Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | 1 << MAX_LEVEL);
+        int top = highestLevel.get();
+        if (level <= top) return level;
+        level = Math.min(top + 1, MAX_LEVEL);
+        highestLevel.accumulateAndGet(level, Math::max);
+        return level;
+    }
+
+    private int compare(K key1, K key2) {
+        return comparator.compare(key1, key2);
+    }
+
+    /**
+     * Searches for the key, unlinking every marked node passed on the way, and records on
+     * each level the last node before the key and the first node at or after it.
+     *
+     * @param key   the key to search for
+     * @param preds filled with the last node before the key on each level, or null
+     * @param succs filled with the first node at or after the key on each level, or null
+     * @return whether the first node at or after the key on the bottom level holds the key
+     */
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int level = highestLevel.get(); level >= 0; level--) {
+                curr = pred.next[level].getReference();
+                while (curr != null) {
+                    Node<K, V> succ = curr.next[level].get(marked);
+                    if (marked[0]) {
+                        // curr is being removed: unlink it here, or start over if pred changed
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false)) continue retry;
+                        curr = succ;
+                    } else if (compare(curr.key, key) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                if (preds != null) {
+                    preds[level] = pred;
+                    succs[level] = curr;
+                }
+            }
+            return curr != null && compare(curr.key, key) == 0;
+        }
+    }
+
+    /**
+     * Searches for the key without writing anything, stepping over marked nodes instead of
+     * unlinking them.
+     *
+     * @param key    the key to search for
+     * @param before whether to return the last node before the key instead of the first at or
+     *               after it
+     * @return the last node before the key, possibly the head, or the first node at or after
+     * it, possibly null
+     */
+    private Node<K, V> search(K key, boolean before) {
+        boolean[] marked = {false};
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = highestLevel.get(); level >= 0; level--) {
+            curr = pred.next[level].getReference();
+            while (curr != null) {
+                Node<K, V> succ = curr.next[level].get(marked);
+                if (marked[0]) {
+                    curr = succ;
+                } else if (compare(curr.key, key) < 0) {
+                    pred = curr;
+                    curr = succ;
+                } else {
+                    break;
+                }
+            }
+        }
+        return before ? pred : curr;
+    }
+
+    /**
+     * Returns the node holding the key, which may be in the middle of being removed, or null.
+     */
+    private Node<K, V> findNode(K key) {
+        Node<K, V> node = search(key, false);
+        return (node != null && compare(node.key, key) == 0) ? node : null;
+    }
+
+    /**
+     * Returns the first node after the given one on the bottom level that is not being removed,
+     * or null if there is none.
+     */
+    private Node<K, V> successor(Node<K, V> node) {
+        boolean[] marked = {false};
+        Node<K, V> curr = node.next[0].getReference();
+        while (curr != null) {
+            Node<K, V> succ = curr.next[0].get(marked);
+            if (!marked[0] && curr.value != null) return curr;
+            curr = succ;
+        }
+        return null;
+    }
+
+    /**
+     * Finishes the removal of a node whose value has been set to null: marks its links, top
+     * down, and unlinks it from every level.
+     */
+    private void unlink(Node<K, V> node) {
+        boolean[] marked = {false};
+        for (int level = node.topLevel; level >= 0; level--) {
+            Node<K, V> succ = node.next[level].get(marked);
+            while (!marked[0]) {
+                node.next[level].attemptMark(succ, true);
+                succ = node.next[level].get(marked);
+            }
+        }
+        find(node.key, null, null);
+    }
+
+    /**
+     * Removes the node's mapping if it still maps to the expected value.
+     *
+     * @return whether this call removed the mapping
+     */
+    private boolean removeNode(Node<K, V> node, V expected) {
+        if (!node.casValue(expected, null)) return false;
+        size.decrement();
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Maps the key to the value, or leaves an existing mapping alone if asked to.
+     *
+     * @param key          the key to map
+     * @param value        the value to map it to
+     * @param onlyIfAbsent whether to leave an existing mapping alone
+     * @return the previous value, or null if there was none
+     */
+    private V doPut(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(key, "key is null");
+        Objects.requireNonNull(value, "value is null");
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] preds = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL + 1];
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] succs = (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL + 1];
+        int topLevel = randomLevel();
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                V oldValue = node.value;
+                if (oldValue == null) {
+                    // Removed but still linked: finish the removal and try again
+                    unlink(node);
+                    continue;
+                }
+                if (onlyIfAbsent || node.casValue(oldValue, value)) return oldValue;
+                continue;
+            }
+            Node<K, V> node = new Node<>(key, value, topLevel);
+            for (int level = 0; level <= topLevel; level++) node.next[level].set(succs[level], false);
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) continue;
+            size.increment();
+            linkTower(node, preds, succs);
+            return null;
+        }
+    }
+
+    /**
+     * Links a node that is already on the bottom level into the levels above, stopping early
+     * if it is removed in the meantime.
+     */
+    private void linkTower(Node<K, V> node, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        for (int level = 1; level <= node.topLevel; level++) {
+            while (true) {
+                Node<K, V> link = node.next[level].get(marked);
+                if (marked[0]) return;
+                if (link != succs[level] && !node.next[level].compareAndSet(link, succs[level], false, false)) return;
+                if (preds[level].next[level].compareAndSet(succs[level], node, false, false)) break;
+                // The neighbourhood changed: search again, unless the node is already gone
+                find(node.key, preds, succs);
+                if (succs[0] != node) return;
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the mapping for the key with the result of the function, removing it
+     * if the result is null. The function sees null for an absent key.
+     *
+     * @param key               the key to update
+     * @param remappingFunction the function computing the new value from the old
+     * @param returnOld         whether to return the old value instead of the new one
+     * @return the old or the new value, as asked
+     */
+    private V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction, boolean returnOld) {
+        Objects.requireNonNull(key, "key is null");
+        while (true) {
+            Node<K, V> node = findNode(key);
+            V oldValue = (node == null) ? null : node.value;
+            if (node != null && oldValue == null) {
+                unlink(node);
+                continue;
+            }
+            V newValue = remappingFunction.apply(key, oldValue);
+            if (node == null) {
+                // Lost the race to insert: start over from the winner's value
+                if (newValue != null && doPut(key, newValue, true) != null) continue;
+            } else if (newValue == null) {
+                if (!removeNode(node, oldValue)) continue;
+            } else if (!node.casValue(oldValue, newValue)) {
+                continue;
+            }
+            return returnOld ? oldValue : newValue;
+        }
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(size.sum(), Integer.MAX_VALUE));
+    }
+
+    public boolean isEmpty() {
+        return successor(head) == null;
+    }
+
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public boolean containsValue(Object value) {
+        if (value == null) return false;
+        for (Node<K, V> node = successor(head); node != null; node = successor(node)) {
+            if (value.equals(node.value)) return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) return null;
+        Node<K, V> node = findNode((K) key);
+        return (node == null) ? null : node.value;
+    }
+
+    public V put(K key, V value) {
+        return doPut(key, value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) return null;
+        Node<K, V> node = findNode((K) key);
+        if (node == null) return null;
+        while (true) {
+            V oldValue = node.value;
+            if (oldValue == null) return null;
+            if (removeNode(node, oldValue)) return oldValue;
+        }
+    }
+
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.forEach(this::put);
+    }
+
+    /**
+     * Removes all of the mappings from this map, one at a time. Mappings added while it runs
+     * may survive it.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        for (Node<K, V> node = successor(head); node != null; node = successor(node)) remove(node.key);
+    }
+
+    /**
+     * Returns the supremum node (the smallest node greater than or equal to the given key) in the SkipListMap.
+     *
+     * @param key the key for which the supremum node is to be found
+     * @return the supremum node for the given key, or null if there is none
+     * @since 1.0
+     */
+    public Node<K, V> supremum(K key) {
+        return bound(key, 1);
+    }
+
+    /**
+     * Returns the infimum node (the largest node smaller than or equal to the given key) in the SkipListMap.
+     *
+     * @param key the key for which the infimum node is to be found
+     * @return the infimum node for the given key, or null if there is none
+     * @since 1.0
+     */
+    public Node<K, V> infimum(K key) {
+        return bound(key, -1);
+    }
+
+    /**
+     * Returns the node nearest to the given key in the SkipListMap: the node holding the key,
+     * otherwise the smallest node above it, otherwise the largest node below it.
+     *
+     * @param key the key for which the nearest node is to be found
+     * @return the nearest node for the given key, or null if the map is empty
+     * @since 1.0
+     */
+    public Node<K, V> fetchNearest(K key) {
+        Node<K, V> refNode = supremum(key);
+        return (refNode != null) ? refNode : infimum(key);
+    }
+
+    /**
+     * Returns the bound node based on the given key and upperLower flag.
+     * <p>
+     * The search stops between the last node below the key and the first node at or above it.
+     * If the node it settles on is being removed, the removal is finished and the search is
+     * repeated, so the node returned was in the map at some point during the call.
+     *
+     * @param key        the key for which the bound node is to be found
+     * @param upperLower a flag indicating whether to find the upper (1) or lower (-1) bound
+     * @return the bound node for the given key and upperLower flag, or null if there is none
+     * @throws IllegalArgumentException if the upperLower flag is neither 1 nor -1
+     * @since 1.0
+     */
+    public Node<K, V> bound(K key, int upperLower) {
+        if (upperLower != 1 && upperLower != -1)
+            throw new IllegalArgumentException("Only 1 and -1 are acceptable inputs.");
+        while (true) {
+            Node<K, V> refNode = search(key, false);
+            if (upperLower == -1 && (refNode == null || compare(refNode.key, key) != 0)) {
+                refNode = search(key, true);
+                if (refNode == head) return null;
+            }
+            if (refNode == null || refNode.value != null) return refNode;
+            unlink(refNode);
+        }
+    }
+
+    /**
+     * Returns an Iterable over the nodes with keys in [lo, hi), in key order. The walk is
+     * weakly consistent, like the iterators of the map, and removal through the iterator
+     * removes the mapping from the map.
+     *
+     * @param lo the lower bound of the range, inclusive
+     * @param hi the upper bound of the range, exclusive
+     * @return an Iterable over the entries in the range
+     * @throws IllegalArgumentException if lo is greater than hi
+     * @since 1.0
+     */
+    public Iterable<Node<K, V>> subMap(K lo, K hi) {
+        if (compare(lo, hi) > 0)
+            throw new IllegalArgumentException("Range is backwards, lo > hi.");
+        return () -> new NodeIterator(supremum(lo), hi);
+    }
+
+    /**
+     * Returns a weakly consistent Set view of the keys, in key order.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values, in key order, filled by one weakly consistent walk.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    public ArrayList<V> values() {
+        ArrayList<V> refList = new ArrayList<>();
+        for (Node<K, V> node = successor(head); node != null; node = successor(node)) {
+            V value = node.value;
+            if (value != null) refList.add(value);
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries (nodes), in key order, filled by one weakly consistent
+     * walk. The nodes are live: their values follow later updates, and turn null once the
+     * mapping is removed.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Node<K, V>> entrySet() {
+        ArrayList<Node<K, V>> refList = new ArrayList<>();
+        new NodeIterator(successor(head), null).forEachRemaining(refList::add);
+        return refList;
+    }
+
+    /**
+     * Returns a weakly consistent Spliterator over the entries, in key order, without copying
+     * them.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Node<K, V>> entrySpliterator() {
+        return Spliterators.spliteratorUnknownSize(new NodeIterator(successor(head), null),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) return false;
+        while (true) {
+            Node<K, V> node = findNode((K) key);
+            if (node == null) return false;
+            V oldValue = node.value;
+            if (oldValue == null) {
+                unlink(node);
+                continue;
+            }
+            if (!value.equals(oldValue)) return false;
+            if (removeNode(node, oldValue)) return true;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(newValue, "value is null");
+        if (key == null || oldValue == null) return false;
+        while (true) {
+            Node<K, V> node = findNode(key);
+            if (node == null) return false;
+            V currValue = node.value;
+            if (currValue == null) {
+                unlink(node);
+                continue;
+            }
+            if (!oldValue.equals(currValue)) return false;
+            if (node.casValue(currValue, newValue)) return true;
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value, "value is null");
+        return compute(key, (k, old) -> (old == null) ? null : value, true);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        V value = get(key);
+        if (value != null) return value;
+        return compute(key, (k, old) -> (old == null) ? mappingFunction.apply(k) : old, false);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, (k, old) -> (old == null) ? null : remappingFunction.apply(k, old), false);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, remappingFunction, false);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value is null");
+        Objects.requireNonNull(remappingFunction);
+        return compute(key, (k, old) -> (old == null) ? value : remappingFunction.apply(old, value), false);
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Node of a SkipListMap, and the entry for its key.
+     * <p>
+     * The node carries one link per level it is on. A null value means the mapping has been
+     * removed, even if the node is still linked.
+     *
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @since 1.0
+     */
+    public static final class Node<K, V> implements CustomMap.Entry<K, V> {
+
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(Node.class, "value", Object.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final K key;
+        private volatile V value;
+        private final AtomicMarkableReference<Node<K, V>>[] next;
+        private final int topLevel;
+
+        private Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.topLevel = topLevel;
+            @SuppressWarnings("unchecked")
+            AtomicMarkableReference<Node<K, V>>[] next = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference<?>[topLevel + 1];
+            this.next = next;
+            for (int level = 0; level <= topLevel; level++) next[level] = new AtomicMarkableReference<>(null, false);
+        }
+
+        private boolean casValue(V expected, V newValue) {
+            return VALUE.compareAndSet(this, expected, newValue);
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * Returns the current value of the mapping.
+         *
+         * @return the current value, or null if the mapping has been removed
+         * @since 1.0
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * Replaces the value of the mapping, atomically.
+         *
+         * @param value new value to be stored in this entry
+         * @return the old value
+         * @throws IllegalStateException if the mapping has been removed
+         * @since 1.0
+         */
+        public V setValue(V value) {
+            Objects.requireNonNull(value, "value is null");
+            while (true) {
+                V oldValue = this.value;
+                if (oldValue == null) throw new IllegalStateException("This node is null/D.N.E.");
+                if (casValue(oldValue, value)) return oldValue;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CustomMap.Entry<?, ?> entry)) return false;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + value + ">";
+        }
+    }
+
+    /**
+     * Weakly consistent iterator over the live nodes on the bottom level, from a given node up
+     * to an exclusive upper key.
+     */
+    private final class NodeIterator implements Iterator<Node<K, V>> {
+        private final K hi;
+        private Node<K, V> next;
+        private Node<K, V> last;
+
+        NodeIterator(Node<K, V> first, K hi) {
+            this.hi = hi;
+            this.next = bounded(first);
+        }
+
+        private Node<K, V> bounded(Node<K, V> node) {
+            return (node == null || (hi != null && compare(node.key, hi) >= 0)) ? null : node;
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Node<K, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            last = next;
+            next = bounded(successor(next));
+            return last;
+        }
+
+        public void remove() {
+            if (last == null) throw new IllegalStateException();
+            SkipListMap.this.remove(last.key);
+            last = null;
+        }
+    }
+
+    /**
+     * Weakly consistent Set view of the keys of a SkipListMap.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<K> {
+
+        public Iterator<K> iterator() {
+            NodeIterator nodes = new NodeIterator(successor(head), null);
+            return new Iterator<>() {
+                public boolean hasNext() {
+                    return nodes.hasNext();
+                }
+
+                public K next() {
+                    return nodes.next().key;
+                }
+
+                public void remove() {
+                    nodes.remove();
+                }
+            };
+        }
+
+        public int size() {
+            return SkipListMap.this.size();
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+
+        public boolean remove(Object obj) {
+            return SkipListMap.this.remove(obj) != null;
+        }
+
+        public void clear() {
+            SkipListMap.this.clear();
+        }
+    }
+}
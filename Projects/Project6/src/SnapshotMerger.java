@@ -0,0 +1,284 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel k-way merge over sorted word count snapshots.
+ * <p>
+ * The snapshots, one per period (a year of comments, say), are merged word by word in the byte
+ * order they are stored in. For every word in any snapshot the merge writes its total over all
+ * snapshots, and the change in its count from each snapshot to the next, and keeps the words
+ * with the largest gains and losses between consecutive snapshots.
+ * <p>
+ * The key space is cut into ranges at evenly spaced keys of the largest snapshot, and each range
+ * is merged on its own thread: a binary search finds where the range starts in every snapshot,
+ * after which the range is a k-way merge of k sorted streams. Each range is written to its own
+ * part file, and the parts are joined in order, so the output is the same for any number of
+ * ranges. The snapshots stay memory-mapped throughout, so the heap holds only the merge cursors,
+ * a {@link BoundedHeap} of movers per range and the output buffers, however large the vocabulary.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class SnapshotMerger {
+
+    /**
+     * Orders movers from worst gain to best, ties broken by word so the result does not depend
+     * on the ranges.
+     */
+    private static final Comparator<Mover> GAIN_ORDER =
+            Comparator.comparingLong(Mover::delta).thenComparing(Mover::word, Comparator.reverseOrder());
+    /**
+     * Orders movers from worst loss to best.
+     */
+    private static final Comparator<Mover> LOSS_ORDER =
+            Comparator.comparingLong(Mover::delta).reversed().thenComparing(Mover::word, Comparator.reverseOrder());
+
+    private final WordCountSnapshot[] snapshots;
+    private final int top;
+
+    /**
+     * Constructs a merger over the given snapshots, in period order.
+     *
+     * @param snapshots the snapshots to merge, oldest first
+     * @param top       how many gainers and losers to keep for each pair of consecutive snapshots
+     */
+    public SnapshotMerger(WordCountSnapshot[] snapshots, int top) {
+        if (snapshots.length == 0) throw new IllegalArgumentException("Nothing to merge, BANNED!");
+        if (top < 0) throw new IllegalArgumentException("Top must be non-negative, BANNED!");
+        this.snapshots = snapshots.clone();
+        this.top = top;
+    }
+
+    /**
+     * A word whose count changed between two consecutive snapshots.
+     *
+     * @param word   the word
+     * @param before its count in the earlier snapshot
+     * @param after  its count in the later snapshot
+     * @since 1.0
+     */
+    public record Mover(String word, int before, int after) {
+
+        /**
+         * Returns the change in count.
+         *
+         * @return after - before
+         */
+        public long delta() {
+            return (long) after - before;
+        }
+
+        public String toString() {
+            return word + " " + before + " -> " + after;
+        }
+    }
+
+    /**
+     * The outcome of a merge.
+     *
+     * @param uniqueWords the number of distinct words over all snapshots
+     * @param totalWords  the sum of the total word counts of all snapshots
+     * @param gainers     for each pair of consecutive snapshots, the largest gains, largest first
+     * @param losers      for each pair of consecutive snapshots, the largest losses, largest first
+     * @since 1.0
+     */
+    public record Result(long uniqueWords, long totalWords, List<List<Mover>> gainers, List<List<Mover>> losers) {
+    }
+
+    /**
+     * The part of a merge done by one range of keys.
+     */
+    private record Part(long uniqueWords, List<BoundedHeap<Mover>> gainers, List<BoundedHeap<Mover>> losers) {
+    }
+
+    /**
+     * Merges the snapshots, writing the totals and the deltas as text.
+     * <p>
+     * The totals file starts with the total word count, followed by one {@code word - total} line
+     * per word. The deltas file has one {@code word - d1 d2 ...} line per word, where each d is
+     * the change in its count from one snapshot to the next. Both are in snapshot key order.
+     *
+     * @param totalsFile the file to write the totals to
+     * @param deltasFile the file to write the deltas to
+     * @param threads    the number of key ranges merged at once
+     * @return the word counts and the movers
+     * @throws IOException          if an output file cannot be written
+     * @throws InterruptedException if interrupted while waiting on the ranges
+     * @since 1.0
+     */
+    public Result merge(String totalsFile, String deltasFile, int threads) throws IOException, InterruptedException {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive, BANNED!");
+        byte[][] splitters = splitters(threads);
+        int ranges = splitters.length + 1;
+        File[] totalsParts = new File[ranges];
+        File[] deltasParts = new File[ranges];
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, ranges));
+        try {
+            ArrayList<Future<Part>> futures = new ArrayList<>();
+            for (int r = 0; r < ranges; r++) {
+                byte[] low = (r == 0) ? null : splitters[r - 1];
+                byte[] high = (r == ranges - 1) ? null : splitters[r];
+                totalsParts[r] = File.createTempFile("totals", ".part");
+                deltasParts[r] = File.createTempFile("deltas", ".part");
+                File totalsPart = totalsParts[r];
+                File deltasPart = deltasParts[r];
+                futures.add(pool.submit(() -> mergeRange(low, high, totalsPart, deltasPart)));
+            }
+
+            long uniqueWords = 0;
+            long totalWords = 0;
+            for (WordCountSnapshot snapshot : snapshots) totalWords += snapshot.totalWordCount();
+            List<BoundedHeap<Mover>> gainerHeaps = new ArrayList<>();
+            List<BoundedHeap<Mover>> loserHeaps = new ArrayList<>();
+            for (int s = 0; s < snapshots.length - 1; s++) {
+                gainerHeaps.add(new BoundedHeap<>(top, GAIN_ORDER));
+                loserHeaps.add(new BoundedHeap<>(top, LOSS_ORDER));
+            }
+            for (Future<Part> future : futures) {
+                Part part = future.get();
+                uniqueWords += part.uniqueWords;
+                for (int s = 0; s < snapshots.length - 1; s++) {
+                    gainerHeaps.get(s).offerAll(part.gainers.get(s));
+                    loserHeaps.get(s).offerAll(part.losers.get(s));
+                }
+            }
+            List<List<Mover>> gainers = new ArrayList<>();
+            List<List<Mover>> losers = new ArrayList<>();
+            for (int s = 0; s < snapshots.length - 1; s++) {
+                gainers.add(gainerHeaps.get(s).drainDescending());
+                losers.add(loserHeaps.get(s).drainDescending());
+            }
+
+            join(totalWords + "\n", totalsParts, totalsFile);
+            join("", deltasParts, deltasFile);
+            return new Result(uniqueWords, totalWords, gainers, losers);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io) throw io;
+            throw new IllegalStateException("Merge failed.", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (File part : totalsParts) if (part != null) part.delete();
+            for (File part : deltasParts) if (part != null) part.delete();
+        }
+    }
+
+    /**
+     * Picks the keys the key space is cut at: evenly spaced keys of the largest snapshot.
+     *
+     * @param ranges the number of ranges wanted
+     * @return the distinct, ascending cut keys, at most ranges - 1 of them
+     */
+    private byte[][] splitters(int ranges) {
+        WordCountSnapshot largest = snapshots[0];
+        for (WordCountSnapshot snapshot : snapshots) {
+            if (snapshot.size() > largest.size()) largest = snapshot;
+        }
+        ArrayList<byte[]> cuts = new ArrayList<>();
+        for (int r = 1; r < ranges; r++) {
+            int index = (int) ((long) largest.size() * r / ranges);
+            if (index == 0 || index >= largest.size()) continue;
+            byte[] key = largest.keyBytes(index);
+            if (cuts.isEmpty() || Arrays.compareUnsigned(cuts.get(cuts.size() - 1), key) < 0) cuts.add(key);
+        }
+        return cuts.toArray(new byte[0][]);
+    }
+
+    /**
+     * Merges the keys in [low, high) of every snapshot, writing that range's lines to its part
+     * files and keeping its movers.
+     *
+     * @param low        the first key of the range, or null to start at the first key
+     * @param high       the key after the range, or null to run to the last key
+     * @param totalsPart the part file for the totals
+     * @param deltasPart the part file for the deltas
+     * @return the number of words merged and the movers of the range
+     * @throws IOException if a part file cannot be written
+     */
+    private Part mergeRange(byte[] low, byte[] high, File totalsPart, File deltasPart) throws IOException {
+        int k = snapshots.length;
+        int[] position = new int[k];
+        int[] end = new int[k];
+        byte[][] current = new byte[k][];
+        // Cursors ordered by their current key, then by snapshot so equal keys come out together
+        java.util.PriorityQueue<Integer> cursors = new java.util.PriorityQueue<>((a, b) -> {
+            int comp = Arrays.compareUnsigned(current[a], current[b]);
+            return (comp != 0) ? comp : Integer.compare(a, b);
+        });
+        for (int s = 0; s < k; s++) {
+            position[s] = (low == null) ? 0 : snapshots[s].ceilingIndex(low);
+            end[s] = (high == null) ? snapshots[s].size() : snapshots[s].ceilingIndex(high);
+            if (position[s] < end[s]) {
+                current[s] = snapshots[s].keyBytes(position[s]);
+                cursors.add(s);
+            }
+        }
+
+        List<BoundedHeap<Mover>> gainers = new ArrayList<>();
+        List<BoundedHeap<Mover>> losers = new ArrayList<>();
+        for (int s = 0; s < k - 1; s++) {
+            gainers.add(new BoundedHeap<>(top, GAIN_ORDER));
+            losers.add(new BoundedHeap<>(top, LOSS_ORDER));
+        }
+        int[] counts = new int[k];
+        long uniqueWords = 0;
+        try (BufferedWriter totals = new BufferedWriter(new FileWriter(totalsPart, StandardCharsets.UTF_8), 1 << 16);
+             BufferedWriter deltas = new BufferedWriter(new FileWriter(deltasPart, StandardCharsets.UTF_8), 1 << 16)) {
+            while (!cursors.isEmpty()) {
+                byte[] key = current[cursors.peek()];
+                Arrays.fill(counts, 0);
+                long total = 0;
+                // Take the key from every snapshot that has it, and advance those cursors
+                while (!cursors.isEmpty() && Arrays.equals(current[cursors.peek()], key)) {
+                    int s = cursors.poll();
+                    counts[s] = snapshots[s].valueAt(position[s]);
+                    total += counts[s];
+                    if (++position[s] < end[s]) {
+                        current[s] = snapshots[s].keyBytes(position[s]);
+                        cursors.add(s);
+                    }
+                }
+                String word = new String(key, StandardCharsets.UTF_8);
+                uniqueWords++;
+                totals.write(word + " - " + total + "\n");
+                StringBuilder line = new StringBuilder(word).append(" -");
+                for (int s = 0; s < k - 1; s++) {
+                    Mover mover = new Mover(word, counts[s], counts[s + 1]);
+                    line.append(' ').append(mover.delta());
+                    if (mover.delta() > 0) gainers.get(s).offer(mover);
+                    else if (mover.delta() < 0) losers.get(s).offer(mover);
+                }
+                deltas.write(line.append('\n').toString());
+            }
+        }
+        return new Part(uniqueWords, gainers, losers);
+    }
+
+    /**
+     * Writes the header followed by the part files, in order, to the output file.
+     */
+    private static void join(String header, File[] parts, String filename) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(filename)) {
+            out.write(header.getBytes(StandardCharsets.UTF_8));
+            FileChannel target = out.getChannel();
+            for (File part : parts) {
+                try (FileChannel source = FileChannel.open(Paths.get(part.getPath()), StandardOpenOption.READ)) {
+                    long done = 0;
+                    while (done < source.size()) done += source.transferTo(done, source.size() - done, target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,602 @@
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Open-addressing map from strings to primitive int counts.
+ * <p>
+ * Counting into a {@code CustomMap<String, Integer>} boxes every count, and every increment
+ * past the small-integer cache allocates a new {@link Integer}. This map keeps the counts in a
+ * flat {@code int[]} next to the keys and their cached hashes instead, so
+ * {@link #increment(String)}, {@link #addTo(String, int)} and {@link #getInt(Object)} never
+ * allocate anything once a key is present.
+ * <p>
+ * The map still implements {@link CustomMap}, so it can stand in wherever a word count map is
+ * expected; only the boxed methods of that interface ({@code get}, {@code put}, {@code values}
+ * and so on) box, on the way in or out.
+ * <p>
+ * Collisions are resolved by linear probing, and removals shift the rest of the probe run back
+ * so no tombstones are left behind. The implementation is not thread-safe. Null keys and null
+ * values are not permitted.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class StringCountMap implements CustomMap<String, Integer> {
+
+    /**
+     * Bit set on every stored hash so that an empty slot (hash 0) can be told apart from an
+     * occupied one.
+     */
+    private static final int OCCUPIED = 0x80000000;
+
+    private final int initialCapacity;
+    private int size;
+    private int threshold;
+    private int[] hashes;
+    private String[] keys;
+    private int[] counts;
+    private KeySet keySet;
+
+    /**
+     * Constructs an empty StringCountMap with an initial capacity of 16.
+     *
+     * @since 1.0
+     */
+    public StringCountMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty StringCountMap with the specified initial capacity. The map is
+     * resized once it is three quarters full.
+     *
+     * @param capacity the initial capacity of the map, must be a power of 2
+     * @throws IllegalArgumentException if the specified capacity is not a power of 2
+     * @since 1.0
+     */
+    public StringCountMap(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity must be power of 2, BANNED!");
+        this.initialCapacity = capacity;
+        allocate(capacity);
+    }
+
+    public static void main(String[] args) {
+        StringCountMap words = new StringCountMap();
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            words.increment(word);
+        }
+        System.out.println(words);
+        System.out.println(words.getInt("the"));
+        System.out.println(words.getInt("cat"));
+        words.addTo("fox", 10);
+        System.out.println(words.getInt("fox"));
+    }
+
+    /**
+     * Spreads the higher bits of the hash code of the given key into the lower bits and marks it
+     * as occupied.
+     *
+     * @param key the key whose hash is to be computed
+     * @return the stored form of the hash of the key, never 0
+     * @since 1.0
+     */
+    private static int hashOf(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) | OCCUPIED;
+    }
+
+    /**
+     * Allocates fresh backing arrays with the given capacity.
+     *
+     * @param capacity the new capacity of the backing arrays
+     * @since 1.0
+     */
+    private void allocate(int capacity) {
+        this.hashes = new int[capacity];
+        this.keys = new String[capacity];
+        this.counts = new int[capacity];
+        this.threshold = capacity / 4 * 3;
+    }
+
+    /**
+     * Finds the slot holding the specified key, or the empty slot where it would be inserted.
+     *
+     * @param key  the key to search for
+     * @param hash the stored hash of the key
+     * @return the slot of the key, or the bitwise complement of the free slot if it is absent
+     * @since 1.0
+     */
+    private int probe(Object key, int hash) {
+        int mask = hashes.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int stored = hashes[slot];
+            if (stored == 0) return ~slot;
+            if (stored == hash && keys[slot].equals(key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Finds the slot holding the specified key.
+     *
+     * @param key the key to search for
+     * @return the slot of the key, or a negative number if it is absent
+     * @since 1.0
+     */
+    private int slotOf(Object key) {
+        if (!(key instanceof String)) return -1;
+        return probe(key, hashOf(key));
+    }
+
+    /**
+     * Adds one to the count of the given key, entering it with a count of 1 if it is absent.
+     *
+     * @param key the key whose count is to be incremented
+     * @return the new count of the key
+     * @throws NullPointerException if the key is null
+     * @since 1.0
+     */
+    public int increment(String key) {
+        return addTo(key, 1);
+    }
+
+    /**
+     * Adds the given amount to the count of the given key, entering it with a count of
+     * {@code delta} if it is absent. The key stays in the map even if its count drops to 0.
+     *
+     * @param key   the key whose count is to be changed
+     * @param delta the amount to add, may be negative
+     * @return the new count of the key
+     * @throws NullPointerException if the key is null
+     * @since 1.0
+     */
+    public int addTo(String key, int delta) {
+        int hash = hashOf(Objects.requireNonNull(key, "key is null"));
+        int slot = probe(key, hash);
+        if (slot >= 0) return counts[slot] += delta;
+        if (size + 1 > threshold) {
+            changeCapacity(hashes.length * 2);
+            slot = probe(key, hash);
+        }
+        slot = ~slot;
+        hashes[slot] = hash;
+        keys[slot] = key;
+        counts[slot] = delta;
+        size++;
+        return delta;
+    }
+
+    /**
+     * Returns the count of the given key without boxing it.
+     *
+     * @param key the key whose count is to be returned
+     * @return the count of the key, or 0 if it is absent
+     * @since 1.0
+     */
+    public int getInt(Object key) {
+        int slot = slotOf(key);
+        return (slot < 0) ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map is empty, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the current number of slots in the backing arrays.
+     *
+     * @return the current capacity of the map
+     * @since 1.0
+     */
+    public int capacity() {
+        return hashes.length;
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Checks if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Checks if this map maps one or more keys to the specified count.
+     *
+     * @param value the count whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the specified count
+     * @since 1.0
+     */
+    public boolean containsValue(Object value) {
+        if (!(value instanceof Integer count)) return false;
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0 && counts[slot] == count) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the count of the specified key, boxed. Prefer {@link #getInt(Object)}.
+     *
+     * @param key the key whose count is to be retrieved
+     * @return the count of the key, or {@code null} if it is absent
+     * @since 1.0
+     */
+    public Integer get(Object key) {
+        int slot = slotOf(key);
+        return (slot < 0) ? null : counts[slot];
+    }
+
+    /**
+     * Sets the count of the specified key.
+     *
+     * @param key   the key whose count is to be set
+     * @param value the new count
+     * @return the previous count of the key, or {@code null} if it was absent
+     * @throws NullPointerException if the key or value is null
+     * @since 1.0
+     */
+    public Integer put(String key, Integer value) {
+        Objects.requireNonNull(value, "value is null");
+        int slot = slotOf(Objects.requireNonNull(key, "key is null"));
+        if (slot >= 0) {
+            int oldCount = counts[slot];
+            counts[slot] = value;
+            return oldCount;
+        }
+        addTo(key, value);
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map, if present, shifting the rest of
+     * its probe run back. If the map falls below an eighth full the capacity is halved.
+     *
+     * @param key the key whose mapping is to be removed from the map
+     * @return the previous count of the key, or {@code null} if it was absent
+     * @since 1.0
+     */
+    public Integer remove(Object key) {
+        int slot = slotOf(key);
+        if (slot < 0) return null;
+        int oldCount = counts[slot];
+        removeSlot(slot);
+        if (hashes.length > initialCapacity && size < threshold / 6) {
+            changeCapacity(hashes.length / 2);
+        }
+        return oldCount;
+    }
+
+    /**
+     * Empties the given slot and moves back the entries of its probe run that could no longer
+     * be found past the gap.
+     *
+     * @param slot the occupied slot to clear
+     * @since 1.0
+     */
+    private void removeSlot(int slot) {
+        int mask = hashes.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (hashes[next] != 0) {
+            int home = hashes[next] & mask;
+            // The entry can fill the gap if its home slot is not cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                hashes[gap] = hashes[next];
+                keys[gap] = keys[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        hashes[gap] = 0;
+        keys[gap] = null;
+        counts[gap] = 0;
+        size--;
+    }
+
+    /**
+     * Changes the capacity of the backing arrays and reinserts every entry.
+     *
+     * @param newCapacity the new capacity, must be a power of 2
+     * @since 1.0
+     */
+    private void changeCapacity(int newCapacity) {
+        int[] oldHashes = hashes;
+        String[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldHashes.length; slot++) {
+            if (oldHashes[slot] == 0) continue;
+            int free = ~probe(oldKeys[slot], oldHashes[slot]);
+            hashes[free] = oldHashes[slot];
+            keys[free] = oldKeys[slot];
+            counts[free] = oldCounts[slot];
+        }
+    }
+
+    /**
+     * @param m mappings to be stored in this map
+     */
+    @Override
+    public void putAll(CustomMap<? extends String, ? extends Integer> m) {
+        m.entrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Removes all mappings from this map and restores the initial capacity.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        allocate(initialCapacity);
+        size = 0;
+    }
+
+    /**
+     * Adds to the count of the key with the remapping function, or enters the given count if
+     * the key is absent. With {@code Integer::sum} this is {@link #addTo(String, int)}, and
+     * takes that path without calling the function.
+     *
+     * @param key               key with which the resulting count is to be associated
+     * @param value             the count to use if the key is absent
+     * @param remappingFunction the function to combine the old and given counts
+     * @return the new count of the key, or {@code null} if the mapping was removed
+     * @throws NullPointerException if the key, value or remapping function is null
+     * @since 1.0
+     */
+    @Override
+    public Integer merge(String key, Integer value, BiFunction<? super Integer, ? super Integer, ? extends Integer> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        Objects.requireNonNull(value);
+        int slot = slotOf(Objects.requireNonNull(key, "key is null"));
+        if (slot < 0) return addTo(key, value);
+        Integer newValue = remappingFunction.apply(counts[slot], value);
+        if (newValue == null) remove(key);
+        else counts[slot] = newValue;
+        return newValue;
+    }
+
+    /**
+     * Returns a Set view of the keys contained in this map, in slot order.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<String> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all counts in the map, boxed, in slot order.
+     *
+     * @return an ArrayList containing all counts in the map
+     * @since 1.0
+     */
+    public ArrayList<Integer> values() {
+        ArrayList<Integer> refList = new ArrayList<>(size);
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) refList.add(counts[slot]);
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries in the map, in slot order.
+     * <p>
+     * The entries write through to the map when {@link CustomMap.Entry#setValue} is called.
+     *
+     * @return an ArrayList containing all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<Entry> entrySet() {
+        ArrayList<Entry> refList = new ArrayList<>(size);
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) refList.add(new Entry(keys[slot], counts[slot]));
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a Spliterator over the entries of this map, split by ranges of slots.
+     *
+     * @return a spliterator over the entries of the map
+     * @since 1.0
+     */
+    @Override
+    public Spliterator<Entry> entrySpliterator() {
+        return new SlotSpliterator(0, hashes.length, size);
+    }
+
+    /**
+     * Snapshot of one mapping of a StringCountMap, whose {@code setValue} writes through to the map.
+     *
+     * @since 1.0
+     */
+    public final class Entry implements CustomMap.Entry<String, Integer> {
+        private final String key;
+        private int count;
+
+        Entry(String key, int count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Integer getValue() {
+            return count;
+        }
+
+        public Integer setValue(Integer value) {
+            int oldCount = count;
+            count = value;
+            put(key, value);
+            return oldCount;
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey())
+                    && Integer.valueOf(count).equals(entry.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ count;
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + count + ">";
+        }
+    }
+
+    /**
+     * Set view of the keys in a StringCountMap, in slot order.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<String> {
+
+        /**
+         * Returns an iterator over the keys, in slot order. Removal is not supported, since
+         * backward-shift deletion could move unvisited keys behind the iterator.
+         *
+         * @return an iterator over the keys
+         */
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private final int[] refHashes = hashes;
+                private int slot = advance(0);
+
+                private int advance(int from) {
+                    int next = from;
+                    while (next < refHashes.length && refHashes[next] == 0) next++;
+                    return next;
+                }
+
+                public boolean hasNext() {
+                    return slot < refHashes.length;
+                }
+
+                public String next() {
+                    if (refHashes != hashes) throw new ConcurrentModificationException();
+                    if (!hasNext()) throw new NoSuchElementException("This key is null/D.N.E.");
+                    String key = keys[slot];
+                    slot = advance(slot + 1);
+                    return key;
+                }
+            };
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+
+        public boolean remove(Object obj) {
+            return StringCountMap.this.remove(obj) != null;
+        }
+
+        public void clear() {
+            StringCountMap.this.clear();
+        }
+    }
+
+    /**
+     * Spliterator over a range of slots. Splitting hands the lower half of the remaining slots
+     * to the new spliterator.
+     *
+     * @since 1.0
+     */
+    final class SlotSpliterator implements Spliterator<Entry> {
+        private final int[] refHashes = hashes;
+        private int slot;
+        private final int fence;
+        private long estimate;
+
+        /**
+         * Constructs a spliterator over the slots in [slot, fence).
+         *
+         * @param slot     the first slot
+         * @param fence    the slot after the last one
+         * @param estimate the estimated number of entries in the range
+         */
+        SlotSpliterator(int slot, int fence, long estimate) {
+            this.slot = slot;
+            this.fence = fence;
+            this.estimate = estimate;
+        }
+
+        public boolean tryAdvance(java.util.function.Consumer<? super Entry> action) {
+            Objects.requireNonNull(action);
+            if (refHashes != hashes) throw new ConcurrentModificationException();
+            while (slot < fence && refHashes[slot] == 0) slot++;
+            if (slot >= fence) return false;
+            action.accept(new Entry(keys[slot], counts[slot]));
+            slot++;
+            return true;
+        }
+
+        public void forEachRemaining(java.util.function.Consumer<? super Entry> action) {
+            Objects.requireNonNull(action);
+            if (refHashes != hashes) throw new ConcurrentModificationException();
+            for (; slot < fence; slot++) {
+                if (refHashes[slot] != 0) action.accept(new Entry(keys[slot], counts[slot]));
+            }
+        }
+
+        public Spliterator<Entry> trySplit() {
+            int mid = (slot + fence) >>> 1;
+            if (mid <= slot) return null;
+            estimate >>>= 1;
+            SlotSpliterator prefix = new SlotSpliterator(slot, mid, estimate);
+            slot = mid;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return estimate;
+        }
+
+        public int characteristics() {
+            return Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+    }
+}
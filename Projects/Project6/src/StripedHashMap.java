@@ -0,0 +1,624 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Thread-safe implementation of a HashMap using lock striping.
+ * <p>
+ * The keys are partitioned over a fixed number of stripes, each of which is an ordinary
+ * {@link HashMap} guarded by its own lock. Threads working on keys in different stripes never
+ * contend, so several ingestion threads can count into one shared map. Every operation on a
+ * single key takes exactly one stripe lock.
+ * <p>
+ * Unlike the defaults in {@link CustomMap}, the conditional and compound operations
+ * ({@code putIfAbsent}, {@code replace}, {@code remove(key, value)}, {@code computeIfAbsent},
+ * {@code computeIfPresent}, {@code compute} and {@code merge}) are atomic: the whole
+ * read-modify-write runs while the stripe holding the key is locked. The mapping functions are
+ * therefore called under that lock and should be short and must not touch the map themselves.
+ * <p>
+ * Operations over the whole map ({@code size}, the views, {@code clear}) visit the stripes
+ * one at a time, locking each in turn. They are weakly consistent: each stripe is seen in a
+ * consistent state, but not all stripes at the same instant. Null keys are not permitted.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class StripedHashMap<K, V> implements CustomMap<K, V> {
+
+    private final HashMap<K, V>[] stripes;
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private KeySet keySet;
+
+    /**
+     * Constructs an empty StripedHashMap with 16 stripes.
+     *
+     * @since 1.0
+     */
+    public StripedHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty StripedHashMap with the specified number of stripes.
+     * <p>
+     * The number of stripes bounds how many threads can update the map at the same time. A few
+     * times the number of writing threads keeps the chance of two threads colliding on a
+     * stripe low.
+     *
+     * @param concurrencyLevel the number of stripes, must be a power of 2
+     * @throws IllegalArgumentException if the number of stripes is not a power of 2
+     * @since 1.0
+     */
+    public StripedHashMap(int concurrencyLevel) {
+        if (concurrencyLevel < 1 || Integer.bitCount(concurrencyLevel) != 1 || concurrencyLevel > 1 << 16)
+            throw new IllegalArgumentException("Stripe count must be power of 2, BANNED!");
+        @SuppressWarnings("unchecked")
+        HashMap<K, V>[] stripes = (HashMap<K, V>[]) new HashMap<?, ?>[concurrencyLevel];
+        this.stripes = stripes;
+        this.locks = new ReentrantLock[concurrencyLevel];
+        for (int i = 0; i < concurrencyLevel; i++) {
+            stripes[i] = new HashMap<>();
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = concurrencyLevel - 1;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        StripedHashMap<String, Integer> words = new StripedHashMap<>();
+        String[] text = "the quick brown fox jumps over the lazy dog the end".split(" ");
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (String word : text) words.merge(word, 1, Integer::sum);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        System.out.println(words);
+        System.out.println(words.get("the"));
+        System.out.println(words.size());
+    }
+
+    /**
+     * Returns the index of the stripe holding the given key.
+     * <p>
+     * The stripes' own tables index buckets by the low bits of the spread hash, so the stripe is
+     * chosen from the high bits of a multiplicative hash instead, to keep the two independent.
+     *
+     * @param key the key whose stripe is to be found
+     * @return the index of the stripe for the key
+     * @throws NullPointerException if the key is null
+     * @since 1.0
+     */
+    private int stripeOf(Object key) {
+        int h = Objects.requireNonNull(key, "key is null").hashCode() * 0x9E3779B9;
+        return (h >>> 16) & mask;
+    }
+
+    /**
+     * Returns the number of stripes of this map.
+     *
+     * @return the number of stripes
+     * @since 1.0
+     */
+    public int concurrencyLevel() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     * @since 1.0
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                size += stripes[i].size();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map is empty, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a string representation of this map.
+     *
+     * @return a string representation of this map
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * Checks if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     * @return {@code true} if this map contains a mapping for the specified key, {@code false} otherwise
+     * @since 1.0
+     */
+    public boolean containsKey(Object key) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].containsKey(key);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Checks if this map maps one or more keys to the specified value.
+     * <p>
+     * The values of each stripe are scanned while that stripe is locked, so this takes time
+     * linear in the size of the map.
+     *
+     * @param value the value whose presence in this map is to be tested
+     * @return {@code true} if this map maps one or more keys to the specified value
+     * @since 1.0
+     */
+    public boolean containsValue(Object value) {
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                for (V stripeValue : stripes[i].values()) {
+                    if (Objects.equals(stripeValue, value)) return true;
+                }
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the value associated with the specified key in this map.
+     * <p>
+     * Lookups take the stripe lock too, since a lookup in a {@link HashMap} may advance an
+     * incremental resize or build a tree index for a long bucket.
+     *
+     * @param key the key whose associated value is to be retrieved
+     * @return the value to which the specified key is mapped, or {@code null} if no mapping exists
+     * @since 1.0
+     */
+    public V get(Object key) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].get(key);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     *
+     * @param key   the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     * @since 1.0
+     */
+    public V put(K key, V value) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].put(key, value);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key the key whose mapping is to be removed from the map
+     * @return the previous value associated with the key, or {@code null} if there was no mapping for the key
+     * @since 1.0
+     */
+    public V remove(Object key) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].remove(key);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * @param m mappings to be stored in this map
+     */
+    @Override
+    public void putAll(CustomMap<? extends K, ? extends V> m) {
+        m.entrySet().forEach(entry -> put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Removes all key-value mappings from this map, one stripe at a time.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                stripes[i].clear();
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns a weakly consistent Set view of the keys contained in this map.
+     * <p>
+     * Its iterator copies the keys of one stripe at a time, so it never throws a
+     * ConcurrentModificationException and reflects updates to the stripes it has not reached yet.
+     *
+     * @return a Set view of the keys contained in this map
+     * @since 1.0
+     */
+    public Set<K> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values in the map, stripe by stripe.
+     *
+     * @return an ArrayList containing all values in the map
+     * @since 1.0
+     */
+    public ArrayList<V> values() {
+        ArrayList<V> refList = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                refList.addAll(stripes[i].values());
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries in the map, stripe by stripe.
+     * <p>
+     * The entries are copies, so that no thread holds a live node of a stripe outside its lock;
+     * calling {@link CustomMap.Entry#setValue} on them does not write through to the map.
+     *
+     * @return an ArrayList containing copies of all entries in the map
+     * @since 1.0
+     */
+    public ArrayList<HashMap.Node<K, V>> entrySet() {
+        ArrayList<HashMap.Node<K, V>> refList = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                for (HashMap.Node<K, V> node : stripes[i]) refList.add(new HashMap.Node<>(node.getKey(), node.getValue()));
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return refList;
+    }
+
+    /**
+     * Returns a copy of the keys of the given stripe, taken under its lock.
+     *
+     * @param index the index of the stripe
+     * @return the keys of the stripe
+     * @since 1.0
+     */
+    private ArrayList<K> stripeKeys(int index) {
+        locks[index].lock();
+        try {
+            return new ArrayList<>(stripes[index].keySet());
+        } finally {
+            locks[index].unlock();
+        }
+    }
+
+    /**
+     * Atomically associates the given value with the key if it is not already mapped.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was none
+     * @since 1.0
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].putIfAbsent(key, value);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically removes the entry for the key only if it is currently mapped to the given value.
+     *
+     * @param key   key with which the specified value is associated
+     * @param value value expected to be associated with the specified key
+     * @return {@code true} if the value was removed
+     * @since 1.0
+     */
+    @Override
+    public boolean remove(Object key, Object value) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].remove(key, value);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the entry for the key only if it is currently mapped to the given value.
+     *
+     * @param key      key with which the specified value is associated
+     * @param oldValue value expected to be associated with the specified key
+     * @param newValue value to be associated with the specified key
+     * @return {@code true} if the value was replaced
+     * @since 1.0
+     */
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].replace(key, oldValue, newValue);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically replaces the entry for the key only if it is currently mapped to some value.
+     *
+     * @param key   key with which the specified value is associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key, or {@code null} if there was none
+     * @since 1.0
+     */
+    @Override
+    public V replace(K key, V value) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].replace(key, value);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically computes a value for the key if it is not already mapped, calling the mapping
+     * function at most once.
+     *
+     * @param key             key with which the computed value is to be associated
+     * @param mappingFunction the function to compute a value
+     * @return the current (existing or computed) value associated with the key
+     * @since 1.0
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].computeIfAbsent(key, mappingFunction);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically computes a new mapping for the key if it is currently mapped.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value
+     * @return the new value associated with the key, or {@code null} if none
+     * @since 1.0
+     */
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].computeIfPresent(key, remappingFunction);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically computes a new mapping for the key from its current mapping, if any.
+     *
+     * @param key               key with which the computed value is to be associated
+     * @param remappingFunction the function to compute a value
+     * @return the new value associated with the key, or {@code null} if none
+     * @since 1.0
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].compute(key, remappingFunction);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Atomically associates the key with the given value if it is not mapped, or otherwise with
+     * the result of combining the old and given values. This is the counting primitive:
+     * {@code map.merge(word, 1, Integer::sum)}.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to use if the key is not mapped
+     * @param remappingFunction the function to combine the old and given values
+     * @return the new value associated with the key, or {@code null} if none
+     * @since 1.0
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        int i = stripeOf(key);
+        locks[i].lock();
+        try {
+            return stripes[i].merge(key, value, remappingFunction);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    /**
+     * Performs the given action for each entry, one stripe at a time while holding its lock.
+     *
+     * @param action the action to be performed for each entry
+     * @since 1.0
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                stripes[i].forEach(action);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Replaces each entry's value with the result of the given function, one stripe at a time
+     * while holding its lock.
+     *
+     * @param function the function to apply to each entry
+     * @since 1.0
+     */
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                stripes[i].replaceAll(function);
+            } finally {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Weakly consistent set view of the keys in a StripedHashMap.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<K> {
+
+        /**
+         * Returns an iterator over the keys, visiting the stripes in order.
+         *
+         * @return an iterator over the keys
+         */
+        public Iterator<K> iterator() {
+            return new Iterator<>() {
+                private int nextStripe = 0;
+                private Iterator<K> current = Collections.emptyIterator();
+                private K previousFetch;
+
+                public boolean hasNext() {
+                    while (!current.hasNext() && nextStripe < stripes.length) {
+                        current = stripeKeys(nextStripe++).iterator();
+                    }
+                    return current.hasNext();
+                }
+
+                public K next() {
+                    if (!hasNext()) throw new NoSuchElementException("This key is null/D.N.E.");
+                    previousFetch = current.next();
+                    return previousFetch;
+                }
+
+                public void remove() {
+                    if (previousFetch == null)
+                        throw new IllegalStateException("Cannot remove key prior to fetch. " +
+                                "Also one remove call per fetch.");
+                    StripedHashMap.this.remove(previousFetch);
+                    previousFetch = null;
+                }
+            };
+        }
+
+        /**
+         * Returns the number of keys in the map.
+         *
+         * @return the number of keys
+         */
+        public int size() {
+            return StripedHashMap.this.size();
+        }
+
+        /**
+         * Checks if the map contains the specified key.
+         *
+         * @param obj the key to be checked for containment
+         * @return {@code true} if the map contains the key, otherwise {@code false}
+         */
+        public boolean contains(Object obj) {
+            return obj != null && containsKey(obj);
+        }
+
+        /**
+         * Removes the specified key, and its mapping, from the map.
+         *
+         * @param obj the key to be removed
+         * @return {@code true} if the key was present, otherwise {@code false}
+         */
+        public boolean remove(Object obj) {
+            if (obj == null) return false;
+            int i = stripeOf(obj);
+            locks[i].lock();
+            try {
+                if (!stripes[i].containsKey(obj)) return false;
+                stripes[i].remove(obj);
+                return true;
+            } finally {
+                locks[i].unlock();
+            }
+        }
+
+        /**
+         * Removes all keys from the map.
+         */
+        public void clear() {
+            StripedHashMap.this.clear();
+        }
+    }
+}
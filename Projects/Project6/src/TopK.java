@@ -0,0 +1,112 @@
+import java.util.*;
+import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
+
+/**
+ * Top-k queries over the entries of any {@link CustomMap}.
+ * <p>
+ * The entries are streamed from {@link CustomMap#entrySpliterator()} through a
+ * {@link BoundedHeap} of size k, so a query takes O(n log k) time and O(k) memory on every map
+ * that traverses its own buckets or subtrees, instead of sorting a copy of the whole map. The
+ * parallel variants split the spliterator across the common fork/join pool, fill one heap per
+ * split, and merge the heaps pairwise as the splits complete.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * {@code
+ * ArrayList<CustomMap.Entry<String, Integer>> top = TopK.byValue(counts, 10);
+ * }
+ * </pre>
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Returns the k greatest entries of the map under the given comparator, greatest first.
+     *
+     * @param map        the map to query
+     * @param k          the number of entries to return at most
+     * @param comparator the comparator ranking the entries
+     * @param <K>        the type of keys in the map
+     * @param <V>        the type of values in the map
+     * @return the k greatest entries, greatest first
+     * @since 1.0
+     */
+    public static <K, V> ArrayList<CustomMap.Entry<K, V>> topK(CustomMap<K, V> map, int k,
+                                                              Comparator<? super CustomMap.Entry<K, V>> comparator) {
+        BoundedHeap<CustomMap.Entry<K, V>> heap = new BoundedHeap<>(k, comparator);
+        map.entrySpliterator().forEachRemaining(heap::offer);
+        return heap.drainDescending();
+    }
+
+    /**
+     * Returns the k greatest entries of the map under the given comparator, greatest first,
+     * traversing the map on several threads. The map must not be modified during the query.
+     *
+     * @param map        the map to query
+     * @param k          the number of entries to return at most
+     * @param comparator the comparator ranking the entries
+     * @param <K>        the type of keys in the map
+     * @param <V>        the type of values in the map
+     * @return the k greatest entries, greatest first
+     * @since 1.0
+     */
+    public static <K, V> ArrayList<CustomMap.Entry<K, V>> parallelTopK(CustomMap<K, V> map, int k,
+                                                                      Comparator<? super CustomMap.Entry<K, V>> comparator) {
+        return StreamSupport.stream(map.entrySpliterator(), true).collect(Collector.of(
+                () -> new BoundedHeap<CustomMap.Entry<K, V>>(k, comparator),
+                BoundedHeap::offer,
+                BoundedHeap::offerAll,
+                BoundedHeap::drainDescending,
+                Collector.Characteristics.UNORDERED));
+    }
+
+    /**
+     * Returns the k entries with the greatest values, greatest first. Entries with equal values
+     * are ranked by key, the smallest key first, so the result does not depend on the map.
+     *
+     * @param map the map to query
+     * @param k   the number of entries to return at most
+     * @param <K> the type of keys in the map
+     * @param <V> the type of values in the map
+     * @return the k entries with the greatest values, greatest first
+     * @since 1.0
+     */
+    public static <K extends Comparable<? super K>, V extends Comparable<? super V>>
+    ArrayList<CustomMap.Entry<K, V>> byValue(CustomMap<K, V> map, int k) {
+        return topK(map, k, valueOrder());
+    }
+
+    /**
+     * Returns the k entries with the greatest values, greatest first, traversing the map on
+     * several threads. Ties are ranked as by {@link #byValue(CustomMap, int)}.
+     *
+     * @param map the map to query
+     * @param k   the number of entries to return at most
+     * @param <K> the type of keys in the map
+     * @param <V> the type of values in the map
+     * @return the k entries with the greatest values, greatest first
+     * @since 1.0
+     */
+    public static <K extends Comparable<? super K>, V extends Comparable<? super V>>
+    ArrayList<CustomMap.Entry<K, V>> parallelByValue(CustomMap<K, V> map, int k) {
+        return parallelTopK(map, k, valueOrder());
+    }
+
+    /**
+     * Orders entries by value, then by key reversed, so that of two equal values the smaller
+     * key ranks higher.
+     */
+    private static <K extends Comparable<? super K>, V extends Comparable<? super V>>
+    Comparator<CustomMap.Entry<K, V>> valueOrder() {
+        return Comparator.<CustomMap.Entry<K, V>, V>comparing(CustomMap.Entry::getValue)
+                .thenComparing(CustomMap.Entry::getKey, Comparator.reverseOrder());
+    }
+}
@@ -0,0 +1,467 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only word count map backed by a memory-mapped binary snapshot file.
+ * <p>
+ * A snapshot is written once from any {@code CustomMap<String, Integer>} with
+ * {@link #write(CustomMap, long, String)} and opened with {@link #open(String)}. Opening maps the
+ * file and reads only its header: lookups then work directly on the mapped bytes, so a snapshot
+ * of millions of words can be queried without loading it into the heap or re-tokenizing the
+ * corpus it came from.
+ * <p>
+ * The file is laid out as follows, all integers big-endian:
+ * <ol>
+ *     <li>Header: the magic {@code "WCS1"}, the number of entries {@code n}, the total word
+ *     count (a long), the sampling interval {@code s}, and the byte offsets of the four sections
+ *     below.</li>
+ *     <li>Dictionary: the UTF-8 bytes of every key, concatenated, with the keys sorted by
+ *     unsigned byte order (which for UTF-8 is also code point order).</li>
+ *     <li>Key offsets: {@code n + 1} ints, the start of every key in the dictionary followed by
+ *     its end.</li>
+ *     <li>Value samples: one int per {@code s} entries, the start in the value block of the
+ *     value of every {@code s}-th entry.</li>
+ *     <li>Value block: the values in key order as zigzag LEB128 varints, so most word counts
+ *     take one or two bytes.</li>
+ * </ol>
+ * {@code get} binary searches the key offsets, comparing the mapped key bytes against the
+ * encoded key without decoding any strings, then decodes at most {@code s} varints from the
+ * nearest sample. Both are O(log n) and O(s) respectively.
+ * <p>
+ * The map cannot be modified: {@code put}, {@code remove} and {@code clear} throw
+ * UnsupportedOperationException. A single mapping is limited to 2GB, so larger snapshots are
+ * rejected.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class WordCountSnapshot implements CustomMap<String, Integer> {
+
+    private static final int MAGIC = 0x57435331; // "WCS1"
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 * 4;
+    private static final int SAMPLE_INTERVAL = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+    private final long totalWordCount;
+    private final int sampleInterval;
+    private final int dictionaryStart;
+    private final int keyOffsetsStart;
+    private final int samplesStart;
+    private final int valuesStart;
+    private KeySet keySet;
+
+    /**
+     * Reads the header of a mapped snapshot.
+     *
+     * @param buffer the mapped snapshot file
+     * @throws IOException if the buffer does not hold a snapshot
+     */
+    private WordCountSnapshot(MappedByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a word count snapshot, bad magic.");
+        this.buffer = buffer;
+        this.size = buffer.getInt(4);
+        this.totalWordCount = buffer.getLong(8);
+        this.sampleInterval = buffer.getInt(16);
+        this.dictionaryStart = buffer.getInt(20);
+        this.keyOffsetsStart = buffer.getInt(24);
+        this.samplesStart = buffer.getInt(28);
+        this.valuesStart = buffer.getInt(32);
+    }
+
+    public static void main(String[] args) throws IOException {
+        StringCountMap words = new StringCountMap();
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            words.increment(word);
+        }
+        write(words, 11, "words.wcs");
+        WordCountSnapshot snapshot = open("words.wcs");
+        System.out.println(snapshot);
+        System.out.println(snapshot.get("the"));
+        System.out.println(snapshot.get("cat"));
+        System.out.println(snapshot.totalWordCount());
+    }
+
+    /**
+     * Writes the contents of the given map to a snapshot file.
+     *
+     * @param map            the map to write, whose values must not be null
+     * @param totalWordCount the total number of words the counts came from, kept in the header
+     * @param filename       the file to write to
+     * @throws IOException if the file cannot be written or the snapshot would exceed 2GB
+     * @since 1.0
+     */
+    public static void write(CustomMap<String, Integer> map, long totalWordCount, String filename) throws IOException {
+        // Sort the keys by their encoded bytes, which is the order lookups search in
+        ArrayList<byte[]> encoded = new ArrayList<>(map.size());
+        ArrayList<Integer> values = new ArrayList<>(map.size());
+        for (CustomMap.Entry<String, Integer> entry : map.entrySet()) {
+            encoded.add(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            values.add(Objects.requireNonNull(entry.getValue(), "value is null"));
+        }
+        Integer[] order = new Integer[encoded.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (i, j) -> Arrays.compareUnsigned(encoded.get(i), encoded.get(j)));
+
+        int n = order.length;
+        long dictionaryBytes = 0;
+        for (byte[] key : encoded) dictionaryBytes += key.length;
+        // Encode the values first, to know where the samples point
+        java.io.ByteArrayOutputStream valueBlock = new java.io.ByteArrayOutputStream();
+        int[] samples = new int[(n + SAMPLE_INTERVAL - 1) / SAMPLE_INTERVAL];
+        for (int i = 0; i < n; i++) {
+            if (i % SAMPLE_INTERVAL == 0) samples[i / SAMPLE_INTERVAL] = valueBlock.size();
+            writeVarint(valueBlock, values.get(order[i]));
+        }
+        long dictionaryStart = HEADER_BYTES;
+        long keyOffsetsStart = dictionaryStart + dictionaryBytes;
+        long samplesStart = keyOffsetsStart + 4L * (n + 1);
+        long valuesStart = samplesStart + 4L * samples.length;
+        if (valuesStart + valueBlock.size() > Integer.MAX_VALUE)
+            throw new IOException("Snapshot would exceed 2GB, too big to map.");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeLong(totalWordCount);
+            out.writeInt(SAMPLE_INTERVAL);
+            out.writeInt((int) dictionaryStart);
+            out.writeInt((int) keyOffsetsStart);
+            out.writeInt((int) samplesStart);
+            out.writeInt((int) valuesStart);
+            for (int i = 0; i < n; i++) out.write(encoded.get(order[i]));
+            int offset = 0;
+            for (int i = 0; i < n; i++) {
+                out.writeInt(offset);
+                offset += encoded.get(order[i]).length;
+            }
+            out.writeInt(offset);
+            for (int sample : samples) out.writeInt(sample);
+            valueBlock.writeTo(out);
+        }
+    }
+
+    /**
+     * Opens a snapshot file as a read-only map. The file is mapped, not read.
+     *
+     * @param filename the snapshot file to open
+     * @return the snapshot as a map
+     * @throws IOException if the file cannot be mapped or is not a snapshot
+     * @since 1.0
+     */
+    public static WordCountSnapshot open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot exceeds 2GB, too big to map.");
+            // The mapping stays valid after the channel is closed
+            return new WordCountSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a value as a zigzag LEB128 varint: seven bits per byte, low bits first, with the
+     * high bit set on every byte but the last.
+     */
+    private static void writeVarint(java.io.ByteArrayOutputStream out, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            out.write((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.write(zigzag);
+    }
+
+    /**
+     * Returns the total word count stored with the snapshot.
+     *
+     * @return the total number of words the counts came from
+     * @since 1.0
+     */
+    public long totalWordCount() {
+        return totalWordCount;
+    }
+
+    /**
+     * Returns the start of the i-th key in the file.
+     */
+    private int keyStart(int index) {
+        return dictionaryStart + buffer.getInt(keyOffsetsStart + 4 * index);
+    }
+
+    /**
+     * Copies out the UTF-8 bytes of the i-th key, for merging snapshots in their byte order.
+     */
+    byte[] keyBytes(int index) {
+        int start = keyStart(index);
+        byte[] bytes = new byte[keyStart(index + 1) - start];
+        buffer.get(start, bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes the i-th key.
+     */
+    String keyAt(int index) {
+        return new String(keyBytes(index), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the i-th value, starting from the nearest sample before it.
+     */
+    int valueAt(int index) {
+        int pos = valuesStart + buffer.getInt(samplesStart + 4 * (index / sampleInterval));
+        int zigzag = 0;
+        for (int skip = index % sampleInterval; skip >= 0; skip--) {
+            zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(pos++);
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Finds the index of the given key by binary search over the mapped dictionary.
+     *
+     * @param key the key to search for
+     * @return the index of the key, or -1 if it is absent
+     * @since 1.0
+     */
+    private int indexOf(Object key) {
+        if (!(key instanceof String string)) return -1;
+        byte[] target = string.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comp = compareKey(mid, target);
+            if (comp < 0) low = mid + 1;
+            else if (comp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first index whose key is not less than the given UTF-8 bytes.
+     *
+     * @param target the encoded key to search for
+     * @return the index of the first key at or after target, or size if there is none
+     * @since 1.0
+     */
+    int ceilingIndex(byte[] target) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareKey(mid, target) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Compares the i-th key, in place, against the given UTF-8 bytes in unsigned byte order.
+     */
+    private int compareKey(int index, byte[] target) {
+        int start = keyStart(index);
+        int length = keyStart(index + 1) - start;
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int comp = Byte.compareUnsigned(buffer.get(start + i), target[i]);
+            if (comp != 0) return comp;
+        }
+        return Integer.compare(length, target.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    public boolean containsValue(Object value) {
+        if (!(value instanceof Integer count)) return false;
+        for (int i = 0; i < size; i++) {
+            if (valueAt(i) == count) return true;
+        }
+        return false;
+    }
+
+    public Integer get(Object key) {
+        int index = indexOf(key);
+        return (index < 0) ? null : valueAt(index);
+    }
+
+    /**
+     * Not supported, snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Integer put(String key, Integer value) {
+        throw new UnsupportedOperationException("Snapshots are read-only.");
+    }
+
+    /**
+     * Not supported, snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Integer remove(Object key) {
+        throw new UnsupportedOperationException("Snapshots are read-only.");
+    }
+
+    /**
+     * Not supported, snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void putAll(CustomMap<? extends String, ? extends Integer> m) {
+        throw new UnsupportedOperationException("Snapshots are read-only.");
+    }
+
+    /**
+     * Not supported, snapshots are read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void clear() {
+        throw new UnsupportedOperationException("Snapshots are read-only.");
+    }
+
+    /**
+     * Returns a Set view of the keys, in sorted order, decoded as they are iterated.
+     *
+     * @return a Set view of the keys contained in this snapshot
+     * @since 1.0
+     */
+    public Set<String> keySet() {
+        if (this.keySet == null) keySet = new KeySet();
+        return keySet;
+    }
+
+    /**
+     * Returns a list of all values in key order.
+     *
+     * @return an ArrayList containing all values in the snapshot
+     * @since 1.0
+     */
+    public ArrayList<Integer> values() {
+        ArrayList<Integer> refList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) refList.add(valueAt(i));
+        return refList;
+    }
+
+    /**
+     * Returns a list of all entries in key order. The entries are read-only.
+     *
+     * @return an ArrayList containing all entries in the snapshot
+     * @since 1.0
+     */
+    public ArrayList<Entry> entrySet() {
+        ArrayList<Entry> refList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) refList.add(new Entry(keyAt(i), valueAt(i)));
+        return refList;
+    }
+
+    /**
+     * Returns a string representation of this snapshot.
+     *
+     * @return a string representation of this snapshot
+     * @since 1.0
+     */
+    public String toString() {
+        return entrySet().toString();
+    }
+
+    /**
+     * One read-only mapping of a snapshot.
+     *
+     * @param key   the key of the mapping
+     * @param count the count of the mapping
+     * @since 1.0
+     */
+    public record Entry(String key, int count) implements CustomMap.Entry<String, Integer> {
+
+        public String getKey() {
+            return key;
+        }
+
+        public Integer getValue() {
+            return count;
+        }
+
+        /**
+         * Not supported, snapshots are read-only.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Integer setValue(Integer value) {
+            throw new UnsupportedOperationException("Snapshots are read-only.");
+        }
+
+        public boolean equals(Object obj) {
+            return obj instanceof CustomMap.Entry<?, ?> entry && key.equals(entry.getKey())
+                    && Integer.valueOf(count).equals(entry.getValue());
+        }
+
+        public int hashCode() {
+            return key.hashCode() ^ count;
+        }
+
+        public String toString() {
+            return "<" + key + " -> " + count + ">";
+        }
+    }
+
+    /**
+     * Set view of the keys of a snapshot, in sorted order.
+     *
+     * @since 1.0
+     */
+    final class KeySet extends AbstractSet<String> {
+
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int index = 0;
+
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                public String next() {
+                    if (!hasNext()) throw new NoSuchElementException("This key is null/D.N.E.");
+                    return keyAt(index++);
+                }
+            };
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean contains(Object obj) {
+            return containsKey(obj);
+        }
+    }
+}
@@ -8,53 +8,83 @@ How to run:     java WordCounter
 
 import java.util.ArrayList;
 import java.io.* ;
-import java.util.Arrays;
+import java.nio.ByteBuffer ;
+import java.nio.MappedByteBuffer ;
+import java.nio.channels.FileChannel ;
+import java.nio.file.NoSuchFileException ;
+import java.nio.file.Paths ;
+import java.nio.file.StandardOpenOption ;
+import java.util.concurrent.ExecutorService ;
+import java.util.concurrent.ExecutionException ;
+import java.util.concurrent.Executors ;
+import java.util.concurrent.Future ;
+import java.util.function.Supplier ;
 
 
 public class WordCounter {
 
+	//largest region of the file mapped at once, a single mapping cannot exceed 2GB
+	private static final long MAX_CHUNK_BYTES = 1L << 30 ;
+
+	private final Supplier<CustomMap<String, Integer>> mapFactory ;
 	private final CustomMap<String, Integer> wordCounts ;
+	//whether words are lower-cased and stripped of punctuation as they are read, see WordTokenizer
+	private final boolean normalize ;
 	private int wordCount ;
 	private String name;
 
-	//constructor, where data_structure is either "bst" or "hashmap"
+	//constructor, where data_structure is either "BST", "HashMap", "IncrementalHashMap", "RobinHood", "Striped",
+	//"Counting", which keeps the counts as unboxed ints, "Hamt", which readers can snapshot while counting goes on,
+	//"SkipList", a lock-free map that keeps the words in order, or "BPlusTree", which keeps them in order in wide
+	//array-based nodes, or "Compact", a chained hash map stored as parallel arrays
 	public WordCounter( String data_structure ) {
-		if ( data_structure.equals( "BST" ) ) {
-			wordCounts = new BSTMap<String, Integer>() ;
-		} else {
-			assert data_structure.equals( "HashMap" ) : "Invalid data structure" ;
-			wordCounts = new HashMap<String, Integer>() ;
+		this( data_structure, false ) ;
+	}
+
+	//constructor that can also normalize the words: lower-case them and strip punctuation as the file is read.
+	//without normalizing, the words are exactly those of splitting every line with split("[ ]+")
+	public WordCounter( String data_structure, boolean normalize ) {
+		this.normalize = normalize ;
+		switch ( data_structure ) {
+			case "BST", "BSTMap" -> mapFactory = BSTMap::new ;
+			case "IncrementalHashMap" -> mapFactory = () -> new HashMap<String, Integer>( 16, .75, true ) ;
+			case "RobinHood" -> mapFactory = RobinHoodHashMap::new ;
+			case "Compact" -> mapFactory = CompactHashMap::new ;
+			case "Striped" -> mapFactory = StripedHashMap::new ;
+			case "Counting" -> mapFactory = StringCountMap::new ;
+			case "Hamt" -> mapFactory = HamtMap::new ;
+			case "SkipList" -> mapFactory = SkipListMap::new ;
+			case "BPlusTree" -> mapFactory = BPlusTreeMap::new ;
+			default -> {
+				assert data_structure.equals( "HashMap" ) : "Invalid data structure" ;
+				mapFactory = HashMap::new ;
+			}
 		}
+		wordCounts = mapFactory.get() ;
 	}
 
 	//given the filename of a text file, read the text file and return an ArrayList list of all the words in the file.
+	//the file is memory-mapped and tokenized byte by byte, and every word is interned in a dictionary, so a word that
+	//repeats is the same String every time and only the first occurrence of a word allocates one.
 	public ArrayList<String> readWords( String filename ) {
 
 		ArrayList <String> words = new ArrayList<String>() ;
 
-		try {
-		  // assign to a variable of type FileReader a new FileReader object, passing filename to the constructor
-		  FileReader fr = new FileReader(filename);
-		  // assign to a variable of type BufferedReader a new BufferedReader, passing the FileReader variable to the constructor
-		  BufferedReader br = new BufferedReader(fr);
-		  
-		  // assign to a variable of type String line the result of calling the readLine method of your BufferedReader object.
-		  String line = br.readLine();
-		  // start a while loop that loops while line isn't null
-		  while(line != null){
-		      // assign to line the result of calling the readLine method of your BufferedReader object.
-		  		String [] lineWords = line.split("[ ]+") ;
-			  words.addAll(Arrays.asList(lineWords));
-		  		line = br.readLine();
-		  }
-		  // call the close method of the BufferedReader
-		  br.close();
-
-		  this.wordCount = words.size() ;
-
-		  return words ;
+		try ( FileChannel channel = FileChannel.open( Paths.get( filename ), StandardOpenOption.READ ) ) {
+			WordDictionary dictionary = new WordDictionary() ;
+			WordTokenizer tokenizer = new WordTokenizer( this.normalize ) ;
+			// one chunk per mapping, each ending on a line terminator
+			long[] bounds = chunkBounds( channel, 1 ) ;
+			for ( int c = 0 ; c < bounds.length - 1 ; c ++ ) {
+				MappedByteBuffer chunk = channel.map( FileChannel.MapMode.READ_ONLY, bounds[ c ], bounds[ c + 1 ] - bounds[ c ] ) ;
+				tokenizer.tokenize( chunk, dictionary, id -> words.add( dictionary.word( id ) ) ) ;
+			}
+
+			this.wordCount = words.size() ;
+
+			return words ;
 		}
-		catch(FileNotFoundException ex) {
+		catch(NoSuchFileException ex) {
 		  System.out.println("WordCounter.readWords():: unable to open file " + filename );
 		}
 		catch(IOException ex) {
@@ -69,19 +99,166 @@ public class WordCounter {
 
 		long startTime = System.currentTimeMillis() ;
 
-		for ( String word : words ) {
+		if ( this.wordCounts instanceof StringCountMap counter ) {
+			// no boxing at all: the counts live in an int[]
+			for ( String word : words ) {
+				counter.increment( word );
+			}
+		} else {
+			for ( String word : words ) {
+				// one lookup per word: inserts 1 for a new word, otherwise adds 1 to its count in place
+				this.wordCounts.merge( word , 1 , Integer::sum );
+			}
+		}
+
+		long totalTime = System.currentTimeMillis() - startTime ;
+		return totalTime ;
+	}
+
+	//given an ArrayList of words, put the words into the map using the given number of threads, each counting
+	//a contiguous slice of the list into the shared map. Needs a thread-safe map: "Striped", "Hamt" or "SkipList",
+	//and throws an IllegalArgumentException for more than one thread on any other map. Return the time taken in ms.
+	public double buildMap( ArrayList<String> words, int threads ) throws InterruptedException {
+		if ( threads > 1 && !( this.wordCounts instanceof StripedHashMap || this.wordCounts instanceof HamtMap
+				|| this.wordCounts instanceof SkipListMap ) ) {
+			throw new IllegalArgumentException( "Concurrent counting needs a thread-safe map, BANNED!" ) ;
+		}
+
+		long startTime = System.currentTimeMillis() ;
+
+		Thread[] workers = new Thread[ threads ] ;
+		for ( int t = 0 ; t < threads ; t ++ ) {
+			int from = (int) ( (long) words.size() * t / threads ) ;
+			int to = (int) ( (long) words.size() * ( t + 1 ) / threads ) ;
+			workers[ t ] = new Thread( () -> {
+				for ( String word : words.subList( from, to ) ) {
+					this.wordCounts.merge( word, 1, Integer::sum ) ;
+				}
+			} ) ;
+			workers[ t ].start() ;
+		}
+		for ( Thread worker : workers ) {
+			worker.join() ;
+		}
+
+		long totalTime = System.currentTimeMillis() - startTime ;
+		return totalTime ;
+	}
+
+	//read the file and count its words straight into the map, without building the list of words first.
+	//the file is memory-mapped and cut into newline-aligned chunks, each chunk is tokenized and counted on its own
+	//worker thread into a map of the same kind as the main one, and the partial maps are merged into the main map.
+	//the words and counts are the same as readWords followed by buildMap, and so is the output of writeWordCount:
+	//the words are merged in the order they first appear in the file, so the map is built in the same order.
+	//the file is decoded as UTF-8. Return the time taken in ms, or -1 if the file could not be read.
+	public double buildMapParallel( String filename, int workers ) {
 
-			if ( this.wordCounts.containsKey( word ) ) {
-				this.wordCounts.put( word , this.wordCounts.get( word ) + 1 );
-			} else {
-				this.wordCounts.put( word , 1 );
+		long startTime = System.currentTimeMillis() ;
+
+		ExecutorService pool = Executors.newFixedThreadPool( workers ) ;
+		try ( FileChannel channel = FileChannel.open( Paths.get( filename ), StandardOpenOption.READ ) ) {
+			long[] bounds = chunkBounds( channel, workers ) ;
+			ArrayList<Future<ChunkCount>> futures = new ArrayList<>() ;
+			for ( int c = 0 ; c < bounds.length - 1 ; c ++ ) {
+				MappedByteBuffer chunk = channel.map( FileChannel.MapMode.READ_ONLY, bounds[ c ], bounds[ c + 1 ] - bounds[ c ] ) ;
+				futures.add( pool.submit( () -> countChunk( chunk ) ) ) ;
 			}
+			// merge in file order, so every word is first inserted in the order readWords would have found it. the ids
+			// of a chunk's dictionary are already in order of first appearance
+			long total = 0 ;
+			for ( int c = 0 ; c < futures.size() ; c ++ ) {
+				ChunkCount partial = futures.get( c ).get() ;
+				// drop the chunk's dictionary once it is merged, so only the unmerged ones stay in memory
+				futures.set( c, null ) ;
+				WordDictionary dictionary = partial.dictionary ;
+				for ( int id = 0 ; id < dictionary.size() ; id ++ ) {
+					if ( this.wordCounts instanceof StringCountMap counter ) {
+						counter.addTo( dictionary.word( id ), dictionary.count( id ) ) ;
+					} else {
+						this.wordCounts.merge( dictionary.word( id ), dictionary.count( id ), Integer::sum ) ;
+					}
+				}
+				total += partial.words ;
+			}
+			this.wordCount = (int) total ;
+		}
+		catch( IOException ex ) {
+			System.out.println( "WordCounter.buildMapParallel():: error reading file " + filename ) ;
+			return -1 ;
+		}
+		catch( InterruptedException | ExecutionException ex ) {
+			System.out.println( "WordCounter.buildMapParallel():: counting failed for " + filename + ": " + ex ) ;
+			return -1 ;
+		}
+		finally {
+			pool.shutdownNow() ;
 		}
 
 		long totalTime = System.currentTimeMillis() - startTime ;
 		return totalTime ;
 	}
 
+	//the words counted in one chunk of a file: the dictionary of its words, with their counts and in order of first
+	//appearance, and the number of words in the chunk.
+	private record ChunkCount( WordDictionary dictionary, long words ) {}
+
+	//split the file into at least the given number of chunks, each starting right after a line terminator and
+	//none longer than MAX_CHUNK_BYTES (give or take a line). Returns the chunk boundaries, starting with 0 and
+	//ending with the file size.
+	private static long[] chunkBounds( FileChannel channel, int chunks ) throws IOException {
+		long size = channel.size() ;
+		int count = (int) Math.max( chunks, ( size + MAX_CHUNK_BYTES - 1 ) / MAX_CHUNK_BYTES ) ;
+		ArrayList<Long> bounds = new ArrayList<>() ;
+		bounds.add( 0L ) ;
+		ByteBuffer window = ByteBuffer.allocate( 1 << 16 ) ;
+		for ( int c = 1 ; c < count ; c ++ ) {
+			long guess = Math.max( size * c / count, bounds.get( bounds.size() - 1 ) ) ;
+			long bound = nextLineStart( channel, guess, window ) ;
+			if ( bound > bounds.get( bounds.size() - 1 ) && bound < size ) {
+				bounds.add( bound ) ;
+			}
+		}
+		bounds.add( size ) ;
+		long[] out = new long[ bounds.size() ] ;
+		for ( int i = 0 ; i < out.length ; i ++ ) {
+			out[ i ] = bounds.get( i ) ;
+		}
+		return out ;
+	}
+
+	//return the position right after the first line terminator ("\n", "\r" or "\r\n") at or after the given position,
+	//or the file size if there is none.
+	private static long nextLineStart( FileChannel channel, long position, ByteBuffer window ) throws IOException {
+		long pos = position ;
+		boolean afterReturn = false ;
+		while ( true ) {
+			window.clear() ;
+			int read = channel.read( window, pos ) ;
+			if ( read <= 0 ) {
+				return pos ;
+			}
+			for ( int i = 0 ; i < read ; i ++ ) {
+				byte b = window.get( i ) ;
+				if ( afterReturn ) {
+					return ( b == '\n' ) ? pos + i + 1 : pos + i ;
+				}
+				if ( b == '\n' ) {
+					return pos + i + 1 ;
+				}
+				afterReturn = ( b == '\r' ) ;
+			}
+			pos += read ;
+		}
+	}
+
+	//tokenize and count one chunk the same way readWords does, into a dictionary of its own. Repeated words are
+	//counted straight from the mapped bytes, without allocating anything.
+	private ChunkCount countChunk( MappedByteBuffer chunk ) {
+		WordDictionary dictionary = new WordDictionary() ;
+		long words = new WordTokenizer( this.normalize ).tokenize( chunk, dictionary, null ) ;
+		return new ChunkCount( dictionary, words ) ;
+	}
+
 	//return the total word count from the last time readWords was called.
 	public int totalWordCount() {
 		return this.wordCount ;
@@ -92,8 +269,17 @@ public class WordCounter {
 		return this.wordCounts.size() ;
 	}
 
+	//return the k most frequent words with their counts, most frequent first, ties in word order. The map is
+	//streamed through a heap of k entries, so this neither copies nor sorts the whole map.
+	public ArrayList<CustomMap.Entry<String, Integer>> topWords( int k ) {
+		return TopK.byValue( this.wordCounts, k ) ;
+	}
+
 	//return the number of times the word occurred in the list of words.
 	public int getCount( String word ) {
+		if ( this.wordCounts instanceof StringCountMap counter ) {
+			return counter.getInt( word ) ;
+		}
 		Integer count = this.wordCounts.get( word );
 		if ( count != null ) {
 			return count ;
@@ -117,7 +303,7 @@ public class WordCounter {
 
 		try {
 		 	// assign to a variable of type FileReader a new FileReader object, passing filename to the constructor
-		 	FileWriter fw = new FileWriter(filename);
+		 	BufferedWriter fw = new BufferedWriter( new FileWriter(filename), 1 << 16 ) ;
 			fw.write(this.totalWordCount() + "\n" ) ;
 			ArrayList<String> keys = new ArrayList<>(this.wordCounts.keySet());
 			ArrayList<Integer> values = this.wordCounts.values() ;
@@ -136,6 +322,19 @@ public class WordCounter {
 		return false ;
 	}
 
+	//write a binary snapshot of the current counts, which WordCountSnapshot.open can map back as a read-only
+	//map without re-reading the corpus
+	public boolean writeSnapshot( String filename ) {
+		try {
+			WordCountSnapshot.write( this.wordCounts, this.totalWordCount(), filename ) ;
+			return true ;
+		}
+		catch(IOException ex) {
+		  System.out.println("WordCounter.writeSnapshot():: error writing file " + filename);
+		}
+		return false ;
+	}
+
 	public static void main( String[] args ) {
 		//Choose file for a specific year -- this is a sample for 2008
 		String filename = "Reddit_Comments_Files-20220403/reddit_comments_2008.txt" ;
@@ -0,0 +1,217 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Counting dictionary that interns words given as raw UTF-8 bytes.
+ * <p>
+ * Every distinct word gets a dense id, in the order the words are first added, and its bytes
+ * are appended once to a shared byte pool. A lookup hashes the byte slice it is given and
+ * compares it against the pool, so finding or counting a word that is already present
+ * allocates nothing; the {@link String} for a word is decoded only once, when the word is
+ * first added. This lets a tokenizer count words straight out of a file buffer without
+ * building a {@code String} for every token.
+ * <p>
+ * The table uses open addressing with linear probing over the ids, and keeps the hash of
+ * every word so that most probes are settled without touching the pool. Words cannot be
+ * removed. The implementation is not thread-safe.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class WordDictionary {
+
+    // Slots hold id + 1, so that 0 marks an empty slot
+    private int[] table;
+    private int[] hashes;
+    private int[] offsets;
+    private int[] counts;
+    private String[] words;
+    private byte[] pool;
+    private int poolSize;
+    private int size;
+    private long total;
+
+    /**
+     * Constructs an empty WordDictionary with room for 1024 words before it grows.
+     *
+     * @since 1.0
+     */
+    public WordDictionary() {
+        this.table = new int[2048];
+        this.hashes = new int[1024];
+        this.offsets = new int[1025];
+        this.counts = new int[1024];
+        this.words = new String[1024];
+        this.pool = new byte[1 << 14];
+    }
+
+    public static void main(String[] args) {
+        WordDictionary dictionary = new WordDictionary();
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+            dictionary.add(bytes, 0, bytes.length);
+        }
+        for (int id = 0; id < dictionary.size(); id++) {
+            System.out.println(id + ": " + dictionary.word(id) + " - " + dictionary.count(id));
+        }
+        byte[] the = "the".getBytes(StandardCharsets.UTF_8);
+        System.out.println("the has id " + dictionary.find(the, 0, the.length) + ", total " + dictionary.totalCount());
+    }
+
+    /**
+     * Hashes a byte slice: FNV-1a over the bytes, then the MurmurHash3 finalizer, which spreads
+     * short words over the whole table.
+     *
+     * @param bytes  the array holding the slice
+     * @param offset the start of the slice
+     * @param length the length of the slice
+     * @return the hash of the slice
+     * @since 1.0
+     */
+    static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5;
+        for (int i = offset; i < offset + length; i++) h = (h ^ bytes[i]) * 0x01000193;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Counts one occurrence of the word in the slice, adding it if it is new.
+     *
+     * @param bytes  the array holding the word, in UTF-8
+     * @param offset the start of the word
+     * @param length the length of the word in bytes
+     * @return the id of the word
+     * @since 1.0
+     */
+    public int add(byte[] bytes, int offset, int length) {
+        int hash = hash(bytes, offset, length);
+        int slot = probe(bytes, offset, length, hash);
+        int id;
+        if (table[slot] != 0) {
+            id = table[slot] - 1;
+        } else {
+            id = insert(bytes, offset, length, hash);
+            table[slot] = id + 1;
+            if (size * 2 > table.length) rehash();
+        }
+        counts[id]++;
+        total++;
+        return id;
+    }
+
+    /**
+     * Returns the id of the word in the slice, without counting it.
+     *
+     * @param bytes  the array holding the word, in UTF-8
+     * @param offset the start of the word
+     * @param length the length of the word in bytes
+     * @return the id of the word, or -1 if it has not been added
+     * @since 1.0
+     */
+    public int find(byte[] bytes, int offset, int length) {
+        return table[probe(bytes, offset, length, hash(bytes, offset, length))] - 1;
+    }
+
+    /**
+     * Returns the word with the given id.
+     *
+     * @param id the id of the word
+     * @return the word
+     * @throws IndexOutOfBoundsException if no word has the id
+     * @since 1.0
+     */
+    public String word(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("No word with id " + id + ", BANNED!");
+        return words[id];
+    }
+
+    /**
+     * Returns the number of times the word with the given id has been added.
+     *
+     * @param id the id of the word
+     * @return the count of the word
+     * @throws IndexOutOfBoundsException if no word has the id
+     * @since 1.0
+     */
+    public int count(int id) {
+        if (id < 0 || id >= size) throw new IndexOutOfBoundsException("No word with id " + id + ", BANNED!");
+        return counts[id];
+    }
+
+    /**
+     * Returns the number of distinct words.
+     *
+     * @return the number of distinct words
+     * @since 1.0
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of words added, counting repeats.
+     *
+     * @return the total count of all words
+     * @since 1.0
+     */
+    public long totalCount() {
+        return total;
+    }
+
+    /**
+     * Finds the slot holding the word in the slice, or the empty slot where it would go.
+     */
+    private int probe(byte[] bytes, int offset, int length, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int entry = table[slot];
+            if (entry == 0) return slot;
+            int id = entry - 1;
+            if (hashes[id] == hash && offsets[id + 1] - offsets[id] == length
+                    && Arrays.equals(pool, offsets[id], offsets[id + 1], bytes, offset, offset + length))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Appends a new word to the pool and returns its id.
+     */
+    private int insert(byte[] bytes, int offset, int length, int hash) {
+        if (size == hashes.length) {
+            int capacity = size * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity + 1);
+            counts = Arrays.copyOf(counts, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        if (poolSize + length > pool.length) pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        System.arraycopy(bytes, offset, pool, poolSize, length);
+        int id = size++;
+        hashes[id] = hash;
+        words[id] = new String(pool, poolSize, length, StandardCharsets.UTF_8);
+        poolSize += length;
+        offsets[id + 1] = poolSize;
+        return id;
+    }
+
+    /**
+     * Doubles the table and places every id again by its stored hash.
+     */
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        int mask = newTable.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (newTable[slot] != 0) slot = (slot + 1) & mask;
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+}
@@ -0,0 +1,159 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntConsumer;
+
+/**
+ * Byte-level tokenizer that counts the words of a buffer into a {@link WordDictionary}.
+ * <p>
+ * The buffer, typically a memory-mapped region of a file, is scanned byte by byte for line
+ * terminators and separators. Each token is copied into a scratch array, normalized there if
+ * asked, and looked up in the dictionary by the hash of those bytes, so a token costs no
+ * allocation at all unless it is a word the dictionary has never seen. Splitting lines with
+ * {@code split("[ ]+")}, by contrast, allocates an array, a {@code String} and its bytes for
+ * every token, however often the word repeats.
+ * <p>
+ * There are two modes:
+ * <ul>
+ *     <li>Exact: lines end at "\n", "\r" or "\r\n" and are split on runs of spaces, giving
+ *     exactly the words of {@code line.split("[ ]+")} on every line, quirks included: an
+ *     empty line is one empty word, and a line that starts with spaces has one empty word
+ *     before its first word.</li>
+ *     <li>Normalized: tokens are also split on tabs and form feeds, ASCII letters are lowered,
+ *     and every ASCII byte other than a letter, a digit or an inner apostrophe is dropped.
+ *     Tokens left empty are skipped. Bytes of multi-byte UTF-8 characters are kept as they
+ *     are.</li>
+ * </ul>
+ * A tokenizer keeps its scratch array between calls and is not thread-safe; use one per
+ * thread.
+ *
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class WordTokenizer {
+
+    private final boolean normalize;
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Constructs a tokenizer in exact or normalized mode.
+     *
+     * @param normalize whether to lower case and strip punctuation
+     * @since 1.0
+     */
+    public WordTokenizer(boolean normalize) {
+        this.normalize = normalize;
+    }
+
+    public static void main(String[] args) {
+        ByteBuffer text = ByteBuffer.wrap("The cat's toy,\r\n  the CAT!\n\nend 'quoted' -- end\n".getBytes(StandardCharsets.UTF_8));
+        for (boolean normalize : new boolean[]{false, true}) {
+            WordDictionary dictionary = new WordDictionary();
+            StringBuilder order = new StringBuilder();
+            long words = new WordTokenizer(normalize).tokenize(text.duplicate(), dictionary,
+                    id -> order.append('[').append(dictionary.word(id)).append(']'));
+            System.out.println((normalize ? "normalized: " : "exact: ") + words + " words, " + dictionary.size() + " distinct: " + order);
+        }
+    }
+
+    /**
+     * Counts every word between the position and the limit of the buffer into the
+     * dictionary, without moving the position.
+     *
+     * @param buffer     the bytes to tokenize, in UTF-8
+     * @param dictionary the dictionary counting the words
+     * @param action     called with the id of every word, in order, or null
+     * @return the number of words counted
+     * @since 1.0
+     */
+    public long tokenize(ByteBuffer buffer, WordDictionary dictionary, IntConsumer action) {
+        long words = 0;
+        int limit = buffer.limit();
+        int pos = buffer.position();
+        while (pos < limit) {
+            int eol = pos;
+            while (eol < limit) {
+                byte b = buffer.get(eol);
+                if (b == '\n' || b == '\r') break;
+                eol++;
+            }
+            int i = pos;
+            if (!normalize) {
+                // The empty words split("[ ]+") gives for an empty line, or before leading spaces
+                if (i == eol) {
+                    words += count(dictionary, 0, action);
+                } else if (buffer.get(i) == ' ') {
+                    while (i < eol && buffer.get(i) == ' ') i++;
+                    if (i < eol) words += count(dictionary, 0, action);
+                }
+            }
+            while (i < eol) {
+                while (i < eol && isSeparator(buffer.get(i))) i++;
+                if (i == eol) break;
+                int end = i;
+                while (end < eol && !isSeparator(buffer.get(end))) end++;
+                int length = normalize ? normalized(buffer, i, end) : copied(buffer, i, end);
+                if (length > 0 || !normalize) words += count(dictionary, length, action);
+                i = end;
+            }
+            // Step over the line terminator, treating "\r\n" as one
+            pos = eol;
+            if (pos < limit && buffer.get(pos) == '\r') {
+                pos++;
+                if (pos < limit && buffer.get(pos) == '\n') pos++;
+            } else if (pos < limit) {
+                pos++;
+            }
+        }
+        return words;
+    }
+
+    private boolean isSeparator(byte b) {
+        return b == ' ' || (normalize && (b == '\t' || b == '\f' || b == 0x0B));
+    }
+
+    /**
+     * Counts the word in the first {@code length} bytes of the scratch array.
+     *
+     * @return 1, the number of words counted
+     */
+    private int count(WordDictionary dictionary, int length, IntConsumer action) {
+        int id = dictionary.add(scratch, 0, length);
+        if (action != null) action.accept(id);
+        return 1;
+    }
+
+    private void reserve(int length) {
+        if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+
+    /**
+     * Copies the bytes from start to end into the scratch array as they are.
+     *
+     * @return the number of bytes copied
+     */
+    private int copied(ByteBuffer buffer, int start, int end) {
+        reserve(end - start);
+        buffer.get(start, scratch, 0, end - start);
+        return end - start;
+    }
+
+    /**
+     * Copies the bytes from start to end into the scratch array, lowering ASCII letters and
+     * dropping other ASCII bytes except digits and apostrophes, then trims apostrophes from
+     * both ends.
+     *
+     * @return the number of bytes kept
+     */
+    private int normalized(ByteBuffer buffer, int start, int end) {
+        reserve(end - start);
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if ((b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b < 0 || (b == '\'' && length > 0)) scratch[length++] = b;
+        }
+        while (length > 0 && scratch[length - 1] == '\'') length--;
+        return length;
+    }
+}
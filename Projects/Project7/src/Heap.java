@@ -23,6 +23,14 @@ import java.util.*;
  * Nth node and update the priority of an item.
  *
  * <p>
+ * Items move between nodes by swapping values, so every node is mapped to the handle of the
+ * item it holds, which records the node in turn, and each swap exchanges the two handles
+ * involved. This lets {@link #decreaseKey}, {@link #increaseKey} and
+ * {@link #remove(PriorityQueue.Handle)} find the node of an item without a search. For
+ * {@link #updatePriority}, every item is also mapped, by identity, to its handles. The same
+ * object may be offered more than once, in which case its handles are chained together.
+ *
+ * <p>
  * Usage example:
  *
  * <pre>
@@ -51,7 +59,8 @@ public class Heap<T> implements PriorityQueue<T> {
     final Node<Integer, T> root;
     Node<Integer, T> lastInsert;
     private final HashMap<Node<Integer, T>, Integer> priorityMap;
-    private final HashMap<Node<Integer, T>, Node<Integer, T>> mirrorMap;
+    private final IdentityHashMap<T, NodeHandle<T>> handleMap;
+    private final IdentityHashMap<Node<Integer, T>, NodeHandle<T>> nodeHandles;
     private final ArrayList<Node<Integer, T>> nodeIndexes;
 
     /**
@@ -114,7 +123,8 @@ public class Heap<T> implements PriorityQueue<T> {
         this.maxState = maxState;
         this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<T>) obj1).compareTo(obj2));
         this.priorityMap = new HashMap<>();
-        this.mirrorMap = new HashMap<>();
+        this.handleMap = new IdentityHashMap<>();
+        this.nodeHandles = new IdentityHashMap<>();
         this.nodeIndexes = new ArrayList<>();
         this.root = new Node<>(1, null, null);
         this.priorityMap.put(root, 1);
@@ -168,10 +178,14 @@ public class Heap<T> implements PriorityQueue<T> {
      * and performs a bubbling-up operation to maintain the heap property.
      *
      * @param item the item to add to the priority queue.
+     * @return a handle to the item.
+     * @throws NullPointerException if the item is null.
      * @since 1.0
      */
     @Override
-    public void offer(T item) {
+    public Handle<T> offer(T item) {
+        Objects.requireNonNull(item, "item is null");
+
         // Get the priority of the last node in the heap
         int lastNodePriority = size();
 
@@ -179,7 +193,7 @@ public class Heap<T> implements PriorityQueue<T> {
         if (size() == 0) {
             root.setValue(item);
             size++;
-            return;
+            return track(item, root);
         }
 
         // Initialize references to the root and create a new node with incremented priority
@@ -189,8 +203,8 @@ public class Heap<T> implements PriorityQueue<T> {
 
         // Update priority maps and node indexes
         priorityMap.put(newNode, lastNodePriority + 1);
-        mirrorMap.put(newNode, newNode);
         nodeIndexes.add(newNode);
+        NodeHandle<T> handle = track(item, newNode);
 
         // Extract binary representation of the last node's priority
         ArrayList<String> binaryPriority = new ArrayList<>(List.of(Integer.toBinaryString(lastNodePriority).split("")));
@@ -225,6 +239,7 @@ public class Heap<T> implements PriorityQueue<T> {
         // Increment the size and perform a bubbling-up operation
         size++;
         bubbleUp(newNode);
+        return handle;
     }
 
     /**
@@ -255,14 +270,8 @@ public class Heap<T> implements PriorityQueue<T> {
      * This method retrieves and removes the item with the highest priority from the priority queue,
      * maintaining the heap property. If the priority queue is empty, the method returns null.
      * <p>
-     * If the priority queue has only one element, it is removed, and the root value is set to null,
-     * reducing the size to zero.
-     * <p>
-     * For a priority queue with more than one element, the method first determines the last node's
-     * priority. It then removes the last node, updates priority maps, node indexes, and mirror maps.
-     * The last node's value is assigned to the root, and the last node's parent is adjusted to
-     * maintain the heap property. Finally, a bubbling-down operation is performed to restore the
-     * heap property.
+     * The value of the last node takes the place of the root, the last node is removed, and a
+     * bubbling-down operation is performed to restore the heap property.
      *
      * @return the item of greatest priority in the priority queue, or null if the queue is empty.
      * @since 1.0
@@ -271,43 +280,70 @@ public class Heap<T> implements PriorityQueue<T> {
     public T poll() {
         // If the priority queue is empty, return null
         if (size() == 0) return null;
+        return removeNode(root);
+    }
 
-        // Retrieve the item with the highest priority (peek)
-        T returnValue = peek();
+    /**
+     * Removes the item behind the given handle from the priority queue.
+     * <p>
+     * The value of the last node takes the place of the removed item, the last node is
+     * removed, and the moved value is bubbled up or down to restore the heap property.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @return the removed item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public T remove(Handle<T> handle) {
+        return removeNode(handleOf(handle).node);
+    }
+
+    /**
+     * Removes the value of the given node from the heap, filling the node with the value of
+     * the last node and removing the last node instead.
+     *
+     * @param node the node whose value to remove.
+     * @return the removed value.
+     * @since 1.0
+     */
+    private T removeNode(Node<Integer, T> node) {
+        T returnValue = node.getValue();
+        untrack(nodeHandles.get(node));
 
         // If there is only one element, remove it and set the root value to null
         if (size() == 1) {
             size--;
             root.setValue(null);
+            nodeHandles.remove(root);
             return returnValue;
         }
 
         // Get the priority of the last node in the heap
         int lastNodePriority = size();
-
-        // Initialize references to the root and the last node
-        Node<Integer, T> refNode = root;
         Node<Integer, T> lastNode = traverseToNthNode(lastNodePriority);
 
         // Remove the last node and update data structures
         priorityMap.remove(lastNode);
         nodeIndexes.remove(lastNodePriority - 1);
-        mirrorMap.remove(lastNode);
-
-        // Set the root value to the last node's value
-        refNode.setValue(lastNode.getValue());
 
         // Get the parent node of the last node
         Node<Integer, T> parentNode = lastNode.getParent();
 
         // Adjust the parent's child reference based on the last node's priority
-
         if (lastNodePriority % 2 == 1) parentNode.setRight(null);
         else parentNode.setLeft(null);
-
-        // Decrement the size and perform a bubbling-down operation
         size--;
-        bubbleDown(refNode);
+
+        // Unless the last node was the one emptied, move its value into the emptied node
+        NodeHandle<T> lastHandle = nodeHandles.remove(lastNode);
+        if (lastNode != node) {
+            node.setValue(lastNode.getValue());
+            nodeHandles.put(node, lastHandle);
+            lastHandle.node = node;
+            bubbleUp(node);
+            bubbleDown(lastHandle.node);
+        }
 
         return returnValue;
     }
@@ -333,17 +369,113 @@ public class Heap<T> implements PriorityQueue<T> {
      * Updates the priority of the given item, ensuring its position in the priority queue is adjusted
      * based on its new priority.
      * <p>
+     * If the item is queued more than once, all its copies are out of place at the same time
+     * and cannot be bubbled one by one, so the whole heap is bubbled down from the bottom up.
+     * <p>
      * Assumes all other items' priorities in this Priority Queue have not changed.
      *
      * @param item the item whose priority has been updated.
+     * @throws NoSuchElementException if the item is not in the priority queue.
      * @since 1.0
      */
     @Override
     public void updatePriority(T item) {
-        Node<Integer, T> checkNode = new Node<>(null, item, null);
-        Node<Integer, T> refNode = mirrorMap.get(checkNode);
-        bubbleDown(refNode);
-        bubbleUp(refNode);
+        NodeHandle<T> handle = (item == null) ? null : handleMap.get(item);
+        if (handle == null) throw new NoSuchElementException("This item is not in the heap/D.N.E.");
+        if (handle.twin == null) {
+            reposition(handle);
+        } else {
+            for (int n = size() / 2; n >= 1; n--) bubbleDown(traverseToNthNode(n));
+        }
+    }
+
+    /**
+     * Moves the item behind the handle after its key has decreased.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void decreaseKey(Handle<T> handle) {
+        reposition(handleOf(handle));
+    }
+
+    /**
+     * Moves the item behind the handle after its key has increased.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void increaseKey(Handle<T> handle) {
+        reposition(handleOf(handle));
+    }
+
+    /**
+     * Bubbles the item behind a handle up, then down from wherever it ended up.
+     *
+     * @param handle the handle of the item to move.
+     * @since 1.0
+     */
+    private void reposition(NodeHandle<T> handle) {
+        bubbleUp(handle.node);
+        bubbleDown(handle.node);
+    }
+
+    /**
+     * Returns the handle given by a caller as a handle of this heap, checking that its item is
+     * still in the heap.
+     *
+     * @param handle the handle to check.
+     * @return the handle.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    private NodeHandle<T> handleOf(Handle<T> handle) {
+        if (handle instanceof NodeHandle<T> nodeHandle && nodeHandle.node != null && nodeHandles.get(nodeHandle.node) == nodeHandle)
+            return nodeHandle;
+        throw new NoSuchElementException("This handle is not in the heap/D.N.E.");
+    }
+
+    /**
+     * Creates the handle of an item placed in the given node and maps the node and the item
+     * to it. A handle of an item that is already queued is chained behind the existing one.
+     *
+     * @param item the item placed.
+     * @param node the node it was placed in.
+     * @return the new handle.
+     * @since 1.0
+     */
+    private NodeHandle<T> track(T item, Node<Integer, T> node) {
+        NodeHandle<T> handle = new NodeHandle<>(item, node);
+        nodeHandles.put(node, handle);
+        NodeHandle<T> head = handleMap.putIfAbsent(item, handle);
+        if (head != null) {
+            handle.twin = head.twin;
+            handle.prevTwin = head;
+            if (head.twin != null) head.twin.prevTwin = handle;
+            head.twin = handle;
+        }
+        return handle;
+    }
+
+    /**
+     * Unlinks the handle of an item that leaves the heap from the other handles of the item,
+     * forgetting the item once it has none left. The node mapping is left to the caller.
+     *
+     * @param handle the handle of the item leaving.
+     * @since 1.0
+     */
+    private void untrack(NodeHandle<T> handle) {
+        if (handle.prevTwin != null) handle.prevTwin.twin = handle.twin;
+        else if (handle.twin != null) handleMap.put(handle.item, handle.twin);
+        else handleMap.remove(handle.item);
+        if (handle.twin != null) handle.twin.prevTwin = handle.prevTwin;
+        handle.twin = null;
+        handle.prevTwin = null;
+        handle.node = null;
     }
 
     /**
@@ -358,6 +490,12 @@ public class Heap<T> implements PriorityQueue<T> {
         T node2Value = node2.getValue();
         node1.setValue(node2Value);
         node2.setValue(node1Value);
+        NodeHandle<T> handle1 = nodeHandles.get(node1);
+        NodeHandle<T> handle2 = nodeHandles.get(node2);
+        nodeHandles.put(node1, handle2);
+        nodeHandles.put(node2, handle1);
+        handle1.node = node2;
+        handle2.node = node1;
     }
 
     /**
@@ -408,4 +546,27 @@ public class Heap<T> implements PriorityQueue<T> {
         }
     }
 
+    /**
+     * Handle to an item of a Heap, which records the node the item is currently in, or null
+     * once it has left the heap, and links to the other handles of the same item, if it is
+     * queued more than once.
+     *
+     * @param <T> the type of the item
+     * @since 1.0
+     */
+    private static final class NodeHandle<T> implements Handle<T> {
+        final T item;
+        Node<Integer, T> node;
+        NodeHandle<T> twin;
+        NodeHandle<T> prevTwin;
+
+        NodeHandle(T item, Node<Integer, T> node) {
+            this.item = item;
+            this.node = node;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
 }
@@ -1,9 +1,14 @@
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class HeapTest {
-    public static void test(int n) {
-        PriorityQueue<Double> test = new Heap<>();
+    public static void test(int n, Supplier<PriorityQueue<Double>> factory) {
+        PriorityQueue<Double> test = factory.get();
         double[] control = new double[n];
         Random rand = new Random();
 
@@ -29,7 +34,156 @@ public class HeapTest {
         }
     }
 
+    public static void testUpdatePriority(int n) {
+        // Items are one-element arrays so their priorities can change while they are queued
+        double[][] items = new double[n][1];
+        IndexedHeap<double[]> test = new IndexedHeap<>((a, b) -> Double.compare(a[0], b[0]));
+        Random rand = new Random();
+
+        for (double[] item : items) {
+            item[0] = rand.nextDouble();
+            test.offer(item);
+        }
+        for (int i = 0; i < n; i++) {
+            double[] item = items[rand.nextInt(n)];
+            item[0] = rand.nextDouble();
+            test.updatePriority(item);
+        }
+        double[] control = new double[n];
+        for (int i = 0; i < n; i++) control[i] = items[i][0];
+        Arrays.sort(control);
+        for (int i = 0; i < control.length; i++) {
+            double[] poll = test.poll();
+            if (poll[0] != control[i])
+                System.out.println("UpdatePriority ERROR for n == " + n + " after removing " + (i) + " items. Poll: "+poll[0]+" Control: "+control[i]);
+            if (test.contains(poll))
+                System.out.println("Contains ERROR for n == " + n + " after removing " + (i) + " items.");
+        }
+    }
+
+    public static void testHandles(int n, Function<Comparator<double[]>, PriorityQueue<double[]>> factory) {
+        double[][] items = new double[n][1];
+        PriorityQueue<double[]> test = factory.apply((a, b) -> Double.compare(a[0], b[0]));
+        ArrayList<PriorityQueue.Handle<double[]>> handles = new ArrayList<>();
+        boolean[] removed = new boolean[n];
+        Random rand = new Random();
+
+        for (double[] item : items) {
+            item[0] = rand.nextDouble();
+            handles.add(test.offer(item));
+        }
+        for (int i = 0; i < n; i++) {
+            int index = rand.nextInt(n);
+            if (removed[index]) continue;
+            double[] item = items[index];
+            switch (rand.nextInt(4)) {
+                case 0 -> {
+                    item[0] *= rand.nextDouble();
+                    test.decreaseKey(handles.get(index));
+                }
+                case 1 -> {
+                    item[0] += rand.nextDouble();
+                    test.increaseKey(handles.get(index));
+                }
+                case 2 -> {
+                    item[0] = rand.nextDouble();
+                    test.updatePriority(item);
+                }
+                default -> {
+                    if (test.remove(handles.get(index)) != item)
+                        System.out.println("Remove ERROR for n == " + n + ": wrong item removed.");
+                    removed[index] = true;
+                }
+            }
+        }
+        int remaining = 0;
+        double[] control = new double[n];
+        for (int i = 0; i < n; i++) if (!removed[i]) control[remaining++] = items[i][0];
+        control = Arrays.copyOf(control, remaining);
+        Arrays.sort(control);
+        if (test.size() != remaining)
+            System.out.println("Size ERROR for n == " + n + " after handle operations. Size: "+test.size()+" Control: "+remaining);
+        for (int i = 0; i < control.length; i++) {
+            double[] poll = test.poll();
+            if (poll[0] != control[i])
+                System.out.println("Handle ERROR for n == " + n + " after removing " + (i) + " items. Poll: "+poll[0]+" Control: "+control[i]);
+        }
+        try {
+            test.decreaseKey(handles.get(0));
+            System.out.println("Stale handle ERROR for n == " + n + ": no exception thrown.");
+        } catch (NoSuchElementException expected) {
+            // The item has left the queue, so its handle must be rejected
+        }
+    }
+
+    public static void testDuplicateValues(int n, Supplier<PriorityQueue<Integer>> factory) {
+        // Small Integers are cached, so every value is offered as the very same object many times
+        PriorityQueue<Integer> test = factory.get();
+        int[] control = new int[n];
+        Random rand = new Random();
+
+        for (int i = 0; i < n; i++) {
+            control[i] = rand.nextInt(10);
+            test.offer(control[i]);
+        }
+        Arrays.sort(control);
+        for (int i = 0; i < control.length; i++) {
+            Integer poll = test.poll();
+            if (poll == null || poll != control[i])
+                System.out.println("Duplicate value ERROR for n == " + n + " after removing " + (i) + " items. Poll: "+poll+" Control: "+control[i]);
+        }
+        if (test.size() != 0)
+            System.out.println("Duplicate value size ERROR for n == " + n + ". Size: "+test.size());
+    }
+
+    public static void testDuplicateItems(int n, Function<Comparator<double[]>, PriorityQueue<double[]>> factory) {
+        // Every item is offered twice, so updatePriority has to move both copies
+        double[][] items = new double[n][1];
+        PriorityQueue<double[]> test = factory.apply((a, b) -> Double.compare(a[0], b[0]));
+        ArrayList<PriorityQueue.Handle<double[]>> handles = new ArrayList<>();
+        Random rand = new Random();
+
+        for (double[] item : items) {
+            item[0] = rand.nextDouble();
+            handles.add(test.offer(item));
+            test.offer(item);
+        }
+        for (int i = 0; i < n; i++) {
+            double[] item = items[rand.nextInt(n)];
+            item[0] = rand.nextDouble();
+            test.updatePriority(item);
+        }
+        // Drop one copy of the first item through its handle
+        if (test.remove(handles.get(0)) != items[0])
+            System.out.println("Duplicate remove ERROR for n == " + n + ": wrong item removed.");
+        double[] control = new double[2 * n - 1];
+        for (int i = 0; i < n; i++) {
+            control[2 * i] = items[i][0];
+            if (i > 0) control[2 * i - 1] = items[i][0];
+        }
+        Arrays.sort(control);
+        for (int i = 0; i < control.length; i++) {
+            double[] poll = test.poll();
+            if (poll == null || poll[0] != control[i])
+                System.out.println("Duplicate item ERROR for n == " + n + " after removing " + (i) + " items. Poll: "+(poll == null ? null : poll[0])+" Control: "+control[i]);
+        }
+        if (test.size() != 0)
+            System.out.println("Duplicate item size ERROR for n == " + n + ". Size: "+test.size());
+    }
+
     public static void main(String[] args){
-        for(int n : new int[] {3, 5, 20 , 100000}) test(n);
+        for(int n : new int[] {3, 5, 20 , 100000}) test(n, Heap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) test(n, IndexedHeap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) test(n, PairingHeap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testUpdatePriority(n);
+        for(int n : new int[] {3, 5, 20 , 100000}) testHandles(n, Heap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testHandles(n, IndexedHeap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testHandles(n, PairingHeap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testDuplicateValues(n, Heap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testDuplicateValues(n, IndexedHeap::new);
+        for(int n : new int[] {3, 5, 20 , 100000}) testDuplicateValues(n, PairingHeap::new);
+        for(int n : new int[] {3, 5, 20 , 1000}) testDuplicateItems(n, Heap::new);
+        for(int n : new int[] {3, 5, 20 , 1000}) testDuplicateItems(n, IndexedHeap::new);
+        for(int n : new int[] {3, 5, 20 , 1000}) testDuplicateItems(n, PairingHeap::new);
     }
 }
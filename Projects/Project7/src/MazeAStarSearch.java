@@ -22,7 +22,7 @@
  * </pre>
  *
  * @see AbstractMazeSearch
- * @see Heap
+ * @see IndexedHeap
  * @see Cell
  * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
  * @version 1.0
@@ -48,7 +48,7 @@ public class MazeAStarSearch extends AbstractMazeSearch {
      */
     public MazeAStarSearch(Maze maze) {
         super(maze);
-        unexplored = new Heap<>((c1, c2) -> {
+        unexplored = new IndexedHeap<>((c1, c2) -> {
             int c1DistFromStart = traceback(c1).size();
             int c2DistFromStart = traceback(c2).size();
             int c1DistToTarget = Math.abs(((getTarget().getRow() - c1.getRow())) + Math.abs(((getTarget().getCol() - c1.getCol()))));
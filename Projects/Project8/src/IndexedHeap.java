@@ -0,0 +1,498 @@
+import java.util.*;
+
+/**
+ * Array-backed indexed binary heap implementation of {@link PriorityQueue}.
+ * <p>
+ * The items are stored in a single array in level order, so the children of the item at index
+ * {@code i} are at {@code 2i + 1} and {@code 2i + 2} and its parent is at {@code (i - 1) / 2}.
+ * No nodes are linked and nothing is walked from the root: {@code offer} and {@code poll} move
+ * items along a single path of the array in O(log n).
+ * <p>
+ * Each slot holds the handle {@link #offer} returned for its item, which records the slot it is
+ * in and is moved along with the item. {@link #decreaseKey}, {@link #increaseKey} and
+ * {@link #remove(PriorityQueue.Handle)} therefore start right at the item, in O(log n), and the
+ * handle is the only allocation {@code offer} makes, apart from growing the array.
+ * <p>
+ * To support {@link #updatePriority}, which is given an item rather than a handle, the heap
+ * also keeps an index from every item to its handle. The index is an open-addressing table
+ * keyed by identity in two parallel arrays, and is only touched when an item enters or leaves
+ * the heap. {@code updatePriority} must therefore be given the very object that was offered.
+ * The same object may be offered more than once: its handles are chained from one index
+ * position, and {@code updatePriority} on such an item restores the order of the whole heap.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * {@code
+ * IndexedHeap<Integer> priorityHeap = new IndexedHeap<>(true);
+ * priorityHeap.offer(1);
+ * priorityHeap.offer(2);
+ * System.out.println(priorityHeap.peek()); // Output: 2
+ * }
+ * </pre>
+ *
+ * @param <T> the type of elements maintained by this priority heap
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class IndexedHeap<T> implements PriorityQueue<T> {
+
+    final Comparator<T> comparator;
+    final boolean maxState;
+    int size;
+    private Entry<T>[] entries;
+    // Item index: identity-hashed items and the handle of each one
+    private Object[] indexKeys;
+    private Entry<T>[] indexEntries;
+    private int indexed;
+
+    /**
+     * Constructs a new IndexedHeap using natural ordering, in min-state (i.e., smallest
+     * elements have the highest priority).
+     *
+     * @since 1.0
+     */
+    public IndexedHeap() {
+        this(null, false);
+    }
+
+    /**
+     * Constructs a new IndexedHeap using natural ordering, in the specified state.
+     *
+     * @param maxState {@code true} for max-state (largest elements have the highest priority),
+     *                 {@code false} for min-state (smallest elements have the highest priority).
+     * @since 1.0
+     */
+    public IndexedHeap(boolean maxState) {
+        this(null, maxState);
+    }
+
+    /**
+     * Constructs a new IndexedHeap with the specified comparator, in min-state.
+     *
+     * @param comparator the comparator to use for ordering elements, or {@code null} for natural ordering.
+     * @since 1.0
+     */
+    public IndexedHeap(Comparator<T> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * Constructs a new IndexedHeap with the specified comparator and state.
+     *
+     * @param comparator the comparator to use for ordering elements, or {@code null} for natural ordering.
+     * @param maxState   {@code true} for max-state (largest elements have the highest priority),
+     *                   {@code false} for min-state (smallest elements have the highest priority).
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public IndexedHeap(Comparator<T> comparator, boolean maxState) {
+        this.size = 0;
+        this.maxState = maxState;
+        this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<T>) obj1).compareTo(obj2));
+        this.entries = newEntries(16);
+        this.indexKeys = new Object[32];
+        this.indexEntries = newEntries(32);
+    }
+
+    public static void main(String[] args) {
+        IndexedHeap<int[]> heap = new IndexedHeap<>((a, b) -> Integer.compare(a[0], b[0]));
+        int[][] items = {{5}, {3}, {8}, {1}, {9}};
+        ArrayList<Handle<int[]>> handles = new ArrayList<>();
+        for (int[] item : items) handles.add(heap.offer(item));
+        items[2][0] = 0;
+        heap.decreaseKey(handles.get(2));
+        heap.remove(handles.get(0));
+        while (heap.size() > 0) System.out.print(heap.poll()[0] + " ");
+        System.out.println();
+    }
+
+    /**
+     * Adds the given {@code item} into this priority queue.
+     * <p>
+     * The item goes into the first free slot of the array and is moved up towards the root
+     * until its parent has a priority at least as great.
+     *
+     * @param item the item to add to the priority queue.
+     * @return a handle to the item.
+     * @throws NullPointerException if the item is null.
+     * @since 1.0
+     */
+    @Override
+    public Handle<T> offer(T item) {
+        Objects.requireNonNull(item, "item is null");
+        if (size == entries.length) entries = Arrays.copyOf(entries, size * 2);
+        Entry<T> entry = new Entry<>(item);
+        int pos = findIndex(item);
+        if (indexKeys[pos] != null) {
+            // Another copy of the item is queued, so chain the handle behind it
+            Entry<T> head = indexEntries[pos];
+            entry.twin = head.twin;
+            entry.prevTwin = head;
+            if (head.twin != null) head.twin.prevTwin = entry;
+            head.twin = entry;
+        } else {
+            // Keep the item index at most half full
+            if ((indexed + 1) * 2 > indexKeys.length) {
+                rehash(indexKeys.length * 2);
+                pos = findIndex(item);
+            }
+            indexKeys[pos] = item;
+            indexEntries[pos] = entry;
+            indexed++;
+        }
+        size++;
+        siftUp(size - 1, entry);
+        return entry;
+    }
+
+    /**
+     * Returns the number of items in the priority queue.
+     *
+     * @return the number of items in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the priority queue contains no items.
+     *
+     * @return {@code true} if the priority queue is empty, {@code false} otherwise.
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the item of greatest priority in the priority queue.
+     *
+     * @return the item of greatest priority in the priority queue, or null if it is empty.
+     * @since 1.0
+     */
+    @Override
+    public T peek() {
+        return (size == 0) ? null : entries[0].item;
+    }
+
+    /**
+     * Returns and removes the item of greatest priority in the priority queue.
+     * <p>
+     * The last item of the array takes the place of the root and is moved down until both
+     * its children have a priority at most as great.
+     *
+     * @return the item of greatest priority in the priority queue, or null if the queue is empty.
+     * @since 1.0
+     */
+    @Override
+    public T poll() {
+        return (size == 0) ? null : removeAt(0);
+    }
+
+    /**
+     * Checks whether the given item, by identity, is in the priority queue.
+     *
+     * @param item the item to look for.
+     * @return {@code true} if the item is in the priority queue, {@code false} otherwise.
+     * @since 1.0
+     */
+    public boolean contains(T item) {
+        return item != null && indexKeys[findIndex(item)] != null;
+    }
+
+    /**
+     * Updates the priority of the given item, ensuring its position in the priority queue is adjusted
+     * based on its new priority.
+     * <p>
+     * The handle of the item is found through the item index, and the item is moved up or
+     * down from its slot, so this takes O(log n). If the item is queued more than once, all its
+     * copies are out of place at the same time and cannot be moved one by one, so the heap is
+     * rebuilt instead, in O(n).
+     * <p>
+     * Assumes all other items' priorities in this Priority Queue have not changed.
+     *
+     * @param item the item whose priority has been updated.
+     * @throws NoSuchElementException if the item is not in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void updatePriority(T item) {
+        int pos = (item == null) ? -1 : findIndex(item);
+        if (pos == -1 || indexKeys[pos] == null) throw new NoSuchElementException("This item is not in the heap/D.N.E.");
+        if (indexEntries[pos].twin == null) reposition(indexEntries[pos]);
+        else heapify();
+    }
+
+    /**
+     * Moves the item behind the handle after its key has decreased, in O(log n).
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void decreaseKey(Handle<T> handle) {
+        reposition(entryOf(handle));
+    }
+
+    /**
+     * Moves the item behind the handle after its key has increased, in O(log n).
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void increaseKey(Handle<T> handle) {
+        reposition(entryOf(handle));
+    }
+
+    /**
+     * Removes the item behind the handle, in O(log n). The last item of the array takes its
+     * slot and is moved up or down from there.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @return the removed item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public T remove(Handle<T> handle) {
+        return removeAt(entryOf(handle).slot);
+    }
+
+    /**
+     * Removes every item from the priority queue.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            entries[slot].slot = -1;
+            entries[slot].twin = null;
+            entries[slot].prevTwin = null;
+        }
+        Arrays.fill(entries, 0, size, null);
+        Arrays.fill(indexKeys, null);
+        Arrays.fill(indexEntries, null);
+        indexed = 0;
+        size = 0;
+    }
+
+    /**
+     * Compares two items, accounting for the max or min state of the heap.
+     *
+     * @param item1 the first item to compare.
+     * @param item2 the second item to compare.
+     * @return a positive integer if the first item has greater priority than the second, zero
+     * if they have the same priority, or a negative integer otherwise.
+     * @since 1.0
+     */
+    public int compare(T item1, T item2) {
+        int comparison = comparator.compare(item1, item2);
+        return maxState ? comparison : -comparison;
+    }
+
+    /**
+     * Returns the entry behind a handle, checking that it is still in this heap.
+     */
+    private Entry<T> entryOf(Handle<T> handle) {
+        if (handle instanceof Entry<T> entry && entry.slot >= 0 && entry.slot < size && entries[entry.slot] == entry) return entry;
+        throw new NoSuchElementException("This handle is not in the heap/D.N.E.");
+    }
+
+    /**
+     * Moves an entry up or down from its slot, whichever its priority calls for.
+     */
+    private void reposition(Entry<T> entry) {
+        int slot = entry.slot;
+        siftUp(slot, entry);
+        if (entry.slot == slot) siftDown(slot, entry);
+    }
+
+    /**
+     * Restores the heap order of the whole array, moving down every entry that has children,
+     * from the last one back to the root.
+     */
+    private void heapify() {
+        for (int slot = (size >>> 1) - 1; slot >= 0; slot--) siftDown(slot, entries[slot]);
+    }
+
+    /**
+     * Removes the entry in the given slot, filling the slot with the last entry.
+     *
+     * @param slot the slot to empty.
+     * @return the item that was removed.
+     * @since 1.0
+     */
+    private T removeAt(int slot) {
+        Entry<T> entry = entries[slot];
+        unindex(entry);
+        entry.slot = -1;
+        Entry<T> last = entries[--size];
+        entries[size] = null;
+        if (slot < size) {
+            place(slot, last);
+            reposition(last);
+        }
+        return entry.item;
+    }
+
+    /**
+     * Moves the given entry up from the given slot until its parent has a priority at least
+     * as great, shifting the parents it passes down one level, then places it.
+     *
+     * @param slot  the slot to start from, whose current content is overwritten.
+     * @param entry the entry to place.
+     * @since 1.0
+     */
+    private void siftUp(int slot, Entry<T> entry) {
+        while (slot > 0) {
+            int parentSlot = (slot - 1) >>> 1;
+            Entry<T> parent = entries[parentSlot];
+            if (compare(entry.item, parent.item) <= 0) break;
+            place(slot, parent);
+            slot = parentSlot;
+        }
+        place(slot, entry);
+    }
+
+    /**
+     * Moves the given entry down from the given slot until both its children have a priority
+     * at most as great, shifting the children it passes up one level, then places it.
+     *
+     * @param slot  the slot to start from, whose current content is overwritten.
+     * @param entry the entry to place.
+     * @since 1.0
+     */
+    private void siftDown(int slot, Entry<T> entry) {
+        int half = size >>> 1;
+        while (slot < half) {
+            int childSlot = 2 * slot + 1;
+            Entry<T> child = entries[childSlot];
+            int rightSlot = childSlot + 1;
+            if (rightSlot < size && compare(entries[rightSlot].item, child.item) > 0) {
+                childSlot = rightSlot;
+                child = entries[rightSlot];
+            }
+            if (compare(entry.item, child.item) >= 0) break;
+            place(slot, child);
+            slot = childSlot;
+        }
+        place(slot, entry);
+    }
+
+    /**
+     * Stores an entry in a heap slot and records the slot in the entry.
+     */
+    private void place(int slot, Entry<T> entry) {
+        entries[slot] = entry;
+        entry.slot = slot;
+    }
+
+    /**
+     * Returns the index position holding the given item, or the empty position where it would go.
+     */
+    private int findIndex(Object item) {
+        int mask = indexKeys.length - 1;
+        int pos = spread(System.identityHashCode(item)) & mask;
+        while (indexKeys[pos] != null && indexKeys[pos] != item) pos = (pos + 1) & mask;
+        return pos;
+    }
+
+    /**
+     * Removes an entry from the item index. If other copies of its item are queued, the entry
+     * is just unlinked from their chain. Otherwise the item is removed, shifting back the
+     * entries of its probe run so that no tombstones are needed.
+     */
+    private void unindex(Entry<T> entry) {
+        int mask = indexKeys.length - 1;
+        int hole = findIndex(entry.item);
+        Entry<T> head = indexEntries[hole];
+        if (head != entry || entry.twin != null) {
+            if (head == entry) indexEntries[hole] = entry.twin;
+            else entry.prevTwin.twin = entry.twin;
+            if (entry.twin != null) entry.twin.prevTwin = entry.prevTwin;
+            entry.twin = null;
+            entry.prevTwin = null;
+            return;
+        }
+        indexed--;
+        indexKeys[hole] = null;
+        indexEntries[hole] = null;
+        for (int pos = (hole + 1) & mask; indexKeys[pos] != null; pos = (pos + 1) & mask) {
+            int home = spread(System.identityHashCode(indexKeys[pos])) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, pos]
+            if (((pos - home) & mask) >= ((pos - hole) & mask)) {
+                indexKeys[hole] = indexKeys[pos];
+                indexEntries[hole] = indexEntries[pos];
+                indexKeys[pos] = null;
+                indexEntries[pos] = null;
+                hole = pos;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the item index with the given number of positions.
+     */
+    private void rehash(int capacity) {
+        Object[] oldKeys = indexKeys;
+        Entry<T>[] oldEntries = indexEntries;
+        indexKeys = new Object[capacity];
+        indexEntries = newEntries(capacity);
+        for (int oldPos = 0; oldPos < oldKeys.length; oldPos++) {
+            if (oldKeys[oldPos] == null) continue;
+            int pos = findIndex(oldKeys[oldPos]);
+            indexKeys[pos] = oldKeys[oldPos];
+            indexEntries[pos] = oldEntries[oldPos];
+        }
+    }
+
+    /**
+     * Allocates an empty array of entries.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newEntries(int length) {
+        return (Entry<T>[]) new Entry<?>[length];
+    }
+
+    /**
+     * Mixes the bits of an identity hash code, which tends to be sequential.
+     */
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Handle to an item of an IndexedHeap, which records the slot the item is in, or -1 once
+     * it has left the heap, and links to the other handles of the same item, if it is queued
+     * more than once.
+     *
+     * @param <T> the type of the item
+     * @since 1.0
+     */
+    private static final class Entry<T> implements Handle<T> {
+        final T item;
+        int slot = -1;
+        Entry<T> twin;
+        Entry<T> prevTwin;
+
+        Entry(T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String toString() {
+            return "<" + item + " @ " + slot + ">";
+        }
+    }
+}
@@ -0,0 +1,457 @@
+import java.util.*;
+
+/**
+ * Pairing heap implementation of {@link PriorityQueue}.
+ * <p>
+ * The items are kept in a heap-ordered tree of any shape, where every node links to its first
+ * child and its next sibling. Two trees are melded by making the root of lesser priority the
+ * first child of the other, in O(1). {@code offer} melds a single node into the tree, and
+ * {@code poll} removes the root and melds its children back together in two passes, first
+ * pairwise from left to right and then from right to left, which takes O(log n) amortized.
+ * <p>
+ * The point of the structure is that raising the priority of an item, which for a min-state
+ * heap is {@link #decreaseKey}, takes O(1) amortized: the subtree of the item is cut from its
+ * parent and melded with the root, without comparing it against anything but the root. This
+ * suits graph searches such as Dijkstra's algorithm, which relax many more edges than they
+ * poll vertices. Lowering the priority of an item, or calling {@link #updatePriority} when
+ * the direction of the change is not known, removes the item and offers it again, in
+ * O(log n) amortized.
+ * <p>
+ * {@link #updatePriority} and {@link #contains} look items up in an identity map from every
+ * item to its node. The same object may be offered more than once, in which case its nodes
+ * are chained together and {@code updatePriority} moves all of them.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * {@code
+ * PairingHeap<Integer> priorityHeap = new PairingHeap<>(true);
+ * priorityHeap.offer(1);
+ * priorityHeap.offer(2);
+ * System.out.println(priorityHeap.peek()); // Output: 2
+ * }
+ * </pre>
+ *
+ * @param <T> the type of elements maintained by this priority heap
+ * @author Roman Schiffino &lt;rjschi24@colby.edu&gt;
+ * @version 1.0
+ * @since 1.0
+ */
+public class PairingHeap<T> implements PriorityQueue<T> {
+
+    final Comparator<T> comparator;
+    final boolean maxState;
+    int size;
+    private Entry<T> root;
+    private final IdentityHashMap<T, Entry<T>> entryMap;
+
+    /**
+     * Constructs a new PairingHeap using natural ordering, in min-state (i.e., smallest
+     * elements have the highest priority).
+     *
+     * @since 1.0
+     */
+    public PairingHeap() {
+        this(null, false);
+    }
+
+    /**
+     * Constructs a new PairingHeap using natural ordering, in the specified state.
+     *
+     * @param maxState {@code true} for max-state (largest elements have the highest priority),
+     *                 {@code false} for min-state (smallest elements have the highest priority).
+     * @since 1.0
+     */
+    public PairingHeap(boolean maxState) {
+        this(null, maxState);
+    }
+
+    /**
+     * Constructs a new PairingHeap with the specified comparator, in min-state.
+     *
+     * @param comparator the comparator to use for ordering elements, or {@code null} for natural ordering.
+     * @since 1.0
+     */
+    public PairingHeap(Comparator<T> comparator) {
+        this(comparator, false);
+    }
+
+    /**
+     * Constructs a new PairingHeap with the specified comparator and state.
+     *
+     * @param comparator the comparator to use for ordering elements, or {@code null} for natural ordering.
+     * @param maxState   {@code true} for max-state (largest elements have the highest priority),
+     *                   {@code false} for min-state (smallest elements have the highest priority).
+     * @since 1.0
+     */
+    @SuppressWarnings("unchecked")
+    public PairingHeap(Comparator<T> comparator, boolean maxState) {
+        this.size = 0;
+        this.maxState = maxState;
+        this.comparator = Objects.requireNonNullElseGet(comparator, () -> (obj1, obj2) -> ((Comparable<T>) obj1).compareTo(obj2));
+        this.entryMap = new IdentityHashMap<>();
+    }
+
+    public static void main(String[] args) {
+        PairingHeap<int[]> heap = new PairingHeap<>((a, b) -> Integer.compare(a[0], b[0]));
+        int[][] items = {{5}, {3}, {8}, {1}, {9}};
+        ArrayList<Handle<int[]>> handles = new ArrayList<>();
+        for (int[] item : items) handles.add(heap.offer(item));
+        items[2][0] = 0;
+        heap.decreaseKey(handles.get(2));
+        items[3][0] = 7;
+        heap.increaseKey(handles.get(3));
+        heap.remove(handles.get(0));
+        while (heap.size() > 0) System.out.print(heap.poll()[0] + " ");
+        System.out.println();
+    }
+
+    /**
+     * Adds the given {@code item} into this priority queue, by melding a new node holding it
+     * with the root, in O(1).
+     *
+     * @param item the item to add to the priority queue.
+     * @return a handle to the item.
+     * @throws NullPointerException if the item is null.
+     * @since 1.0
+     */
+    @Override
+    public Handle<T> offer(T item) {
+        Objects.requireNonNull(item, "item is null");
+        Entry<T> entry = new Entry<>(item, this);
+        Entry<T> head = entryMap.putIfAbsent(item, entry);
+        if (head != null) {
+            // Another copy of the item is queued, so chain the entry behind it
+            entry.twin = head.twin;
+            entry.prevTwin = head;
+            if (head.twin != null) head.twin.prevTwin = entry;
+            head.twin = entry;
+        }
+        root = meld(root, entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Returns the number of items in the priority queue.
+     *
+     * @return the number of items in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the priority queue contains no items.
+     *
+     * @return {@code true} if the priority queue is empty, {@code false} otherwise.
+     * @since 1.0
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the item of greatest priority in the priority queue.
+     *
+     * @return the item of greatest priority in the priority queue, or null if it is empty.
+     * @since 1.0
+     */
+    @Override
+    public T peek() {
+        return (root == null) ? null : root.item;
+    }
+
+    /**
+     * Returns and removes the item of greatest priority in the priority queue.
+     * <p>
+     * The children of the root are melded into the new tree in two passes, in O(log n)
+     * amortized.
+     *
+     * @return the item of greatest priority in the priority queue, or null if the queue is empty.
+     * @since 1.0
+     */
+    @Override
+    public T poll() {
+        return (root == null) ? null : removeEntry(root);
+    }
+
+    /**
+     * Checks whether the given item, by identity, is in the priority queue.
+     *
+     * @param item the item to look for.
+     * @return {@code true} if the item is in the priority queue, {@code false} otherwise.
+     * @since 1.0
+     */
+    public boolean contains(T item) {
+        return item != null && entryMap.containsKey(item);
+    }
+
+    /**
+     * Updates the priority of the given item, ensuring its position in the priority queue is adjusted
+     * based on its new priority.
+     * <p>
+     * As the direction of the change is not known, the item is taken out of the tree and
+     * melded back in, in O(log n) amortized for each copy of the item. Prefer
+     * {@link #decreaseKey} or {@link #increaseKey} when the direction is known.
+     * <p>
+     * Assumes all other items' priorities in this Priority Queue have not changed.
+     *
+     * @param item the item whose priority has been updated.
+     * @throws NoSuchElementException if the item is not in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void updatePriority(T item) {
+        Entry<T> head = (item == null) ? null : entryMap.get(item);
+        if (head == null) throw new NoSuchElementException("This item is not in the heap/D.N.E.");
+        if (head.twin == null) {
+            reinsert(head);
+            return;
+        }
+        // Every copy is out of place, so cut them all out before comparing any of them
+        for (Entry<T> entry = head; entry != null; entry = entry.twin) {
+            if (entry == root) root = null;
+            else cut(entry);
+        }
+        for (Entry<T> entry = head; entry != null; entry = entry.twin) {
+            Entry<T> children = mergePairs(entry.child);
+            entry.child = null;
+            root = meld(root, meld(children, entry));
+        }
+    }
+
+    /**
+     * Moves the item behind the handle after its key has decreased. In min-state this raises
+     * its priority and takes O(1) amortized; in max-state the item is melded back in, in
+     * O(log n) amortized.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void decreaseKey(Handle<T> handle) {
+        Entry<T> entry = entryOf(handle);
+        if (maxState) reinsert(entry);
+        else promote(entry);
+    }
+
+    /**
+     * Moves the item behind the handle after its key has increased. In max-state this raises
+     * its priority and takes O(1) amortized; in min-state the item is melded back in, in
+     * O(log n) amortized.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public void increaseKey(Handle<T> handle) {
+        Entry<T> entry = entryOf(handle);
+        if (maxState) promote(entry);
+        else reinsert(entry);
+    }
+
+    /**
+     * Removes the item behind the handle, in O(log n) amortized. Its subtree is cut from the
+     * tree and its children are melded back in.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @return the removed item.
+     * @throws NoSuchElementException if the item is no longer in the priority queue.
+     * @since 1.0
+     */
+    @Override
+    public T remove(Handle<T> handle) {
+        return removeEntry(entryOf(handle));
+    }
+
+    /**
+     * Removes every item from the priority queue.
+     *
+     * @since 1.0
+     */
+    public void clear() {
+        for (Entry<T> head : entryMap.values()) {
+            for (Entry<T> entry = head; entry != null; entry = entry.twin) entry.owner = null;
+        }
+        entryMap.clear();
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Compares two items, accounting for the max or min state of the heap.
+     *
+     * @param item1 the first item to compare.
+     * @param item2 the second item to compare.
+     * @return a positive integer if the first item has greater priority than the second, zero
+     * if they have the same priority, or a negative integer otherwise.
+     * @since 1.0
+     */
+    public int compare(T item1, T item2) {
+        int comparison = comparator.compare(item1, item2);
+        return maxState ? comparison : -comparison;
+    }
+
+    /**
+     * Returns the entry behind a handle, checking that it is still in this heap.
+     */
+    private Entry<T> entryOf(Handle<T> handle) {
+        if (handle instanceof Entry<T> entry && entry.owner == this) return entry;
+        throw new NoSuchElementException("This handle is not in the heap/D.N.E.");
+    }
+
+    /**
+     * Removes an entry from the heap and unlinks it from the other copies of its item,
+     * forgetting the item once none are left.
+     */
+    private T removeEntry(Entry<T> entry) {
+        unlink(entry);
+        if (entry.prevTwin != null) entry.prevTwin.twin = entry.twin;
+        else if (entry.twin != null) entryMap.put(entry.item, entry.twin);
+        else entryMap.remove(entry.item);
+        if (entry.twin != null) entry.twin.prevTwin = entry.prevTwin;
+        entry.twin = null;
+        entry.prevTwin = null;
+        entry.owner = null;
+        size--;
+        return entry.item;
+    }
+
+    /**
+     * Takes an entry out of the tree and melds it back in as a single node.
+     */
+    private void reinsert(Entry<T> entry) {
+        unlink(entry);
+        root = meld(root, entry);
+    }
+
+    /**
+     * Restores the heap order after the priority of an entry has been raised, by cutting its
+     * subtree and melding it with the root.
+     */
+    private void promote(Entry<T> entry) {
+        if (entry == root) return;
+        cut(entry);
+        root = meld(root, entry);
+    }
+
+    /**
+     * Takes an entry out of the tree, melding its children back in, and leaves it as a single
+     * detached node.
+     */
+    private void unlink(Entry<T> entry) {
+        Entry<T> children = mergePairs(entry.child);
+        entry.child = null;
+        if (entry == root) {
+            root = children;
+        } else {
+            cut(entry);
+            root = meld(root, children);
+        }
+    }
+
+    /**
+     * Detaches the subtree of a non-root entry from its parent and siblings.
+     */
+    private void cut(Entry<T> entry) {
+        Entry<T> prev = entry.prev;
+        if (prev.child == entry) prev.child = entry.next;
+        else prev.next = entry.next;
+        if (entry.next != null) entry.next.prev = prev;
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    /**
+     * Melds two detached trees by making the root of lesser priority the first child of the
+     * other.
+     *
+     * @return the root of the melded tree.
+     */
+    private Entry<T> meld(Entry<T> tree1, Entry<T> tree2) {
+        if (tree1 == null) return tree2;
+        if (tree2 == null) return tree1;
+        if (compare(tree2.item, tree1.item) > 0) {
+            Entry<T> swap = tree1;
+            tree1 = tree2;
+            tree2 = swap;
+        }
+        tree2.prev = tree1;
+        tree2.next = tree1.child;
+        if (tree1.child != null) tree1.child.prev = tree2;
+        tree1.child = tree2;
+        return tree1;
+    }
+
+    /**
+     * Melds a list of siblings into one tree, first pairwise from left to right and then
+     * from right to left, iteratively so deep lists cannot overflow the stack.
+     *
+     * @param first the first sibling of the list, or null.
+     * @return the root of the melded tree, or null if the list was empty.
+     */
+    private Entry<T> mergePairs(Entry<T> first) {
+        // First pass: meld pairs, stacking the results through their next links
+        Entry<T> paired = null;
+        while (first != null) {
+            Entry<T> tree = first;
+            Entry<T> second = tree.next;
+            first = (second == null) ? null : second.next;
+            tree.prev = null;
+            tree.next = null;
+            if (second != null) {
+                second.prev = null;
+                second.next = null;
+                tree = meld(tree, second);
+            }
+            tree.next = paired;
+            paired = tree;
+        }
+        // Second pass: meld the stacked pairs from the last one back to the first
+        Entry<T> result = null;
+        while (paired != null) {
+            Entry<T> tree = paired;
+            paired = tree.next;
+            tree.next = null;
+            result = meld(tree, result);
+        }
+        return result;
+    }
+
+    /**
+     * Node of a PairingHeap, which doubles as the handle of its item. {@code prev} links to
+     * the previous sibling, or to the parent for a first child, {@code twin} and
+     * {@code prevTwin} link the nodes of the same item if it is queued more than once, and
+     * {@code owner} is cleared once the item has left the heap.
+     *
+     * @param <T> the type of the item
+     * @since 1.0
+     */
+    private static final class Entry<T> implements Handle<T> {
+        final T item;
+        PairingHeap<T> owner;
+        Entry<T> child;
+        Entry<T> next;
+        Entry<T> prev;
+        Entry<T> twin;
+        Entry<T> prevTwin;
+
+        Entry(T item, PairingHeap<T> owner) {
+            this.item = item;
+            this.owner = owner;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String toString() {
+            return "<" + item + ">";
+        }
+    }
+}
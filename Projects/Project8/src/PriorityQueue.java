@@ -2,28 +2,29 @@ public interface PriorityQueue<T> {
 
     /**
      * Adds the given {@code item} into this queue.
-     * 
+     *
      * @param item the item to add to the queue.
+     * @return a handle to the item, for changing its priority or removing it later.
      */
-    void offer(T item);
+    Handle<T> offer(T item);
 
     /**
      * Returns the number of items in the queue.
-     * 
+     *
      * @return the number of items in the queue.
      */
     int size();
 
     /**
      * Returns the item of greatest priority in the queue.
-     * 
+     *
      * @return the item of greatest priority in the queue.
      */
     T peek();
 
     /**
      * Returns and removes the item of greatest priority in the queue.
-     * 
+     *
      * @return the item of greatest priority in the queue.
      */
     T poll();
@@ -33,8 +34,57 @@ public interface PriorityQueue<T> {
      * items with higher priority and 'ahead' of items with lower priority.
      * <p>
      * Assumes all other items' priorities in this Priority Queue have not changed.
-     * 
+     *
      * @param item the item whose priority has been updated.
      */
     void updatePriority(T item);
-}
\ No newline at end of file
+
+    /**
+     * Restores the order of the queue after the key of the item behind the given handle has
+     * decreased under the comparator of the queue. In a queue where the smallest item has the
+     * greatest priority, this moves the item towards the front.
+     * <p>
+     * Assumes all other items' priorities in this Priority Queue have not changed.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws java.util.NoSuchElementException if the item is no longer in the queue.
+     */
+    void decreaseKey(Handle<T> handle);
+
+    /**
+     * Restores the order of the queue after the key of the item behind the given handle has
+     * increased under the comparator of the queue. In a queue where the smallest item has the
+     * greatest priority, this moves the item towards the back.
+     * <p>
+     * Assumes all other items' priorities in this Priority Queue have not changed.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @throws java.util.NoSuchElementException if the item is no longer in the queue.
+     */
+    void increaseKey(Handle<T> handle);
+
+    /**
+     * Removes the item behind the given handle from the queue.
+     *
+     * @param handle the handle {@link #offer} returned for the item.
+     * @return the removed item.
+     * @throws java.util.NoSuchElementException if the item is no longer in the queue.
+     */
+    T remove(Handle<T> handle);
+
+    /**
+     * A reference to an item in a queue, returned by {@link #offer}. It stays valid until the
+     * item is polled or removed, and lets the queue reach the item without searching for it.
+     *
+     * @param <T> the type of the item.
+     */
+    interface Handle<T> {
+
+        /**
+         * Returns the item this handle refers to.
+         *
+         * @return the item.
+         */
+        T getItem();
+    }
+}